@@ -1,5 +1,8 @@
 package bricker.brick_strategies;
 
+import bricker.gameobjects.Brick;
+import bricker.journal.JournalEvents;
+import bricker.metrics.FlightEvents;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
@@ -32,6 +35,12 @@ public class BasicCollisionStrategy implements CollisionStrategy {
     public void onCollision(GameObject thisObj, GameObject otherObj) {
         if (gameObjects.removeGameObject(thisObj, Layer.STATIC_OBJECTS) ) {
             brickCounter.decrement(); // Decrement the counter
+            if (thisObj instanceof Brick) {
+                ((Brick) thisObj).setDestroyed(true);
+                int strategyCode = ((Brick) thisObj).getStrategyCode();
+                FlightEvents.brickDestroyed(strategyCode, otherObj, brickCounter.value());
+                JournalEvents.brickDestroyed(thisObj, strategyCode);
+            }
         }
 
     }
@@ -1,5 +1,6 @@
 package bricker.brick_strategies;
 
+import bricker.metrics.AllocationProfiler;
 import danogl.GameObject;
 
 public class DoubleBehaviorStrategy implements CollisionStrategy {
@@ -26,7 +27,9 @@ public class DoubleBehaviorStrategy implements CollisionStrategy {
     @Override
     public void onCollision(GameObject thisObj, GameObject otherObj) {
         // Delegate to the combined strategy
+        AllocationProfiler.beginStrategy(StrategyType.DOUBLE_BEHAVIOR);
         combinedStrategy.onCollision(thisObj, otherObj);
+        AllocationProfiler.end();
     }
 
 }
\ No newline at end of file
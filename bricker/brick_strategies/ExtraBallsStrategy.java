@@ -1,7 +1,17 @@
 package bricker.brick_strategies;
 
+import bricker.effects.DeferredWork;
+import bricker.effects.WorkPriority;
 import bricker.gameobjects.Ball;
+import bricker.gameobjects.GameObjectRegistry;
 import bricker.gameobjects.PuckBall;
+import bricker.gameobjects.PuckSwarm;
+import bricker.journal.JournalEvents;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.metrics.FlightEvents;
+import bricker.physics.ContactAggregator;
+import bricker.util.GameRandom;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.gui.Sound;
@@ -9,18 +19,24 @@ import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 
-import java.util.Random;
-
 /**
  * a class for an additional strategy where 2 extra balls called mock balls appear in the game
  */
 public class ExtraBallsStrategy extends CollisionStrategyDecorator {
+    /** The speed of a mock ball. */
+    public static final float BALL_SPEED = 200;
     private static final float MOCKBALL_RADIUS = 15; // the radius of the mock ball
     private final GameObjectCollection gameObjects; // all the objects in the game
     private final Renderable ballRenderable; // the renderable that renders a mock ball
     private final Sound collisionSound; // the collision sound
-    private static final float BALL_SPEED = 200; // the mock ball speed
     private final Vector2 windowDimensions;
+    private final float levelTop; // the top of the level, above which mock balls are removed
+    private final GameRandom random; // the game's random generator
+    private final Counter puckCounter; // counts the mock balls in the game
+    private final PuckSwarm puckSwarm; // holds the mock balls instead of a game object each, or null
+    private DeferredWork deferredWork = null; // spawns the mock balls later, or null to spawn them right away
+    private ContactAggregator contactAggregator = null; // tells the mock balls when a step's contacts are known
+    private GameObjectRegistry<PuckBall> registry = null; // the mock balls in the game, or null
 
     /**
      * A constructor for the extra balls strategy
@@ -29,14 +45,23 @@ public class ExtraBallsStrategy extends CollisionStrategyDecorator {
      * @param ballRenderable - the renderable that renders a mock ball
      * @param collisionSound - the collision sound
      * @param windowDimensions The dimensions of the game window.
+     * @param levelTop - the y coordinate of the top of the level, 0 or above the window
+     * @param random - the game's random generator, used for the mock balls directions
+     * @param puckCounter - counts the mock balls in the game
+     * @param puckSwarm - holds the mock balls instead of a game object each, or null
      */
     public ExtraBallsStrategy(CollisionStrategy wrappedStrategy, GameObjectCollection gameObjects,
-                              Renderable ballRenderable, Sound collisionSound, Vector2 windowDimensions) {
+                              Renderable ballRenderable, Sound collisionSound, Vector2 windowDimensions,
+                              float levelTop, GameRandom random, Counter puckCounter, PuckSwarm puckSwarm) {
         super(wrappedStrategy);
         this.gameObjects = gameObjects;
         this.ballRenderable = ballRenderable;
         this.collisionSound = collisionSound;
         this.windowDimensions = windowDimensions;
+        this.levelTop = levelTop;
+        this.random = random;
+        this.puckCounter = puckCounter;
+        this.puckSwarm = puckSwarm;
     }
 
     /**
@@ -47,33 +72,83 @@ public class ExtraBallsStrategy extends CollisionStrategyDecorator {
     @Override
     public void onCollision(GameObject brick, GameObject otherObj) {
         super.onCollision(brick, otherObj); // Execute basic behavior (remove brick, decrement counter)
+        AllocationProfiler.beginStrategy(StrategyType.EXTRA_BALLS);
 
         // Get the center of the brick for spawning pucks
         Vector2 brickCenter = brick.getCenter();
-        Vector2 puckDimensions = new Vector2(MOCKBALL_RADIUS,MOCKBALL_RADIUS);
 
         // Generate two new pucks
-        Random random = new Random();
         for (int i = 0; i < 2; i++) {
             double angle = random.nextDouble() * Math.PI; // Random angle in radians
             float ballVelX = (float) Math.cos(angle) * BALL_SPEED;
             float ballVelY = (float) Math.sin(angle) * BALL_SPEED;
 
-            // Create a new puck using the renderable and collision sound
-            GameObject puck = new PuckBall(
-                    brickCenter,
-                    puckDimensions,
-                    ballRenderable,
-                    collisionSound, // Use the provided sound
-                    gameObjects,
-                    windowDimensions
-            );
+            // the directions are drawn now, so the random sequence does not depend on when the pucks appear
+            if (deferredWork != null) {
+                deferredWork.defer(WorkPriority.SPAWN, () -> spawnPuck(brickCenter, ballVelX, ballVelY));
+            } else {
+                spawnPuck(brickCenter, ballVelX, ballVelY);
+            }
+        }
+        AllocationProfiler.end();
+    }
 
-            // Set the puck's velocity
-            puck.setVelocity(new Vector2(ballVelX, ballVelY));
+    /**
+     * Makes the mock balls appear at the end of a frame with time left rather than right away.
+     * @param deferredWork - the queue of the work deferred by the game, or null to spawn right away
+     */
+    public void setDeferredWork(DeferredWork deferredWork) {
+        this.deferredWork = deferredWork;
+    }
 
-            // Add the puck to the game
-            gameObjects.addGameObject(puck);
+    /**
+     * Makes the mock balls respond to all their contacts of a step at once.
+     * @param contactAggregator - tells the mock balls when a step's contacts are known, or null
+     */
+    public void setContactAggregator(ContactAggregator contactAggregator) {
+        this.contactAggregator = contactAggregator;
+    }
+
+    /**
+     * Makes the mock balls join the registry of the mock balls in the game.
+     * @param registry - the mock balls in the game, or null
+     */
+    public void setRegistry(GameObjectRegistry<PuckBall> registry) {
+        this.registry = registry;
+    }
+
+    private void spawnPuck(Vector2 brickCenter, float ballVelX, float ballVelY) {
+        AllocationProfiler.begin(AllocationPhase.SPAWNING);
+        FlightEvents.powerupSpawned("PuckBall", brickCenter.x(), brickCenter.y());
+        JournalEvents.puckSpawned(brickCenter.x(), brickCenter.y(), ballVelX, ballVelY);
+        if (puckSwarm != null) {
+            puckSwarm.spawn(brickCenter, new Vector2(ballVelX, ballVelY));
+            AllocationProfiler.end();
+            return;
+        }
+        // Create a new puck using the renderable and collision sound
+        PuckBall puck = new PuckBall(
+                brickCenter,
+                new Vector2(MOCKBALL_RADIUS, MOCKBALL_RADIUS),
+                ballRenderable,
+                collisionSound, // Use the provided sound
+                gameObjects,
+                windowDimensions,
+                levelTop,
+                puckCounter
+        );
+        puck.setDeferredWork(deferredWork);
+        puck.setContactAggregator(contactAggregator);
+        if (registry != null) {
+            puck.setRegistry(registry);
         }
+
+        // Set the puck's velocity
+        puck.setVelocity(new Vector2(ballVelX, ballVelY));
+
+        // Add the puck to the game
+        gameObjects.addGameObject(puck);
+        puckCounter.increment();
+        AllocationProfiler.end();
     }
 }
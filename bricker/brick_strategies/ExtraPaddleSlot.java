@@ -0,0 +1,90 @@
+package bricker.brick_strategies;
+
+import bricker.effects.Effect;
+import bricker.effects.EffectScheduler;
+import bricker.gameobjects.ExtraPaddle;
+import bricker.journal.JournalEvents;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.paddle_controllers.PaddleController;
+import danogl.collisions.GameObjectCollection;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * Holds the single extra paddle of a game. The paddle is removed after a fixed number of collisions,
+ * which is scheduled as an effect on the paddle's collision trigger.
+ */
+public class ExtraPaddleSlot {
+    private static final int MAX_COLLISIONS = 4; // Maximum collisions before removal
+    private static final int EXTRA_PADDLE_WIDTH = 100;
+    private static final int EXTRA_PADDLE_HEIGHT = 15;
+    private final GameObjectCollection gameObjects; // the objects in the game
+    private final Renderable paddleRenderable; // the renderable that renders the extra paddle
+    private final PaddleController controller; // moves the paddle, by the player's input or on its own
+    private final EffectScheduler effects; // expires the paddle after its collisions
+    private ExtraPaddle extraPaddle = null; // the current extra paddle, if there is one
+    private Effect expiry = null; // removes the current extra paddle
+
+    /**
+     * Constructs an empty slot.
+     * @param gameObjects - all the objects in the game
+     * @param paddleRenderable - the renderable that renders a paddle
+     * @param controller - moves the paddle, by the player's input or on its own
+     * @param effects - the scheduler that expires the paddle
+     */
+    public ExtraPaddleSlot(GameObjectCollection gameObjects, Renderable paddleRenderable,
+                           PaddleController controller, EffectScheduler effects) {
+        this.gameObjects = gameObjects;
+        this.paddleRenderable = paddleRenderable;
+        this.controller = controller;
+        this.effects = effects;
+    }
+
+    /**
+     * @return true if there is an extra paddle in the game
+     */
+    public boolean isOccupied() {
+        return extraPaddle != null;
+    }
+
+    /**
+     * @return the current extra paddle, or null if there is none
+     */
+    public ExtraPaddle getExtraPaddle() {
+        return extraPaddle;
+    }
+
+    /**
+     * Creates the extra paddle and adds it to the game, replacing the current one if there is one.
+     * @param topLeftCorner - the position of the new paddle
+     * @param collisionCount - the number of collisions the paddle has already endured
+     * @return the new extra paddle
+     */
+    public ExtraPaddle add(Vector2 topLeftCorner, int collisionCount) {
+        remove();
+        AllocationProfiler.begin(AllocationPhase.SPAWNING);
+        Vector2 paddleSize = new Vector2(EXTRA_PADDLE_WIDTH, EXTRA_PADDLE_HEIGHT);
+        extraPaddle = new ExtraPaddle(topLeftCorner, paddleSize, paddleRenderable, controller, false);
+        extraPaddle.setCollisionCount(collisionCount);
+        expiry = effects.expireAfterEvents(extraPaddle.getCollisionTrigger(),
+                Math.max(1, MAX_COLLISIONS - collisionCount), this::remove);
+        gameObjects.addGameObject(extraPaddle);
+        JournalEvents.extraPaddle(extraPaddle, true);
+        AllocationProfiler.end();
+        return extraPaddle;
+    }
+
+    /**
+     * removes the extra paddle from the game, if there is one
+     */
+    public void remove() {
+        if (extraPaddle != null) {
+            expiry.cancel();
+            gameObjects.removeGameObject(extraPaddle);
+            JournalEvents.extraPaddle(extraPaddle, false);
+            extraPaddle = null;
+            expiry = null;
+        }
+    }
+}
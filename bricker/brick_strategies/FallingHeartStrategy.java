@@ -1,7 +1,14 @@
 package bricker.brick_strategies;
 
+import bricker.effects.DeferredWork;
+import bricker.effects.WorkPriority;
 import bricker.gameobjects.FallingHeart;
+import bricker.gameobjects.GameObjectRegistry;
 import bricker.gameobjects.HealthBar;
+import bricker.gameobjects.Paddle;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.metrics.FlightEvents;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.gui.rendering.Renderable;
@@ -18,6 +25,8 @@ public class FallingHeartStrategy extends CollisionStrategyDecorator{
     private final GameObjectCollection gameObjects; // all the objects in the game
     private static final int HEART_VELX = 0; // falling heart velocity in X axis
     private static final int HEART_VELY= 100; // falling heart velocity in Y axis
+    private DeferredWork deferredWork = null; // spawns the heart later, or null to spawn it right away
+    private GameObjectRegistry<FallingHeart> registry = null; // the falling hearts in the game, or null
 
     /**
      * A constructor of the strategy
@@ -44,17 +53,49 @@ public class FallingHeartStrategy extends CollisionStrategyDecorator{
     @Override
     public void onCollision(GameObject brick, GameObject otherObj) {
         super.onCollision(brick, otherObj);
+        AllocationProfiler.beginStrategy(StrategyType.FALLING_HEART);
         //get the center of the brick
         Vector2 brickCenter = brick.getCenter();
+        if (deferredWork != null) {
+            deferredWork.defer(WorkPriority.SPAWN, () -> spawnHeart(brickCenter));
+        } else {
+            spawnHeart(brickCenter);
+        }
+        AllocationProfiler.end();
+    }
+
+    /**
+     * Makes the heart appear at the end of a frame with time left rather than right away.
+     * @param deferredWork - the queue of the work deferred by the game, or null to spawn right away
+     */
+    public void setDeferredWork(DeferredWork deferredWork) {
+        this.deferredWork = deferredWork;
+    }
+
+    /**
+     * Makes the heart join the registry of the falling hearts in the game.
+     * @param registry - the falling hearts in the game, or null
+     */
+    public void setRegistry(GameObjectRegistry<FallingHeart> registry) {
+        this.registry = registry;
+    }
 
+    private void spawnHeart(Vector2 brickCenter) {
         // create a heart in the center of the brick that will fall down
+        AllocationProfiler.begin(AllocationPhase.SPAWNING);
         FallingHeart heart = new FallingHeart(brickCenter, new Vector2(HEART_RADIUS,HEART_RADIUS),
                 heartRenderable, mainPaddle,heartRenderable, gameObjects, healthBar);
         gameObjects.addGameObject(heart);
+        if (registry != null) {
+            heart.setRegistry(registry);
+        }
         //give heart velocity
         heart.setVelocity(new Vector2(HEART_VELX, HEART_VELY));
-
-
-
+        FlightEvents.powerupSpawned("FallingHeart", brickCenter.x(), brickCenter.y());
+        // let the paddle's controller know a heart is coming
+        if (mainPaddle instanceof Paddle) {
+            ((Paddle) mainPaddle).getController().onFallingHeart(heart);
+        }
+        AllocationProfiler.end();
     }
 }
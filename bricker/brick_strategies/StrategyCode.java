@@ -0,0 +1,127 @@
+package bricker.brick_strategies;
+
+/**
+ * A compact int encoding of the special behaviors stacked on a brick.
+ * The lowest two bits hold the number of behaviors, the next bit marks a double behavior,
+ * and every behavior after that takes three bits holding its {@link StrategyType} ordinal.
+ * A code of {@link #BASIC} means the brick only has the basic collision strategy.
+ */
+public final class StrategyCode {
+    /** The code of a brick with no special behavior. */
+    public static final int BASIC = 0;
+    /** The maximum number of behaviors a code can hold. */
+    public static final int MAX_BEHAVIORS = 3;
+
+    private static final int COUNT_MASK = 0b11;
+    private static final int DOUBLE_FLAG = 0b100;
+    private static final int TYPES_SHIFT = 3;
+    private static final int TYPE_BITS = 3;
+    /** All codes are below this limit, so they can index an array. */
+    public static final int CODE_LIMIT = 1 << (TYPES_SHIFT + MAX_BEHAVIORS * TYPE_BITS);
+    private static final int TYPE_MASK = 0b111;
+    private static final int MIN_DOUBLE_BEHAVIORS = 2; // a double behavior combines at least this many
+    private static final StrategyType[] TYPES = StrategyType.values();
+
+    private StrategyCode() {
+    }
+
+    /**
+     * Adds a single behavior to the end of a code.
+     *
+     * @param code The code to add to.
+     * @param type The behavior to add, must not be DOUBLE_BEHAVIOR.
+     * @return The new code.
+     */
+    public static int append(int code, StrategyType type) {
+        int count = behaviorCount(code);
+        if (count >= MAX_BEHAVIORS || type == StrategyType.DOUBLE_BEHAVIOR) {
+            throw new IllegalArgumentException("cannot append " + type + " to strategy code " + code);
+        }
+        int shift = TYPES_SHIFT + count * TYPE_BITS;
+        return (code & ~COUNT_MASK) | (type.ordinal() << shift) | (count + 1);
+    }
+
+    /**
+     * Marks a code as a double behavior.
+     *
+     * @param code The code to mark.
+     * @return The new code.
+     */
+    public static int markDouble(int code) {
+        return code | DOUBLE_FLAG;
+    }
+
+    /**
+     * @param code A strategy code.
+     * @return The number of behaviors in the code.
+     */
+    public static int behaviorCount(int code) {
+        return code & COUNT_MASK;
+    }
+
+    /**
+     * @param code A strategy code.
+     * @return True if the behaviors of the code are wrapped in a double behavior.
+     */
+    public static boolean isDouble(int code) {
+        return (code & DOUBLE_FLAG) != 0;
+    }
+
+    /**
+     * Checks whether a code could have been built by {@link #append(int, StrategyType)} and
+     * {@link #markDouble(int)}, e.g. when it was read from a file: every behavior it counts is a real single
+     * behavior, the bits of the behaviors it does not count are clear, and only a code of two or more
+     * behaviors is marked double.
+     *
+     * @param code A strategy code.
+     * @return True if the code is well formed.
+     */
+    public static boolean isValid(int code) {
+        if (code < 0 || code >= CODE_LIMIT) {
+            return false;
+        }
+        int count = behaviorCount(code);
+        if (count > MAX_BEHAVIORS || (isDouble(code) && count < MIN_DOUBLE_BEHAVIORS)) {
+            return false;
+        }
+        for (int i = 0; i < MAX_BEHAVIORS; i++) {
+            int ordinal = (code >>> (TYPES_SHIFT + i * TYPE_BITS)) & TYPE_MASK;
+            if (i >= count) {
+                if (ordinal != 0) {
+                    return false;
+                }
+            } else if (ordinal >= TYPES.length || TYPES[ordinal] == StrategyType.DOUBLE_BEHAVIOR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param code  A strategy code.
+     * @param index The index of the behavior, in the order they were added.
+     * @return The behavior at the given index.
+     */
+    public static StrategyType behaviorAt(int code, int index) {
+        return TYPES[(code >>> (TYPES_SHIFT + index * TYPE_BITS)) & TYPE_MASK];
+    }
+
+    /**
+     * Checks whether a code contains a behavior.
+     *
+     * @param code A strategy code.
+     * @param type The behavior to look for.
+     * @return True if the code contains the behavior.
+     */
+    public static boolean contains(int code, StrategyType type) {
+        if (type == StrategyType.DOUBLE_BEHAVIOR) {
+            return isDouble(code);
+        }
+        for (int i = 0; i < behaviorCount(code); i++) {
+            if (behaviorAt(code, i) == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
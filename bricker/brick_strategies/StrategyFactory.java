@@ -1,14 +1,24 @@
 package bricker.brick_strategies;
 
+import bricker.effects.DeferredWork;
 import bricker.gameobjects.Ball;
+import bricker.gameobjects.FallingHeart;
+import bricker.gameobjects.GameObjectRegistry;
 import bricker.gameobjects.HealthBar;
+import bricker.gameobjects.PuckBall;
+import bricker.gameobjects.PuckSwarm;
+import bricker.physics.ContactAggregator;
+import bricker.util.AliasTable;
+import bricker.util.GameRandom;
 import danogl.GameObject;
 import danogl.collisions.GameObjectCollection;
 import danogl.gui.Sound;
-import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
+import danogl.util.Counter;
 import danogl.util.Vector2;
 
+import java.util.Arrays;
+
 /**
  * A factory class for creating collision strategies in the Bricker game.
  * Responsible for dynamically adding behaviors to bricks when a collision occurs.
@@ -17,26 +27,34 @@ public class StrategyFactory {
     private final GameObjectCollection gameObjects; // al the objects in the game
     private final Renderable ballRenderable; //renders a ball
     private final Sound ballCollisionSound; // the sound of the collision
-    private final Renderable paddleRenderable; // a renderable for the paddle
+    private final ExtraPaddleSlot extraPaddleSlot; // holds the extra paddle
     private final Vector2 windowDimensions; // the dimensions of the game's window
-    private final UserInputListener inputListener; // an input listener
     private final Ball mainBall; // the main ball in the game
 
     private final GameObject mainPaddle; // the main paddle in the game
     private final Renderable heartRenderable; // renders a heart
     private final HealthBar healthBar; // the game's health bar
     private final Renderable turboBallRenderable;
+    private final GameRandom random; // the game's random generator
+    private final GameRandom brickRandom = new GameRandom(0); // reseeded for every brick rolled from a seed
+    private final Counter puckCounter; // counts the mock balls in the game
+    private boolean maxPowerups = false; // whether every brick gets the most behaviors possible
+    private PuckSwarm puckSwarm = null; // holds the mock balls instead of a game object each, or null
+    private float levelTop = 0; // the top of the level, above the window in a level taller than it
+    private DeferredWork deferredWork = null; // spawns power-ups at the end of frames with time left, or null
+    private ContactAggregator contactAggregator = null; // tells the mock balls when a step's contacts are known
+    private GameObjectRegistry<PuckBall> pucks = null; // the mock balls in the game, or null
+    private GameObjectRegistry<FallingHeart> fallingHearts = null; // the falling hearts in the game, or null
+    private final CollisionStrategy[] sharedStrategies = new CollisionStrategy[StrategyCode.CODE_LIMIT];
+    private CollisionStrategy sharedBaseStrategy = null; // the strategy the shared strategies are built on
+    private double specialProbability; // the probability of a brick getting a special behavior
+    private AliasTable allStrategiesTable; // samples ALL_STRATEGIES by their weights
+    private AliasTable singleStrategiesTable; // samples SINGLE_STRATEGIES by their weights
 
-    private static final double SPECIAL_BEHAVIOR_THRESHOLD = 0.5;
     private static final int MAX_SPECIAL_BEHAVIORS = 3;
     private static final int INITIAL_SPECIAL_BEHAVIORS = 2;
-    private static final int ALL_SPECIAL_STRATEGIES = 5;
-    private static final int SINGLE_SPECIAL_STRATEGIES = 4;
-    private static final int EXTRA_BALL_INDEX = 1;
-    private static final int EXTRA_PADDLE_INDEX = 2;
-    private static final int TURBO_INDEX = 3;
-    private static final int FALLING_HEART_INDEX = 4;
-
+    private static final StrategyType[] ALL_STRATEGIES = StrategyType.values();
+    private static final StrategyType[] SINGLE_STRATEGIES = singleStrategies();
 
 
     /**
@@ -45,29 +63,114 @@ public class StrategyFactory {
      * @param gameObjects       The collection of game objects in the game.
      * @param ballRenderable    The renderable object for the ball.
      * @param ballCollisionSound The sound effect for ball collisions.
-     * @param paddleRenderable  The renderable object for the paddle.
+     * @param extraPaddleSlot   Holds the extra paddle.
      * @param windowDimensions  The dimensions of the game window.
-     * @param inputListener     Listener for user input.
      * @param mainBall          The main ball object in the game.
      * @param mainPaddle        The main paddle object in the game.
      * @param heartRenderable   The renderable object for the health indicator.
      * @param healthBar         The health bar object in the game.
+     * @param turboBallRenderable The renderable object for the ball in turbo state.
+     * @param random            The game's random generator.
+     * @param puckCounter       Counts the mock balls in the game.
      */
     public StrategyFactory(GameObjectCollection gameObjects, Renderable ballRenderable, Sound ballCollisionSound,
-                           Renderable paddleRenderable, Vector2 windowDimensions, UserInputListener inputListener,
+                           ExtraPaddleSlot extraPaddleSlot, Vector2 windowDimensions,
                            Ball mainBall,
-                           GameObject mainPaddle, Renderable heartRenderable, HealthBar healthBar, Renderable turboBallRenderable) {
+                           GameObject mainPaddle, Renderable heartRenderable, HealthBar healthBar, Renderable turboBallRenderable,
+                           GameRandom random, Counter puckCounter) {
         this.gameObjects = gameObjects;
         this.ballRenderable = ballRenderable;
         this.ballCollisionSound = ballCollisionSound;
-        this.paddleRenderable = paddleRenderable;
+        this.extraPaddleSlot = extraPaddleSlot;
         this.windowDimensions = windowDimensions;
-        this.inputListener = inputListener;
         this.mainBall = mainBall;
         this.mainPaddle = mainPaddle;
         this.heartRenderable = heartRenderable;
         this.healthBar = healthBar;
         this.turboBallRenderable = turboBallRenderable;
+        this.random = random;
+        this.puckCounter = puckCounter;
+        setWeights(StrategyWeights.defaults());
+    }
+
+    /**
+     * Sets the weights the special behaviors are chosen with, for bricks created from now on.
+     *
+     * @param weights The weights of the special behaviors.
+     * @throws IllegalArgumentException If no single behavior has a positive weight.
+     */
+    public void setWeights(StrategyWeights weights) {
+        specialProbability = weights.getSpecialProbability();
+        allStrategiesTable = new AliasTable(weightsOf(ALL_STRATEGIES, weights));
+        singleStrategiesTable = new AliasTable(weightsOf(SINGLE_STRATEGIES, weights));
+    }
+
+    /**
+     * Makes every brick get a double behavior with the maximum number of behaviors, the first of which is
+     * always extra balls. Used to stress test the game with as many power-ups as possible.
+     *
+     * @param maxPowerups True to give every brick the most behaviors possible.
+     */
+    public void setMaxPowerups(boolean maxPowerups) {
+        this.maxPowerups = maxPowerups;
+    }
+
+    /**
+     * Makes the extra balls strategies add their mock balls to a swarm instead of a game object each.
+     * Only affects strategies created from now on.
+     *
+     * @param puckSwarm The swarm holding the mock balls, or null for a game object each.
+     */
+    public void setPuckSwarm(PuckSwarm puckSwarm) {
+        this.puckSwarm = puckSwarm;
+        clearSharedStrategies();
+    }
+
+    /**
+     * Sets the top of the level, for a level taller than the window. Mock balls above it are removed.
+     * Only affects strategies created from now on.
+     *
+     * @param levelTop The y coordinate of the top of the level, 0 or above the window.
+     */
+    public void setLevelTop(float levelTop) {
+        this.levelTop = levelTop;
+        clearSharedStrategies();
+    }
+
+    /**
+     * Makes the extra balls and falling heart strategies spawn their objects at the end of a frame with time
+     * left rather than right away. Only affects strategies created from now on.
+     *
+     * @param deferredWork The queue of the work deferred by the game, or null to spawn right away.
+     */
+    public void setDeferredWork(DeferredWork deferredWork) {
+        this.deferredWork = deferredWork;
+        clearSharedStrategies();
+    }
+
+    /**
+     * Makes the mock balls of the extra balls strategies respond to all their contacts of a step at once.
+     * Only affects strategies created from now on.
+     *
+     * @param contactAggregator Tells the mock balls when a step's contacts are known, or null to have them
+     *                          respond to each contact right away.
+     */
+    public void setContactAggregator(ContactAggregator contactAggregator) {
+        this.contactAggregator = contactAggregator;
+        clearSharedStrategies();
+    }
+
+    /**
+     * Makes the extra balls and falling heart strategies add the objects they spawn to the registries of
+     * the game. Only affects strategies created from now on.
+     *
+     * @param pucks         The mock balls in the game, or null.
+     * @param fallingHearts The falling hearts in the game, or null.
+     */
+    public void setRegistries(GameObjectRegistry<PuckBall> pucks, GameObjectRegistry<FallingHeart> fallingHearts) {
+        this.pucks = pucks;
+        this.fallingHearts = fallingHearts;
+        clearSharedStrategies();
     }
 
     /**
@@ -78,28 +181,143 @@ public class StrategyFactory {
      * @return A collision strategy with optional special behaviors.
      */
     public CollisionStrategy createStrategy(CollisionStrategy baseStrategy) {
+        return buildStrategy(rollStrategyCode(), baseStrategy);
+    }
 
-        if (Math.random() > SPECIAL_BEHAVIOR_THRESHOLD) {
-            return baseStrategy; // No special behavior
+    /**
+     * Randomly decides which special behaviors a brick gets, without building them.
+     *
+     * @return The {@link StrategyCode} of the chosen behaviors.
+     */
+    public int rollStrategyCode() {
+        return rollStrategyCode(random);
+    }
+
+    /**
+     * Decides which special behaviors a brick gets from a seed of its own, without building them and
+     * without drawing from the game's random generator. The same seed always gives the same behaviors.
+     *
+     * @param brickSeed The seed of the brick.
+     * @return The {@link StrategyCode} of the chosen behaviors.
+     */
+    public int rollStrategyCode(long brickSeed) {
+        brickRandom.setState(brickSeed);
+        return rollStrategyCode(brickRandom);
+    }
+
+    /**
+     * Returns a resolver of brick seeds into the shared strategies built on a base strategy, for bricks
+     * whose strategies are resolved when they are first hit.
+     *
+     * @param baseStrategy The initial collision strategy to build upon, the same one for all the bricks of
+     *                     a game.
+     * @return The resolver.
+     */
+    public StrategyResolver resolverFor(CollisionStrategy baseStrategy) {
+        return new StrategyResolver() {
+            @Override
+            public int rollStrategyCode(long brickSeed) {
+                return StrategyFactory.this.rollStrategyCode(brickSeed);
+            }
+
+            @Override
+            public CollisionStrategy strategyFor(int strategyCode) {
+                return sharedStrategy(strategyCode, baseStrategy);
+            }
+        };
+    }
+
+    /**
+     * Returns the collision strategy described by a strategy code, shared by all the bricks with that code.
+     * Strategies keep no state of the brick they are on, which is passed to every collision, so a single
+     * instance per code serves every brick.
+     *
+     * @param strategyCode The {@link StrategyCode} of the behaviors to add.
+     * @param baseStrategy The initial collision strategy to build upon, the same one for all the bricks of
+     *                     a game. A different one starts a new set of shared strategies.
+     * @return The shared collision strategy with the behaviors of the code.
+     */
+    public CollisionStrategy sharedStrategy(int strategyCode, CollisionStrategy baseStrategy) {
+        if (baseStrategy != sharedBaseStrategy) {
+            clearSharedStrategies();
+            sharedBaseStrategy = baseStrategy;
+        }
+        CollisionStrategy strategy = sharedStrategies[strategyCode];
+        if (strategy == null) {
+            strategy = buildStrategy(strategyCode, baseStrategy);
+            sharedStrategies[strategyCode] = strategy;
+        }
+        return strategy;
+    }
+
+    /**
+     * Builds the collision strategy described by a strategy code.
+     *
+     * @param strategyCode The {@link StrategyCode} of the behaviors to add.
+     * @param baseStrategy The initial collision strategy to build upon.
+     * @return A collision strategy with the behaviors of the code.
+     */
+    public CollisionStrategy buildStrategy(int strategyCode, CollisionStrategy baseStrategy) {
+        CollisionStrategy strategy = baseStrategy;
+        for (int i = 0; i < StrategyCode.behaviorCount(strategyCode); i++) {
+            strategy = createByStrategyType(StrategyCode.behaviorAt(strategyCode, i), strategy);
+        }
+        if (StrategyCode.isDouble(strategyCode)) {
+            strategy = new DoubleBehaviorStrategy(strategy);
+        }
+        return strategy;
+    }
+
+    /**
+     * Randomly decides which special behaviors a brick gets.
+     *
+     * @param random The generator to draw from.
+     * @return The {@link StrategyCode} of the chosen behaviors.
+     */
+    private int rollStrategyCode(GameRandom random) {
+        if (maxPowerups) {
+            return rollMaxStrategyCode(random);
+        }
+
+        if (random.nextDouble() >= specialProbability) {
+            return StrategyCode.BASIC; // No special behavior
         }
 
         // Determine the type of special behavior to apply
-        StrategyType strategyType = getRandomSpecialStrategyType(true); // Include double behavior
-        return createByStrategyType(strategyType, baseStrategy);
+        StrategyType strategyType = getRandomSpecialStrategyType(random, true); // Include double behavior
+        if (strategyType == StrategyType.DOUBLE_BEHAVIOR) {
+            return rollDoubleStrategyCode(random);
+        }
+        return StrategyCode.append(StrategyCode.BASIC, strategyType);
+    }
+
+    /**
+     * Chooses the behaviors of a double behavior at the maximum depth, starting with extra balls.
+     *
+     * @param random The generator to draw from.
+     * @return The strategy code of the combined behaviors.
+     */
+    private int rollMaxStrategyCode(GameRandom random) {
+        int strategyCode = StrategyCode.markDouble(StrategyCode.append(StrategyCode.BASIC, StrategyType.EXTRA_BALLS));
+        while (StrategyCode.behaviorCount(strategyCode) < MAX_SPECIAL_BEHAVIORS) {
+            strategyCode = StrategyCode.append(strategyCode, getRandomSpecialStrategyType(random, false));
+        }
+        return strategyCode;
     }
 
     /**
-     * Creates a strategy with multiple combined behaviors.
+     * Chooses the behaviors of a double behavior.
      *
-     * @param strategy The base strategy to enhance.
-     * @return A collision strategy with combined behaviors.
+     * @param random The generator to draw from.
+     * @return The strategy code of the combined behaviors.
      */
-    private CollisionStrategy createDoubleStrategy(CollisionStrategy strategy) {
+    private int rollDoubleStrategyCode(GameRandom random) {
+        int strategyCode = StrategyCode.markDouble(StrategyCode.BASIC);
         int requiredSpecialBehaviors = INITIAL_SPECIAL_BEHAVIORS; // Total behaviors required
         int achievedSpecialBehaviors = 0; // Behaviors added so far
          while (achievedSpecialBehaviors < requiredSpecialBehaviors) {
 
-             StrategyType strategyType = getRandomSpecialStrategyType(requiredSpecialBehaviors< MAX_SPECIAL_BEHAVIORS);
+             StrategyType strategyType = getRandomSpecialStrategyType(random, requiredSpecialBehaviors< MAX_SPECIAL_BEHAVIORS);
              if (strategyType == StrategyType.DOUBLE_BEHAVIOR) {
                  // another double behavior was chosen
                  requiredSpecialBehaviors++;
@@ -107,44 +325,65 @@ public class StrategyFactory {
              }
 
              // Add the behavior
-             strategy = createByStrategyType(strategyType, strategy);
+             strategyCode = StrategyCode.append(strategyCode, strategyType);
              achievedSpecialBehaviors++;
 
          }
-         return new DoubleBehaviorStrategy(strategy);
+         return strategyCode;
     }
 
     /**
-     * Randomly selects a strategy type based on probabilities.
+     * Randomly selects a strategy type according to the weights, in constant time.
      *
+     * @param random                The generator to draw from.
      * @param includeDoubleBehavior If true, allows DOUBLE_BEHAVIOR as a valid selection.
      * @return The selected strategy type.
      */
-    private StrategyType getRandomSpecialStrategyType(boolean includeDoubleBehavior) {
-        double rand = Math.random();
-        int totalStrategies = includeDoubleBehavior ? ALL_SPECIAL_STRATEGIES : SINGLE_SPECIAL_STRATEGIES; // Total strategies based on the flag
-        double probabilityStep = 1.0 / totalStrategies; // Divide range [0,1) equally
-
-        if (rand < probabilityStep * EXTRA_BALL_INDEX) {
-            return StrategyType.EXTRA_BALLS;
-        } else if (rand < probabilityStep * EXTRA_PADDLE_INDEX) {
-            return StrategyType.EXTRA_PADDLE;
-        } else if (rand < probabilityStep * TURBO_INDEX) {
-            return StrategyType.TURBO;
-        } else if (rand < probabilityStep * FALLING_HEART_INDEX) {
-            return StrategyType.FALLING_HEART;
-        } else {
-            return StrategyType.DOUBLE_BEHAVIOR; // Only reached if includeDoubleBehavior == true
+    private StrategyType getRandomSpecialStrategyType(GameRandom random, boolean includeDoubleBehavior) {
+        if (includeDoubleBehavior) {
+            return ALL_STRATEGIES[allStrategiesTable.sample(random)];
+        }
+        return SINGLE_STRATEGIES[singleStrategiesTable.sample(random)];
+    }
+
+    private void clearSharedStrategies() {
+        Arrays.fill(sharedStrategies, null);
+    }
+
+    /**
+     * @return All the strategy types except DOUBLE_BEHAVIOR.
+     */
+    private static StrategyType[] singleStrategies() {
+        StrategyType[] single = new StrategyType[ALL_STRATEGIES.length - 1];
+        int count = 0;
+        for (StrategyType type : ALL_STRATEGIES) {
+            if (type != StrategyType.DOUBLE_BEHAVIOR) {
+                single[count++] = type;
+            }
+        }
+        return single;
+    }
+
+    private static double[] weightsOf(StrategyType[] types, StrategyWeights weights) {
+        double[] result = new double[types.length];
+        for (int i = 0; i < types.length; i++) {
+            result[i] = weights.weightOf(types[i]);
         }
+        return result;
     }
 
 
     private CollisionStrategy createExtraBallsStrategy(CollisionStrategy baseStrategy) {
-        return new ExtraBallsStrategy(baseStrategy, gameObjects, ballRenderable, ballCollisionSound, windowDimensions);
+        ExtraBallsStrategy strategy = new ExtraBallsStrategy(baseStrategy, gameObjects, ballRenderable,
+                ballCollisionSound, windowDimensions, levelTop, random, puckCounter, puckSwarm);
+        strategy.setDeferredWork(deferredWork);
+        strategy.setContactAggregator(contactAggregator);
+        strategy.setRegistry(pucks);
+        return strategy;
     }
 
     private CollisionStrategy createExtraPaddleStrategy(CollisionStrategy baseStrategy) {
-        return new ExtraPaddleStrategy(baseStrategy, gameObjects, paddleRenderable, windowDimensions, inputListener);
+        return new ExtraPaddleStrategy(baseStrategy, extraPaddleSlot, windowDimensions);
     }
 
     private CollisionStrategy createTurboStrategy(CollisionStrategy baseStrategy) {
@@ -152,7 +391,11 @@ public class StrategyFactory {
     }
 
     private CollisionStrategy createFallingHeartStrategy(CollisionStrategy baseStrategy) {
-        return new FallingHeartStrategy(baseStrategy, mainPaddle, heartRenderable, gameObjects, healthBar);
+        FallingHeartStrategy strategy = new FallingHeartStrategy(baseStrategy, mainPaddle, heartRenderable,
+                gameObjects, healthBar);
+        strategy.setDeferredWork(deferredWork);
+        strategy.setRegistry(fallingHearts);
+        return strategy;
     }
 
     private CollisionStrategy createByStrategyType(StrategyType strategyType, CollisionStrategy baseStrategy) {
@@ -165,8 +408,6 @@ public class StrategyFactory {
                 return createTurboStrategy(baseStrategy);
             case FALLING_HEART:
                 return createFallingHeartStrategy(baseStrategy);
-            case DOUBLE_BEHAVIOR:
-                return createDoubleStrategy(baseStrategy); // Handle double behavior
             default:
                 return baseStrategy;
         }
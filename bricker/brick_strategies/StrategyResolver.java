@@ -0,0 +1,24 @@
+package bricker.brick_strategies;
+
+/**
+ * Resolves the collision strategy of a brick from its seed, when the brick is first hit rather than when
+ * the level is built. A brick resolved from a seed gets the same behaviors it would have gotten had they
+ * been rolled and built with the level.
+ */
+public interface StrategyResolver {
+    /**
+     * Decides which special behaviors a brick gets.
+     *
+     * @param brickSeed The seed of the brick.
+     * @return The {@link StrategyCode} of the brick's behaviors, always the same for the same seed.
+     */
+    int rollStrategyCode(long brickSeed);
+
+    /**
+     * Returns the collision strategy with the behaviors of a strategy code.
+     *
+     * @param strategyCode The {@link StrategyCode} of the behaviors.
+     * @return The collision strategy.
+     */
+    CollisionStrategy strategyFor(int strategyCode);
+}
@@ -0,0 +1,135 @@
+package bricker.brick_strategies;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * The relative weights the special behaviors are chosen with, and the probability of a brick getting a
+ * special behavior at all. Weights are read from a properties file, so level designers can tune them
+ * without rebuilding the game:
+ * <pre>
+ * special_probability=0.5
+ * EXTRA_BALLS=1
+ * TURBO=2
+ * level.3.EXTRA_BALLS=4
+ * level.3.special_probability=0.8
+ * </pre>
+ * Keys prefixed by {@code level.<n>.} override the plain keys in level n. Behaviors that are not
+ * mentioned keep a weight of 1.
+ */
+public class StrategyWeights {
+    /** The probability of a brick getting a special behavior, unless configured otherwise. */
+    public static final double DEFAULT_SPECIAL_PROBABILITY = 0.5;
+    private static final double DEFAULT_WEIGHT = 1;
+    private static final String SPECIAL_PROBABILITY_KEY = "special_probability";
+    private static final String LEVEL_PREFIX = "level.";
+
+    private final double[] weights; // indexed by StrategyType ordinal
+    private double specialProbability;
+
+    private StrategyWeights(double[] weights, double specialProbability) {
+        this.weights = weights;
+        this.specialProbability = specialProbability;
+    }
+
+    /**
+     * Returns the default weights, where all behaviors are equally likely.
+     *
+     * @return The default weights.
+     */
+    public static StrategyWeights defaults() {
+        double[] weights = new double[StrategyType.values().length];
+        Arrays.fill(weights, DEFAULT_WEIGHT);
+        return new StrategyWeights(weights, DEFAULT_SPECIAL_PROBABILITY);
+    }
+
+    /**
+     * Reads weights from a properties file, applying the overrides of a level.
+     *
+     * @param path  The properties file.
+     * @param level The level whose overrides apply.
+     * @return The weights of the level.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file holds an unknown key or an invalid value.
+     */
+    public static StrategyWeights load(Path path, int level) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(path)) {
+            properties.load(reader);
+        }
+        return fromProperties(properties, level);
+    }
+
+    /**
+     * Reads weights from properties, applying the overrides of a level.
+     *
+     * @param properties The properties, in the format described by the class documentation.
+     * @param level      The level whose overrides apply.
+     * @return The weights of the level.
+     * @throws IllegalArgumentException If there is an unknown key or an invalid value.
+     */
+    public static StrategyWeights fromProperties(Properties properties, int level) {
+        StrategyWeights result = defaults();
+        String levelPrefix = LEVEL_PREFIX + level + ".";
+        // plain keys first, so the level's keys override them
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith(LEVEL_PREFIX)) {
+                result.set(key, properties.getProperty(key));
+            }
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(levelPrefix)) {
+                result.set(key.substring(levelPrefix.length()), properties.getProperty(key));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param type A special behavior.
+     * @return The relative weight of the behavior.
+     */
+    public double weightOf(StrategyType type) {
+        return weights[type.ordinal()];
+    }
+
+    /**
+     * @return The probability of a brick getting a special behavior at all.
+     */
+    public double getSpecialProbability() {
+        return specialProbability;
+    }
+
+    /**
+     * Sets a single weight, or the special probability, while the weights are read.
+     */
+    private void set(String key, String value) {
+        double number;
+        try {
+            number = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value for " + key + ": " + value, e);
+        }
+        if (key.equals(SPECIAL_PROBABILITY_KEY)) {
+            if (number < 0 || number > 1) {
+                throw new IllegalArgumentException(SPECIAL_PROBABILITY_KEY + " must be between 0 and 1");
+            }
+            specialProbability = number;
+            return;
+        }
+        StrategyType type;
+        try {
+            type = StrategyType.valueOf(key);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown strategy weight key " + key, e);
+        }
+        if (!(number >= 0) || Double.isInfinite(number)) {
+            throw new IllegalArgumentException("weight of " + key + " must be a non negative number");
+        }
+        weights[type.ordinal()] = number;
+    }
+}
@@ -1,6 +1,7 @@
 package bricker.brick_strategies;
 
 import bricker.gameobjects.Ball;
+import bricker.metrics.AllocationProfiler;
 import danogl.GameObject;
 import danogl.gui.rendering.Renderable;
 
@@ -10,8 +11,10 @@ import danogl.gui.rendering.Renderable;
 public class TurboStrategy extends CollisionStrategyDecorator{
     private final Ball mainBall;
     private final Renderable redBallRenderable;
-    private static final float TURBO_VELOCITY_CHANGE_FACTOR = 1.4f;
-    private static final int MAX_COLLISION = 6;
+    /** The factor the velocity of the ball is multiplied by in turbo state. */
+    public static final float TURBO_VELOCITY_CHANGE_FACTOR = 1.4f;
+    /** The number of collisions the turbo state lasts. */
+    public static final int MAX_COLLISION = 6;
 
 
 
@@ -39,7 +42,9 @@ public class TurboStrategy extends CollisionStrategyDecorator{
         super.onCollision(thisObj, otherObj);
         if(otherObj == mainBall && !mainBall.getTurboState()) {
                 //update ball velocity
+                AllocationProfiler.beginStrategy(StrategyType.TURBO);
                 mainBall.turboState(TURBO_VELOCITY_CHANGE_FACTOR, redBallRenderable, MAX_COLLISION);
+                AllocationProfiler.end();
         }
     }
 }
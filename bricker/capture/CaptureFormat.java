@@ -0,0 +1,27 @@
+package bricker.capture;
+
+/**
+ * The file formats that {@link FrameCapture} encodes frames in.
+ */
+public enum CaptureFormat {
+    /** A PNG image per frame. */
+    PNG("png"),
+    /**
+     * A raw dump per frame: the magic number "BRKF", the width and the height as big-endian ints, and then
+     * the pixels row by row as big-endian RGB ints. Quicker to encode than PNG, and larger.
+     */
+    RAW("raw");
+
+    private final String extension;
+
+    CaptureFormat(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * @return The extension of the files in this format, without the dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+}
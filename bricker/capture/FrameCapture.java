@@ -0,0 +1,238 @@
+package bricker.capture;
+
+import bricker.metrics.AllocationProfiler;
+import bricker.metrics.LatencyHistogram;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Captures every few frames of a game into offscreen images and writes them to files, for visual regression
+ * tests and bug reports.
+ * <p>
+ * A frame is rendered into an image on the game loop thread, and encoded and written by a pool of encoder
+ * threads, so the game waits only for the rendering. The images come from a fixed ring of buffers that are
+ * reused once their frame is written. When the encoders fall behind and no buffer is free, the frame is
+ * dropped rather than waited for, and counted. The files are named by the frame number, so dropped frames
+ * show as gaps.
+ */
+public class FrameCapture implements Closeable {
+    private static final int RAW_MAGIC = 0x42524B46; // "BRKF"
+    private static final int RAW_HEADER_BYTES = 3 * Integer.BYTES;
+    private static final long CLOSE_TIMEOUT_SECONDS = 60;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Path directory; // where the frames are written
+    private final CaptureFormat format;
+    private final int interval; // the number of frames between captures
+    private final int width;
+    private final int height;
+    private final ArrayBlockingQueue<Buffer> freeBuffers; // the buffers of the ring not holding a frame
+    private final ExecutorService encoders;
+    private final LatencyHistogram renderTimes = new LatencyHistogram(); // time the game loop spends capturing
+    private final AtomicLong encoded = new AtomicLong();
+    private final AtomicReference<IOException> failure = new AtomicReference<>(); // the first write that failed
+    private long frame = 0;
+    private long captured = 0;
+    private long dropped = 0; // frames due when no buffer was free
+
+    /**
+     * Constructs a capture writing into a directory, which is created if missing.
+     *
+     * @param directory      The directory to write the frames in.
+     * @param format         The format of the files.
+     * @param interval       The number of frames between captures.
+     * @param width          The width of a captured frame.
+     * @param height         The height of a captured frame.
+     * @param bufferCount    The number of buffers in the ring, which bounds the frames waiting to be written.
+     * @param encoderThreads The number of threads encoding and writing frames.
+     * @throws IOException If the directory cannot be created.
+     */
+    public FrameCapture(Path directory, CaptureFormat format, int interval, int width, int height,
+                        int bufferCount, int encoderThreads) throws IOException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("bad capture interval " + interval);
+        }
+        if (bufferCount <= 0 || encoderThreads <= 0) {
+            throw new IllegalArgumentException("need at least one buffer and one encoder");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.format = format;
+        this.interval = interval;
+        this.width = width;
+        this.height = height;
+        this.freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 0; i < bufferCount; i++) {
+            freeBuffers.add(new Buffer(width, height, format));
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.encoders = Executors.newFixedThreadPool(encoderThreads, task -> {
+            Thread thread = new Thread(task, "bricker-capture-" + threadCount.incrementAndGet());
+            thread.setDaemon(true); // an unclosed capture does not keep the game running
+            return thread;
+        });
+    }
+
+    /**
+     * Counts a frame, and captures it if it is due, unless no buffer is free.
+     *
+     * @param renderer Renders the frame to a graphics context, as to the window.
+     */
+    public void onFrame(Consumer<Graphics2D> renderer) {
+        frame++;
+        if (frame % interval != 0) {
+            return;
+        }
+        Buffer buffer = freeBuffers.poll();
+        if (buffer == null) {
+            dropped++;
+            return;
+        }
+        long started = System.nanoTime();
+        Graphics2D graphics = buffer.image.createGraphics();
+        try {
+            graphics.setColor(Color.BLACK);
+            graphics.fillRect(0, 0, width, height);
+            renderer.accept(graphics);
+        } finally {
+            graphics.dispose();
+        }
+        renderTimes.record(System.nanoTime() - started);
+        captured++;
+        long capturedFrame = frame;
+        encoders.execute(() -> write(buffer, capturedFrame));
+    }
+
+    /**
+     * Encodes and writes a frame, and puts its buffer back in the ring.
+     */
+    private void write(Buffer buffer, long capturedFrame) {
+        AllocationProfiler.countWorker();
+        Path path = directory.resolve(String.format("frame-%08d.%s", capturedFrame, format.getExtension()));
+        try {
+            if (format == CaptureFormat.PNG) {
+                if (!ImageIO.write(buffer.image, "png", path.toFile())) {
+                    throw new IOException("no PNG encoder");
+                }
+            } else {
+                writeRaw(buffer, path);
+            }
+            encoded.incrementAndGet();
+        } catch (IOException e) {
+            failure.compareAndSet(null, new IOException("cannot write captured frame " + path, e));
+        } finally {
+            freeBuffers.add(buffer);
+        }
+    }
+
+    private static void writeRaw(Buffer buffer, Path path) throws IOException {
+        ByteBuffer bytes = buffer.raw;
+        bytes.clear();
+        bytes.putInt(RAW_MAGIC);
+        bytes.putInt(buffer.image.getWidth());
+        bytes.putInt(buffer.image.getHeight());
+        bytes.asIntBuffer().put(((DataBufferInt) buffer.image.getRaster().getDataBuffer()).getData());
+        bytes.rewind();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * @return The number of frames counted so far.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return The number of frames captured, including those still being written.
+     */
+    public long getCaptured() {
+        return captured;
+    }
+
+    /**
+     * @return The number of frames written so far.
+     */
+    public long getEncoded() {
+        return encoded.get();
+    }
+
+    /**
+     * @return The number of frames not captured because the encoders were behind.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Returns a report of the frames captured and dropped, and of the time the game spent capturing.
+     *
+     * @return The report, ending in a newline.
+     */
+    public String report() {
+        return String.format("frame capture: %d captured, %d written, %d dropped by encoders behind%n"
+                        + "  game loop time per capture p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                captured, encoded.get(), dropped, renderTimes.percentile(50) / NANOS_PER_MILLI,
+                renderTimes.percentile(99) / NANOS_PER_MILLI, renderTimes.max() / NANOS_PER_MILLI);
+    }
+
+    /**
+     * Waits for the captured frames to be written and stops the encoders. Nothing is captured afterwards.
+     *
+     * @throws IOException If writing a frame failed, or the frames were not written in time.
+     */
+    @Override
+    public void close() throws IOException {
+        encoders.shutdown();
+        try {
+            if (!encoders.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IOException("captured frames not written after " + CLOSE_TIMEOUT_SECONDS + " s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while writing captured frames", e);
+        }
+        IOException firstFailure = failure.get();
+        if (firstFailure != null) {
+            throw firstFailure;
+        }
+    }
+
+    /**
+     * A buffer of the ring: the image a frame is rendered in, and the bytes of a raw dump of it.
+     */
+    private static final class Buffer {
+        private final BufferedImage image;
+        private final ByteBuffer raw; // null unless frames are dumped raw
+
+        private Buffer(int width, int height, CaptureFormat format) {
+            this.image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            this.raw = format == CaptureFormat.RAW
+                    ? ByteBuffer.allocate(RAW_HEADER_BYTES + width * height * Integer.BYTES)
+                    : null;
+        }
+    }
+}
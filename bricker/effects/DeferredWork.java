@@ -0,0 +1,217 @@
+package bricker.effects;
+
+import bricker.metrics.LatencyHistogram;
+import danogl.gui.Sound;
+
+import java.util.IdentityHashMap;
+
+/**
+ * A queue of non-critical work that a frame triggers but need not do right away, such as spawning objects,
+ * rebuilding HUD icons and playing sounds, so a frame where many things happen at once does not spike.
+ * <p>
+ * Work is queued with a {@link WorkPriority}, and the game drains the queue at the end of every frame while
+ * the frame still has time left: the most urgent work first, and in the order it was queued within a
+ * priority. Work whose deadline has come runs regardless of the time left. Since how much runs depends on
+ * the time frames take, games that defer work are not deterministic. The time from queueing work to running
+ * it is recorded as a metric. A sound asked to play again while it waits is played once.
+ */
+public class DeferredWork {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final WorkPriority[] PRIORITIES = WorkPriority.values();
+
+    private final Queue[] queues = new Queue[PRIORITIES.length]; // by priority
+    private final LatencyHistogram latency = new LatencyHistogram(); // from queueing work to running it
+    private final IdentityHashMap<Sound, SoundWork> sounds = new IdentityHashMap<>(); // one per sound played
+    private long frame = 0;
+    private long completed = 0;
+    private long forced = 0; // work run because its deadline came
+
+    /**
+     * Constructs an empty queue.
+     */
+    public DeferredWork() {
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new Queue();
+        }
+    }
+
+    /**
+     * Queues work to run at the end of this frame or a later one, at the latest when the deadline of its
+     * priority comes.
+     *
+     * @param priority How urgent the work is.
+     * @param work     The work.
+     */
+    public void defer(WorkPriority priority, Runnable work) {
+        queues[priority.ordinal()].add(work, frame + priority.getDeadlineFrames(), System.nanoTime());
+    }
+
+    /**
+     * Queues playing a sound, unless it is already waiting to play.
+     *
+     * @param sound The sound.
+     */
+    public void playSound(Sound sound) {
+        SoundWork work = sounds.computeIfAbsent(sound, SoundWork::new);
+        if (!work.waiting) {
+            work.waiting = true;
+            defer(WorkPriority.SOUND, work);
+        }
+    }
+
+    /**
+     * Runs queued work until the frame runs out of time, and the work whose deadline came in any case.
+     * Ends the frame.
+     *
+     * @param frameEndNanos The {@link System#nanoTime()} by which the frame should be done.
+     */
+    public void drain(long frameEndNanos) {
+        frame++;
+        for (Queue queue : queues) {
+            while (queue.size > 0 && queue.deadlineOfFirst() < frame) {
+                forced++;
+                runFirst(queue);
+            }
+        }
+        for (Queue queue : queues) {
+            while (queue.size > 0) {
+                if (System.nanoTime() >= frameEndNanos) {
+                    return;
+                }
+                runFirst(queue);
+            }
+        }
+    }
+
+    /**
+     * Drops all the queued work, e.g. when the game starts over and the work is about old objects.
+     */
+    public void clear() {
+        for (Queue queue : queues) {
+            queue.clear();
+        }
+        for (SoundWork work : sounds.values()) {
+            work.waiting = false;
+        }
+    }
+
+    /**
+     * @return The number of pieces of work waiting.
+     */
+    public int size() {
+        int size = 0;
+        for (Queue queue : queues) {
+            size += queue.size;
+        }
+        return size;
+    }
+
+    /**
+     * Returns how long work waited to run.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The waiting time in nanoseconds.
+     */
+    public long getLatencyNanos(double percentile) {
+        return latency.percentile(percentile);
+    }
+
+    /**
+     * Describes the work done so far.
+     *
+     * @return A multi-line report.
+     */
+    public String report() {
+        return String.format("deferred work: %d run (%d by deadline), %d waiting%n"
+                        + "  latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                completed, forced, size(),
+                latency.percentile(50) / 1e6, latency.percentile(99) / 1e6, latency.max() / 1e6);
+    }
+
+    private void runFirst(Queue queue) {
+        long queuedAt = queue.queuedAtOfFirst();
+        Runnable work = queue.removeFirst();
+        work.run();
+        latency.record(System.nanoTime() - queuedAt);
+        completed++;
+    }
+
+    /**
+     * Plays a sound, reused every time the sound is queued.
+     */
+    private static class SoundWork implements Runnable {
+        private final Sound sound;
+        private boolean waiting = false; // whether the sound is queued
+
+        SoundWork(Sound sound) {
+            this.sound = sound;
+        }
+
+        @Override
+        public void run() {
+            waiting = false;
+            sound.play();
+        }
+    }
+
+    /**
+     * The work of one priority in the order it was queued, in a ring of parallel arrays.
+     */
+    private static class Queue {
+        private Runnable[] work = new Runnable[INITIAL_CAPACITY];
+        private long[] deadline = new long[INITIAL_CAPACITY]; // the last frame the work may wait to the end of
+        private long[] queuedAt = new long[INITIAL_CAPACITY]; // the nanoTime the work was queued at
+        private int head = 0;
+        private int size = 0;
+
+        void add(Runnable runnable, long deadlineFrame, long nanos) {
+            if (size == work.length) {
+                grow();
+            }
+            int tail = (head + size) & (work.length - 1);
+            work[tail] = runnable;
+            deadline[tail] = deadlineFrame;
+            queuedAt[tail] = nanos;
+            size++;
+        }
+
+        long deadlineOfFirst() {
+            return deadline[head];
+        }
+
+        long queuedAtOfFirst() {
+            return queuedAt[head];
+        }
+
+        Runnable removeFirst() {
+            Runnable first = work[head];
+            work[head] = null;
+            head = (head + 1) & (work.length - 1);
+            size--;
+            return first;
+        }
+
+        void clear() {
+            while (size > 0) {
+                removeFirst();
+            }
+            head = 0;
+        }
+
+        private void grow() {
+            Runnable[] grownWork = new Runnable[work.length * 2];
+            long[] grownDeadline = new long[work.length * 2];
+            long[] grownQueuedAt = new long[work.length * 2];
+            for (int i = 0; i < size; i++) {
+                int from = (head + i) & (work.length - 1);
+                grownWork[i] = work[from];
+                grownDeadline[i] = deadline[from];
+                grownQueuedAt[i] = queuedAt[from];
+            }
+            work = grownWork;
+            deadline = grownDeadline;
+            queuedAt = grownQueuedAt;
+            head = 0;
+        }
+    }
+}
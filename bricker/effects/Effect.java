@@ -0,0 +1,96 @@
+package bricker.effects;
+
+/**
+ * A temporary gameplay effect registered with an {@link EffectScheduler}.
+ * When the effect expires its callback runs once. The effect can also be cancelled before that,
+ * in which case the callback never runs. Both take constant time.
+ * Effects are linked directly into the list of the wheel slot or trigger they wait on.
+ */
+public class Effect {
+    Effect prev = this; // neighbours in the list the effect waits in
+    Effect next = this;
+    long deadlineTick; // for effects that expire by time
+    long sequence; // the number of effects the scheduler scheduled before this one
+    int remainingEvents; // for effects that expire by events
+    private final EffectTrigger trigger; // null for effects that expire by time
+    private final Runnable onExpire;
+    private boolean active;
+
+    Effect(EffectTrigger trigger, Runnable onExpire) {
+        this.trigger = trigger;
+        this.onExpire = onExpire;
+    }
+
+    /**
+     * Cancels the effect, so it never expires. Does nothing if the effect already expired or was cancelled.
+     */
+    public void cancel() {
+        if (active) {
+            unlink();
+            active = false;
+        }
+    }
+
+    /**
+     * @return True if the effect has neither expired nor been cancelled.
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * @return The number of events left until the effect expires, or 0 for effects that expire by time.
+     */
+    public int getRemainingEvents() {
+        return trigger == null ? 0 : remainingEvents;
+    }
+
+    /**
+     * @return The trigger whose events the effect counts, or null for effects that expire by time.
+     */
+    public EffectTrigger getTrigger() {
+        return trigger;
+    }
+
+    void activate() {
+        active = true;
+    }
+
+    void expire() {
+        active = false;
+        onExpire.run();
+    }
+
+    void linkBefore(Effect sentinel) {
+        prev = sentinel.prev;
+        next = sentinel;
+        sentinel.prev.next = this;
+        sentinel.prev = this;
+    }
+
+    void unlink() {
+        prev.next = next;
+        next.prev = prev;
+        prev = this;
+        next = this;
+    }
+
+    /**
+     * Moves all the effects waiting after one sentinel to another, empty, sentinel.
+     */
+    static void moveAll(Effect from, Effect to) {
+        if (from.next == from) {
+            return;
+        }
+        to.next = from.next;
+        to.prev = from.prev;
+        to.next.prev = to;
+        to.prev.next = to;
+        from.next = from;
+        from.prev = from;
+    }
+
+    static Effect sentinel() {
+        return new Effect(null, null);
+    }
+}
@@ -0,0 +1,185 @@
+package bricker.effects;
+
+/**
+ * Tracks temporary gameplay effects and runs a callback when each one expires.
+ * An effect expires after some time, after a number of events of an {@link EffectTrigger} such as the
+ * collisions of a ball, or on the next event of a trigger. Timed effects are kept in a hashed timing
+ * wheel: advancing the clock only visits the wheel slot of each elapsed tick, and scheduling,
+ * expiring and cancelling an effect all take constant time, so many concurrent effects cost almost
+ * nothing per frame.
+ */
+public class EffectScheduler {
+    private static final int DEFAULT_SLOT_COUNT = 256; // must be a power of two
+    private static final float DEFAULT_TICK_DURATION = 1f / 60;
+
+    private final Effect[] slots; // sentinels of the timed effects, by deadline tick
+    private final int slotMask;
+    private final float tickDuration; // seconds per tick
+    private final Effect expiring = Effect.sentinel(); // effects of the slot being visited
+    private long currentTick = 0;
+    private float pendingTime = 0; // time advanced but not yet making up a whole tick
+    private long scheduledCount = 0; // effects scheduled so far
+
+    /**
+     * Constructs a scheduler with a tick of one frame at 60 frames per second.
+     */
+    public EffectScheduler() {
+        this(DEFAULT_SLOT_COUNT, DEFAULT_TICK_DURATION);
+    }
+
+    /**
+     * Constructs a scheduler.
+     *
+     * @param slotCount    The number of slots in the wheel, a power of two.
+     * @param tickDuration The resolution of timed effects, in seconds.
+     */
+    public EffectScheduler(int slotCount, float tickDuration) {
+        if (slotCount <= 0 || Integer.bitCount(slotCount) != 1) {
+            throw new IllegalArgumentException("slot count must be a power of two: " + slotCount);
+        }
+        if (!(tickDuration > 0)) {
+            throw new IllegalArgumentException("tick duration must be positive: " + tickDuration);
+        }
+        this.slots = new Effect[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = Effect.sentinel();
+        }
+        this.slotMask = slotCount - 1;
+        this.tickDuration = tickDuration;
+    }
+
+    /**
+     * Schedules an effect that expires after some time.
+     *
+     * @param seconds  The time until the effect expires, rounded up to whole ticks.
+     * @param onExpire Runs when the effect expires.
+     * @return The scheduled effect.
+     */
+    public Effect expireAfterTime(float seconds, Runnable onExpire) {
+        Effect effect = new Effect(null, onExpire);
+        effect.sequence = scheduledCount++;
+        long ticks = Math.max(1, (long) Math.ceil((seconds - pendingTime) / tickDuration));
+        effect.deadlineTick = currentTick + ticks;
+        effect.linkBefore(slots[(int) (effect.deadlineTick & slotMask)]);
+        effect.activate();
+        return effect;
+    }
+
+    /**
+     * Schedules an effect that expires after a number of events of a trigger.
+     *
+     * @param trigger  The trigger whose events are counted.
+     * @param events   The number of events until the effect expires, at least 1.
+     * @param onExpire Runs when the effect expires.
+     * @return The scheduled effect.
+     */
+    public Effect expireAfterEvents(EffectTrigger trigger, int events, Runnable onExpire) {
+        Effect effect = new Effect(trigger, onExpire);
+        effect.sequence = scheduledCount++;
+        effect.remainingEvents = Math.max(1, events);
+        trigger.add(effect);
+        effect.activate();
+        return effect;
+    }
+
+    /**
+     * Schedules an effect that expires on the next event of a trigger.
+     *
+     * @param trigger  The trigger to wait for.
+     * @param onExpire Runs when the effect expires.
+     * @return The scheduled effect.
+     */
+    public Effect expireOnEvent(EffectTrigger trigger, Runnable onExpire) {
+        return expireAfterEvents(trigger, 1, onExpire);
+    }
+
+    /**
+     * Advances the clock, expiring the timed effects whose time has come.
+     *
+     * @param deltaTime Time elapsed since the last call, in seconds.
+     * @throws IllegalStateException If called from an expiry callback.
+     */
+    public void advance(float deltaTime) {
+        if (expiring.next != expiring) {
+            throw new IllegalStateException("the clock cannot advance from an expiry callback");
+        }
+        pendingTime += deltaTime;
+        while (pendingTime >= tickDuration) {
+            pendingTime -= tickDuration;
+            currentTick++;
+            expireSlot(slots[(int) (currentTick & slotMask)]);
+        }
+    }
+
+    /**
+     * @return The number of whole ticks the clock advanced.
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return The time advanced past the current tick, in seconds.
+     */
+    public float getPendingTime() {
+        return pendingTime;
+    }
+
+    /**
+     * @return The number of effects scheduled so far.
+     */
+    public long getScheduledCount() {
+        return scheduledCount;
+    }
+
+    /**
+     * Sets the clock back to an earlier time, when the game is rewound to it. A timed effect scheduled before
+     * that time keeps its deadline, so it has the ticks left it had then, and one scheduled since is
+     * cancelled. Effects that expired since are not revived: whoever their callbacks changed restores its own
+     * state, scheduling them again. Effects that expire by events are left to whoever counts the events.
+     *
+     * @param tick           The tick the clock was at, not after the current one.
+     * @param pendingTime    The time that was advanced past that tick.
+     * @param scheduledCount The number of effects that were scheduled by then.
+     * @throws IllegalStateException If called from an expiry callback.
+     */
+    public void rewindClock(long tick, float pendingTime, long scheduledCount) {
+        if (tick > currentTick || scheduledCount > this.scheduledCount) {
+            throw new IllegalArgumentException("the clock can only be set back, to tick " + currentTick
+                    + " at most: " + tick);
+        }
+        if (expiring.next != expiring) {
+            throw new IllegalStateException("the clock cannot be set back from an expiry callback");
+        }
+        for (Effect slot : slots) {
+            Effect effect = slot.next;
+            while (effect != slot) {
+                Effect next = effect.next;
+                if (effect.sequence >= scheduledCount) {
+                    effect.cancel();
+                }
+                effect = next;
+            }
+        }
+        currentTick = tick;
+        this.pendingTime = pendingTime;
+        this.scheduledCount = scheduledCount;
+    }
+
+    /**
+     * Expires the effects of a slot that are due. Effects whose deadline is whole turns of the wheel
+     * away stay in the slot.
+     */
+    private void expireSlot(Effect slot) {
+        Effect.moveAll(slot, expiring);
+        while (expiring.next != expiring) {
+            Effect effect = expiring.next;
+            effect.unlink();
+            if (effect.deadlineTick <= currentTick) {
+                effect.expire();
+            } else {
+                effect.linkBefore(slot);
+            }
+        }
+    }
+}
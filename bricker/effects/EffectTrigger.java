@@ -0,0 +1,48 @@
+package bricker.effects;
+
+/**
+ * A source of events that effects can expire by, such as the collisions of one ball or a gameplay event.
+ * Every time the trigger fires, each effect waiting on it counts down one event, and the effects that
+ * reach zero expire.
+ */
+public class EffectTrigger {
+    private final Effect waiting = Effect.sentinel(); // effects counting this trigger's events
+    private final Effect firing = Effect.sentinel(); // effects being counted down by fire()
+
+    /**
+     * Counts one event for every effect waiting on this trigger, expiring those that reach zero.
+     * Effects added or cancelled by an expiry callback are handled correctly. Effects added to this
+     * trigger by a callback only count the following events.
+     *
+     * @throws IllegalStateException If called from the expiry callback of one of this trigger's effects.
+     */
+    public void fire() {
+        if (waiting.next == waiting) {
+            return;
+        }
+        if (firing.next != firing) {
+            throw new IllegalStateException("a trigger cannot fire from its own expiry callbacks");
+        }
+        Effect.moveAll(waiting, firing);
+        while (firing.next != firing) {
+            Effect effect = firing.next;
+            effect.unlink();
+            if (--effect.remainingEvents <= 0) {
+                effect.expire();
+            } else {
+                effect.linkBefore(waiting);
+            }
+        }
+    }
+
+    /**
+     * @return True if some effect is waiting on this trigger.
+     */
+    public boolean hasWaitingEffects() {
+        return waiting.next != waiting;
+    }
+
+    void add(Effect effect) {
+        effect.linkBefore(waiting);
+    }
+}
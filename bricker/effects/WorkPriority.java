@@ -0,0 +1,28 @@
+package bricker.effects;
+
+/**
+ * How urgent a piece of {@link DeferredWork} is, from the most urgent. Each priority also sets the deadline
+ * of its work: the number of frames after the one that queued it that the work may be put off, after which
+ * it runs even if the frame has no time left.
+ */
+public enum WorkPriority {
+    /** Playing a sound, which is heard late after a frame or two. */
+    SOUND(1),
+    /** Adding a spawned object, such as a mock ball or a falling heart. */
+    SPAWN(3),
+    /** Updating the HUD, such as the heart icons of the health bar. */
+    HUD(10);
+
+    private final int deadlineFrames;
+
+    WorkPriority(int deadlineFrames) {
+        this.deadlineFrames = deadlineFrames;
+    }
+
+    /**
+     * @return The number of frames work of this priority may be put off.
+     */
+    public int getDeadlineFrames() {
+        return deadlineFrames;
+    }
+}
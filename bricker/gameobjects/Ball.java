@@ -1,5 +1,22 @@
 package bricker.gameobjects;
 
+import bricker.effects.DeferredWork;
+import bricker.effects.Effect;
+import bricker.effects.EffectScheduler;
+import bricker.effects.EffectTrigger;
+import bricker.journal.JournalEvents;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.metrics.FlightEvents;
+import bricker.physics.Categorized;
+import bricker.physics.CollisionCategory;
+import bricker.physics.CollisionMatrix;
+import bricker.physics.ContactAggregator;
+import bricker.physics.ContactHandler;
+import bricker.physics.ContactManifold;
+import bricker.physics.ManifoldResponder;
+import bricker.physics.MoveBatch;
+import bricker.physics.ParallelMoving;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.Collision;
@@ -11,15 +28,19 @@ import danogl.util.Vector2;
  * Represents a ball in the Bricker game. The ball can bounce off surfaces, track the number of collisions,
  * and interact with the game manager (e.g., deactivate the camera after a certain number of collisions).
  */
-public class Ball extends GameObject {
+public class Ball extends GameObject implements ContactHandler, Categorized, ManifoldResponder, ParallelMoving {
     private final Sound collisionSound;
-    private int collisionCounter; // Counter to track collisions
     private final GameManager gameManager;
-    private boolean counting = false;
-    private boolean turboState = false;
+    private final EffectScheduler effects; // expires the ball's temporary effects
+    private final EffectTrigger collisionTrigger = new EffectTrigger(); // fires on every collision
+    private Effect turboEffect = null; // the current turbo state, expiring after some collisions
     private int maxCollisionInTurbo;
     private float velocityChangeFactorInTurbo;
     private Renderable renderable;
+    private DeferredWork deferredWork = null; // plays the collision sound later, or null to play it right away
+    private final ContactManifold contacts = new ContactManifold(); // the contacts of this step
+    private ContactAggregator contactAggregator = null; // responds at the end of the step, or null for each contact
+    private MoveBatch moveBatch = null; // moves the ball in this frame's batch, or null
 
 
 
@@ -30,23 +51,60 @@ public class Ball extends GameObject {
      * @param topLeftCorner  Position of the ball, in window coordinates (pixels).
      * @param dimensions     Width and height of the ball, in window coordinates.
      * @param renderable     The renderable representing the ball.
-     * @param collisionSound The sound to play on collision.
+     * @param collisionSound The sound to play on collision, or null for silent collisions.
      * @param gameManager    The game manager for handling game-specific logic.
+     * @param effects        The scheduler that expires the ball's temporary effects.
      */
     public Ball(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
-                Sound collisionSound, GameManager gameManager) {
+                Sound collisionSound, GameManager gameManager, EffectScheduler effects) {
         super(topLeftCorner, dimensions, renderable);
         this.collisionSound = collisionSound;
         this.gameManager = gameManager;
+        this.effects = effects;
 
-        this.collisionCounter = 0; // Initialize the counter
         this.renderable= renderable;
     }
 
 
     /**
-     * Handles behavior when the ball collides with another object.
-     * Flips the velocity vector, plays a collision sound, and tracks collisions.
+     * Moves the ball according to its velocity.
+     *
+     * @param deltaTime Time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        AllocationProfiler.begin(AllocationPhase.MOVEMENT);
+        if (moveBatch != null) {
+            moveBatch.awaitMoves();
+            moveBatch = null;
+        } else {
+            super.update(deltaTime);
+        }
+        AllocationProfiler.end();
+    }
+
+    /**
+     * Moves the ball by a frame, on a worker thread of a parallel update.
+     *
+     * @param deltaTime Time elapsed since the last frame.
+     */
+    @Override
+    public void moveInParallel(float deltaTime) {
+        super.update(deltaTime);
+    }
+
+    /**
+     * Makes the next update wait for a batch to move the ball.
+     *
+     * @param batch The batch moving the ball.
+     */
+    @Override
+    public void joinBatch(MoveBatch batch) {
+        moveBatch = batch;
+    }
+
+    /**
+     * Handles behavior when the ball collides with another object, see {@link #onContact(GameObject, Vector2)}.
      *
      * @param other     The other GameObject involved in the collision.
      * @param collision Collision details, including the normal of the collision.
@@ -54,35 +112,106 @@ public class Ball extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
-        if (counting) {
-            collisionCounter ++;
+        onContact(other, collision.getNormal());
+    }
+
+    /**
+     * Handles behavior when the ball touches another object.
+     * Gathers the contact, to respond to all the contacts of the step at once when they are known, or
+     * responds right away if the ball is not told when they are.
+     *
+     * @param other  The other GameObject involved in the contact.
+     * @param normal The normal of the contact.
+     */
+    @Override
+    public void onContact(GameObject other, Vector2 normal) {
+        if (contactAggregator != null && contacts.isEmpty()) {
+            contactAggregator.enlist(this);
+        }
+        contacts.add(normal);
+        if (contactAggregator == null) {
+            respondToContacts();
+        }
+    }
+
+    /**
+     * Responds to the contacts of the step as to a single bounce: flips the velocity by their combined normal,
+     * plays a collision sound, and counts the collision for the effects that last a number of collisions.
+     */
+    @Override
+    public void respondToContacts() {
+        AllocationProfiler.begin(AllocationPhase.COLLISION);
+        Vector2 normal = contacts.combinedNormal();
+        contacts.clear();
+        if (normal != null) {
+            setVelocity(getVelocity().flipped(normal));
         }
-        Vector2 newVel = getVelocity().flipped(collision.getNormal());
-        setVelocity(newVel);
-        collisionSound.play();
-
-        if(this.turboState && this.collisionCounter>=maxCollisionInTurbo){
-            //reset ball state
-            resetBallDesign();
-            this.turboState = false;
-            this.counting = false;
+        if (collisionSound != null) {
+            if (deferredWork != null) {
+                deferredWork.playSound(collisionSound);
+            } else {
+                collisionSound.play();
+            }
         }
 
+        // count down the effects that last a number of collisions, resetting the ball after turbo
+        collisionTrigger.fire();
+        AllocationProfiler.end();
+
     }
 
     /**
-     * Activates collision tracking and resets the collision counter to zero.
+     * Determines if the ball should collide with the given object, by their collision categories.
+     *
+     * @param other The other GameObject to check for collision.
+     * @return True if the categories of the ball and the other object can collide.
      */
-    public void countToMaxCollisions() {
-        counting = true;
-        collisionCounter = 0;
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return CollisionMatrix.STANDARD.canCollide(this, other) && super.shouldCollideWith(other);
     }
 
-    private void SetTurboState(boolean isTurbo){
-        this.turboState = isTurbo;
+    /**
+     * @return The collision category of the ball.
+     */
+    @Override
+    public CollisionCategory getCollisionCategory() {
+        return CollisionCategory.BALL;
     }
+
+    /**
+     * Makes the collision sound play at the end of a frame with time left rather than right away.
+     *
+     * @param deferredWork The queue of the work deferred by the game, or null to play the sound right away.
+     */
+    public void setDeferredWork(DeferredWork deferredWork) {
+        this.deferredWork = deferredWork;
+    }
+
+    /**
+     * Makes the ball gather its contacts of a step and respond to them at once, when told by an aggregator.
+     *
+     * @param contactAggregator The aggregator telling the ball, or null to respond to each contact right away.
+     */
+    public void setContactAggregator(ContactAggregator contactAggregator) {
+        this.contactAggregator = contactAggregator;
+    }
+
+    /**
+     * @return True if the ball is in turbo state.
+     */
     public boolean getTurboState(){
-        return turboState;
+        return turboEffect != null && turboEffect.isActive();
+    }
+
+    /**
+     * Returns the trigger that fires on every collision of the ball, for effects that last a number
+     * of collisions.
+     *
+     * @return The ball's collision trigger.
+     */
+    public EffectTrigger getCollisionTrigger() {
+        return collisionTrigger;
     }
 
     private void resetBallDesign(){
@@ -90,6 +219,8 @@ public class Ball extends GameObject {
         this.setVelocity(this.getVelocity().mult((1/velocityChangeFactorInTurbo)));
         //reset ball image
         this.renderer().setRenderable(renderable);
+        FlightEvents.turbo(false, maxCollisionInTurbo);
+        JournalEvents.turbo(false, maxCollisionInTurbo, velocityChangeFactorInTurbo);
     }
 
     /**
@@ -104,8 +235,61 @@ public class Ball extends GameObject {
         Vector2 currentVelocity = this.getVelocity();
         this.setVelocity(currentVelocity.mult(velocityChangeFactorInTurbo));
         this.renderer().setRenderable(turboBallRenderable);
-        this.SetTurboState(true);
-        this.countToMaxCollisions();
+        startTurboEffect(numberOfCollisions);
+        FlightEvents.turbo(true, numberOfCollisions);
+        JournalEvents.turbo(true, numberOfCollisions, velocityChangeFactor);
+    }
+
+    /**
+     * @return The number of collisions counted since the turbo state started, or 0 if not in turbo state.
+     */
+    public int getCollisionCounter() {
+        return getTurboState() ? maxCollisionInTurbo - turboEffect.getRemainingEvents() : 0;
+    }
+
+    /**
+     * @return The number of collisions the current turbo state lasts.
+     */
+    public int getMaxCollisionInTurbo() {
+        return maxCollisionInTurbo;
+    }
+
+    /**
+     * @return The factor the velocity was multiplied by in the current turbo state.
+     */
+    public float getVelocityChangeFactorInTurbo() {
+        return velocityChangeFactorInTurbo;
+    }
+
+    /**
+     * Restores the turbo state of the ball, e.g. when a saved game is loaded.
+     * The velocity is expected to be restored separately, already including the turbo factor.
+     *
+     * @param turbo                Whether the ball is in turbo state.
+     * @param collisionCounter     The number of collisions counted since the turbo state started.
+     * @param maxCollisionInTurbo  The number of collisions the turbo state lasts.
+     * @param velocityChangeFactor The factor the velocity was multiplied by in turbo state.
+     * @param turboBallRenderable  The renderable of the turbo state.
+     */
+    public void restoreState(boolean turbo, int collisionCounter, int maxCollisionInTurbo,
+                             float velocityChangeFactor, Renderable turboBallRenderable) {
+        if (turboEffect != null) {
+            turboEffect.cancel();
+            turboEffect = null;
+        }
+        this.maxCollisionInTurbo = maxCollisionInTurbo;
+        this.velocityChangeFactorInTurbo = velocityChangeFactor;
+        if (turbo) {
+            startTurboEffect(maxCollisionInTurbo - collisionCounter);
+        }
+        this.renderer().setRenderable(turbo ? turboBallRenderable : renderable);
+    }
+
+    /**
+     * Schedules the end of the turbo state after a number of collisions.
+     */
+    private void startTurboEffect(int numberOfCollisions) {
+        turboEffect = effects.expireAfterEvents(collisionTrigger, numberOfCollisions, this::resetBallDesign);
     }
 
 
@@ -1,7 +1,13 @@
 package bricker.gameobjects;
 
-import bricker.brick_strategies.BasicCollisionStrategy;
 import bricker.brick_strategies.CollisionStrategy;
+import bricker.brick_strategies.StrategyResolver;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.physics.Categorized;
+import bricker.physics.CollisionCategory;
+import bricker.physics.ContactHandler;
+import bricker.physics.Destructible;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.gui.rendering.Renderable;
@@ -9,11 +15,20 @@ import danogl.util.Vector2;
 
 /**
  * Represents a brick in the Bricker game.
- * Each brick has an associated collision strategy that defines its behavior when hit.
+ * Each brick has an associated collision strategy that defines its behavior when hit. A brick may instead
+ * carry a seed, from which its strategy is resolved when it is first hit, so bricks never hit cost nothing
+ * but the seed.
  */
-public class Brick extends GameObject {
+public class Brick extends GameObject implements Categorized, ContactHandler, Destructible {
 
-    private final CollisionStrategy collisionStrategy;
+    private static final int UNRESOLVED = -1; // the strategy code of a brick not resolved yet
+
+    private CollisionStrategy collisionStrategy; // null until resolved from the seed
+    private int strategyCode; // the StrategyCode the collision strategy was built from
+    private StrategyResolver resolver; // resolves the strategy from the seed, null once resolved
+    private long strategySeed; // the seed the strategy is resolved from
+    private boolean destroyed = false; // whether the brick was removed from the wall
+    private BrickChangeLog changeLog = null; // told when the brick is destroyed or put back, or null
 
     /**
      * Constructs a Brick object.
@@ -24,10 +39,30 @@ public class Brick extends GameObject {
      * @param renderable      The renderable representing the brick. Can be null, in which case
      *                        the brick will not be rendered.
      * @param collisionStrategy The collision strategy that defines the behavior of the brick when hit.
+     * @param strategyCode    The StrategyCode describing the special behaviors of the collision strategy.
      */
-    public Brick(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, CollisionStrategy collisionStrategy) {
+    public Brick(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, CollisionStrategy collisionStrategy,
+                 int strategyCode) {
         super(topLeftCorner, dimensions, renderable);
         this.collisionStrategy = collisionStrategy;
+        this.strategyCode = strategyCode;
+    }
+
+    /**
+     * Constructs a Brick whose collision strategy is resolved from a seed when it is first hit.
+     *
+     * @param topLeftCorner Position of the brick, in window coordinates (pixels).
+     * @param dimensions    Width and height of the brick, in window coordinates.
+     * @param renderable    The renderable representing the brick, or null to not render it.
+     * @param resolver      Resolves the collision strategy from the seed.
+     * @param strategySeed  The seed of the brick's collision strategy.
+     */
+    public Brick(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, StrategyResolver resolver,
+                 long strategySeed) {
+        super(topLeftCorner, dimensions, renderable);
+        this.resolver = resolver;
+        this.strategySeed = strategySeed;
+        this.strategyCode = UNRESOLVED;
     }
 
     /**
@@ -40,7 +75,99 @@ public class Brick extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
+        hitBy(other);
+    }
+
+    /**
+     * Handles the brick being touched by another object, when the contacts are found by the game's own
+     * physics backend instead of danogl, see {@link #hitBy(GameObject)}.
+     *
+     * @param other  The GameObject that hit the brick.
+     * @param normal The normal of the contact.
+     */
+    @Override
+    public void onContact(GameObject other, Vector2 normal) {
+        hitBy(other);
+    }
+
+    /**
+     * Handles the brick being hit by another object, also when the hit was found outside the collisions
+     * of the game manager. Delegates to the associated collision strategy.
+     *
+     * @param other The GameObject that hit the brick.
+     */
+    public void hitBy(GameObject other) {
+        AllocationProfiler.begin(AllocationPhase.COLLISION);
+        if (collisionStrategy == null) {
+            collisionStrategy = resolver.strategyFor(getStrategyCode());
+            resolver = null;
+        }
         collisionStrategy.onCollision(this, other);
+        AllocationProfiler.end();
+    }
+
+    /**
+     * @return The collision category of the brick.
+     */
+    @Override
+    public CollisionCategory getCollisionCategory() {
+        return CollisionCategory.BRICK;
+    }
+
+    /**
+     * Replaces the collision strategy of the brick, e.g. when a saved game is loaded.
+     *
+     * @param collisionStrategy The new collision strategy.
+     * @param strategyCode      The StrategyCode describing the special behaviors of the collision strategy.
+     */
+    public void setCollisionStrategy(CollisionStrategy collisionStrategy, int strategyCode) {
+        this.collisionStrategy = collisionStrategy;
+        this.strategyCode = strategyCode;
+        this.resolver = null;
+    }
+
+    /**
+     * Returns the StrategyCode describing the special behaviors of the brick, rolling it from the seed if
+     * it was not yet. The strategy itself is still built only when the brick is hit.
+     *
+     * @return The strategy code of the brick.
+     */
+    public int getStrategyCode() {
+        if (strategyCode == UNRESOLVED) {
+            strategyCode = resolver.rollStrategyCode(strategySeed);
+        }
+        return strategyCode;
+    }
+
+    /**
+     * Returns whether the brick was removed from the wall.
+     *
+     * @return True if the brick is destroyed.
+     */
+    @Override
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * Marks whether the brick was removed from the wall.
+     *
+     * @param destroyed True if the brick is destroyed.
+     */
+    public void setDestroyed(boolean destroyed) {
+        if (destroyed != this.destroyed && changeLog != null) {
+            changeLog.mark(this);
+        }
+        this.destroyed = destroyed;
+    }
+
+    /**
+     * Makes the brick mark itself in a log whenever it is destroyed or put back.
+     *
+     * @param changeLog The log of the bricks that changed, or null to not mark any.
+     */
+    public void setChangeLog(BrickChangeLog changeLog) {
+        this.changeLog = changeLog;
     }
 
 }
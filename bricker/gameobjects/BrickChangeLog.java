@@ -0,0 +1,50 @@
+package bricker.gameobjects;
+
+import java.util.Arrays;
+
+/**
+ * The bricks that entered or left the wall since the log was last cleared, marked by the bricks themselves
+ * whenever they are destroyed or put back, so whoever follows the wall only looks at the bricks that changed.
+ * A brick changed twice is marked twice.
+ */
+public class BrickChangeLog {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Brick[] changed = new Brick[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Marks a brick as changed.
+     *
+     * @param brick The brick that entered or left the wall.
+     */
+    public void mark(Brick brick) {
+        if (size == changed.length) {
+            changed = Arrays.copyOf(changed, size * 2);
+        }
+        changed[size++] = brick;
+    }
+
+    /**
+     * @return The number of marks since the log was cleared.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The index of a mark, in the order they were made.
+     * @return The brick marked.
+     */
+    public Brick get(int index) {
+        return changed[index];
+    }
+
+    /**
+     * Forgets all the marks.
+     */
+    public void clear() {
+        Arrays.fill(changed, 0, size, null);
+        size = 0;
+    }
+}
@@ -1,20 +1,20 @@
 package bricker.gameobjects;
 
-import bricker.brick_strategies.ExtraPaddleStrategy;
+import bricker.effects.EffectTrigger;
+import bricker.paddle_controllers.PaddleController;
+import bricker.physics.ContactHandler;
 import danogl.GameObject;
-import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
 /**
  * Represents an extra paddle in the Bricker game.
  * The paddle has a limited lifespan, defined by the number of collisions it can endure,
- * and is managed by an associated strategy.
+ * which is scheduled on its collision trigger by the slot that owns it.
  */
-public class ExtraPaddle extends Paddle {
+public class ExtraPaddle extends Paddle implements ContactHandler {
     private int collisionCount = 0; // Tracks the number of collisions
-    private static final int MAX_COLLISIONS = 4; // Maximum collisions before removal
-    private final ExtraPaddleStrategy strategy;
+    private final EffectTrigger collisionTrigger = new EffectTrigger(); // fires on every collision
 
 
 
@@ -24,20 +24,18 @@ public class ExtraPaddle extends Paddle {
      * @param topLeftCorner Position of the paddle in window coordinates (pixels).
      * @param dimensions    Width and height of the paddle in window coordinates.
      * @param renderable    The renderable representing the paddle.
-     * @param inputListener Listens to user input for controlling the paddle.
-     * @param strategy      The strategy managing this paddle's behavior.
+     * @param controller    Decides where the paddle moves every frame.
      * @param isMainPaddle  Indicates whether this is the main paddle.
      */
     public ExtraPaddle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
-                       UserInputListener inputListener, ExtraPaddleStrategy strategy, boolean isMainPaddle) {
-        super(topLeftCorner, dimensions, renderable, inputListener, isMainPaddle);
-        this.strategy = strategy;
+                       PaddleController controller, boolean isMainPaddle) {
+        super(topLeftCorner, dimensions, renderable, controller, isMainPaddle);
     }
 
     /**
      * Handles collision events for the paddle.
-     * Increments the collision count and removes the paddle via the strategy if the
-     * maximum collision limit is reached.
+     * Increments the collision count and fires the collision trigger, which removes the paddle
+     * once its lifespan is over.
      *
      * @param other     The other GameObject involved in the collision.
      * @param collision Details about the collision.
@@ -45,15 +43,28 @@ public class ExtraPaddle extends Paddle {
     @Override
     public void onCollisionEnter(GameObject other, danogl.collisions.Collision collision) {
         super.onCollisionEnter(other, collision);
+        countCollision();
+    }
+
+    /**
+     * Counts a contact of the paddle with another object, found outside danogl's collision detection.
+     *
+     * @param other  The other GameObject involved in the contact.
+     * @param normal The normal of the contact.
+     */
+    @Override
+    public void onContact(GameObject other, Vector2 normal) {
+        countCollision();
+    }
 
+    /**
+     * Counts a collision of the paddle, also when it was found outside the collisions of the game manager.
+     */
+    public void countCollision() {
         // Increment collision count
         collisionCount++;
 
-        // Check if the paddle reached its maximum collisions
-        if (collisionCount >= MAX_COLLISIONS) {
-            // Notify the strategy to handle paddle removal
-            strategy.removeExtraPaddle();
-        }
+        collisionTrigger.fire();
     }
 
     /**
@@ -65,4 +76,22 @@ public class ExtraPaddle extends Paddle {
 
         return collisionCount; // Expose the collision count if needed
     }
+
+    /**
+     * Sets the collision count of the paddle, e.g. when a saved game is loaded.
+     *
+     * @param collisionCount The number of collisions the paddle has endured.
+     */
+    public void setCollisionCount(int collisionCount) {
+        this.collisionCount = collisionCount;
+    }
+
+    /**
+     * Returns the trigger that fires on every collision of the paddle.
+     *
+     * @return The paddle's collision trigger.
+     */
+    public EffectTrigger getCollisionTrigger() {
+        return collisionTrigger;
+    }
 }
@@ -1,5 +1,15 @@
 package bricker.gameobjects;
 
+import bricker.journal.JournalEvents;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.metrics.FlightEvents;
+import bricker.physics.Categorized;
+import bricker.physics.CollisionCategory;
+import bricker.physics.CollisionMatrix;
+import bricker.physics.ContactHandler;
+import bricker.physics.MoveBatch;
+import bricker.physics.ParallelMoving;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.Collision;
@@ -13,11 +23,15 @@ import danogl.collisions.GameObjectCollection;
  * The heart increases the player's health when it collides with the main paddle,
  * provided the player's health is below the maximum limit.
  */
-public class FallingHeart extends Heart {
+public class FallingHeart extends Heart implements ContactHandler, Categorized, ParallelMoving {
     private final GameObject mainPaddle;
     private final GameObjectCollection gameObjects;
     private final HealthBar healthBar;
     private static final int MAX_LIVES = 4;
+    private boolean collected = false; // whether the heart was caught by the paddle
+    private boolean missed = false; // whether the heart fell past the paddle
+    private MoveBatch moveBatch = null; // moves the heart in this frame's batch, or null
+    private GameObjectRegistry<FallingHeart> registry = null; // the falling hearts in the game, or null
 
 
 
@@ -41,6 +55,50 @@ public class FallingHeart extends Heart {
     }
 
 
+    /**
+     * Moves the heart according to its velocity, and removes it from the game when it falls past the main
+     * paddle.
+     *
+     * @param deltaTime Time elapsed since the last frame.
+     */
+    @Override
+    public void update(float deltaTime) {
+        AllocationProfiler.begin(AllocationPhase.MOVEMENT);
+        if (moveBatch != null) {
+            moveBatch.awaitMoves();
+            moveBatch = null;
+        } else {
+            super.update(deltaTime);
+        }
+        if (!missed && !collected && getTopLeftCorner().y()
+                > mainPaddle.getTopLeftCorner().y() + mainPaddle.getDimensions().y()) {
+            missed = true;
+            JournalEvents.heartMissed(this);
+            removeFromGame(); // it can no longer be caught
+        }
+        AllocationProfiler.end();
+    }
+
+    /**
+     * Moves the heart by a frame, on a worker thread of a parallel update.
+     *
+     * @param deltaTime Time elapsed since the last frame.
+     */
+    @Override
+    public void moveInParallel(float deltaTime) {
+        super.update(deltaTime);
+    }
+
+    /**
+     * Makes the next update wait for a batch to move the heart.
+     *
+     * @param batch The batch moving the heart.
+     */
+    @Override
+    public void joinBatch(MoveBatch batch) {
+        moveBatch = batch;
+    }
+
     /**
      * Handles collision behavior for the falling heart.
      * Adds a life to the health bar if the heart collides with the main paddle
@@ -53,18 +111,66 @@ public class FallingHeart extends Heart {
     @Override
         public void onCollisionEnter(GameObject other, Collision collision) {
             super.onCollisionEnter(other, collision);
+            onContact(other, collision.getNormal());
+    }
+
+    /**
+     * Handles the heart touching another object, see {@link #onCollisionEnter(GameObject, Collision)}.
+     *
+     * @param other  The other GameObject involved in the contact.
+     * @param normal The normal of the contact.
+     */
+    @Override
+    public void onContact(GameObject other, Vector2 normal) {
             if(!shouldCollideWith(other)){
                 return;
             }
+            AllocationProfiler.begin(AllocationPhase.COLLISION);
+            int lives = this.healthBar.getLives();
             this.healthBar.addLife();
-            gameObjects.removeGameObject(this);
+            JournalEvents.heartCaught(this);
+            if (this.healthBar.getLives() > lives) {
+                FlightEvents.lifeChanged(1, this.healthBar.getLives());
+                JournalEvents.lifeChanged(1, this.healthBar.getLives());
+            }
+            collected = true;
+            removeFromGame();
+            AllocationProfiler.end();
+    }
+
+    /**
+     * Adds the heart to the registry of the falling hearts in the game, which it leaves when it is removed.
+     *
+     * @param registry The falling hearts in the game.
+     */
+    public void setRegistry(GameObjectRegistry<FallingHeart> registry) {
+        this.registry = registry;
+        registry.add(this);
+    }
+
+    /**
+     * Removes the heart from the game, if it is still in it.
+     */
+    public void removeFromGame() {
+        if (gameObjects.removeGameObject(this) && registry != null) {
+            registry.remove(this);
+        }
+    }
+
+    /**
+     * Returns whether the heart was caught by the main paddle.
+     *
+     * @return True if the heart was collected.
+     */
+    public boolean isCollected() {
+        return collected;
     }
 
 
     /**
      * Determines if the heart should collide with the given object.
      * Only allows collisions with the main paddle if the player's health
-     * is below the maximum limit.
+     * is below the maximum limit. Any other category is dropped by the collision matrix first.
      *
      * @param other The other GameObject to check for collision.
      * @return True if the heart should collide with the main paddle; false otherwise.
@@ -72,6 +178,9 @@ public class FallingHeart extends Heart {
     @Override
     public boolean shouldCollideWith(GameObject other) {
         super.shouldCollideWith(other);
+        if (!CollisionMatrix.STANDARD.canCollide(this, other)) {
+            return false;
+        }
         if(other == mainPaddle && healthBar.getLives() < MAX_LIVES){
             return true;
         }
@@ -80,5 +189,13 @@ public class FallingHeart extends Heart {
 
     }
 
+    /**
+     * @return The collision category of the heart.
+     */
+    @Override
+    public CollisionCategory getCollisionCategory() {
+        return CollisionCategory.HEART;
+    }
+
 
 }
@@ -0,0 +1,72 @@
+package bricker.gameobjects;
+
+import danogl.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * The objects of one kind that are in the game, such as the mock balls or the falling hearts, in the order
+ * they were added, so whoever follows them goes through them without walking all the objects of the game.
+ * The objects add themselves when they are given the registry and remove themselves when they leave the game.
+ *
+ * @param <T> The kind of the objects.
+ */
+public class GameObjectRegistry<T extends GameObject> {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private GameObject[] objects = new GameObject[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Adds an object that entered the game.
+     *
+     * @param object The object.
+     */
+    public void add(T object) {
+        if (size == objects.length) {
+            objects = Arrays.copyOf(objects, size * 2);
+        }
+        objects[size++] = object;
+    }
+
+    /**
+     * Removes an object that left the game, keeping the order of the others.
+     *
+     * @param object The object.
+     * @return True if the object was registered.
+     */
+    public boolean remove(T object) {
+        for (int i = size - 1; i >= 0; i--) { // the newest objects tend to leave first
+            if (objects[i] == object) {
+                System.arraycopy(objects, i + 1, objects, i, size - i - 1);
+                objects[--size] = null;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The number of objects in the game.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index The index of an object, in the order they were added.
+     * @return The object.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) objects[index];
+    }
+
+    /**
+     * Forgets all the objects, when the game removes them all at once.
+     */
+    public void clear() {
+        Arrays.fill(objects, 0, size, null);
+        size = 0;
+    }
+}
@@ -1,7 +1,12 @@
 package bricker.gameobjects;
 
+import bricker.effects.DeferredWork;
+import bricker.effects.WorkPriority;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
 import danogl.collisions.GameObjectCollection;
 import danogl.collisions.Layer;
+import danogl.components.CoordinateSpace;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
@@ -23,6 +28,8 @@ public class HealthBar {
     private final Renderable heartImage;
     private final int heartRadius;
     private final GameObjectCollection gameObjects;
+    private final Runnable showHearts = this::showHearts; // queued as deferred work without allocating
+    private DeferredWork deferredWork = null; // shows added hearts later, or null to show them right away
 
 
     /**
@@ -55,15 +62,47 @@ public class HealthBar {
      * A new heart icon is displayed in the UI for each additional life.
      */
     public void addLife() {
+        AllocationProfiler.begin(AllocationPhase.HUD);
         if (lives < MAX_LIVES) {
             this.lives += 1;
-            heartsToDisplay[lives-1] = new Heart(
-                    new Vector2(FIRST_LIFE_POSITION +  (lives-1)* SPACE_BETWEEN_LIVES, HEALTH_BAR_HEIGHT), // Position each heart with 30px spacing
+            if (deferredWork != null) {
+                deferredWork.defer(WorkPriority.HUD, showHearts);
+            } else {
+                showHearts();
+            }
+        }
+        AllocationProfiler.end();
+    }
+
+    /**
+     * Makes the icons of added lives appear at the end of a frame with time left rather than right away.
+     * The number of lives changes right away regardless.
+     *
+     * @param deferredWork The queue of the work deferred by the game, or null to show the icons right away.
+     */
+    public void setDeferredWork(DeferredWork deferredWork) {
+        this.deferredWork = deferredWork;
+    }
+
+    /**
+     * Displays an icon for every life that has none yet.
+     */
+    private void showHearts() {
+        AllocationProfiler.begin(AllocationPhase.HUD);
+        for (int i = 0; i < lives; i++) {
+            if (heartsToDisplay[i] != null) {
+                continue;
+            }
+            heartsToDisplay[i] = new Heart(
+                    new Vector2(FIRST_LIFE_POSITION +  i * SPACE_BETWEEN_LIVES, HEALTH_BAR_HEIGHT), // Position each heart with 30px spacing
                     new Vector2(heartRadius, heartRadius), // Size of each heart
                     heartImage
             );
-            gameObjects.addGameObject(heartsToDisplay[lives-1], Layer.UI);
+            // the health bar stays in place when the camera follows the ball
+            heartsToDisplay[i].setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+            gameObjects.addGameObject(heartsToDisplay[i], Layer.UI);
         }
+        AllocationProfiler.end();
     }
 
     /**
@@ -71,12 +110,31 @@ public class HealthBar {
      * The corresponding heart icon is removed from the UI.
      */
     public void removeLife() {
+        AllocationProfiler.begin(AllocationPhase.HUD);
         if (this.lives > 0) {
             Heart heartToRemove = this.heartsToDisplay[this.lives-1];
             this.heartsToDisplay[this.lives-1] = null;
-            this.gameObjects.removeGameObject(heartToRemove, Layer.UI);
+            if (heartToRemove != null) { // not shown yet if adding it was deferred
+                this.gameObjects.removeGameObject(heartToRemove, Layer.UI);
+            }
             this.lives -= 1;
         }
+        AllocationProfiler.end();
+    }
+
+    /**
+     * Sets the number of lives, adding or removing heart icons as needed.
+     *
+     * @param lives The number of lives, between zero and the maximum allowed lives.
+     */
+    public void setLives(int lives) {
+        int target = Math.max(0, Math.min(MAX_LIVES, lives));
+        while (this.lives > target) {
+            removeLife();
+        }
+        while (this.lives < target) {
+            addLife();
+        }
     }
 
     /**
@@ -90,6 +148,7 @@ public class HealthBar {
                     new Vector2(HEART_RADIUS, HEART_RADIUS), // Size of each heart
                     heartImage
             );
+            heart.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES); // Stays in place with the camera
             this.heartsToDisplay[i] = heart; // Store the heart in the array
             gameObjects.addGameObject(heart, Layer.UI); // Add heart to UI layer
         }
@@ -1,24 +1,32 @@
 package bricker.gameobjects;
 
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.paddle_controllers.KeyboardPaddleController;
+import bricker.paddle_controllers.PaddleController;
+import bricker.physics.Categorized;
+import bricker.physics.CollisionCategory;
 import danogl.GameObject;
 import danogl.gui.UserInputListener;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
-import java.awt.event.KeyEvent;
-
 /**
  * Represents a paddle in the Bricker game.
- * The paddle is controlled by user input and moves horizontally within the game screen boundaries.
+ * The paddle is moved by its controller, the player's keyboard by default,
+ * and moves horizontally within the game screen boundaries.
  */
-public class Paddle extends GameObject {
+public class Paddle extends GameObject implements Categorized {
 
 
 
     private static final float MOVEMENT_SPEED = 400;
     private static final float SCREEN_WIDTH = 682;
-    private final UserInputListener inputListener;
     private static final float PADDLE_LEFT_BOUNDARY = 18;
+    private static final Vector2 LEFT_VELOCITY = Vector2.LEFT.mult(MOVEMENT_SPEED);
+    private static final Vector2 RIGHT_VELOCITY = Vector2.RIGHT.mult(MOVEMENT_SPEED);
+    private final PaddleController controller; // decides where the paddle moves
+    private final CollisionCategory collisionCategory; // the main paddle or an extra one
 
 
 
@@ -33,36 +41,76 @@ public class Paddle extends GameObject {
      */
     public Paddle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
                       UserInputListener inputListener, boolean isMainPaddle) {
+        this(topLeftCorner, dimensions, renderable, new KeyboardPaddleController(inputListener), isMainPaddle);
+    }
+
+    /**
+     * Constructs a Paddle instance moved by the given controller.
+     *
+     * @param topLeftCorner Position of the paddle in window coordinates (pixels).
+     * @param dimensions    Width and height of the paddle in window coordinates.
+     * @param renderable    The renderable representing the paddle.
+     * @param controller    Decides where the paddle moves every frame.
+     * @param isMainPaddle  Indicates whether this is the main paddle.
+     */
+    public Paddle(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable,
+                  PaddleController controller, boolean isMainPaddle) {
         super(topLeftCorner, dimensions, renderable);
-        this.inputListener = inputListener;
+        this.controller = controller;
+        this.collisionCategory = isMainPaddle ? CollisionCategory.PADDLE : CollisionCategory.EXTRA_PADDLE;
+    }
 
+    /**
+     * @return The collision category of the paddle, which tells the main paddle from an extra one.
+     */
+    @Override
+    public CollisionCategory getCollisionCategory() {
+        return collisionCategory;
     }
 
     /**
-     * Updates the paddle's position based on user input and ensures it stays within the screen boundaries.
+     * Returns the controller that moves the paddle.
+     *
+     * @return The paddle's controller.
+     */
+    public PaddleController getController() {
+        return controller;
+    }
+
+    /**
+     * Returns the speed the paddle moves at, in pixels per second.
+     *
+     * @return The paddle's movement speed.
+     */
+    public float getMovementSpeed() {
+        return MOVEMENT_SPEED;
+    }
+
+    /**
+     * Updates the paddle's position based on its controller and ensures it stays within the screen boundaries.
      *
      * @param deltaTime Time elapsed since the last frame (used for smooth movement).
      */
     @Override
     public void update(float deltaTime) {
+        AllocationProfiler.begin(AllocationPhase.INPUT);
         super.update(deltaTime);
-        Vector2 movementDir = Vector2.ZERO;
+        int direction = controller.movementDirection(this, deltaTime);
 
         // Get current paddle position and dimensions
         Vector2 topLeftCorner = getTopLeftCorner() ;
         float paddleWidth = getDimensions().x();
 
 
-        // Check boundaries for left and right keys
-        if (inputListener.isKeyPressed(KeyEvent.VK_LEFT) && topLeftCorner.x() > PADDLE_LEFT_BOUNDARY) {
-            movementDir = movementDir.add(Vector2.LEFT);
-        }
-        if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT) && topLeftCorner.x() + paddleWidth < SCREEN_WIDTH) {
-            movementDir = movementDir.add(Vector2.RIGHT);
+        // Check boundaries for the chosen direction
+        if (direction < 0 && topLeftCorner.x() > PADDLE_LEFT_BOUNDARY) {
+            setVelocity(LEFT_VELOCITY);
+        } else if (direction > 0 && topLeftCorner.x() + paddleWidth < SCREEN_WIDTH) {
+            setVelocity(RIGHT_VELOCITY);
+        } else {
+            setVelocity(Vector2.ZERO);
         }
-
-        // Set paddle velocity based on allowed movement
-        setVelocity(movementDir.mult(MOVEMENT_SPEED));
+        AllocationProfiler.end();
 
 
     }
@@ -1,10 +1,23 @@
 package bricker.gameobjects;
 
+import bricker.effects.DeferredWork;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.physics.Categorized;
+import bricker.physics.CollisionCategory;
+import bricker.physics.CollisionMatrix;
+import bricker.physics.ContactAggregator;
+import bricker.physics.ContactHandler;
+import bricker.physics.ContactManifold;
+import bricker.physics.ManifoldResponder;
+import bricker.physics.MoveBatch;
+import bricker.physics.ParallelMoving;
 import danogl.GameObject;
 import danogl.collisions.Collision;
 import danogl.collisions.GameObjectCollection;
 import danogl.gui.Sound;
 import danogl.gui.rendering.Renderable;
+import danogl.util.Counter;
 import danogl.util.Vector2;
 
 /**
@@ -12,10 +25,18 @@ import danogl.util.Vector2;
  * The puck bounces off objects, flipping its velocity upon collision,
  * and plays a collision sound if provided.
  */
-public class PuckBall extends GameObject {
+public class PuckBall extends GameObject implements ContactHandler, Categorized, ParallelMoving,
+        ManifoldResponder {
     private final Sound collisionSound;
     private final GameObjectCollection gameObjects;
     private final Vector2 windowDimensions;
+    private final float levelTop; // the top of the level, above the window in a level taller than it
+    private final Counter puckCounter; // counts the mock balls in the game
+    private MoveBatch moveBatch = null; // moves the puck in this frame's batch, or null
+    private DeferredWork deferredWork = null; // plays the collision sound later, or null to play it right away
+    private final ContactManifold contacts = new ContactManifold(); // the contacts of this step
+    private ContactAggregator contactAggregator = null; // responds at the end of the step, or null for each contact
+    private GameObjectRegistry<PuckBall> registry = null; // the mock balls in the game, or null
 
     /**
      * Constructor for the PuckBall class.
@@ -26,13 +47,34 @@ public class PuckBall extends GameObject {
      * @param collisionSound  The sound to play on collisions.
      * @param gameObjects     The collection of game objects.
      * @param windowDimensions The dimensions of the game window.
+     * @param puckCounter     Counts the mock balls in the game, decremented when this one is removed.
      */
     public PuckBall(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, Sound collisionSound,
-                    GameObjectCollection gameObjects, Vector2 windowDimensions) {
+                    GameObjectCollection gameObjects, Vector2 windowDimensions, Counter puckCounter) {
+        this(topLeftCorner, dimensions, renderable, collisionSound, gameObjects, windowDimensions, 0, puckCounter);
+    }
+
+    /**
+     * Constructor for a PuckBall in a level that may be taller than the window.
+     *
+     * @param topLeftCorner   Position of the object, in window coordinates (pixels).
+     * @param dimensions      Width and height in window coordinates.
+     * @param renderable      The renderable representing the object.
+     * @param collisionSound  The sound to play on collisions.
+     * @param gameObjects     The collection of game objects.
+     * @param windowDimensions The dimensions of the game window.
+     * @param levelTop        The y coordinate of the top of the level, 0 or above the window.
+     * @param puckCounter     Counts the mock balls in the game, decremented when this one is removed.
+     */
+    public PuckBall(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, Sound collisionSound,
+                    GameObjectCollection gameObjects, Vector2 windowDimensions, float levelTop,
+                    Counter puckCounter) {
         super(topLeftCorner, dimensions, renderable);
         this.collisionSound = collisionSound;
         this.gameObjects = gameObjects;
         this.windowDimensions = windowDimensions;
+        this.levelTop = levelTop;
+        this.puckCounter = puckCounter;
     }
 
     /**
@@ -43,17 +85,102 @@ public class PuckBall extends GameObject {
      */
     @Override
     public void update(float deltaTime) {
+        AllocationProfiler.begin(AllocationPhase.MOVEMENT);
+        if (moveBatch != null) {
+            moveBatch.awaitMoves();
+            moveBatch = null;
+        } else {
+            super.update(deltaTime);
+        }
+
+        // Check if the ball is outside the level bounds
+        if (getCenter().y() < levelTop || getCenter().y() > windowDimensions.y() ) {
+            removeFromGame();
+        }
+        AllocationProfiler.end();
+    }
+
+    /**
+     * Makes the collision sound play at the end of a frame with time left rather than right away.
+     *
+     * @param deferredWork The queue of the work deferred by the game, or null to play the sound right away.
+     */
+    public void setDeferredWork(DeferredWork deferredWork) {
+        this.deferredWork = deferredWork;
+    }
+
+    /**
+     * Adds the puck to the registry of the mock balls in the game, which it leaves when it is removed.
+     *
+     * @param registry The mock balls in the game.
+     */
+    public void setRegistry(GameObjectRegistry<PuckBall> registry) {
+        this.registry = registry;
+        registry.add(this);
+    }
+
+    /**
+     * Makes the puck gather its contacts of a step and respond to them at once, when told by an aggregator.
+     *
+     * @param contactAggregator The aggregator telling the puck, or null to respond to each contact right away.
+     */
+    public void setContactAggregator(ContactAggregator contactAggregator) {
+        this.contactAggregator = contactAggregator;
+    }
+
+    /**
+     * Moves the puck by a frame, on a worker thread of a parallel update.
+     *
+     * @param deltaTime Time elapsed since the last frame (in seconds).
+     */
+    @Override
+    public void moveInParallel(float deltaTime) {
         super.update(deltaTime);
+    }
+
+    /**
+     * Makes the next update wait for a batch to move the puck.
+     *
+     * @param batch The batch moving the puck.
+     */
+    @Override
+    public void joinBatch(MoveBatch batch) {
+        moveBatch = batch;
+    }
+
+    /**
+     * Determines if the puck should collide with the given object, by their collision categories.
+     *
+     * @param other The other GameObject to check for collision.
+     * @return True if the categories of the puck and the other object can collide.
+     */
+    @Override
+    public boolean shouldCollideWith(GameObject other) {
+        return CollisionMatrix.STANDARD.canCollide(this, other) && super.shouldCollideWith(other);
+    }
 
-        // Check if the ball is outside the screen bounds
-        if (getCenter().y() < 0 || getCenter().y() > windowDimensions.y() ) {
-            gameObjects.removeGameObject(this); // Remove from gameObjects
+    /**
+     * @return The collision category of the puck.
+     */
+    @Override
+    public CollisionCategory getCollisionCategory() {
+        return CollisionCategory.PUCK;
+    }
+
+    /**
+     * Removes the puck ball from the game, if it is still in it.
+     */
+    public void removeFromGame() {
+        if (gameObjects.removeGameObject(this)) { // Remove from gameObjects
+            puckCounter.decrement();
+            if (registry != null) {
+                registry.remove(this);
+            }
         }
     }
 
     /**
-     * Handles behavior when the puck collides with another object.
-     * Flips the velocity vector based on the collision normal and plays a sound if available.
+     * Handles behavior when the puck collides with another object, see {@link #onContact(GameObject, Vector2)}.
      *
      * @param other     The other GameObject involved in the collision.
      * @param collision Collision details, including the normal of the collision.
@@ -61,14 +188,51 @@ public class PuckBall extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
+        onContact(other, collision.getNormal());
+    }
 
-        // Flip the velocity on collision
-        Vector2 newVelocity = getVelocity().flipped(collision.getNormal());
-        setVelocity(newVelocity);
+    /**
+     * Handles behavior when the puck touches another object.
+     * Gathers the contact, to respond to all the contacts of the step at once when they are known, or
+     * responds right away if the puck is not told when they are.
+     *
+     * @param other  The other GameObject involved in the contact.
+     * @param normal The normal of the contact.
+     */
+    @Override
+    public void onContact(GameObject other, Vector2 normal) {
+        if (contactAggregator != null && contacts.isEmpty()) {
+            contactAggregator.enlist(this);
+        }
+        contacts.add(normal);
+        if (contactAggregator == null) {
+            respondToContacts();
+        }
+    }
+
+    /**
+     * Responds to the contacts of the step as to a single bounce: flips the velocity vector by their combined
+     * normal and plays a sound if available.
+     */
+    @Override
+    public void respondToContacts() {
+        AllocationProfiler.begin(AllocationPhase.COLLISION);
+
+        // Flip the velocity once for all the contacts
+        Vector2 normal = contacts.combinedNormal();
+        contacts.clear();
+        if (normal != null) {
+            setVelocity(getVelocity().flipped(normal));
+        }
 
         // Play collision sound if available
         if (collisionSound != null) {
-            collisionSound.play();
+            if (deferredWork != null) {
+                deferredWork.playSound(collisionSound);
+            } else {
+                collisionSound.play();
+            }
         }
+        AllocationProfiler.end();
     }
 }
@@ -0,0 +1,380 @@
+package bricker.gameobjects;
+
+import bricker.effects.DeferredWork;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import danogl.GameObject;
+import danogl.gui.Sound;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Counter;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.util.Arrays;
+
+/**
+ * All the mock balls of the game in a single game object, an alternative to a {@link PuckBall} per mock ball.
+ * Positions and velocities are kept in primitive float arrays and every step of a frame is a loop over all the
+ * mock balls: moving them, bouncing them off the walls, the paddles and the bricks, and removing the ones that
+ * fell out of the window. Moving the mock balls and bouncing them off the walls is done by a {@link SwarmKernel},
+ * on SIMD vectors of the {@code jdk.incubator.vector} module when the game runs with
+ * {@code --add-modules jdk.incubator.vector}, and by plain loops otherwise. Rendering and reading the mock
+ * balls go straight to the arrays, so a frame of the swarm allocates nothing per mock ball.
+ * <p>
+ * The swarm does not take part in the collisions of the game manager: it should be added to a layer that
+ * collides with nothing, and it does its own collision checks against the objects it is told about. Unlike a
+ * {@link PuckBall}, a mock ball of the swarm passes through the main ball and falling hearts.
+ */
+public class PuckSwarm extends GameObject {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Renderable puckRenderable; // renders a single mock ball
+    private final Sound collisionSound; // played once in a frame with any bounce, or null
+    private final Vector2 puckDimensions;
+    private final float puckSize;
+    private final float fieldLeft; // the right edge of the left wall
+    private final float fieldTop; // the bottom edge of the top wall
+    private final float fieldRight; // the left edge of the right wall
+    private final float fieldBottom; // mock balls below it are removed
+    private final float levelTop; // the top of the level, where the swarm's own top left corner is
+    private float viewTop = Float.NEGATIVE_INFINITY; // mock balls outside the view are not rendered
+    private float viewBottom = Float.POSITIVE_INFINITY;
+    private final Counter puckCounter; // counts the mock balls in the game
+    private final GameObject mainPaddle;
+    private ExtraPaddle extraPaddle = null; // the extra paddle, if there is one
+    private DeferredWork deferredWork = null; // plays the collision sound later, or null to play it right away
+    private final SwarmKernel kernel = SwarmKernel.create(); // moves the mock balls and bounces them off the walls
+
+    // the mock balls, by the top left corner of each one
+    private float[] positionX = new float[INITIAL_CAPACITY];
+    private float[] positionY = new float[INITIAL_CAPACITY];
+    private float[] velocityX = new float[INITIAL_CAPACITY];
+    private float[] velocityY = new float[INITIAL_CAPACITY];
+    private int count = 0;
+
+    // the bricks, by a regular grid of cells with a brick in each
+    private Brick[] bricks = new Brick[0];
+    private float[] brickLeft = new float[0];
+    private float[] brickTop = new float[0];
+    private float[] brickRight = new float[0];
+    private float[] brickBottom = new float[0];
+    private int gridColumns;
+    private int gridRows;
+    private float gridLeft;
+    private float gridTop;
+    private float cellWidth;
+    private float cellHeight;
+
+    /**
+     * Constructs an empty swarm covering the whole level.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param levelTop         The y coordinate of the top of the level, 0 or above the window in a level
+     *                         taller than it.
+     * @param wallWidth        The width of the walls on the left, right and top of the level.
+     * @param puckDimensions   Width and height of a single mock ball.
+     * @param puckRenderable   The renderable representing a single mock ball.
+     * @param collisionSound   The sound to play on collisions, or null for silent collisions.
+     * @param puckCounter      Counts the mock balls in the game.
+     * @param mainPaddle       The main paddle, which the mock balls bounce off.
+     */
+    public PuckSwarm(Vector2 windowDimensions, float levelTop, float wallWidth, Vector2 puckDimensions,
+                     Renderable puckRenderable, Sound collisionSound, Counter puckCounter, GameObject mainPaddle) {
+        super(new Vector2(0, levelTop), new Vector2(windowDimensions.x(), windowDimensions.y() - levelTop), null);
+        this.puckRenderable = puckRenderable;
+        this.collisionSound = collisionSound;
+        this.puckDimensions = puckDimensions;
+        this.puckSize = puckDimensions.x();
+        this.fieldLeft = wallWidth;
+        this.levelTop = levelTop;
+        this.fieldTop = levelTop + wallWidth;
+        this.fieldRight = windowDimensions.x() - wallWidth;
+        this.fieldBottom = windowDimensions.y();
+        this.puckCounter = puckCounter;
+        this.mainPaddle = mainPaddle;
+        renderer().setRenderable(this::renderPucks);
+    }
+
+    /**
+     * Tells the swarm about the bricks of the level, laid out on a regular grid.
+     *
+     * @param bricks   The bricks, row by row, including destroyed ones, with null where there is a gap.
+     * @param columns  The number of bricks in a row.
+     * @param gridTopLeft The top left corner of the first cell of the grid.
+     * @param cellSize The distance between the top left corners of adjacent bricks.
+     */
+    public void setBricks(Brick[] bricks, int columns, Vector2 gridTopLeft, Vector2 cellSize) {
+        this.bricks = bricks;
+        gridColumns = columns;
+        gridRows = (bricks.length + columns - 1) / columns;
+        gridLeft = gridTopLeft.x();
+        gridTop = gridTopLeft.y();
+        cellWidth = cellSize.x();
+        cellHeight = cellSize.y();
+        brickLeft = new float[bricks.length];
+        brickTop = new float[bricks.length];
+        brickRight = new float[bricks.length];
+        brickBottom = new float[bricks.length];
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i] == null) {
+                continue; // a gap, never hit
+            }
+            Vector2 topLeft = bricks[i].getTopLeftCorner();
+            Vector2 dimensions = bricks[i].getDimensions();
+            brickLeft[i] = topLeft.x();
+            brickTop[i] = topLeft.y();
+            brickRight[i] = topLeft.x() + dimensions.x();
+            brickBottom[i] = topLeft.y() + dimensions.y();
+        }
+    }
+
+    /**
+     * Tells the swarm about the extra paddle, which the mock balls bounce off and wear out.
+     *
+     * @param extraPaddle The extra paddle, or null if there is none.
+     */
+    public void setExtraPaddle(ExtraPaddle extraPaddle) {
+        this.extraPaddle = extraPaddle;
+    }
+
+    /**
+     * Makes the collision sound play at the end of a frame with time left rather than right away.
+     *
+     * @param deferredWork The queue of the work deferred by the game, or null to play the sound right away.
+     */
+    public void setDeferredWork(DeferredWork deferredWork) {
+        this.deferredWork = deferredWork;
+    }
+
+    /**
+     * Limits rendering to the mock balls in view, in a level taller than the window.
+     *
+     * @param viewTop    The y coordinate of the top of the view.
+     * @param viewBottom The y coordinate of the bottom of the view.
+     */
+    public void setView(float viewTop, float viewBottom) {
+        this.viewTop = viewTop - puckSize;
+        this.viewBottom = viewBottom;
+    }
+
+    /**
+     * Adds a mock ball to the swarm.
+     *
+     * @param center   The center of the mock ball.
+     * @param velocity The velocity of the mock ball.
+     */
+    public void spawn(Vector2 center, Vector2 velocity) {
+        if (count == positionX.length) {
+            int capacity = count * 2;
+            positionX = Arrays.copyOf(positionX, capacity);
+            positionY = Arrays.copyOf(positionY, capacity);
+            velocityX = Arrays.copyOf(velocityX, capacity);
+            velocityY = Arrays.copyOf(velocityY, capacity);
+        }
+        positionX[count] = center.x() - puckSize / 2;
+        positionY[count] = center.y() - puckSize / 2;
+        velocityX[count] = velocity.x();
+        velocityY[count] = velocity.y();
+        count++;
+        puckCounter.increment();
+    }
+
+    /**
+     * Removes all the mock balls.
+     */
+    public void clear() {
+        for (int i = 0; i < count; i++) {
+            puckCounter.decrement();
+        }
+        count = 0;
+    }
+
+    /**
+     * @return The number of mock balls in the swarm.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @param index The index of a mock ball, between 0 and {@link #size()}.
+     * @return The x coordinate of the center of the mock ball.
+     */
+    public float centerX(int index) {
+        return positionX[index] + puckSize / 2;
+    }
+
+    /**
+     * @param index The index of a mock ball, between 0 and {@link #size()}.
+     * @return The y coordinate of the center of the mock ball.
+     */
+    public float centerY(int index) {
+        return positionY[index] + puckSize / 2;
+    }
+
+    /**
+     * @param index The index of a mock ball, between 0 and {@link #size()}.
+     * @return The horizontal velocity of the mock ball.
+     */
+    public float velocityX(int index) {
+        return velocityX[index];
+    }
+
+    /**
+     * @param index The index of a mock ball, between 0 and {@link #size()}.
+     * @return The vertical velocity of the mock ball.
+     */
+    public float velocityY(int index) {
+        return velocityY[index];
+    }
+
+    /**
+     * @return The name of the kernel moving the mock balls, scalar or vector.
+     */
+    public String getKernelName() {
+        return kernel.name();
+    }
+
+    /**
+     * Moves all the mock balls and resolves their collisions.
+     *
+     * @param deltaTime Time elapsed since the last frame (in seconds).
+     */
+    @Override
+    public void update(float deltaTime) {
+        super.update(deltaTime);
+        AllocationProfiler.begin(AllocationPhase.MOVEMENT);
+        boolean bounced = kernel.integrate(positionX, positionY, velocityX, velocityY, count, deltaTime,
+                fieldLeft, fieldRight - puckSize, fieldTop) > 0;
+        AllocationProfiler.end();
+        AllocationProfiler.begin(AllocationPhase.COLLISION);
+        bounced |= bounceOffPaddle(mainPaddle);
+        if (extraPaddle != null) {
+            bounced |= bounceOffPaddle(extraPaddle);
+        }
+        bounced |= hitBricks();
+        removeFallen();
+        if (bounced && collisionSound != null) {
+            if (deferredWork != null) {
+                deferredWork.playSound(collisionSound);
+            } else {
+                collisionSound.play();
+            }
+        }
+        AllocationProfiler.end();
+    }
+
+    private boolean bounceOffPaddle(GameObject paddle) {
+        Vector2 topLeft = paddle.getTopLeftCorner();
+        Vector2 dimensions = paddle.getDimensions();
+        float left = topLeft.x() - puckSize;
+        float right = topLeft.x() + dimensions.x();
+        float top = topLeft.y() - puckSize;
+        float bottom = topLeft.y() + dimensions.y();
+        float[] x = positionX;
+        float[] y = positionY;
+        float[] vy = velocityY;
+        int bounces = 0;
+        for (int i = 0, n = count; i < n; i++) {
+            // only mock balls falling onto the paddle bounce, the ones under it keep falling
+            if (vy[i] > 0 && x[i] > left && x[i] < right && y[i] > top && y[i] < bottom) {
+                y[i] = 2 * top - y[i];
+                vy[i] = -vy[i];
+                bounces++;
+            }
+        }
+        if (bounces > 0 && paddle instanceof ExtraPaddle) {
+            ((ExtraPaddle) paddle).countCollision();
+        }
+        return bounces > 0;
+    }
+
+    private boolean hitBricks() {
+        if (bricks.length == 0) {
+            return false;
+        }
+        float gridRight = gridLeft + gridColumns * cellWidth;
+        float gridBottom = gridTop + gridRows * cellHeight;
+        boolean bounced = false;
+        // a hit brick may spawn more mock balls, which are only moved from the next frame
+        for (int i = 0, n = count; i < n; i++) {
+            float x = positionX[i];
+            float y = positionY[i];
+            if (x + puckSize < gridLeft || x > gridRight || y + puckSize < gridTop || y > gridBottom) {
+                continue;
+            }
+            int firstColumn = Math.max(0, (int) ((x - gridLeft) / cellWidth));
+            int lastColumn = Math.min(gridColumns - 1, (int) ((x + puckSize - gridLeft) / cellWidth));
+            int firstRow = Math.max(0, (int) ((y - gridTop) / cellHeight));
+            int lastRow = Math.min(gridRows - 1, (int) ((y + puckSize - gridTop) / cellHeight));
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    int brick = row * gridColumns + column;
+                    if (brick < bricks.length && hitBrick(i, brick)) {
+                        bounced = true;
+                    }
+                }
+            }
+        }
+        return bounced;
+    }
+
+    private boolean hitBrick(int puck, int brick) {
+        if (bricks[brick] == null || bricks[brick].isDestroyed()) {
+            return false;
+        }
+        float x = positionX[puck];
+        float y = positionY[puck];
+        if (x + puckSize <= brickLeft[brick] || x >= brickRight[brick]
+                || y + puckSize <= brickTop[brick] || y >= brickBottom[brick]) {
+            return false;
+        }
+        // the side the mock ball came from is the one it was outside of before this frame's move
+        float overlapX = Math.min(x + puckSize - brickLeft[brick], brickRight[brick] - x);
+        float overlapY = Math.min(y + puckSize - brickTop[brick], brickBottom[brick] - y);
+        if (overlapX < overlapY) {
+            velocityX[puck] = x < brickLeft[brick] ? -Math.abs(velocityX[puck]) : Math.abs(velocityX[puck]);
+        } else {
+            velocityY[puck] = y < brickTop[brick] ? -Math.abs(velocityY[puck]) : Math.abs(velocityY[puck]);
+        }
+        bricks[brick].hitBy(this);
+        return true;
+    }
+
+    private void removeFallen() {
+        // fill the place of a removed mock ball with the last one
+        for (int i = count - 1; i >= 0; i--) {
+            if (positionY[i] > fieldBottom) {
+                count--;
+                positionX[i] = positionX[count];
+                positionY[i] = positionY[count];
+                velocityX[i] = velocityX[count];
+                velocityY[i] = velocityY[count];
+                puckCounter.decrement();
+            }
+        }
+    }
+
+    /**
+     * Renders the mock balls in view, relative to where the swarm itself is rendered. Every mock ball is
+     * rendered at the origin of the graphics context moved to it, so no position is allocated for it.
+     */
+    private void renderPucks(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions,
+                             double degreesCounterClockwise, boolean isFlippedHorizontally,
+                             boolean isFlippedVertically, double opaqueness) {
+        AllocationProfiler.begin(AllocationPhase.RENDERING);
+        float offsetX = topLeftCorner.x();
+        float offsetY = topLeftCorner.y() - levelTop;
+        AffineTransform transform = g.getTransform();
+        for (int i = 0; i < count; i++) {
+            if (positionY[i] < viewTop || positionY[i] > viewBottom) {
+                continue;
+            }
+            g.translate(offsetX + positionX[i], offsetY + positionY[i]);
+            puckRenderable.render(g, Vector2.ZERO, puckDimensions, 0, false, false, opaqueness);
+            g.setTransform(transform);
+        }
+        AllocationProfiler.end();
+    }
+}
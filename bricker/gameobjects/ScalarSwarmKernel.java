@@ -0,0 +1,48 @@
+package bricker.gameobjects;
+
+/**
+ * The {@link SwarmKernel} of plain loops, used when the Vector API is not available, and for the elements
+ * left over after the last full vector.
+ */
+final class ScalarSwarmKernel implements SwarmKernel {
+    @Override
+    public int integrate(float[] x, float[] y, float[] vx, float[] vy, int count, float deltaTime,
+                         float minX, float maxX, float minY) {
+        return integrate(x, y, vx, vy, 0, count, deltaTime, minX, maxX, minY);
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    /**
+     * Moves and bounces the mock balls in a range of the arrays.
+     *
+     * @return The number of bounces off the walls.
+     */
+    static int integrate(float[] x, float[] y, float[] vx, float[] vy, int from, int to, float deltaTime,
+                         float minX, float maxX, float minY) {
+        int bounces = 0;
+        for (int i = from; i < to; i++) {
+            x[i] += vx[i] * deltaTime;
+            y[i] += vy[i] * deltaTime;
+            // mirror the part of the step that went into the wall back into the field
+            if (x[i] < minX) {
+                x[i] = 2 * minX - x[i];
+                vx[i] = Math.abs(vx[i]);
+                bounces++;
+            } else if (x[i] > maxX) {
+                x[i] = 2 * maxX - x[i];
+                vx[i] = -Math.abs(vx[i]);
+                bounces++;
+            }
+            if (y[i] < minY) {
+                y[i] = 2 * minY - y[i];
+                vy[i] = Math.abs(vy[i]);
+                bounces++;
+            }
+        }
+        return bounces;
+    }
+}
@@ -0,0 +1,54 @@
+package bricker.gameobjects;
+
+/**
+ * Moves the mock balls of a {@link PuckSwarm} by a frame and bounces them off the walls, over the swarm's
+ * arrays of positions and velocities.
+ * <p>
+ * {@link #create()} picks the kernel on {@code jdk.incubator.vector} when the module is in the boot layer,
+ * i.e. the game runs with {@code --add-modules jdk.incubator.vector}, and the scalar one otherwise. Both give
+ * the same results to the bit, so a game is repeatable whichever runs.
+ */
+interface SwarmKernel {
+    /** The module of the Vector API, which is incubating and so only resolved when added explicitly. */
+    String VECTOR_MODULE = "jdk.incubator.vector";
+
+    /**
+     * Moves the mock balls by a frame and mirrors the ones that went into a wall back into the field.
+     *
+     * @param x         The x coordinates of the top left corners of the mock balls.
+     * @param y         The y coordinates of the top left corners of the mock balls.
+     * @param vx        The horizontal velocities of the mock balls.
+     * @param vy        The vertical velocities of the mock balls.
+     * @param count     The number of mock balls, at the start of the arrays.
+     * @param deltaTime The time step of the frame.
+     * @param minX      The smallest x of a mock ball in the field, at the left wall.
+     * @param maxX      The largest x of a mock ball in the field, at the right wall.
+     * @param minY      The smallest y of a mock ball in the field, at the top wall.
+     * @return The number of bounces off the walls.
+     */
+    int integrate(float[] x, float[] y, float[] vx, float[] vy, int count, float deltaTime,
+                  float minX, float maxX, float minY);
+
+    /**
+     * @return The name of the kernel, for reports.
+     */
+    String name();
+
+    /**
+     * Creates the fastest kernel the running JVM supports.
+     *
+     * @return The kernel.
+     */
+    static SwarmKernel create() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                // loaded by name, so the class linking to the Vector API is never loaded without the module
+                return (SwarmKernel) Class.forName("bricker.gameobjects.VectorSwarmKernel")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarSwarmKernel();
+            }
+        }
+        return new ScalarSwarmKernel();
+    }
+}
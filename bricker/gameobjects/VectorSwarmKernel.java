@@ -0,0 +1,51 @@
+package bricker.gameobjects;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link SwarmKernel} on the Vector API, moving and bouncing as many mock balls at once as the widest
+ * vectors of the CPU hold, and the rest one by one. The bounces are selected lane by lane with masks, so
+ * the loop has no branches. Only loaded when the {@code jdk.incubator.vector} module is, see
+ * {@link SwarmKernel#create()}.
+ */
+final class VectorSwarmKernel implements SwarmKernel {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    @Override
+    public int integrate(float[] x, float[] y, float[] vx, float[] vy, int count, float deltaTime,
+                         float minX, float maxX, float minY) {
+        FloatVector leftMirror = FloatVector.broadcast(SPECIES, 2 * minX);
+        FloatVector rightMirror = FloatVector.broadcast(SPECIES, 2 * maxX);
+        FloatVector topMirror = FloatVector.broadcast(SPECIES, 2 * minY);
+        int bounces = 0;
+        int bound = SPECIES.loopBound(count);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector velocityX = FloatVector.fromArray(SPECIES, vx, i);
+            FloatVector velocityY = FloatVector.fromArray(SPECIES, vy, i);
+            FloatVector positionX = FloatVector.fromArray(SPECIES, x, i).add(velocityX.mul(deltaTime));
+            FloatVector positionY = FloatVector.fromArray(SPECIES, y, i).add(velocityY.mul(deltaTime));
+            // mirror the part of the step that went into the wall back into the field
+            VectorMask<Float> left = positionX.compare(VectorOperators.LT, minX);
+            VectorMask<Float> right = positionX.compare(VectorOperators.GT, maxX).andNot(left);
+            VectorMask<Float> top = positionY.compare(VectorOperators.LT, minY);
+            FloatVector speedX = velocityX.abs();
+            positionX.blend(leftMirror.sub(positionX), left)
+                    .blend(rightMirror.sub(positionX), right)
+                    .intoArray(x, i);
+            velocityX.blend(speedX, left).blend(speedX.neg(), right).intoArray(vx, i);
+            positionY.blend(topMirror.sub(positionY), top).intoArray(y, i);
+            velocityY.blend(velocityY.abs(), top).intoArray(vy, i);
+            bounces += left.trueCount() + right.trueCount() + top.trueCount();
+        }
+        return bounces + ScalarSwarmKernel.integrate(x, y, vx, vy, i, count, deltaTime, minX, maxX, minY);
+    }
+
+    @Override
+    public String name() {
+        return "vector, " + SPECIES.length() + " lanes";
+    }
+}
@@ -0,0 +1,32 @@
+package bricker.gameobjects;
+
+import bricker.physics.Categorized;
+import bricker.physics.CollisionCategory;
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * Represents a wall on the border of the game window, which balls bounce off.
+ */
+public class Wall extends GameObject implements Categorized {
+
+    /**
+     * Constructs a Wall object.
+     *
+     * @param topLeftCorner Position of the wall, in window coordinates (pixels).
+     * @param dimensions    Width and height of the wall, in window coordinates.
+     * @param renderable    The renderable representing the wall.
+     */
+    public Wall(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
+        super(topLeftCorner, dimensions, renderable);
+    }
+
+    /**
+     * @return The collision category of the wall.
+     */
+    @Override
+    public CollisionCategory getCollisionCategory() {
+        return CollisionCategory.WALL;
+    }
+}
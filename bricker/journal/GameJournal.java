@@ -0,0 +1,120 @@
+package bricker.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.VarHandle;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only journal of gameplay events, written to a memory-mapped file in fixed-size binary records.
+ * <p>
+ * The file starts with a header holding the number of records written, followed by the records. A record
+ * is {@value #RECORD_BYTES} bytes: the code of its {@link JournalEventType}, the frame it happened in, two
+ * ints and four floats whose meaning depends on the kind. Appending a record writes into mapped memory and
+ * then publishes the new count in the header, with no allocation and no system call; the file is mapped a
+ * chunk of {@value #CHUNK_RECORDS} records at a time, so only every so many records map the next chunk.
+ * Since the mapped pages belong to the operating system, every record whose count was published survives a
+ * crash of the process. A {@link JournalReader} reads the records back.
+ */
+public class GameJournal implements Closeable {
+    /** The size of a record in bytes. */
+    public static final int RECORD_BYTES = 32;
+    static final int MAGIC = 0x42524B4A; // "BRKJ"
+    static final short VERSION = 1;
+    static final int HEADER_BYTES = 32; // magic, version, record size and the record count
+    static final int COUNT_OFFSET = 8;
+    private static final int CHUNK_RECORDS = 1 << 15;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private MappedByteBuffer chunk; // where the next records are written
+    private long recordCount = 0;
+    private int frame = 0; // the frame the next records happen in
+
+    /**
+     * Creates a journal in a file, replacing it if it exists.
+     *
+     * @param path The file of the journal.
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public GameJournal(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        header.putInt(0, MAGIC);
+        header.putShort(4, VERSION);
+        header.putShort(6, (short) RECORD_BYTES);
+        header.putLong(COUNT_OFFSET, 0);
+        chunk = mapChunk();
+    }
+
+    /**
+     * Starts a new frame, which the records appended from now on happen in.
+     */
+    public void nextFrame() {
+        frame++;
+    }
+
+    /**
+     * @return The frame the records appended now happen in.
+     */
+    public int getFrame() {
+        return frame;
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param type      The kind of the event.
+     * @param firstInt  The first int of the record.
+     * @param secondInt The second int of the record.
+     * @param x         The x coordinate of the record's position.
+     * @param y         The y coordinate of the record's position.
+     * @param velocityX The x coordinate of the record's velocity.
+     * @param velocityY The y coordinate of the record's velocity.
+     */
+    public void append(JournalEventType type, int firstInt, int secondInt, float x, float y,
+                       float velocityX, float velocityY) {
+        if (!chunk.hasRemaining()) {
+            chunk = mapChunk();
+        }
+        chunk.putInt(type.code()).putInt(frame).putInt(firstInt).putInt(secondInt)
+                .putFloat(x).putFloat(y).putFloat(velocityX).putFloat(velocityY);
+        recordCount++;
+        // the record is complete before the count says it is there
+        VarHandle.releaseFence();
+        header.putLong(COUNT_OFFSET, recordCount);
+    }
+
+    /**
+     * @return The number of records appended.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the journal through to the disk and closes the file. Nothing can be appended afterwards.
+     *
+     * @throws IOException If writing or closing the file fails.
+     */
+    @Override
+    public void close() throws IOException {
+        chunk.force();
+        header.force();
+        channel.close();
+    }
+
+    private MappedByteBuffer mapChunk() {
+        try {
+            return channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + recordCount * RECORD_BYTES,
+                    (long) CHUNK_RECORDS * RECORD_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot extend the game journal", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package bricker.journal;
+
+/**
+ * The kinds of records in a {@link GameJournal}. A record is stored with the code of its kind, which is
+ * its position in this enum plus one, so new kinds must only be added at the end.
+ */
+public enum JournalEventType {
+    /** A level started from scratch. First int: the number of bricks. */
+    LEVEL_STARTED,
+    /** The world was saved to or loaded from a snapshot. First and second ints: the world hash. */
+    SNAPSHOT,
+    /** A brick was removed from the wall. First int: its StrategyCode. Position: its center. */
+    BRICK_DESTROYED,
+    /** A mock ball was added. Position and velocity: its center and velocity. */
+    PUCK_SPAWNED,
+    /** A falling heart reached the main paddle. Position: its center. */
+    HEART_CAUGHT,
+    /** A falling heart fell past the main paddle. Position: its center. */
+    HEART_MISSED,
+    /** The ball entered turbo state. First int: the collisions it lasts. X: the velocity factor. */
+    TURBO_ON,
+    /** The ball left turbo state. First int: the collisions it lasted. X: the velocity factor. */
+    TURBO_OFF,
+    /** An extra paddle was added. Position: its center. */
+    EXTRA_PADDLE_CREATED,
+    /** The extra paddle was removed. Position: its center. */
+    EXTRA_PADDLE_REMOVED,
+    /** A life was lost. First int: the lives left. */
+    LIFE_LOST,
+    /** A life was gained. First int: the lives after it. */
+    LIFE_GAINED;
+
+    private static final JournalEventType[] BY_CODE = values();
+
+    /**
+     * @return The code the kind is stored with, never 0.
+     */
+    public int code() {
+        return ordinal() + 1;
+    }
+
+    /**
+     * Returns the kind stored with a code.
+     *
+     * @param code The stored code.
+     * @return The kind, or null if no kind has the code.
+     */
+    public static JournalEventType fromCode(int code) {
+        return code > 0 && code <= BY_CODE.length ? BY_CODE[code - 1] : null;
+    }
+}
@@ -0,0 +1,143 @@
+package bricker.journal;
+
+import danogl.GameObject;
+
+/**
+ * Records the game's gameplay events in the current {@link GameJournal}, if a game set one.
+ * <p>
+ * Without a journal every method returns right away. The positions of objects are computed from their
+ * corners and dimensions, so recording an event allocates nothing. The events are recorded from the game
+ * loop thread only.
+ */
+public final class JournalEvents {
+    private static GameJournal journal = null; // the journal of the running game, or null
+
+    private JournalEvents() {
+    }
+
+    /**
+     * Sets the journal the events are recorded in.
+     *
+     * @param journal The journal, or null to stop recording.
+     */
+    public static void setJournal(GameJournal journal) {
+        JournalEvents.journal = journal;
+    }
+
+    /**
+     * Records a level started from scratch.
+     *
+     * @param bricks The number of bricks in the level.
+     */
+    public static void levelStarted(int bricks) {
+        if (journal != null) {
+            journal.append(JournalEventType.LEVEL_STARTED, bricks, 0, 0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Records the world saved to or loaded from a snapshot.
+     *
+     * @param worldHash The hash of the world when it was saved or loaded.
+     */
+    public static void snapshot(long worldHash) {
+        if (journal != null) {
+            journal.append(JournalEventType.SNAPSHOT, (int) (worldHash >>> Integer.SIZE), (int) worldHash,
+                    0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Records a brick removed from the wall.
+     *
+     * @param brick        The brick.
+     * @param strategyCode The StrategyCode of the brick's special behaviors.
+     */
+    public static void brickDestroyed(GameObject brick, int strategyCode) {
+        if (journal != null) {
+            appendAt(JournalEventType.BRICK_DESTROYED, strategyCode, brick);
+        }
+    }
+
+    /**
+     * Records a mock ball added to the game.
+     *
+     * @param x         The x coordinate of its center.
+     * @param y         The y coordinate of its center.
+     * @param velocityX The x coordinate of its velocity.
+     * @param velocityY The y coordinate of its velocity.
+     */
+    public static void puckSpawned(float x, float y, float velocityX, float velocityY) {
+        if (journal != null) {
+            journal.append(JournalEventType.PUCK_SPAWNED, 0, 0, x, y, velocityX, velocityY);
+        }
+    }
+
+    /**
+     * Records a falling heart reaching the main paddle.
+     *
+     * @param heart The heart.
+     */
+    public static void heartCaught(GameObject heart) {
+        if (journal != null) {
+            appendAt(JournalEventType.HEART_CAUGHT, 0, heart);
+        }
+    }
+
+    /**
+     * Records a falling heart falling past the main paddle.
+     *
+     * @param heart The heart.
+     */
+    public static void heartMissed(GameObject heart) {
+        if (journal != null) {
+            appendAt(JournalEventType.HEART_MISSED, 0, heart);
+        }
+    }
+
+    /**
+     * Records the ball entering or leaving turbo state.
+     *
+     * @param activated      True when the turbo state started, false when it expired.
+     * @param collisions     The number of collisions the turbo state lasts.
+     * @param velocityFactor The factor the ball's velocity is multiplied by in turbo state.
+     */
+    public static void turbo(boolean activated, int collisions, float velocityFactor) {
+        if (journal != null) {
+            journal.append(activated ? JournalEventType.TURBO_ON : JournalEventType.TURBO_OFF, collisions, 0,
+                    velocityFactor, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Records an extra paddle added to or removed from the game.
+     *
+     * @param paddle  The extra paddle.
+     * @param created True if it was added, false if it was removed.
+     */
+    public static void extraPaddle(GameObject paddle, boolean created) {
+        if (journal != null) {
+            appendAt(created ? JournalEventType.EXTRA_PADDLE_CREATED : JournalEventType.EXTRA_PADDLE_REMOVED,
+                    0, paddle);
+        }
+    }
+
+    /**
+     * Records a life lost or gained.
+     *
+     * @param change -1 for a life lost, 1 for a life gained.
+     * @param lives  The number of lives after the change.
+     */
+    public static void lifeChanged(int change, int lives) {
+        if (journal != null) {
+            journal.append(change < 0 ? JournalEventType.LIFE_LOST : JournalEventType.LIFE_GAINED, lives, 0,
+                    0, 0, 0, 0);
+        }
+    }
+
+    private static void appendAt(JournalEventType type, int firstInt, GameObject gameObject) {
+        float x = gameObject.getTopLeftCorner().x() + gameObject.getDimensions().x() / 2;
+        float y = gameObject.getTopLeftCorner().y() + gameObject.getDimensions().y() / 2;
+        journal.append(type, firstInt, 0, x, y, 0, 0);
+    }
+}
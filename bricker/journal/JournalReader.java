@@ -0,0 +1,138 @@
+package bricker.journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records of a {@link GameJournal}, also of a journal whose game crashed while writing it.
+ * Only the records the header counts are read, so a record being written during the crash is ignored.
+ */
+public class JournalReader {
+    private final ByteBuffer records;
+    private final int recordCount;
+
+    /**
+     * Maps the records of a journal file.
+     *
+     * @param path The file of the journal.
+     * @throws IOException If the file cannot be read, or is not a journal.
+     */
+    public JournalReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < GameJournal.HEADER_BYTES) {
+                throw new IOException("not a Bricker game journal");
+            }
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, GameJournal.HEADER_BYTES);
+            if (header.getInt(0) != GameJournal.MAGIC) {
+                throw new IOException("not a Bricker game journal");
+            }
+            if (header.getShort(4) != GameJournal.VERSION || header.getShort(6) != GameJournal.RECORD_BYTES) {
+                throw new IOException("unsupported game journal version " + header.getShort(4));
+            }
+            long counted = header.getLong(GameJournal.COUNT_OFFSET);
+            long stored = (channel.size() - GameJournal.HEADER_BYTES) / GameJournal.RECORD_BYTES;
+            if (counted < 0 || Math.min(counted, stored) > Integer.MAX_VALUE / GameJournal.RECORD_BYTES) {
+                throw new IOException("bad game journal record count " + counted);
+            }
+            recordCount = (int) Math.min(counted, stored);
+            records = channel.map(FileChannel.MapMode.READ_ONLY, GameJournal.HEADER_BYTES,
+                    (long) recordCount * GameJournal.RECORD_BYTES);
+        }
+    }
+
+    /**
+     * @return The number of records in the journal.
+     */
+    public int size() {
+        return recordCount;
+    }
+
+    /**
+     * Finds the last record the world can be rebuilt from, a started level or a snapshot.
+     *
+     * @return The index of the record, or -1 if there is none.
+     */
+    public int lastCheckpoint() {
+        for (int i = recordCount - 1; i >= 0; i--) {
+            JournalEventType type = getType(i);
+            if (type == JournalEventType.LEVEL_STARTED || type == JournalEventType.SNAPSHOT) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index The index of a record.
+     * @return The kind of the record, or null if the code is unknown.
+     */
+    public JournalEventType getType(int index) {
+        return JournalEventType.fromCode(records.getInt(offsetOf(index)));
+    }
+
+    /**
+     * @param index The index of a record.
+     * @return The frame the event happened in.
+     */
+    public int getFrame(int index) {
+        return records.getInt(offsetOf(index) + 4);
+    }
+
+    /**
+     * @param index The index of a record.
+     * @return The first int of the record.
+     */
+    public int getFirstInt(int index) {
+        return records.getInt(offsetOf(index) + 8);
+    }
+
+    /**
+     * @param index The index of a record.
+     * @return The second int of the record.
+     */
+    public int getSecondInt(int index) {
+        return records.getInt(offsetOf(index) + 12);
+    }
+
+    /**
+     * @param index The index of a record.
+     * @return The x coordinate of the record's position.
+     */
+    public float getX(int index) {
+        return records.getFloat(offsetOf(index) + 16);
+    }
+
+    /**
+     * @param index The index of a record.
+     * @return The y coordinate of the record's position.
+     */
+    public float getY(int index) {
+        return records.getFloat(offsetOf(index) + 20);
+    }
+
+    /**
+     * @param index The index of a record.
+     * @return The x coordinate of the record's velocity.
+     */
+    public float getVelocityX(int index) {
+        return records.getFloat(offsetOf(index) + 24);
+    }
+
+    /**
+     * @param index The index of a record.
+     * @return The y coordinate of the record's velocity.
+     */
+    public float getVelocityY(int index) {
+        return records.getFloat(offsetOf(index) + 28);
+    }
+
+    private int offsetOf(int index) {
+        if (index < 0 || index >= recordCount) {
+            throw new IndexOutOfBoundsException("record " + index + " of " + recordCount);
+        }
+        return index * GameJournal.RECORD_BYTES;
+    }
+}
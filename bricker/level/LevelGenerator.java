@@ -0,0 +1,174 @@
+package bricker.level;
+
+import bricker.util.GameRandom;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Generates brick layouts of any size from a seed, for levels far larger than the regular grid.
+ * <p>
+ * A layout is split into regions of {@link #REGION_ROWS} rows. Every region gets a {@link LevelPattern} of
+ * gaps, and each brick in it is {@link LevelLayout#ROLLED} or {@link LevelLayout#PLAIN} by a chance that
+ * goes linearly from the top of the level to the bottom, so the special behaviors can be denser at one end.
+ * The regions are generated in parallel on a {@link ForkJoinPool}, each from its own generator seeded by
+ * the level's seed and the index of the region, so a seed always gives the same layout however many threads
+ * the pool has and in whatever order they run. A layout without any brick gets one, in its last cell.
+ */
+public class LevelGenerator {
+    /** The number of rows of a region, which gets a single pattern. */
+    public static final int REGION_ROWS = 16;
+
+    private static final LevelPattern[] PATTERNS = LevelPattern.values();
+    private static final long REGION_SALT = 0x4C56474EL; // "LVGN"
+    private static final double HOLE_CHANCE = 0.25; // the chance of a gap in the HOLES pattern
+    private static final int REGIONS_PER_TASK = 4; // regions generated by one task, more are split
+
+    private final ForkJoinPool pool;
+    private double rolledChanceAtTop = 0.9; // the chance of a brick in the top row being rolled
+    private double rolledChanceAtBottom = 0.3; // the chance of a brick in the bottom row being rolled
+
+    /**
+     * Constructs a generator.
+     *
+     * @param pool The pool the regions are generated on.
+     */
+    public LevelGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Sets the chances of a brick being rolled rather than plain, at the top and the bottom rows of the
+     * level. The chance of the rows between goes linearly from one to the other.
+     *
+     * @param atTop    The chance in the top row, between 0 and 1.
+     * @param atBottom The chance in the bottom row, between 0 and 1.
+     */
+    public void setRolledChances(double atTop, double atBottom) {
+        if (atTop < 0 || atTop > 1 || atBottom < 0 || atBottom > 1) {
+            throw new IllegalArgumentException("bad rolled chances " + atTop + ", " + atBottom);
+        }
+        this.rolledChanceAtTop = atTop;
+        this.rolledChanceAtBottom = atBottom;
+    }
+
+    /**
+     * Generates a layout.
+     *
+     * @param seed    The seed of the layout.
+     * @param rows    The number of rows.
+     * @param columns The number of bricks in a row.
+     * @return The layout.
+     */
+    public LevelLayout generate(long seed, int rows, int columns) {
+        if (rows <= 0 || columns <= 0 || (long) rows * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("bad layout size " + rows + "x" + columns);
+        }
+        byte[] cells = new byte[rows * columns];
+        int regions = (rows + REGION_ROWS - 1) / REGION_ROWS;
+        int[] regionBricks = new int[regions]; // every region counts its own bricks
+        RegionTask task = new RegionTask(seed, rows, columns, cells, regionBricks, 0, regions);
+        if (regions <= REGIONS_PER_TASK) {
+            task.compute(); // not worth the pool
+        } else {
+            pool.invoke(task);
+        }
+        int brickCount = 0;
+        for (int count : regionBricks) {
+            brickCount += count;
+        }
+        if (brickCount == 0) {
+            cells[cells.length - 1] = LevelLayout.ROLLED;
+            brickCount = 1;
+        }
+        return new LevelLayout(seed, rows, columns, cells, brickCount);
+    }
+
+    /**
+     * Fills the cells of a region, and returns the number of bricks in it.
+     */
+    private int generateRegion(long seed, int rows, int columns, byte[] cells, int region) {
+        GameRandom random = new GameRandom(GameRandom.mix(seed + GameRandom.mix(REGION_SALT + region)));
+        LevelPattern pattern = PATTERNS[random.nextInt(PATTERNS.length)];
+        int phase = random.nextInt(2); // shifts the alternating patterns by a cell
+        int firstRow = region * REGION_ROWS;
+        int regionRows = Math.min(REGION_ROWS, rows - firstRow);
+        int bricks = 0;
+        for (int regionRow = 0; regionRow < regionRows; regionRow++) {
+            int row = firstRow + regionRow;
+            double rolledChance = rows == 1 ? rolledChanceAtTop
+                    : rolledChanceAtTop + (rolledChanceAtBottom - rolledChanceAtTop) * row / (rows - 1);
+            for (int column = 0; column < columns; column++) {
+                byte cell;
+                if (isGap(pattern, phase, regionRow, regionRows, column, columns, random)) {
+                    cell = LevelLayout.GAP;
+                } else {
+                    cell = random.nextDouble() < rolledChance ? LevelLayout.ROLLED : LevelLayout.PLAIN;
+                    bricks++;
+                }
+                cells[row * columns + column] = cell;
+            }
+        }
+        return bricks;
+    }
+
+    private static boolean isGap(LevelPattern pattern, int phase, int row, int rows, int column, int columns,
+                                 GameRandom random) {
+        switch (pattern) {
+            case CHECKERED:
+                return (row + column + phase) % 2 == 0;
+            case COLUMNS:
+                return (column + phase) % 2 == 0;
+            case ROWS:
+                return (row + phase) % 3 == 0;
+            case HOLES:
+                return random.nextDouble() < HOLE_CHANCE;
+            case DIAMOND:
+                float rowDistance = Math.abs(row - (rows - 1) / 2f) / Math.max(1, rows / 2f);
+                float columnDistance = Math.abs(column - (columns - 1) / 2f) / Math.max(1, columns / 2f);
+                return rowDistance + columnDistance > 1;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Generates a range of regions, splitting it in halves while it has more than {@link #REGIONS_PER_TASK}.
+     * The regions write disjoint cells and counts, so the tasks share nothing else.
+     */
+    private final class RegionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final int rows;
+        private final int columns;
+        private final byte[] cells;
+        private final int[] regionBricks;
+        private final int fromRegion;
+        private final int toRegion; // exclusive
+
+        private RegionTask(long seed, int rows, int columns, byte[] cells, int[] regionBricks, int fromRegion,
+                           int toRegion) {
+            this.seed = seed;
+            this.rows = rows;
+            this.columns = columns;
+            this.cells = cells;
+            this.regionBricks = regionBricks;
+            this.fromRegion = fromRegion;
+            this.toRegion = toRegion;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRegion - fromRegion <= REGIONS_PER_TASK) {
+                for (int region = fromRegion; region < toRegion; region++) {
+                    regionBricks[region] = generateRegion(seed, rows, columns, cells, region);
+                }
+                return;
+            }
+            int middle = (fromRegion + toRegion) >>> 1;
+            invokeAll(new RegionTask(seed, rows, columns, cells, regionBricks, fromRegion, middle),
+                    new RegionTask(seed, rows, columns, cells, regionBricks, middle, toRegion));
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package bricker.level;
+
+import java.util.Arrays;
+
+/**
+ * A brick layout of a level, a cell per brick position of a grid, kept as a byte per cell.
+ * <p>
+ * A cell is a {@link #GAP}, a {@link #PLAIN} brick with only the basic collision strategy, or a
+ * {@link #ROLLED} brick whose strategy is rolled from its seed as in a regular level. The seeds of the bricks
+ * are derived from the seed of the layout and the index of the cell, row by row from the top.
+ */
+public final class LevelLayout {
+    /** A cell without a brick. */
+    public static final byte GAP = 0;
+    /** A brick with only the basic collision strategy. */
+    public static final byte PLAIN = 1;
+    /** A brick whose collision strategy is rolled from its seed. */
+    public static final byte ROLLED = 2;
+
+    private final long seed; // the seed the layout was generated from
+    private final int rows;
+    private final int columns;
+    private final byte[] cells; // row by row from the top
+    private final int brickCount;
+
+    /**
+     * Constructs a layout from its cells.
+     *
+     * @param seed       The seed the layout was generated from, from which the brick seeds are derived.
+     * @param rows       The number of rows.
+     * @param columns    The number of bricks in a row.
+     * @param cells      The cells, row by row from the top. Kept, not copied.
+     * @param brickCount The number of cells that are not gaps.
+     */
+    LevelLayout(long seed, int rows, int columns, byte[] cells, int brickCount) {
+        this.seed = seed;
+        this.rows = rows;
+        this.columns = columns;
+        this.cells = cells;
+        this.brickCount = brickCount;
+    }
+
+    /**
+     * @return The seed the layout was generated from.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return The number of bricks in a row.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The number of cells that are not gaps.
+     */
+    public int getBrickCount() {
+        return brickCount;
+    }
+
+    /**
+     * Returns a cell by its index.
+     *
+     * @param index The index of the cell, row by row from the top.
+     * @return {@link #GAP}, {@link #PLAIN} or {@link #ROLLED}.
+     */
+    public byte cellAt(int index) {
+        return cells[index];
+    }
+
+    /**
+     * Returns a cell by its position.
+     *
+     * @param row    The row, from the top.
+     * @param column The column, from the left.
+     * @return {@link #GAP}, {@link #PLAIN} or {@link #ROLLED}.
+     */
+    public byte cellAt(int row, int column) {
+        return cells[row * columns + column];
+    }
+
+    /**
+     * @param other The object to compare with.
+     * @return True if the other object is a layout of the same seed and the same cells.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof LevelLayout)) {
+            return false;
+        }
+        LevelLayout layout = (LevelLayout) other;
+        return seed == layout.seed && rows == layout.rows && columns == layout.columns
+                && Arrays.equals(cells, layout.cells);
+    }
+
+    /**
+     * @return A hash of the seed and the cells.
+     */
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(seed) + columns) + Arrays.hashCode(cells);
+    }
+}
@@ -0,0 +1,19 @@
+package bricker.level;
+
+/**
+ * The arrangements of gaps that {@link LevelGenerator} fills a region of a level with.
+ */
+public enum LevelPattern {
+    /** No gaps. */
+    FULL,
+    /** Every other cell is a gap, alternating from row to row. */
+    CHECKERED,
+    /** Every other column is a gap. */
+    COLUMNS,
+    /** Every third row is a gap. */
+    ROWS,
+    /** Cells are gaps at random, each by the same chance. */
+    HOLES,
+    /** Cells outside a diamond in the middle of the region are gaps. */
+    DIAMOND
+}
@@ -1,19 +1,52 @@
 package bricker.main;
 
 import bricker.brick_strategies.*;
+import bricker.capture.FrameCapture;
+import bricker.effects.DeferredWork;
+import bricker.effects.EffectScheduler;
 import bricker.gameobjects.*;
+import bricker.journal.GameJournal;
+import bricker.journal.JournalEventType;
+import bricker.journal.JournalEvents;
+import bricker.journal.JournalReader;
+import bricker.level.LevelGenerator;
+import bricker.level.LevelLayout;
+import bricker.metrics.AllocationPhase;
+import bricker.metrics.AllocationProfiler;
+import bricker.metrics.FlightEvents;
+import bricker.paddle_controllers.AutopilotPaddleController;
+import bricker.paddle_controllers.KeyboardPaddleController;
+import bricker.paddle_controllers.PaddleController;
+import bricker.physics.CollisionMatrix;
+import bricker.physics.ContactAggregator;
+import bricker.physics.ParallelUpdate;
+import bricker.physics.DanoglBackend;
+import bricker.physics.IndexedBackend;
+import bricker.physics.PhysicsBackend;
+import bricker.physics.PhysicsBackendType;
+import bricker.physics.SweepAndPrune;
+import bricker.util.GameRandom;
 import danogl.GameManager;
 import danogl.GameObject;
 import danogl.collisions.Layer;
 import danogl.components.CoordinateSpace;
 import danogl.gui.*;
+import danogl.gui.rendering.Camera;
 import danogl.gui.rendering.RectangleRenderable;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Counter;
 import danogl.util.Vector2;
 
 import java.awt.*;
-import java.util.Random;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 
 
 /**
@@ -34,6 +67,7 @@ public class BrickerGameManager extends GameManager {
     // Ball constants
     private static final float BALL_SPEED = 200;
     private static final float BALL_RADIUS = 20;
+    private static final float MOCKBALL_RADIUS = 15;
 
     // Brick layout constants
     private static final int NUM_ROWS = 5; // Number of brick rows
@@ -52,12 +86,63 @@ public class BrickerGameManager extends GameManager {
     private static final float WINDOW_HEIGHT = 500;
     private static final float BRICK_WIDTH = (WINDOW_WIDTH - 2 * BORDER_WIDTH
                                             - (BRICK_MARGIN * (NUM_COLS - 1))) / NUM_COLS;
+    // Shared by all the bricks, vectors are immutable
+    private static final Vector2 BRICK_DIMENSIONS = new Vector2(BRICK_WIDTH, BRICK_HEIGHT);
+    // The distance between the top left corners of adjacent bricks
+    private static final Vector2 BRICK_CELL_SIZE = new Vector2(BRICK_WIDTH + BRICK_MARGIN, BRICK_HEIGHT + BRICK_MARGIN);
+    // Mock balls and hearts moved by a single task of the parallel update
+    private static final int PARALLEL_UPDATE_CHUNK = 1024;
+    // Frames a capture can hold while they are written, beyond which captured frames are dropped
+    private static final int CAPTURE_BUFFERS = 4;
+    // A frame rate danogl never has to wait for, so the frame governor alone paces the frames
+    private static final int UNPACED_FPS = 1000;
+    // The layers the game puts objects in, emptied when a new game starts
+    private static final int[] GAME_LAYERS = {Layer.BACKGROUND, Layer.STATIC_OBJECTS, Layer.DEFAULT,
+            Layer.FOREGROUND, Layer.UI};
 
+    private final GameSettings settings; // Options of this game
+    private final Vector2 initialWindowDimensions; // Dimensions the game was created with
+    private GameAssets assets; // Images and sounds of the game, read by the first initialization
+    private long startupNanos = 0; // When the first initialization started, until the first frame reports it
+    private boolean gameOver = false; // Whether the game was won or lost, frozen until it is started over
+    private CompletableFuture<Boolean> playAgain = null; // The player's pending answer to the end prompt, or null
+    private final AllocationProfiler allocationProfiler; // null unless allocation profiling is on
+    private final FrameGovernor frameGovernor; // null unless the frames are paced to a target rate
+    private final WorldHasher worldHasher; // null unless the hashes of the world are recorded
+    private final GameJournal journal; // null unless the gameplay events are journaled
+    private final ParallelUpdate parallelUpdate; // null unless mock balls and hearts are moved in parallel
+    private final DeferredWork deferredWork; // null unless non-critical work waits for frames with time left
+    private final FrameCapture frameCapture; // null unless frames are captured to files
+    private final LevelGenerator levelGenerator; // null unless the bricks are laid out procedurally
+    private final RewindBuffer rewindBuffer; // null unless the world of the last frames is kept to rewind to
+    private final BrickChangeLog brickChanges; // the bricks changed since the rewind buffer last read them, or null
     private Ball ball; // Main game ball
     private Vector2 windowDimensions; // Dimensions of the game window
     private WindowController windowController; // Handles window operations
     private Counter brickCounter; // Tracks remaining bricks
+    private CollisionStrategy basicStrategy; // Removes a brick, the base of the strategies of all the bricks
+    private StrategyResolver strategyResolver; // Resolves the strategies of the bricks when first hit
     private HealthBar healthBar; // Manages the player's health bar
+    private final GameRandom random; // All the game's randomness
+    private Brick[] bricks; // All the bricks of the level, including destroyed ones, null where there is a gap
+    private Vector2 brickGridTopLeft; // The top left corner of the first cell of the grid of bricks
+    private StrategyFactory strategyFactory; // Builds the brick strategies
+    private Paddle paddle; // The main paddle
+    private final Counter puckCounter = new Counter(0); // Tracks the mock balls in the game
+    private final GameObjectRegistry<PuckBall> pucks = new GameObjectRegistry<>(); // unless in a swarm
+    private final GameObjectRegistry<FallingHeart> fallingHearts = new GameObjectRegistry<>();
+    // Tells the balls to respond to their contacts once a step's collisions are all found
+    private final ContactAggregator contactAggregator = new ContactAggregator();
+    private EffectScheduler effects; // Expires the temporary effects of the game
+    private ExtraPaddleSlot extraPaddleSlot; // Holds the extra paddle
+    private PuckSwarm puckSwarm; // Holds the mock balls if the settings keep them in a swarm, or null
+    private PhysicsBackend physicsBackend; // Finds the contacts danogl does not, by the settings
+    private int levelRows; // Number of brick rows in the level
+    private float levelTop; // Top of the level, above the window if the level is taller than it
+    private ScrollingView scrollingView; // Follows the ball in a level taller than the window, or null
+    private Renderable puckImage; // The image of a mock ball, culled out of view in a level taller than the window
+    private Renderable fallingHeartImage; // The image of a falling heart, culled the same way
+    private WorldSnapshot worldSnapshot; // Saves and loads the world, created on first use
 
     /**
      * Constructs the game manager with the specified title and window dimensions.
@@ -67,7 +152,69 @@ public class BrickerGameManager extends GameManager {
      */
     public BrickerGameManager(String windowTitle, Vector2 windowDimensions) {
 
+        this(windowTitle, windowDimensions, new GameSettings());
+    }
+
+    /**
+     * Constructs the game manager with the specified title, window dimensions and settings.
+     *
+     * @param windowTitle Title of the game window.
+     * @param windowDimensions Dimensions of the game window.
+     * @param settings Options of the game.
+     */
+    public BrickerGameManager(String windowTitle, Vector2 windowDimensions, GameSettings settings) {
+
         super(windowTitle, windowDimensions);
+        this.settings = settings;
+        this.initialWindowDimensions = windowDimensions;
+        this.allocationProfiler = settings.isAllocationProfiling() ? new AllocationProfiler() : null;
+        this.frameGovernor = settings.getTargetFps() > 0
+                ? new FrameGovernor(settings.getTargetFps(), Math.min(settings.getIdleFps(), settings.getTargetFps()))
+                : null;
+        this.random = new GameRandom(settings.isSeeded() ? settings.getSeed() : System.nanoTime());
+        this.worldHasher = settings.getWorldHashesPath() != null ? createWorldHasher() : null;
+        this.journal = settings.getJournalPath() != null ? createJournal() : null;
+        JournalEvents.setJournal(journal);
+        this.parallelUpdate = settings.isParallelUpdate()
+                ? new ParallelUpdate(ForkJoinPool.commonPool(), PARALLEL_UPDATE_CHUNK)
+                : null;
+        this.deferredWork = settings.getFrameBudgetMillis() > 0 ? new DeferredWork() : null;
+        this.frameCapture = settings.getCaptureDirectory() != null ? createFrameCapture() : null;
+        this.levelGenerator = settings.isGeneratedLevel() ? new LevelGenerator(ForkJoinPool.commonPool()) : null;
+        this.rewindBuffer = settings.getRewindSeconds() > 0
+                ? new RewindBuffer(this, Math.round(settings.getRewindSeconds() / HeadlessGame.FRAME_DELTA_TIME))
+                : null;
+        this.brickChanges = rewindBuffer != null ? new BrickChangeLog() : null;
+    }
+
+    private WorldHasher createWorldHasher() {
+        Path path = settings.getWorldHashesPath();
+        try {
+            return new WorldHasher(this, settings.getHashInterval(), path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot record world hashes in " + path, e);
+        }
+    }
+
+    private GameJournal createJournal() {
+        Path path = settings.getJournalPath();
+        try {
+            return new GameJournal(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot create the game journal " + path, e);
+        }
+    }
+
+    private FrameCapture createFrameCapture() {
+        Path directory = settings.getCaptureDirectory();
+        int encoderThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        try {
+            return new FrameCapture(directory, settings.getCaptureFormat(), settings.getCaptureInterval(),
+                    (int) initialWindowDimensions.x(), (int) initialWindowDimensions.y(), CAPTURE_BUFFERS,
+                    encoderThreads);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot capture frames in " + directory, e);
+        }
     }
 
     /**
@@ -77,9 +224,175 @@ public class BrickerGameManager extends GameManager {
      */
     @Override
     public void update(float deltaTime) {
+        if (frameGovernor != null) {
+            frameGovernor.awaitNextFrame(isIdle());
+        }
+        if (playAgain != null) {
+            answerEndPrompt(); // the game stays frozen, at the idle rate, until the player answers
+            return;
+        }
+        long frameStart = System.nanoTime();
+        if (allocationProfiler != null) {
+            allocationProfiler.attach();
+            allocationProfiler.startFrame();
+        }
+        if (startupNanos != 0) {
+            reportStartup();
+        }
+        if (puckSwarm != null) {
+            puckSwarm.setExtraPaddle(extraPaddleSlot.getExtraPaddle());
+        }
+        if (journal != null) {
+            journal.nextFrame();
+        }
+        if (!physicsBackend.integrate(gameObjects().objectsInLayer(Layer.DEFAULT), deltaTime)
+                && parallelUpdate != null) {
+            parallelUpdate.begin(gameObjects().objectsInLayer(Layer.DEFAULT), deltaTime);
+        }
+        FlightEvents.beginPhase(FlightEvents.PHASE_UPDATE);
         super.update(deltaTime);
+        FlightEvents.endPhase();
+        FlightEvents.beginPhase(FlightEvents.PHASE_COLLISION);
+        physicsBackend.findContacts(gameObjects());
+        FlightEvents.endPhase();
+        contactAggregator.respond();
+        if (scrollingView != null) {
+            scrollingView.update(ball);
+        }
+        effects.advance(deltaTime);
+        if (deferredWork != null) {
+            deferredWork.drain(frameStart + (long) (settings.getFrameBudgetMillis() * 1e6));
+        }
         checkForGameEnd();
+        if (worldHasher != null) {
+            worldHasher.onFrame();
+        }
+        if (frameCapture != null) {
+            frameCapture.onFrame(this::renderFrame);
+        }
+        if (rewindBuffer != null) {
+            rewindBuffer.onFrame();
+        }
+        if (allocationProfiler != null) {
+            allocationProfiler.endFrame();
+        }
+    }
+
+    /**
+     * Renders all the game objects.
+     *
+     * @param g The graphics context to render to.
+     */
+    @Override
+    public void render(Graphics2D g) {
+        if (allocationProfiler != null) {
+            allocationProfiler.resumeFrame(); // the frame rendered is the one the last update counted
+        }
+        renderFrame(g);
+        if (allocationProfiler != null) {
+            allocationProfiler.endFrame();
+        }
+    }
+
+    private void renderFrame(Graphics2D g) {
+        AllocationProfiler.begin(AllocationPhase.RENDERING);
+        FlightEvents.beginPhase(FlightEvents.PHASE_RENDER);
+        super.render(g);
+        FlightEvents.endPhase();
+        AllocationProfiler.end();
+    }
+
+    /**
+     * Checks whether nothing in the game moves, so frames can be paced to the idle rate.
+     * @return true if the game is over, or the ball, the paddle and all the mock balls stand still
+     */
+    private boolean isIdle() {
+        return gameOver || (isStill(ball) && isStill(paddle) && puckCounter.value() == 0);
+    }
+
+    private static boolean isStill(GameObject gameObject) {
+        Vector2 velocity = gameObject.getVelocity();
+        return velocity.x() == 0 && velocity.y() == 0;
+    }
+
+    /**
+     * Returns the broadphase that finds the contacts between moving objects, for its pair counts.
+     *
+     * @return The broadphase, or null if danogl finds those contacts.
+     */
+    public SweepAndPrune getBroadphase() {
+        return physicsBackend.getBroadphase();
+    }
+
+    /**
+     * @return The backend finding the contacts between the objects of the game.
+     */
+    public PhysicsBackend getPhysicsBackend() {
+        return physicsBackend;
+    }
+
+    /**
+     * Returns the hasher that records the hashes of the world every few frames.
+     *
+     * @return The world hasher, or null if the hashes are not recorded.
+     */
+    public WorldHasher getWorldHasher() {
+        return worldHasher;
+    }
+
+    /**
+     * Returns the journal the gameplay events are recorded in.
+     *
+     * @return The journal, or null if the events are not journaled.
+     */
+    public GameJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Returns the queue of non-critical work that waits for frames with time left.
+     *
+     * @return The deferred work, or null if such work is done right away.
+     */
+    public DeferredWork getDeferredWork() {
+        return deferredWork;
+    }
+
+    /**
+     * Returns the capture of every few frames to files, which whoever runs a game without a window closes
+     * when done.
+     *
+     * @return The frame capture, or null if frames are not captured.
+     */
+    public FrameCapture getFrameCapture() {
+        return frameCapture;
+    }
 
+    /**
+     * Returns the ring keeping the world of the last frames, which can rewind the game to any of them.
+     *
+     * @return The rewind buffer, or null if the world is not kept.
+     */
+    public RewindBuffer getRewindBuffer() {
+        return rewindBuffer;
+    }
+
+    /**
+     * Returns the governor that paces the frames to a target rate.
+     *
+     * @return The frame governor, or null if the frames are not paced.
+     */
+    public FrameGovernor getFrameGovernor() {
+        return frameGovernor;
+    }
+
+    /**
+     * Returns the profiler that attributes heap allocations to the phases of a frame.
+     *
+     * @return The allocation profiler, or null if allocation profiling is off.
+     */
+    public AllocationProfiler getAllocationProfiler() {
+        return allocationProfiler;
     }
 
     /**
@@ -96,48 +409,126 @@ public class BrickerGameManager extends GameManager {
                                UserInputListener inputListener, WindowController windowController) {
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         this.windowController = windowController;
+        if (frameGovernor != null) {
+            // the governor paces the frames, including the idle ones, so danogl must not wait as well
+            windowController.setTargetFramerate(UNPACED_FPS);
+        }
+        initializeWorld(imageReader, soundReader, inputListener);
+    }
+
+    /**
+     * Sets up a new game in the objects of the game: removes the objects of the previous game, then creates
+     * the walls, ball, paddle, bricks and background. Called by {@link #initializeGame} once danogl set up the
+     * window, and directly by a game without a window, which has no window for danogl to set up.
+     *
+     * @param imageReader   Reads image assets for game objects.
+     * @param soundReader   Reads sound assets for game objects.
+     * @param inputListener Listens for user input during gameplay.
+     */
+    protected void initializeWorld(ImageReader imageReader, SoundReader soundReader,
+                                   UserInputListener inputListener) {
+        removeAllGameObjects();
+        setCamera(null);
+        this.gameOver = false;
+        // A new scheduler per game, so no effect of the previous game survives the reset
+        effects = new EffectScheduler();
+        // Start reading the images and sounds, a game without a window cannot read them.
+        // They are decoded in the background, and every object below waits only for its own assets
+        if (assets == null) {
+            if (settings.isStartupTiming()) {
+                startupNanos = System.nanoTime();
+            }
+            assets = settings.isHeadless() ? GameAssets.placeholders() : GameAssets.preload(soundReader);
+        }
         // Initialize the game counter for bricks
         brickCounter = new Counter(0); // Start the counter at 0
-        // Create health bar
-        Renderable heartImage = imageReader.readImage("assets/heart.png", true);
-        healthBar = new HealthBar(heartImage, HEART_RADIUS, gameObjects());
+        basicStrategy = new BasicCollisionStrategy(gameObjects(), brickCounter);
+        puckCounter.reset();
+        if (deferredWork != null) {
+            deferredWork.clear(); // the work of the previous game
+        }
         // Retrieve window dimensions
-        windowDimensions = windowController.getWindowDimensions();
+        windowDimensions = settings.isHeadless() ? initialWindowDimensions
+                                                 : windowController.getWindowDimensions();
+        // rows beyond those fitting the window extend the level upwards, above the window
+        levelRows = settings.getLevelRows() > 0 ? settings.getLevelRows() : NUM_ROWS;
+        levelTop = Math.min(0, -(levelRows - NUM_ROWS) * (BRICK_HEIGHT + BRICK_MARGIN));
+        //creating walls, which need no assets
+        createWalls();
+        physicsBackend = createPhysicsBackend();
+        // mock balls and falling hearts out of the view of a tall level skip their draws
+        puckImage = levelTop < 0 ? ScrollingView.culled(assets.getMockBallImage()) : assets.getMockBallImage();
+        fallingHeartImage = levelTop < 0 ? ScrollingView.culled(assets.getHeartImage()) : assets.getHeartImage();
+        // Create health bar
+        healthBar = new HealthBar(assets.getHeartImage(), HEART_RADIUS, gameObjects());
+        healthBar.setDeferredWork(deferredWork);
         // Create and initialize the main ball
-        createBall(imageReader,soundReader);
+        createBall();
         // Create user paddle
-        Renderable paddleImage = imageReader.readImage("assets/paddle.png", true);
-        GameObject paddle = createPaddle(imageReader,inputListener);
-        //creating walls
-        createWalls();
-        //create background
-        GameObject background = createBackground(imageReader);
-        //camera support
-        background.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
-
-        //creating bricks
-        Renderable brickImage = imageReader.readImage("assets/brick.png", false);
+        paddle = createPaddle(inputListener);
 
         // Use a factory to create strategies for brick behavior
-        Renderable mockBallImage = imageReader.readImage("assets/mockBall.png", true);
-        Sound collisionSound = soundReader.readSound("assets/blop.wav");
-        //Turbo ball image
-        Renderable turboBallImage = imageReader.readImage("assets/redball.png", true);
-        StrategyFactory strategyFactory = new StrategyFactory(
+        strategyFactory = new StrategyFactory(
                 gameObjects(),
-                mockBallImage,         // Renderable for mock ball
-                collisionSound,        // Collision sound for bricks
-                paddleImage,           // Paddle renderable
+                puckImage,             // Renderable for mock ball
+                assets.getCollisionSound(), // Collision sound for bricks
+                extraPaddleSlot,       // Holds the extra paddle
                 windowDimensions,      // Game window dimensions
-                inputListener,         // User input
                 ball,                  // Main ball object
                 paddle,                // Paddle object
-                heartImage,            // Heart image for health bar
+                fallingHeartImage,     // Heart image for falling hearts
                 healthBar,             // Health bar object
-                turboBallImage
-
+                assets.getTurboBallImage(),
+                random,                // Game random generator
+                puckCounter            // Counts the mock balls
         );
-        createBrickLayout(windowController, brickImage, strategyFactory);
+        if (settings.getStrategyWeightsPath() != null) {
+            strategyFactory.setWeights(loadStrategyWeights(settings.getStrategyWeightsPath()));
+        }
+        if (settings.isMaxPowerups()) {
+            strategyFactory.setMaxPowerups(true);
+        }
+        puckSwarm = settings.isPuckSwarm() ? createPuckSwarm() : null;
+        strategyFactory.setPuckSwarm(puckSwarm);
+        strategyFactory.setLevelTop(levelTop);
+        strategyFactory.setDeferredWork(deferredWork);
+        strategyFactory.setContactAggregator(contactAggregator);
+        strategyFactory.setRegistries(pucks, fallingHearts);
+        strategyResolver = strategyFactory.resolverFor(basicStrategy);
+        //creating bricks
+        createBrickLayout(assets.getBrickImage());
+        scrollingView = levelTop < 0 ? createScrollingView() : null;
+        //create background, the largest image is waited for last
+        GameObject background = createBackground();
+        //camera support
+        background.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
+        JournalEvents.levelStarted(bricks.length);
+    }
+
+    /**
+     * Removes the objects of the previous game from every layer, whether or not danogl cleared them.
+     */
+    private void removeAllGameObjects() {
+        List<GameObject> previous = new ArrayList<>();
+        for (int layer : GAME_LAYERS) {
+            previous.clear();
+            gameObjects().objectsInLayer(layer).forEach(previous::add);
+            for (GameObject gameObject : previous) {
+                gameObjects().removeGameObject(gameObject, layer);
+            }
+        }
+        pucks.clear();
+        fallingHearts.clear();
+    }
+
+    /**
+     * Prints how long every asset took to load and how long the game took to reach its first frame.
+     */
+    private void reportStartup() {
+        double firstFrameMillis = (System.nanoTime() - startupNanos) / 1_000_000.0;
+        startupNanos = 0;
+        System.out.print(assets.timingReport());
+        System.out.printf("  first frame at %.2f ms%n", firstFrameMillis);
     }
 
     /**
@@ -153,6 +544,8 @@ public class BrickerGameManager extends GameManager {
         }
         if (ballHeight > windowDimensions.y()) {
             healthBar.removeLife();
+            FlightEvents.lifeChanged(-1, healthBar.getLives());
+            JournalEvents.lifeChanged(-1, healthBar.getLives());
             if (healthBar.getLives() > 0) {
                 resetBall(); // Reset ball if lives are remaining
                 return;
@@ -162,41 +555,115 @@ public class BrickerGameManager extends GameManager {
         }
         if (!prompt.isEmpty()) {
 
-            prompt += " Play again?";
-            if (windowController.openYesNoDialog(prompt)) {
-                // reset by danogl doesnt reset it..needs manual reset
-                ExtraPaddleStrategy.currentExtraPaddle=null;
-                windowController.resetGame();
-            } else {
-                windowController.closeWindow();
+            if (settings.isHeadless()) {
+                // nobody to ask, whoever runs the game decides whether to start over
+                gameOver = true;
+                return;
             }
+            // asked on a thread of its own, so the frames go on at the idle rate while the player answers
+            gameOver = true;
+            String question = prompt + " Play again?";
+            playAgain = CompletableFuture.supplyAsync(() -> windowController.openYesNoDialog(question),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "end-of-game prompt");
+                        thread.setDaemon(true);
+                        thread.start();
+                    });
+        }
+    }
+
+    /**
+     * Starts the game over or closes the window once the player answered the end-of-game prompt.
+     */
+    private void answerEndPrompt() {
+        if (!playAgain.isDone()) {
+            return;
+        }
+        boolean again = playAgain.join();
+        playAgain = null;
+        if (again) {
+            windowController.resetGame();
+            return;
+        }
+        if (frameGovernor != null) {
+            System.out.print(frameGovernor.report());
+        }
+        if (frameCapture != null) {
+            closeFrameCapture();
+        }
+        windowController.closeWindow();
+    }
+
+    private void closeFrameCapture() {
+        try {
+            frameCapture.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot finish capturing frames", e);
+        }
+        System.out.print(frameCapture.report());
+    }
+
+    /**
+     * Reads the weights of the special brick behaviors for the current level.
+     * @param path - the weights file
+     * @return the weights
+     */
+    private StrategyWeights loadStrategyWeights(Path path) {
+        try {
+            return StrategyWeights.load(path, settings.getLevel());
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read strategy weights from " + path, e);
         }
     }
 
     /**
      * Creates a grid layout of bricks on the game window.
-     * @param windowController - windowController
      * @param brickImage - image of the brick in the game
-     * @param  factory - a factory for creating a strategy.
      */
-    private void createBrickLayout(WindowController windowController,
-                                   Renderable brickImage, StrategyFactory factory) {
+    private void createBrickLayout(Renderable brickImage) {
         // Calculate brick width, accounting for borders and margins
         float brickWidth = BRICK_WIDTH;
 
-        float startingY = BRICK_MARGIN + PADDLE_HEIGHT;
+        float startingY = levelTop + BRICK_MARGIN + PADDLE_HEIGHT;
+        brickGridTopLeft = new Vector2(BORDER_WIDTH, startingY);
+        // every brick's strategy is rolled from its own seed, derived from one draw for the whole level
+        long levelSeed = random.nextLong();
+        // a generated level has gaps and plain bricks, a regular one rolls the strategies of all the bricks
+        LevelLayout layout = levelGenerator != null ? levelGenerator.generate(levelSeed, levelRows, NUM_COLS) : null;
 
-        for (int row = 0; row < NUM_ROWS; row++) {
+        bricks = new Brick[levelRows * NUM_COLS];
+        for (int row = 0; row < levelRows; row++) {
             for (int col = 0; col < NUM_COLS; col++) {
+                int index = row * NUM_COLS + col;
+                byte cell = layout != null ? layout.cellAt(index) : LevelLayout.ROLLED;
+                if (cell == LevelLayout.GAP) {
+                    continue; // no brick, its cell stays null
+                }
                 float xPosition = BORDER_WIDTH + col * (brickWidth + BRICK_MARGIN);
                 float yPosition = startingY + row * (BRICK_HEIGHT + BRICK_MARGIN);
 
                 Vector2 position = new Vector2(xPosition, yPosition);
-                Vector2 dimensions = new Vector2(brickWidth, BRICK_HEIGHT);
 
-                createBrick(position, dimensions, brickImage, factory);
+                bricks[index] = createBrick(position, BRICK_DIMENSIONS, brickImage,
+                        GameRandom.mix(levelSeed + index), cell);
             }
         }
+        if (puckSwarm != null) {
+            puckSwarm.setBricks(bricks, NUM_COLS, brickGridTopLeft, BRICK_CELL_SIZE);
+        }
+    }
+
+    /**
+     * Creates the view that makes the camera follow the ball through a level taller than the window,
+     * and renders only what is in view.
+     * @return the scrolling view
+     */
+    private ScrollingView createScrollingView() {
+        ScrollingView view = new ScrollingView(windowDimensions, levelTop, assets.getBrickImage());
+        view.setBricks(bricks, NUM_COLS, brickGridTopLeft, BRICK_CELL_SIZE, BRICK_DIMENSIONS);
+        view.setPuckSwarm(puckSwarm);
+        setCamera(new Camera(view.getAnchor(), Vector2.ZERO, windowDimensions, windowDimensions));
+        return view;
     }
 
     /**
@@ -205,34 +672,62 @@ public class BrickerGameManager extends GameManager {
      * @param size - size of the wall
      */
     private void createWall(Vector2 position, Vector2 size) {
-        gameObjects().addGameObject(new GameObject(position,
+        gameObjects().addGameObject(new Wall(position,
                 size,
-                new RectangleRenderable(BORDER_COLOR)));
+                new RectangleRenderable(BORDER_COLOR)), Layer.STATIC_OBJECTS);
     }
 
     /**
-     * Creates a single brick and provides it a strategy
+     * Creates the backend that finds the contacts danogl does not, by the settings, and lets it turn off
+     * danogl's collisions it replaces. With the danogl backend, the contacts between the moving objects, which
+     * are all in the default layer, may be found by a sweep and prune broadphase while danogl finds those with
+     * the walls and bricks, which are static objects. The indexed backend finds all of them.
+     * @return the physics backend
+     */
+    private PhysicsBackend createPhysicsBackend() {
+        PhysicsBackend backend;
+        if (settings.getPhysicsBackend() == PhysicsBackendType.INDEXED) {
+            backend = new IndexedBackend(CollisionMatrix.STANDARD);
+        } else {
+            backend = new DanoglBackend(settings.isSweepAndPrune() ? new SweepAndPrune(CollisionMatrix.STANDARD)
+                                                                   : null);
+        }
+        backend.attach(gameObjects());
+        return backend;
+    }
+
+    /**
+     * Creates a single brick, whose strategy is resolved from its seed when it is first hit
      * @param position - brick position
      * @param dimensions - brick dimensions
      * @param brickImage - brick image
-     * @param strategyFactory - a factory for creating a strategy
+     * @param strategySeed - the seed of the brick's strategy
+     * @param cell - the {@link LevelLayout} cell of the brick, not a gap: a plain brick only has the basic
+     *             strategy
+     * @return the new brick
      */
-    private void createBrick(Vector2 position, Vector2 dimensions,
-                             Renderable brickImage, StrategyFactory strategyFactory) {
+    private Brick createBrick(Vector2 position, Vector2 dimensions,
+                              Renderable brickImage, long strategySeed, byte cell) {
+        if (cell == LevelLayout.PLAIN) {
+            brickCounter.increment();
+            Brick brick = new Brick(position, dimensions, brickImage, basicStrategy, StrategyCode.BASIC);
+            brick.setChangeLog(brickChanges);
+            gameObjects().addGameObject(brick, Layer.STATIC_OBJECTS);
+            return brick;
+        }
+        // Bricks with the same behaviors share a single strategy built on the shared basic strategy,
+        // resolved by the seed the first time the brick is hit
+        Brick brick = new Brick(position, dimensions, brickImage, strategyResolver, strategySeed);
+        brick.setChangeLog(brickChanges);
         brickCounter.increment();
-
-        // Start with the basic strategy
-        CollisionStrategy strategy = new BasicCollisionStrategy(gameObjects(), brickCounter);
-        strategy = strategyFactory.createStrategy(strategy);
-        // Create the brick with the composed strategy
-        Brick brick = new Brick(position, dimensions, brickImage, strategy);
         gameObjects().addGameObject(brick, Layer.STATIC_OBJECTS);
+        return brick;
     }
 
     /**
      * reset ball to be back in the game's boundaries
      */
-    private void resetBall() {
+    void resetBall() {
         initializeBall(ball); // Reuse helper method
     }
 
@@ -241,28 +736,44 @@ public class BrickerGameManager extends GameManager {
      * @param ball The ball object to update.
      */
     private void initializeBall(Ball ball) {
-        ball.setCenter(windowDimensions.mult(CENTER_FACTOR)); // Center the ball
-        Random random = new Random();
+        ball.setCenter(getBallStartCenter()); // Center the ball
+        ball.setVelocity(drawBallVelocity()); // Set randomized velocity
+    }
+
+    /**
+     * @return The center the ball is put in play at.
+     */
+    Vector2 getBallStartCenter() {
+        return windowDimensions.mult(CENTER_FACTOR);
+    }
+
+    /**
+     * Draws the velocity the ball is put in play with, in a random diagonal direction, from the game's
+     * random generator.
+     * @return The velocity.
+     */
+    Vector2 drawBallVelocity() {
         float ballVelX = BALL_SPEED * (random.nextBoolean() ? DIRECTION_RIGHT : DIRECTION_LEFT);
         float ballVelY = BALL_SPEED * (random.nextBoolean() ? DIRECTION_RIGHT : DIRECTION_LEFT);
-        ball.setVelocity(new Vector2(ballVelX, ballVelY)); // Set randomized velocity
+        return new Vector2(ballVelX, ballVelY);
     }
 
-    private Ball createBall(ImageReader imageReader, SoundReader soundReader) {
-        Renderable ballImage = imageReader.readImage("assets/ball.png", true);
-        Sound collisionSound = soundReader.readSound("assets/blop.wav");
-
+    private Ball createBall() {
         ball = new Ball(Vector2.ZERO, new Vector2(BALL_RADIUS, BALL_RADIUS),
-                ballImage, collisionSound, this);
+                assets.getBallImage(), assets.getCollisionSound(), this, effects);
         initializeBall(ball); // Reuse helper method
+        ball.setDeferredWork(deferredWork);
+        ball.setContactAggregator(contactAggregator);
         gameObjects().addGameObject(ball);
         return ball;
     }
 
-    private GameObject createPaddle(ImageReader imageReader, UserInputListener inputListener) {
-        Renderable paddleImage = imageReader.readImage("assets/paddle.png", true);
-        GameObject paddle = new Paddle(Vector2.ZERO, new Vector2(PADDLE_WIDTH, PADDLE_HEIGHT),
-                paddleImage, inputListener, true);
+    private Paddle createPaddle(UserInputListener inputListener) {
+        PaddleController controller = createPaddleController(inputListener, settings.isChaseHearts());
+        extraPaddleSlot = new ExtraPaddleSlot(gameObjects(), assets.getPaddleImage(),
+                createPaddleController(inputListener, false), effects);
+        Paddle paddle = new Paddle(Vector2.ZERO, new Vector2(PADDLE_WIDTH, PADDLE_HEIGHT),
+                assets.getPaddleImage(), controller, true);
         paddle.setCenter(new Vector2(windowDimensions.x() / 2,
                 windowDimensions.y() - PADDLE_INITIAL_POSITION_Y));
         gameObjects().addGameObject(paddle);
@@ -270,32 +781,362 @@ public class BrickerGameManager extends GameManager {
     }
 
 
+    /**
+     * Creates the controller of a paddle, the keyboard or the autopilot according to the settings.
+     * @param inputListener - listens for user input
+     * @param chaseHearts - whether an autopilot should catch falling hearts
+     * @return the paddle controller
+     */
+    private PaddleController createPaddleController(UserInputListener inputListener, boolean chaseHearts) {
+        if (settings.isAutopilot()) {
+            return new AutopilotPaddleController(ball, BORDER_WIDTH, windowDimensions.x() - BORDER_WIDTH,
+                    levelTop + BORDER_WIDTH, chaseHearts);
+        }
+        return new KeyboardPaddleController(inputListener);
+    }
+
     private void createWalls() {
-        createWall(Vector2.ZERO, new Vector2(BORDER_WIDTH, windowDimensions.y())); // Left
-        createWall(new Vector2(windowDimensions.x() - BORDER_WIDTH, 0),
-                new Vector2(BORDER_WIDTH, windowDimensions.y())); // Right
-        createWall(Vector2.ZERO, new Vector2(windowDimensions.x(), BORDER_WIDTH)); // Top
+        float levelHeight = windowDimensions.y() - levelTop;
+        createWall(new Vector2(0, levelTop), new Vector2(BORDER_WIDTH, levelHeight)); // Left
+        createWall(new Vector2(windowDimensions.x() - BORDER_WIDTH, levelTop),
+                new Vector2(BORDER_WIDTH, levelHeight)); // Right
+        createWall(new Vector2(0, levelTop), new Vector2(windowDimensions.x(), BORDER_WIDTH)); // Top
     }
 
-    private GameObject createBackground(ImageReader imageReader) {
+    private PuckSwarm createPuckSwarm() {
+        PuckSwarm swarm = new PuckSwarm(windowDimensions, levelTop, BORDER_WIDTH,
+                new Vector2(MOCKBALL_RADIUS, MOCKBALL_RADIUS), assets.getMockBallImage(),
+                assets.getCollisionSound(), puckCounter, paddle);
+        swarm.setDeferredWork(deferredWork);
+        // the swarm finds its own collisions, nothing else collides with the foreground
+        gameObjects().addGameObject(swarm, Layer.FOREGROUND);
+        return swarm;
+    }
+
+    private GameObject createBackground() {
         GameObject background = new GameObject(
                 Vector2.ZERO,
-                windowController.getWindowDimensions(),
-                imageReader.readImage("assets/DARK_BG2_small.jpeg", false)
+                windowDimensions,
+                assets.getBackgroundImage()
         );
         background.setCoordinateSpace(CoordinateSpace.CAMERA_COORDINATES);
         gameObjects().addGameObject(background, Layer.BACKGROUND);
         return background;
     }
 
+    /**
+     * Saves the current state of the world to a file.
+     *
+     * @param path The file to write, replaced if it exists.
+     * @throws IOException If writing the file fails.
+     */
+    public void saveSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            worldSnapshot().write(channel);
+        }
+        if (journal != null) {
+            JournalEvents.snapshot(WorldHasher.hash(this));
+        }
+    }
+
+    /**
+     * Replaces the state of the world with a state saved by {@link #saveSnapshot(Path)}.
+     *
+     * @param path The file to read.
+     * @throws IOException If reading fails, or the file does not hold a snapshot of this level.
+     */
+    public void loadSnapshot(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            worldSnapshot().read(channel);
+        }
+        if (journal != null) {
+            JournalEvents.snapshot(WorldHasher.hash(this));
+        }
+    }
+
+    /**
+     * Rebuilds the world of a game that crashed from its journal: the world is taken from the snapshot
+     * the journal last marked, or from this game's fresh level if the journal last marked a level start,
+     * and the events recorded since are replayed onto it. Bricks, lives, the turbo state and the extra
+     * paddle are rebuilt; the ball and the mock balls and hearts are as they were at the snapshot.
+     * Journaling of this game must go to a different file than the one replayed.
+     *
+     * @param snapshot The snapshot the journal last marked, or null if it marked none since a level start.
+     * @param journalPath The journal of the crashed game.
+     * @return the number of events replayed
+     * @throws IOException If reading fails, or the snapshot and the journal do not belong together.
+     */
+    public int recoverFromJournal(Path snapshot, Path journalPath) throws IOException {
+        JournalReader reader = new JournalReader(journalPath);
+        int checkpoint = reader.lastCheckpoint();
+        if (checkpoint >= 0 && reader.getType(checkpoint) == JournalEventType.SNAPSHOT) {
+            if (snapshot == null) {
+                throw new IOException("the journal continues a snapshot, which is missing");
+            }
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                worldSnapshot().read(channel);
+            }
+            long expectedHash = ((long) reader.getFirstInt(checkpoint) << Integer.SIZE)
+                    | (reader.getSecondInt(checkpoint) & 0xFFFFFFFFL);
+            if (WorldHasher.hash(this) != expectedHash) {
+                throw new IOException("the snapshot is not the one the journal continues");
+            }
+        } else if (checkpoint >= 0 && reader.getFirstInt(checkpoint) != bricks.length) {
+            throw new IOException("the journal is not of this level");
+        }
+        return new JournalReplay(this).replay(reader, checkpoint + 1);
+    }
+
+    private WorldSnapshot worldSnapshot() {
+        if (worldSnapshot == null) {
+            worldSnapshot = new WorldSnapshot(this);
+        }
+        return worldSnapshot;
+    }
+
+    GameRandom getRandom() {
+        return random;
+    }
+
+    GameSettings getSettings() {
+        return settings;
+    }
+
+    EffectScheduler getEffects() {
+        return effects;
+    }
+
+    /**
+     * @return the log of the bricks destroyed or put back since it was last cleared, or null if none is kept
+     */
+    BrickChangeLog getBrickChanges() {
+        return brickChanges;
+    }
+
+    HealthBar getHealthBar() {
+        return healthBar;
+    }
+
+    Ball getBall() {
+        return ball;
+    }
+
+    Paddle getPaddle() {
+        return paddle;
+    }
+
+    /**
+     * @return the bricks of the level row by row, including destroyed ones, with null where there is a gap
+     */
+    Brick[] getBricks() {
+        return bricks;
+    }
+
+    /**
+     * @return the top left corner of the first cell of the grid of bricks
+     */
+    Vector2 getBrickGridTopLeft() {
+        return brickGridTopLeft;
+    }
+
+    /**
+     * @return the distance between the top left corners of adjacent bricks
+     */
+    Vector2 getBrickCellSize() {
+        return BRICK_CELL_SIZE;
+    }
+
+    /**
+     * @return the dimensions of a brick
+     */
+    Vector2 getBrickDimensions() {
+        return BRICK_DIMENSIONS;
+    }
+
+    /**
+     * @return the number of bricks still in the wall
+     */
+    int getBricksLeft() {
+        return brickCounter.value();
+    }
+
+    /**
+     * @return the number of bricks in a row
+     */
+    int getBrickColumns() {
+        return NUM_COLS;
+    }
+
+    /**
+     * @return the width of the walls around the level
+     */
+    float getWallWidth() {
+        return BORDER_WIDTH;
+    }
+
+    /**
+     * @return the top of the level, above the window if the level is taller than it
+     */
+    float getLevelTop() {
+        return levelTop;
+    }
+
+    Vector2 getWindowDimensions() {
+        return windowDimensions;
+    }
+
+    /**
+     * @return the width and height of a mock ball
+     */
+    Vector2 getPuckDimensions() {
+        return new Vector2(MOCKBALL_RADIUS, MOCKBALL_RADIUS);
+    }
+
+    Renderable getTurboBallImage() {
+        return assets.getTurboBallImage();
+    }
+
+    /**
+     * Returns whether the game has been won or lost, and was not started over yet.
+     * @return true if the game has ended
+     */
+    boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Returns the number of mock balls currently in the game.
+     * @return the number of mock balls
+     */
+    public int getPuckCount() {
+        return puckCounter.value();
+    }
+
+    /**
+     * Puts a brick back in the wall or removes it, keeping the brick counter in sync.
+     * @param brick - the brick
+     * @param alive - whether the brick should be in the wall
+     */
+    void setBrickAlive(Brick brick, boolean alive) {
+        if (alive && brick.isDestroyed()) {
+            gameObjects().addGameObject(brick, Layer.STATIC_OBJECTS);
+            brickCounter.increment();
+            brick.setDestroyed(false);
+            physicsBackend.staticObjectsChanged(); // a destroyed brick is skipped, a brick put back is new
+        } else if (!alive && !brick.isDestroyed()) {
+            gameObjects().removeGameObject(brick, Layer.STATIC_OBJECTS);
+            brickCounter.decrement();
+            brick.setDestroyed(true);
+        }
+    }
+
+    /**
+     * Rebuilds the collision strategy of a brick from a strategy code.
+     * @param brick - the brick
+     * @param strategyCode - the code of the special behaviors of the brick
+     */
+    void setBrickStrategy(Brick brick, int strategyCode) {
+        brick.setCollisionStrategy(strategyFactory.sharedStrategy(strategyCode, basicStrategy), strategyCode);
+    }
+
+    /**
+     * Adds a mock ball to the game.
+     * @param center - the center of the mock ball
+     * @param velocity - the velocity of the mock ball
+     */
+    void restorePuck(Vector2 center, Vector2 velocity) {
+        if (puckSwarm != null) {
+            puckSwarm.spawn(center, velocity);
+            return;
+        }
+        PuckBall puck = new PuckBall(Vector2.ZERO, new Vector2(MOCKBALL_RADIUS, MOCKBALL_RADIUS),
+                puckImage, assets.getCollisionSound(), gameObjects(), windowDimensions,
+                levelTop, puckCounter);
+        puck.setDeferredWork(deferredWork);
+        puck.setContactAggregator(contactAggregator);
+        puck.setCenter(center);
+        puck.setVelocity(velocity);
+        gameObjects().addGameObject(puck);
+        puck.setRegistry(pucks);
+        puckCounter.increment();
+    }
+
+    /**
+     * @return the mock balls in the game, when each one is a game object
+     */
+    GameObjectRegistry<PuckBall> getPucks() {
+        return pucks;
+    }
+
+    /**
+     * @return the falling hearts in the game
+     */
+    GameObjectRegistry<FallingHeart> getFallingHearts() {
+        return fallingHearts;
+    }
+
+    /**
+     * @return the swarm holding the mock balls, or null if each one is a game object
+     */
+    PuckSwarm getPuckSwarm() {
+        return puckSwarm;
+    }
+
+    /**
+     * Adds a falling heart to the game.
+     * @param center - the center of the heart
+     * @param velocity - the velocity of the heart
+     */
+    void restoreFallingHeart(Vector2 center, Vector2 velocity) {
+        FallingHeart heart = new FallingHeart(Vector2.ZERO, new Vector2(HEART_RADIUS, HEART_RADIUS),
+                fallingHeartImage, paddle, fallingHeartImage, gameObjects(), healthBar);
+        heart.setCenter(center);
+        heart.setVelocity(velocity);
+        gameObjects().addGameObject(heart);
+        heart.setRegistry(fallingHearts);
+        paddle.getController().onFallingHeart(heart);
+    }
+
+    /**
+     * Adds, moves or removes the extra paddle.
+     * @param present - whether there should be an extra paddle
+     * @param center - the center of the extra paddle
+     * @param collisionCount - the number of collisions the extra paddle has endured
+     */
+    void restoreExtraPaddle(boolean present, Vector2 center, int collisionCount) {
+        if (!present) {
+            extraPaddleSlot.remove();
+            return;
+        }
+        ExtraPaddle extraPaddle = extraPaddleSlot.add(Vector2.ZERO, collisionCount);
+        extraPaddle.setCenter(center);
+    }
+
+    /**
+     * @return the extra paddle, or null if there is none
+     */
+    ExtraPaddle getExtraPaddle() {
+        return extraPaddleSlot.getExtraPaddle();
+    }
+
+    /**
+     * Returns the dimensions of the game's window when it is created by {@link #main(String[])}.
+     * @return the default window dimensions
+     */
+    static Vector2 defaultWindowDimensions() {
+        return new Vector2(WINDOW_WIDTH, WINDOW_HEIGHT);
+    }
+
     /**
      * The entry point of the program. Initializes and starts the Bricker game.
      *
-     * @param args Command-line arguments (not used in this application).
+     * @param args Command-line arguments, see {@link GameSettings#fromArgs(String[])}.
      */
     public static void main(String[] args) {
 
-        new BrickerGameManager("Bricker", new Vector2(WINDOW_WIDTH,WINDOW_HEIGHT)).run();
+        new BrickerGameManager("Bricker", new Vector2(WINDOW_WIDTH,WINDOW_HEIGHT),
+                GameSettings.fromArgs(args)).run();
     }
 
 
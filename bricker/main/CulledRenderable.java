@@ -0,0 +1,38 @@
+package bricker.main;
+
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+import java.awt.Graphics2D;
+
+/**
+ * A renderable that draws another one only where it may show, skipping the draw of an object entirely outside
+ * the area being painted, such as a mock ball far above the view of a tall level. The object is still visited
+ * by danogl every frame; only its drawing is skipped.
+ */
+class CulledRenderable implements Renderable {
+    private final Renderable renderable; // drawn when in view
+
+    /**
+     * Constructs a renderable culled to the area being painted.
+     *
+     * @param renderable The renderable drawn when in view.
+     */
+    CulledRenderable(Renderable renderable) {
+        this.renderable = renderable;
+    }
+
+    /**
+     * Draws the renderable if its bounds touch the clip of the graphics, in the coordinates they are drawn in.
+     */
+    @Override
+    public void render(Graphics2D g, Vector2 topLeftCorner, Vector2 dimensions, double degreesCounterClockwise,
+                       boolean isFlippedHorizontally, boolean isFlippedVertically, double opaqueness) {
+        if (!g.hitClip((int) Math.floor(topLeftCorner.x()), (int) Math.floor(topLeftCorner.y()),
+                (int) Math.ceil(dimensions.x()) + 1, (int) Math.ceil(dimensions.y()) + 1)) {
+            return;
+        }
+        renderable.render(g, topLeftCorner, dimensions, degreesCounterClockwise, isFlippedHorizontally,
+                isFlippedVertically, opaqueness);
+    }
+}
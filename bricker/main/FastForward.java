@@ -0,0 +1,243 @@
+package bricker.main;
+
+import bricker.brick_strategies.ExtraBallsStrategy;
+import bricker.brick_strategies.StrategyCode;
+import bricker.brick_strategies.StrategyType;
+import bricker.brick_strategies.TurboStrategy;
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Brick;
+import bricker.gameobjects.FallingHeart;
+import bricker.gameobjects.GameObjectRegistry;
+import bricker.gameobjects.HealthBar;
+import bricker.gameobjects.Paddle;
+import bricker.gameobjects.PuckBall;
+import bricker.gameobjects.PuckSwarm;
+import bricker.journal.JournalEvents;
+import bricker.metrics.FlightEvents;
+import bricker.physics.EventDrivenSimulation;
+import bricker.util.GameRandom;
+import danogl.util.Vector2;
+
+/**
+ * Fast-forwards a running game by an {@link EventDrivenSimulation}, jumping from collision to collision
+ * instead of running frames, and writes the result back into the game.
+ * <p>
+ * The ball, the mock balls, the main paddle and the bricks are simulated; the bricks' extra balls and turbo
+ * behaviors take effect as in the game, drawing from the game's random generator, and a lost ball costs a
+ * life and is put back in the middle of the window with a velocity drawn as the game draws it. The game
+ * itself is not touched until the simulation ends, when the result is written back. The last life is not
+ * taken here: the ball is left where it falls out of the window, so the game itself ends on the next frame.
+ * <p>
+ * Some of the game is left out, so a fast-forward is close to running the frames but not the same:
+ * <ul>
+ *     <li>a brick's extra paddle behavior does nothing, and an extra paddle already in play stays where
+ *     it is, is not hit and does not count down its hits;</li>
+ *     <li>a brick's falling heart behavior drops no heart, and falling hearts already in play fall past
+ *     the paddle uncaught;</li>
+ *     <li>the paddle follows the ball the way the autopilot does, or stands still without it;</li>
+ *     <li>the timed effects of the game do not advance.</li>
+ * </ul>
+ */
+public class FastForward implements EventDrivenSimulation.Listener {
+    private final BrickerGameManager gameManager; // the game being fast-forwarded
+    private EventDrivenSimulation simulation;
+    private Brick[] bricks;
+    private double puckSize;
+    private int turboCollisionsLeft; // collisions until the ball leaves turbo state, 0 if not in it
+    private int livesLeft; // the lives of the simulated game, written back at the end
+    private float turboFactor;
+
+    /**
+     * Constructs a fast-forwarder for a game.
+     *
+     * @param gameManager The game to fast-forward.
+     */
+    public FastForward(BrickerGameManager gameManager) {
+        this.gameManager = gameManager;
+    }
+
+    /**
+     * Fast-forwards the game.
+     *
+     * @param seconds The game time to skip.
+     * @return The number of collisions simulated.
+     */
+    public long run(float seconds) {
+        simulation = createSimulation();
+        long collisions = simulation.advance(seconds);
+        float elapsed = (float) simulation.getTime();
+        writeBack(elapsed);
+        simulation = null;
+        return collisions;
+    }
+
+    /**
+     * Counts down the turbo state of the ball.
+     *
+     * @param body The ball that bounced, by its index.
+     */
+    @Override
+    public void onBounce(int body) {
+        if (body != 0 || turboCollisionsLeft == 0) {
+            return;
+        }
+        turboCollisionsLeft--;
+        if (turboCollisionsLeft == 0) {
+            simulation.setVelocity(0, simulation.velocityX(0) / turboFactor,
+                    simulation.velocityY(0) / turboFactor);
+        }
+    }
+
+    /**
+     * Applies the behaviors of a destroyed brick, and stops the simulation when the last brick is gone.
+     *
+     * @param brick The brick, by its index.
+     * @param body  The ball that hit it, by its index.
+     */
+    @Override
+    public void onBrickHit(int brick, int body) {
+        int strategyCode = bricks[brick].getStrategyCode();
+        for (int i = 0; i < StrategyCode.behaviorCount(strategyCode); i++) {
+            StrategyType type = StrategyCode.behaviorAt(strategyCode, i);
+            if (type == StrategyType.EXTRA_BALLS) {
+                spawnPucks(brick);
+            } else if (type == StrategyType.TURBO && body == 0 && turboCollisionsLeft == 0) {
+                turboFactor = TurboStrategy.TURBO_VELOCITY_CHANGE_FACTOR;
+                turboCollisionsLeft = TurboStrategy.MAX_COLLISION;
+                simulation.setVelocity(0, simulation.velocityX(0) * turboFactor,
+                        simulation.velocityY(0) * turboFactor);
+            }
+        }
+        if (simulation.getBricksLeft() == 0) {
+            simulation.stop();
+        }
+    }
+
+    /**
+     * Takes a life and puts the ball back in play, or stops the simulation before the last life is taken.
+     */
+    @Override
+    public void onBallLost() {
+        if (livesLeft <= 1) {
+            simulation.stop();
+            return;
+        }
+        livesLeft--;
+        Vector2 center = gameManager.getBallStartCenter();
+        Vector2 velocity = gameManager.drawBallVelocity();
+        simulation.setBody(0, center.x(), center.y(), velocity.x(), velocity.y());
+    }
+
+    /**
+     * Spawns the mock balls of an extra balls behavior, like {@link ExtraBallsStrategy} does.
+     */
+    private void spawnPucks(int brick) {
+        GameRandom random = gameManager.getRandom();
+        Vector2 center = bricks[brick].getCenter();
+        for (int i = 0; i < 2; i++) {
+            double angle = random.nextDouble() * Math.PI;
+            simulation.addBody(center.x(), center.y(), puckSize,
+                    (float) Math.cos(angle) * ExtraBallsStrategy.BALL_SPEED,
+                    (float) Math.sin(angle) * ExtraBallsStrategy.BALL_SPEED);
+        }
+    }
+
+    /**
+     * Reads the level, the paddle and the balls of the game into a new simulation.
+     */
+    private EventDrivenSimulation createSimulation() {
+        Vector2 windowDimensions = gameManager.getWindowDimensions();
+        float wallWidth = gameManager.getWallWidth();
+        EventDrivenSimulation result = new EventDrivenSimulation(wallWidth, gameManager.getLevelTop() + wallWidth,
+                windowDimensions.x() - wallWidth, windowDimensions.y());
+
+        bricks = gameManager.getBricks();
+        int columns = gameManager.getBrickColumns();
+        boolean[] alive = new boolean[bricks.length];
+        for (int i = 0; i < bricks.length; i++) {
+            alive[i] = bricks[i] != null && !bricks[i].isDestroyed(); // a gap is never alive
+        }
+        Vector2 gridTopLeft = gameManager.getBrickGridTopLeft();
+        Vector2 cellSize = gameManager.getBrickCellSize();
+        Vector2 brickDimensions = gameManager.getBrickDimensions();
+        result.setBricks(alive, columns, gridTopLeft.x(), gridTopLeft.y(), cellSize.x(), cellSize.y(),
+                brickDimensions.x(), brickDimensions.y());
+
+        Paddle paddle = gameManager.getPaddle();
+        result.setPaddle(paddle.getCenter().x(), paddle.getTopLeftCorner().y(), paddle.getDimensions().x(),
+                paddle.getMovementSpeed(), gameManager.getSettings().isAutopilot());
+
+        Ball ball = gameManager.getBall();
+        result.addBody(ball.getCenter().x(), ball.getCenter().y(), ball.getDimensions().x(),
+                ball.getVelocity().x(), ball.getVelocity().y());
+        turboCollisionsLeft = ball.getTurboState() ? ball.getMaxCollisionInTurbo() - ball.getCollisionCounter() : 0;
+        turboFactor = ball.getVelocityChangeFactorInTurbo();
+        livesLeft = gameManager.getHealthBar().getLives();
+
+        puckSize = gameManager.getPuckDimensions().x();
+        PuckSwarm swarm = gameManager.getPuckSwarm();
+        if (swarm != null) {
+            for (int i = 0; i < swarm.size(); i++) {
+                result.addBody(swarm.centerX(i), swarm.centerY(i), puckSize, swarm.velocityX(i),
+                        swarm.velocityY(i));
+            }
+        }
+        GameObjectRegistry<PuckBall> pucks = gameManager.getPucks();
+        for (int i = 0; i < pucks.size(); i++) {
+            PuckBall puck = pucks.get(i);
+            Vector2 center = puck.getCenter();
+            Vector2 velocity = puck.getVelocity();
+            result.addBody(center.x(), center.y(), puck.getDimensions().x(), velocity.x(), velocity.y());
+        }
+        result.setListener(this);
+        return result;
+    }
+
+    /**
+     * Writes the simulated state back into the game.
+     */
+    private void writeBack(float elapsed) {
+        HealthBar healthBar = gameManager.getHealthBar();
+        while (healthBar.getLives() > livesLeft) {
+            healthBar.removeLife();
+            FlightEvents.lifeChanged(-1, healthBar.getLives());
+            JournalEvents.lifeChanged(-1, healthBar.getLives());
+        }
+
+        Ball ball = gameManager.getBall();
+        ball.setCenter(new Vector2((float) simulation.centerX(0), (float) simulation.centerY(0)));
+        ball.setVelocity(new Vector2((float) simulation.velocityX(0), (float) simulation.velocityY(0)));
+        int maxCollisions = turboCollisionsLeft > 0 ? TurboStrategy.MAX_COLLISION : ball.getMaxCollisionInTurbo();
+        ball.restoreState(turboCollisionsLeft > 0, maxCollisions - turboCollisionsLeft, maxCollisions,
+                turboFactor, gameManager.getTurboBallImage());
+
+        Paddle paddle = gameManager.getPaddle();
+        paddle.setCenter(new Vector2((float) simulation.paddleCenterX(), paddle.getCenter().y()));
+
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i] != null && !simulation.isBrickAlive(i) && !bricks[i].isDestroyed()) {
+                JournalEvents.brickDestroyed(bricks[i], bricks[i].getStrategyCode());
+                gameManager.setBrickAlive(bricks[i], false);
+            }
+        }
+
+        PuckSwarm swarm = gameManager.getPuckSwarm();
+        if (swarm != null) {
+            swarm.clear();
+        }
+        GameObjectRegistry<PuckBall> pucks = gameManager.getPucks();
+        for (int i = pucks.size() - 1; i >= 0; i--) {
+            pucks.get(i).removeFromGame(); // keeps the puck count right
+        }
+        GameObjectRegistry<FallingHeart> hearts = gameManager.getFallingHearts();
+        for (int i = 0; i < hearts.size(); i++) {
+            // the hearts fall on, uncaught, and are removed on their next update if they fell past the paddle
+            FallingHeart heart = hearts.get(i);
+            heart.setCenter(heart.getCenter().add(heart.getVelocity().mult(elapsed)));
+        }
+        for (int i = 1; i < simulation.getBodyCount(); i++) {
+            gameManager.restorePuck(new Vector2((float) simulation.centerX(i), (float) simulation.centerY(i)),
+                    new Vector2((float) simulation.velocityX(i), (float) simulation.velocityY(i)));
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package bricker.main;
+
+import bricker.metrics.LatencyHistogram;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Paces the frames of a game to a target rate, and to a lower rate while nothing in the game moves.
+ * <p>
+ * The game calls {@link #awaitNextFrame(boolean)} once a frame. It parks the thread until shortly before
+ * the next frame is due and spins for the rest, since parking alone overshoots by up to a scheduler tick.
+ * A frame that starts more than a whole period late counts as a missed deadline, and the schedule restarts
+ * from it rather than rushing frames to catch up.
+ * <p>
+ * The governor is the only thing pacing a game's frames: the game raises danogl's own target rate beyond
+ * anything it reaches, so danogl never waits on top of the governor, and keeps the frames going while the
+ * end-of-game prompt is up, so a game waiting for its player runs at the idle rate.
+ */
+public class FrameGovernor {
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long SPIN_NANOS = 1_500_000L; // the end of a wait that is spun rather than parked
+    private static final long FPS_WINDOW_NANOS = NANOS_PER_SECOND; // the achieved rate is measured over it
+
+    private final long periodNanos;
+    private final long idlePeriodNanos;
+    private final LatencyHistogram jitter = new LatencyHistogram(); // distance of frames from their deadline
+    private long deadline = 0; // when the next frame is due, 0 before the first frame
+    private long lastWaitNanos = 0; // how long the last call waited
+    private long missedDeadlines = 0;
+    private long frames = 0;
+    private long idleFrames = 0;
+    private long fpsWindowStart = 0;
+    private int fpsWindowFrames = 0;
+    private double achievedFps = 0;
+
+    /**
+     * Constructs a governor.
+     *
+     * @param targetFps The frame rate of a game where something moves.
+     * @param idleFps   The frame rate of a game where nothing moves, at most the target rate.
+     */
+    public FrameGovernor(int targetFps, int idleFps) {
+        if (targetFps <= 0 || idleFps <= 0 || idleFps > targetFps) {
+            throw new IllegalArgumentException("bad frame rates " + targetFps + ", idle " + idleFps);
+        }
+        this.periodNanos = NANOS_PER_SECOND / targetFps;
+        this.idlePeriodNanos = NANOS_PER_SECOND / idleFps;
+    }
+
+    /**
+     * Waits until the next frame is due.
+     *
+     * @param idle True if nothing in the game moves, which paces the next frame to the idle rate.
+     */
+    public void awaitNextFrame(boolean idle) {
+        long now = System.nanoTime();
+        if (deadline == 0) {
+            deadline = now;
+            fpsWindowStart = now;
+        }
+        long remaining = deadline - now;
+        if (remaining > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+        }
+        while (deadline - System.nanoTime() > 0) {
+            Thread.onSpinWait();
+        }
+        long waitStart = now;
+        now = System.nanoTime();
+        lastWaitNanos = now - waitStart;
+        long lateness = now - deadline;
+        jitter.record(lateness);
+        long period = idle ? idlePeriodNanos : periodNanos;
+        if (lateness > period) {
+            missedDeadlines++;
+            deadline = now + period;
+        } else {
+            deadline += period;
+        }
+        frames++;
+        if (idle) {
+            idleFrames++;
+        }
+        fpsWindowFrames++;
+        if (now - fpsWindowStart >= FPS_WINDOW_NANOS) {
+            achievedFps = fpsWindowFrames * (double) NANOS_PER_SECOND / (now - fpsWindowStart);
+            fpsWindowStart = now;
+            fpsWindowFrames = 0;
+        }
+    }
+
+    /**
+     * @return The frame rate over the last whole second, or 0 before a second has passed.
+     */
+    public double getAchievedFps() {
+        return achievedFps;
+    }
+
+    /**
+     * @param percentile The percentile, between 0 and 100.
+     * @return How late frames started relative to their deadline, at the percentile, in nanoseconds.
+     */
+    public long getJitterNanos(double percentile) {
+        return jitter.percentile(percentile);
+    }
+
+    /**
+     * @return How long the last wait for a frame took, in nanoseconds, for those timing the rest of the frame.
+     */
+    public long getLastWaitNanos() {
+        return lastWaitNanos;
+    }
+
+    /**
+     * @return The number of frames that started more than a whole period late.
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * @return The number of frames paced so far.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * @return The number of frames paced to the idle rate.
+     */
+    public long getIdleFrames() {
+        return idleFrames;
+    }
+
+    /**
+     * Describes the pacing of the frames so far.
+     *
+     * @return A multi-line report.
+     */
+    public String report() {
+        return String.format("frame pacing: %d frames (%d idle), %.1f fps%n"
+                        + "  jitter p50 %.3f ms, p99 %.3f ms, max %.3f ms%n"
+                        + "  missed deadlines: %d%n",
+                frames, idleFrames, achievedFps,
+                jitter.percentile(50) / 1e6, jitter.percentile(99) / 1e6, jitter.max() / 1e6,
+                missedDeadlines);
+    }
+}
@@ -0,0 +1,259 @@
+package bricker.main;
+
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.gui.rendering.RectangleRenderable;
+import danogl.gui.rendering.Renderable;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The images and sounds used by the game, read once when the game is initialized.
+ * <p>
+ * {@link #preload(SoundReader)} decodes all the assets concurrently, and every getter waits only for its own
+ * asset, so the game can build the objects whose assets are ready while the others are still decoding.
+ * The time every asset took is kept for {@link #timingReport()}.
+ */
+public class GameAssets {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final long startedNanos; // when loading started
+    private final List<Asset<?>> loaded = new ArrayList<>(); // every distinct file, in the order of loading
+    private final Map<String, Asset<?>> loadedByPath = new HashMap<>(); // reads every file once
+    private final Asset<Renderable> ballImage;
+    private final Asset<Renderable> paddleImage;
+    private final Asset<Renderable> heartImage;
+    private final Asset<Renderable> brickImage;
+    private final Asset<Renderable> mockBallImage;
+    private final Asset<Renderable> turboBallImage;
+    private final Asset<Renderable> backgroundImage;
+    private final Asset<Sound> collisionSound; // may hold null, in which case collisions are silent
+
+    /**
+     * Starts loading all the assets, each one by a function that reads it by its path.
+     */
+    private GameAssets(ImageLoader images, Function<String, Sound> sounds, Executor executor) {
+        this.startedNanos = System.nanoTime();
+        this.ballImage = load("assets/ball.png", () -> images.load("assets/ball.png", true), executor);
+        this.paddleImage = load("assets/paddle.png", () -> images.load("assets/paddle.png", true), executor);
+        this.heartImage = load("assets/heart.png", () -> images.load("assets/heart.png", true), executor);
+        this.brickImage = load("assets/brick.png", () -> images.load("assets/brick.png", false), executor);
+        this.mockBallImage = load("assets/mockBall.png", () -> images.load("assets/mockBall.png", true), executor);
+        this.turboBallImage = load("assets/redball.png", () -> images.load("assets/redball.png", true), executor);
+        this.backgroundImage = load("assets/DARK_BG2_small.jpeg",
+                () -> images.load("assets/DARK_BG2_small.jpeg", false), executor);
+        this.collisionSound = load("assets/blop.wav", () -> sounds.apply("assets/blop.wav"), executor);
+    }
+
+    /**
+     * Starts decoding all the game's assets from the assets directory concurrently, and returns without
+     * waiting for them.
+     * <p>
+     * The images are decoded here rather than by danogl's {@code ImageReader}, whose cache is not safe to use
+     * from several threads; the sound is read by the single sound reader on a thread of its own.
+     *
+     * @param soundReader Reads sound assets.
+     * @return The game's assets, each one ready when its getter returns.
+     */
+    public static GameAssets preload(SoundReader soundReader) {
+        return new GameAssets(GameAssets::decodeImage, soundReader::readSound, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates plain colored placeholders for all the images and no sound, for games that run without
+     * a window and cannot read assets.
+     *
+     * @return Placeholder assets.
+     */
+    public static GameAssets placeholders() {
+        Map<String, Renderable> images = Map.of(
+                "assets/ball.png", new RectangleRenderable(Color.WHITE),
+                "assets/paddle.png", new RectangleRenderable(Color.CYAN),
+                "assets/heart.png", new RectangleRenderable(Color.RED),
+                "assets/brick.png", new RectangleRenderable(Color.ORANGE),
+                "assets/mockBall.png", new RectangleRenderable(Color.LIGHT_GRAY),
+                "assets/redball.png", new RectangleRenderable(Color.MAGENTA),
+                "assets/DARK_BG2_small.jpeg", new RectangleRenderable(Color.BLACK));
+        return new GameAssets((path, transparent) -> images.get(path), path -> null, Runnable::run);
+    }
+
+    /** @return The image of the main ball. */
+    public Renderable getBallImage() {
+        return ballImage.get();
+    }
+
+    /** @return The image of the paddles. */
+    public Renderable getPaddleImage() {
+        return paddleImage.get();
+    }
+
+    /** @return The image of a heart. */
+    public Renderable getHeartImage() {
+        return heartImage.get();
+    }
+
+    /** @return The image of a brick. */
+    public Renderable getBrickImage() {
+        return brickImage.get();
+    }
+
+    /** @return The image of a mock ball. */
+    public Renderable getMockBallImage() {
+        return mockBallImage.get();
+    }
+
+    /** @return The image of the ball in turbo state. */
+    public Renderable getTurboBallImage() {
+        return turboBallImage.get();
+    }
+
+    /** @return The background image. */
+    public Renderable getBackgroundImage() {
+        return backgroundImage.get();
+    }
+
+    /** @return The collision sound, or null if collisions are silent. */
+    public Sound getCollisionSound() {
+        return collisionSound.get();
+    }
+
+    /**
+     * Describes how long every asset took to load, and when it was ready relative to the start of loading.
+     * Assets that are still loading are reported as such.
+     *
+     * @return A multi-line report.
+     */
+    public String timingReport() {
+        StringBuilder report = new StringBuilder("asset loading:\n");
+        long lastReady = 0;
+        for (Asset<?> asset : loaded) {
+            if (!asset.value.isDone()) {
+                report.append(String.format("  %-28s loading%n", asset.path));
+                continue;
+            }
+            report.append(String.format("  %-28s %8.2f ms, ready at %8.2f ms%n", asset.path,
+                    asset.loadNanos / NANOS_PER_MILLI, (asset.readyNanos - startedNanos) / NANOS_PER_MILLI));
+            lastReady = Math.max(lastReady, asset.readyNanos - startedNanos);
+        }
+        report.append(String.format("  all assets ready at %.2f ms%n", lastReady / NANOS_PER_MILLI));
+        return report.toString();
+    }
+
+    /**
+     * Starts loading an asset, or returns the asset already loading from the same path.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> Asset<T> load(String path, Supplier<T> reader, Executor executor) {
+        Asset<?> existing = loadedByPath.get(path);
+        if (existing != null) {
+            return (Asset<T>) existing;
+        }
+        Asset<T> asset = new Asset<>(path);
+        loaded.add(asset);
+        loadedByPath.put(path, asset);
+        CompletableFuture.runAsync(() -> asset.read(reader), executor);
+        return asset;
+    }
+
+    /**
+     * Reads an image from a file, or from the class path if there is no such file.
+     * If the image is transparent, every pixel of the color of its top left pixel is made transparent,
+     * like danogl's image reader does.
+     */
+    private static Renderable decodeImage(String path, boolean isTopLeftPixelTransparent) {
+        try {
+            File file = new File(path);
+            URL resource = GameAssets.class.getClassLoader().getResource(path);
+            BufferedImage image = file.exists() ? ImageIO.read(file)
+                                                : resource != null ? ImageIO.read(resource) : null;
+            if (image == null) {
+                throw new IOException("cannot read the image " + path);
+            }
+            return new ImageRenderable(isTopLeftPixelTransparent ? withTopLeftColorTransparent(image) : image);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static BufferedImage withTopLeftColorTransparent(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        int transparentColor = pixels[0];
+        for (int i = 0; i < pixels.length; i++) {
+            if (pixels[i] == transparentColor) {
+                pixels[i] = 0;
+            }
+        }
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        result.setRGB(0, 0, width, height, pixels, 0, width);
+        return result;
+    }
+
+    /**
+     * Reads an image by its path, optionally making its background transparent.
+     */
+    @FunctionalInterface
+    private interface ImageLoader {
+        Renderable load(String path, boolean isTopLeftPixelTransparent);
+    }
+
+    /**
+     * A single asset, with the time it took to load.
+     */
+    private static final class Asset<T> {
+        private final String path;
+        private final CompletableFuture<T> value = new CompletableFuture<>();
+        private volatile long loadNanos; // how long reading the asset took
+        private volatile long readyNanos; // when the asset was ready
+
+        private Asset(String path) {
+            this.path = path;
+        }
+
+        private void read(Supplier<T> reader) {
+            long started = System.nanoTime();
+            try {
+                T result = reader.get();
+                readyNanos = System.nanoTime();
+                loadNanos = readyNanos - started;
+                value.complete(result);
+            } catch (RuntimeException e) {
+                readyNanos = System.nanoTime();
+                loadNanos = readyNanos - started;
+                value.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Waits for the asset to be ready.
+         */
+        private T get() {
+            try {
+                return value.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,523 @@
+package bricker.main;
+
+import bricker.capture.CaptureFormat;
+import bricker.physics.PhysicsBackendType;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Options that change how a Bricker game runs, set before the game starts.
+ * The defaults give the regular game played from the keyboard.
+ */
+public class GameSettings {
+    private static final int DEFAULT_IDLE_FPS = 10;
+    private static final int DEFAULT_HASH_INTERVAL = 60;
+    private static final int DEFAULT_CAPTURE_INTERVAL = 60;
+
+    private boolean autopilot = false;
+    private boolean chaseHearts = false;
+    private boolean headless = false;
+    private boolean maxPowerups = false;
+    private boolean allocationProfiling = false;
+    private boolean puckSwarm = false;
+    private boolean startupTiming = false;
+    private boolean sweepAndPrune = false;
+    private PhysicsBackendType physicsBackend = PhysicsBackendType.DANOGL;
+    private boolean parallelUpdate = false;
+    private int targetFps = 0;
+    private int idleFps = DEFAULT_IDLE_FPS;
+    private float frameBudgetMillis = 0;
+    private int levelRows = 0;
+    private boolean generatedLevel = false;
+    private boolean seeded = false;
+    private long seed = 0;
+    private Path worldHashesPath = null;
+    private int hashInterval = DEFAULT_HASH_INTERVAL;
+    private Path journalPath = null;
+    private float rewindSeconds = 0;
+    private Path captureDirectory = null;
+    private int captureInterval = DEFAULT_CAPTURE_INTERVAL;
+    private CaptureFormat captureFormat = CaptureFormat.PNG;
+    private Path strategyWeightsPath = null;
+    private int level = 1;
+
+    /**
+     * Reads settings from command line arguments.
+     * Supported arguments are {@code --autopilot}, {@code --chase-hearts}, {@code --max-powerups},
+     * {@code --alloc-profile}, {@code --puck-swarm}, {@code --startup-timing}, {@code --sweep-and-prune},
+     * {@code --physics danogl|indexed}, {@code --parallel-update}, {@code --strategy-weights <file>},
+     * {@code --level <n>}, {@code --target-fps <n>}, {@code --idle-fps <n>}, {@code --frame-budget-ms <ms>},
+     * {@code --level-rows <n>}, {@code --generated-level},
+     * {@code --seed <n>}, {@code --world-hashes <file>}, {@code --hash-every <n>}, {@code --journal <file>},
+     * {@code --capture <dir>}, {@code --capture-every <n>}, {@code --capture-format png|raw} and
+     * {@code --rewind-seconds <s>}.
+     *
+     * @param args Command-line arguments.
+     * @return The settings described by the arguments.
+     */
+    public static GameSettings fromArgs(String[] args) {
+        GameSettings settings = new GameSettings();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--autopilot":
+                    settings.setAutopilot(true);
+                    break;
+                case "--chase-hearts":
+                    settings.setChaseHearts(true);
+                    break;
+                case "--max-powerups":
+                    settings.setMaxPowerups(true);
+                    break;
+                case "--alloc-profile":
+                    settings.setAllocationProfiling(true);
+                    break;
+                case "--puck-swarm":
+                    settings.setPuckSwarm(true);
+                    break;
+                case "--startup-timing":
+                    settings.setStartupTiming(true);
+                    break;
+                case "--sweep-and-prune":
+                    settings.setSweepAndPrune(true);
+                    break;
+                case "--physics":
+                    settings.setPhysicsBackend(
+                            PhysicsBackendType.valueOf(valueOf(args, ++i).toUpperCase(Locale.ROOT)));
+                    break;
+                case "--parallel-update":
+                    settings.setParallelUpdate(true);
+                    break;
+                case "--strategy-weights":
+                    settings.setStrategyWeightsPath(Paths.get(valueOf(args, ++i)));
+                    break;
+                case "--level":
+                    settings.setLevel(Integer.parseInt(valueOf(args, ++i)));
+                    break;
+                case "--target-fps":
+                    settings.setTargetFps(Integer.parseInt(valueOf(args, ++i)));
+                    break;
+                case "--idle-fps":
+                    settings.setIdleFps(Integer.parseInt(valueOf(args, ++i)));
+                    break;
+                case "--frame-budget-ms":
+                    settings.setFrameBudgetMillis(Float.parseFloat(valueOf(args, ++i)));
+                    break;
+                case "--level-rows":
+                    settings.setLevelRows(Integer.parseInt(valueOf(args, ++i)));
+                    break;
+                case "--generated-level":
+                    settings.setGeneratedLevel(true);
+                    break;
+                case "--seed":
+                    settings.setSeed(Long.parseLong(valueOf(args, ++i)));
+                    break;
+                case "--world-hashes":
+                    settings.setWorldHashesPath(Paths.get(valueOf(args, ++i)));
+                    break;
+                case "--hash-every":
+                    settings.setHashInterval(Integer.parseInt(valueOf(args, ++i)));
+                    break;
+                case "--journal":
+                    settings.setJournalPath(Paths.get(valueOf(args, ++i)));
+                    break;
+                case "--rewind-seconds":
+                    settings.setRewindSeconds(Float.parseFloat(valueOf(args, ++i)));
+                    break;
+                case "--capture":
+                    settings.setCaptureDirectory(Paths.get(valueOf(args, ++i)));
+                    break;
+                case "--capture-every":
+                    settings.setCaptureInterval(Integer.parseInt(valueOf(args, ++i)));
+                    break;
+                case "--capture-format":
+                    settings.setCaptureFormat(CaptureFormat.valueOf(valueOf(args, ++i).toUpperCase(Locale.ROOT)));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown argument " + arg);
+            }
+        }
+        return settings;
+    }
+
+    private static String valueOf(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("missing value for " + args[index - 1]);
+        }
+        return args[index];
+    }
+
+    /**
+     * @return True if the paddles move on their own instead of by the keyboard.
+     */
+    public boolean isAutopilot() {
+        return autopilot;
+    }
+
+    /**
+     * @param autopilot True to make the paddles move on their own instead of by the keyboard.
+     */
+    public void setAutopilot(boolean autopilot) {
+        this.autopilot = autopilot;
+    }
+
+    /**
+     * @return True if the autopilot also catches falling hearts.
+     */
+    public boolean isChaseHearts() {
+        return chaseHearts;
+    }
+
+    /**
+     * @param chaseHearts True to make the autopilot also catch falling hearts.
+     */
+    public void setChaseHearts(boolean chaseHearts) {
+        this.chaseHearts = chaseHearts;
+    }
+
+    /**
+     * @return True if the game runs without a window, reading no assets and asking no questions.
+     */
+    public boolean isHeadless() {
+        return headless;
+    }
+
+    /**
+     * @param headless True to run the game without a window, reading no assets and asking no questions.
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * @return True if every brick gets the most special behaviors possible, for stress testing.
+     */
+    public boolean isMaxPowerups() {
+        return maxPowerups;
+    }
+
+    /**
+     * @param maxPowerups True to give every brick the most special behaviors possible, for stress testing.
+     */
+    public void setMaxPowerups(boolean maxPowerups) {
+        this.maxPowerups = maxPowerups;
+    }
+
+    /**
+     * @return True if the heap allocations of every frame are attributed to the phases of the frame.
+     */
+    public boolean isAllocationProfiling() {
+        return allocationProfiling;
+    }
+
+    /**
+     * @param allocationProfiling True to attribute the heap allocations of every frame to its phases.
+     */
+    public void setAllocationProfiling(boolean allocationProfiling) {
+        this.allocationProfiling = allocationProfiling;
+    }
+
+    /**
+     * @return True if all the mock balls are kept in a single swarm instead of a game object each.
+     */
+    public boolean isPuckSwarm() {
+        return puckSwarm;
+    }
+
+    /**
+     * @param puckSwarm True to keep all the mock balls in a single swarm instead of a game object each,
+     *                  see {@link bricker.gameobjects.PuckSwarm}.
+     */
+    public void setPuckSwarm(boolean puckSwarm) {
+        this.puckSwarm = puckSwarm;
+    }
+
+    /**
+     * @return True if the time every asset took to load and the time to the first frame are reported.
+     */
+    public boolean isStartupTiming() {
+        return startupTiming;
+    }
+
+    /**
+     * @param startupTiming True to report the time every asset took to load and the time to the first frame.
+     */
+    public void setStartupTiming(boolean startupTiming) {
+        this.startupTiming = startupTiming;
+    }
+
+    /**
+     * @return True if the contacts between moving objects are found by the game's sweep and prune broadphase
+     *         instead of danogl.
+     */
+    public boolean isSweepAndPrune() {
+        return sweepAndPrune;
+    }
+
+    /**
+     * @param sweepAndPrune True to find the contacts between moving objects by the game's sweep and prune
+     *                      broadphase, see {@link bricker.physics.SweepAndPrune}, instead of danogl.
+     */
+    public void setSweepAndPrune(boolean sweepAndPrune) {
+        this.sweepAndPrune = sweepAndPrune;
+    }
+
+    /**
+     * @return The backend finding the contacts between the objects of the game.
+     */
+    public PhysicsBackendType getPhysicsBackend() {
+        return physicsBackend;
+    }
+
+    /**
+     * @param physicsBackend The backend finding the contacts between the objects of the game. The sweep and
+     *                       prune and parallel update settings only apply to the danogl backend, the indexed
+     *                       one always sweeps and moves the objects itself.
+     */
+    public void setPhysicsBackend(PhysicsBackendType physicsBackend) {
+        this.physicsBackend = physicsBackend;
+    }
+
+    /**
+     * @return True if the mock balls and falling hearts are moved in parallel on all cores.
+     */
+    public boolean isParallelUpdate() {
+        return parallelUpdate;
+    }
+
+    /**
+     * @param parallelUpdate True to move the mock balls and falling hearts in parallel on all cores, see
+     *                       {@link bricker.physics.ParallelUpdate}. Only applies to the danogl backend.
+     */
+    public void setParallelUpdate(boolean parallelUpdate) {
+        this.parallelUpdate = parallelUpdate;
+    }
+
+    /**
+     * @return The file the weights of the special brick behaviors are read from, or null for the defaults.
+     */
+    public Path getStrategyWeightsPath() {
+        return strategyWeightsPath;
+    }
+
+    /**
+     * @param strategyWeightsPath The file to read the weights of the special brick behaviors from,
+     *                            see {@link bricker.brick_strategies.StrategyWeights}, or null for the defaults.
+     */
+    public void setStrategyWeightsPath(Path strategyWeightsPath) {
+        this.strategyWeightsPath = strategyWeightsPath;
+    }
+
+    /**
+     * @return The level being played, which selects the level overrides of the strategy weights.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * @param level The level being played, which selects the level overrides of the strategy weights.
+     */
+    public void setLevel(int level) {
+        this.level = level;
+    }
+
+    /**
+     * @return The frame rate the game is paced to, or 0 if the frames are not paced.
+     */
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * @param targetFps The frame rate to pace the game to, see {@link FrameGovernor}, or 0 to not pace it.
+     */
+    public void setTargetFps(int targetFps) {
+        this.targetFps = targetFps;
+    }
+
+    /**
+     * @return The frame rate a paced game drops to while nothing in it moves.
+     */
+    public int getIdleFps() {
+        return idleFps;
+    }
+
+    /**
+     * @param idleFps The frame rate a paced game drops to while nothing in it moves.
+     */
+    public void setIdleFps(int idleFps) {
+        this.idleFps = idleFps;
+    }
+
+    /**
+     * @return The time in milliseconds the update of a frame may take before its non-critical work is put
+     *         off to later frames, or 0 if it is never put off.
+     */
+    public float getFrameBudgetMillis() {
+        return frameBudgetMillis;
+    }
+
+    /**
+     * @param frameBudgetMillis The time in milliseconds the update of a frame may take before its non-critical
+     *                          work is put off, see {@link bricker.effects.DeferredWork}, or 0 to never put
+     *                          it off.
+     */
+    public void setFrameBudgetMillis(float frameBudgetMillis) {
+        this.frameBudgetMillis = frameBudgetMillis;
+    }
+
+    /**
+     * @return The number of brick rows, where rows beyond those fitting the window make a level taller
+     * than the window that scrolls with the ball, or 0 for the regular layout.
+     */
+    public int getLevelRows() {
+        return levelRows;
+    }
+
+    /**
+     * @param levelRows The number of brick rows, where rows beyond those fitting the window make a level
+     *                  taller than the window that scrolls with the ball, or 0 for the regular layout.
+     */
+    public void setLevelRows(int levelRows) {
+        this.levelRows = levelRows;
+    }
+
+    /**
+     * @return True if the bricks are laid out by a procedural generator rather than as a full grid.
+     */
+    public boolean isGeneratedLevel() {
+        return generatedLevel;
+    }
+
+    /**
+     * @param generatedLevel True to lay out the bricks by a procedural generator rather than as a full grid,
+     *                       see {@link bricker.level.LevelGenerator}.
+     */
+    public void setGeneratedLevel(boolean generatedLevel) {
+        this.generatedLevel = generatedLevel;
+    }
+
+    /**
+     * @return True if the game's randomness starts from a given seed rather than from the clock.
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * @return The seed of the game's randomness, if {@link #isSeeded()}.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed The seed of the game's randomness, so a headless game plays the same every run.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        this.seeded = true;
+    }
+
+    /**
+     * @return The file the hashes of the world are recorded in, or null if they are not recorded.
+     */
+    public Path getWorldHashesPath() {
+        return worldHashesPath;
+    }
+
+    /**
+     * @param worldHashesPath The file to record the hashes of the world in, or null to not record them.
+     */
+    public void setWorldHashesPath(Path worldHashesPath) {
+        this.worldHashesPath = worldHashesPath;
+    }
+
+    /**
+     * @return The number of frames between hashes of the world.
+     */
+    public int getHashInterval() {
+        return hashInterval;
+    }
+
+    /**
+     * @param hashInterval The number of frames between hashes of the world.
+     */
+    public void setHashInterval(int hashInterval) {
+        this.hashInterval = hashInterval;
+    }
+
+    /**
+     * @return The file the gameplay events are journaled in, or null if they are not.
+     */
+    public Path getJournalPath() {
+        return journalPath;
+    }
+
+    /**
+     * @param journalPath The file to journal the gameplay events in, or null to not journal them.
+     */
+    public void setJournalPath(Path journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * @return The game time the world is kept for, to rewind to, or 0 if it is not kept.
+     */
+    public float getRewindSeconds() {
+        return rewindSeconds;
+    }
+
+    /**
+     * @param rewindSeconds The game time to keep the world for, to rewind to, see
+     *                      {@link RewindBuffer}, or 0 to not keep it.
+     */
+    public void setRewindSeconds(float rewindSeconds) {
+        this.rewindSeconds = rewindSeconds;
+    }
+
+    /**
+     * @return The directory frames are captured in, or null if they are not captured.
+     */
+    public Path getCaptureDirectory() {
+        return captureDirectory;
+    }
+
+    /**
+     * @param captureDirectory The directory to capture frames in, or null to not capture them.
+     */
+    public void setCaptureDirectory(Path captureDirectory) {
+        this.captureDirectory = captureDirectory;
+    }
+
+    /**
+     * @return The number of frames between captured frames.
+     */
+    public int getCaptureInterval() {
+        return captureInterval;
+    }
+
+    /**
+     * @param captureInterval The number of frames between captured frames.
+     */
+    public void setCaptureInterval(int captureInterval) {
+        this.captureInterval = captureInterval;
+    }
+
+    /**
+     * @return The format of the files captured frames are written in.
+     */
+    public CaptureFormat getCaptureFormat() {
+        return captureFormat;
+    }
+
+    /**
+     * @param captureFormat The format of the files to write captured frames in.
+     */
+    public void setCaptureFormat(CaptureFormat captureFormat) {
+        this.captureFormat = captureFormat;
+    }
+}
@@ -0,0 +1,149 @@
+package bricker.main;
+
+import danogl.gui.ImageReader;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.rendering.ImageRenderable;
+import danogl.util.Vector2;
+
+/**
+ * Runs a Bricker game without a window, advancing it one frame at a time with a fixed time step.
+ * Assets are replaced by placeholders and, since nobody is asked whether to play again,
+ * a game that is won or lost starts over by itself.
+ * Paddles are only moved when the settings turn on the autopilot, since no keys are ever pressed.
+ * <p>
+ * There is no window for danogl to set a game up in, so every game is set up by
+ * {@link BrickerGameManager#initializeWorld}, with readers that read nothing and input without keys.
+ */
+public class HeadlessGame {
+    /** The time step of a frame, for a game running at 60 frames per second. */
+    public static final float FRAME_DELTA_TIME = 1f / 60;
+
+    private final BrickerGameManager gameManager; // the game being run
+    private long frame = 0; // the number of frames run so far
+    private int gamesPlayed = 0; // the number of games that ended so far
+    private FastForward fastForward = null; // skips game time, created on first use
+    private final ImageReader imageReader = new NoImageReader();
+    private final SoundReader soundReader = new NoSoundReader();
+    private final UserInputListener inputListener = new NoInput();
+
+    /**
+     * Creates and initializes a game without a window.
+     *
+     * @param settings Options of the game. They are changed to run without a window.
+     */
+    public HeadlessGame(GameSettings settings) {
+        this(settings, BrickerGameManager.defaultWindowDimensions());
+    }
+
+    /**
+     * Creates and initializes a game without a window, for a window of the given size.
+     *
+     * @param settings         Options of the game. They are changed to run without a window.
+     * @param windowDimensions The dimensions of the game's window.
+     */
+    public HeadlessGame(GameSettings settings, Vector2 windowDimensions) {
+        settings.setHeadless(true);
+        gameManager = new BrickerGameManager("Bricker", windowDimensions, settings);
+        start();
+    }
+
+    /**
+     * Runs a single frame with the default time step, starting a new game if the current one ended.
+     */
+    public void step() {
+        step(FRAME_DELTA_TIME);
+    }
+
+    /**
+     * Runs a single frame, starting a new game if the current one ended.
+     *
+     * @param deltaTime The time step of the frame.
+     */
+    public void step(float deltaTime) {
+        gameManager.update(deltaTime);
+        frame++;
+        if (gameManager.isGameOver()) {
+            gamesPlayed++;
+            start();
+        }
+    }
+
+    /**
+     * Skips game time by jumping from collision to collision instead of running frames, see
+     * {@link FastForward}. A game that ended is started over on the next step.
+     *
+     * @param seconds The game time to skip.
+     * @return The number of collisions simulated.
+     */
+    public long fastForward(float seconds) {
+        if (fastForward == null) {
+            fastForward = new FastForward(gameManager);
+        }
+        return fastForward.run(seconds);
+    }
+
+    /**
+     * @return The game being run.
+     */
+    public BrickerGameManager getGameManager() {
+        return gameManager;
+    }
+
+    /**
+     * @return The number of frames run so far.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return The number of games that were won or lost so far.
+     */
+    public int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    private void start() {
+        gameManager.initializeWorld(imageReader, soundReader, inputListener);
+    }
+
+    /**
+     * Reads no images, a game without a window uses placeholders instead.
+     */
+    private static final class NoImageReader extends ImageReader {
+        private NoImageReader() {
+            super(null);
+        }
+
+        @Override
+        public ImageRenderable readImage(String imageFilePath, boolean useTopLeftPixelAsTransparentColor) {
+            throw new UnsupportedOperationException("a game without a window reads no image: " + imageFilePath);
+        }
+    }
+
+    /**
+     * Reads no sounds, so a game without a window is silent.
+     */
+    private static final class NoSoundReader extends SoundReader {
+        private NoSoundReader() {
+            super(null);
+        }
+
+        @Override
+        public Sound readSound(String soundFilePath) {
+            return null;
+        }
+    }
+
+    /**
+     * Input of a game nobody plays: no key is ever pressed.
+     */
+    private static final class NoInput implements UserInputListener {
+        @Override
+        public boolean isKeyPressed(int keyCode) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package bricker.main;
+
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Brick;
+import bricker.journal.JournalEventType;
+import bricker.journal.JournalReader;
+import danogl.util.Vector2;
+
+import java.io.IOException;
+
+/**
+ * Replays the events of a game journal onto a game, to rebuild the world it recorded.
+ * <p>
+ * The events that change what lasts in the world are replayed: destroyed bricks, found by their centers in
+ * the brick grid, lives, the turbo state of the ball and the extra paddle. Mock balls and falling hearts are
+ * moving objects whose later movement the journal does not hold, so their events are skipped.
+ */
+class JournalReplay {
+    private final BrickerGameManager gameManager; // the game replayed onto
+
+    /**
+     * Constructs a replay onto a game.
+     *
+     * @param gameManager The game replayed onto.
+     */
+    JournalReplay(BrickerGameManager gameManager) {
+        this.gameManager = gameManager;
+    }
+
+    /**
+     * Replays the records of a journal from an index to its end.
+     *
+     * @param reader The journal.
+     * @param from   The index of the first record to replay.
+     * @return The number of records replayed.
+     * @throws IOException If a record does not fit the game, e.g. a destroyed brick it does not have.
+     */
+    int replay(JournalReader reader, int from) throws IOException {
+        for (int i = from; i < reader.size(); i++) {
+            JournalEventType type = reader.getType(i);
+            if (type == null) {
+                throw new IOException("unknown game journal record at " + i);
+            }
+            switch (type) {
+                case BRICK_DESTROYED:
+                    gameManager.setBrickAlive(brickAt(reader.getX(i), reader.getY(i), i), false);
+                    break;
+                case LIFE_LOST:
+                case LIFE_GAINED:
+                    gameManager.getHealthBar().setLives(reader.getFirstInt(i));
+                    break;
+                case TURBO_ON:
+                    setTurbo(true, reader.getFirstInt(i), reader.getX(i));
+                    break;
+                case TURBO_OFF:
+                    setTurbo(false, reader.getFirstInt(i), reader.getX(i));
+                    break;
+                case EXTRA_PADDLE_CREATED:
+                    gameManager.restoreExtraPaddle(true, new Vector2(reader.getX(i), reader.getY(i)), 0);
+                    break;
+                case EXTRA_PADDLE_REMOVED:
+                    gameManager.restoreExtraPaddle(false, Vector2.ZERO, 0);
+                    break;
+                default:
+                    // checkpoints, mock balls and hearts
+                    break;
+            }
+        }
+        return Math.max(0, reader.size() - from);
+    }
+
+    /**
+     * Puts the ball in or out of turbo state, scaling its velocity like the turbo behavior does.
+     */
+    private void setTurbo(boolean turbo, int collisions, float velocityFactor) {
+        Ball ball = gameManager.getBall();
+        if (ball.getTurboState() == turbo) {
+            return;
+        }
+        float scale = turbo ? velocityFactor : 1 / velocityFactor;
+        ball.setVelocity(ball.getVelocity().mult(scale));
+        ball.restoreState(turbo, 0, collisions, velocityFactor, gameManager.getTurboBallImage());
+    }
+
+    /**
+     * Finds the brick of the grid whose center is at a point.
+     */
+    private Brick brickAt(float x, float y, int record) throws IOException {
+        Brick[] bricks = gameManager.getBricks();
+        int columns = gameManager.getBrickColumns();
+        Vector2 gridTopLeft = gameManager.getBrickGridTopLeft();
+        Vector2 cellSize = gameManager.getBrickCellSize();
+        int column = (int) Math.floor((x - gridTopLeft.x()) / cellSize.x());
+        int row = (int) Math.floor((y - gridTopLeft.y()) / cellSize.y());
+        int index = row * columns + column;
+        if (column < 0 || column >= columns || row < 0 || index >= bricks.length || bricks[index] == null) {
+            throw new IOException("game journal record " + record + " destroys a brick this level does not have");
+        }
+        return bricks[index];
+    }
+}
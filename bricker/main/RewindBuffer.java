@@ -0,0 +1,413 @@
+package bricker.main;
+
+import bricker.effects.EffectScheduler;
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Brick;
+import bricker.gameobjects.BrickChangeLog;
+import bricker.gameobjects.ExtraPaddle;
+import bricker.gameobjects.FallingHeart;
+import bricker.gameobjects.GameObjectRegistry;
+import bricker.gameobjects.Paddle;
+import bricker.gameobjects.PuckBall;
+import bricker.gameobjects.PuckSwarm;
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the state of the world over the last frames in a ring of fixed size records, so the game can be
+ * rewound to any of those frames and resumed from there, for inspecting a glitch right after it happened.
+ * <p>
+ * A record holds the random generator, the clock of the effect scheduler, the lives, the paddle, the ball with
+ * its turbo state, the extra paddle with its collisions, and the mock balls and falling hearts, up to a fixed
+ * number of each. Setting the clock back gives every timed effect the ticks it had left on that frame, while
+ * the effects counting collisions are scheduled again with the collisions recorded for the turbo state and the
+ * extra paddle. Work deferred to later frames is dropped, it was about the frames rewound. Bricks are kept
+ * as the changes of a frame: the bricks mark themselves in the game's {@link BrickChangeLog} when they are
+ * destroyed or put back, and the indices of the marked bricks whose state differs from the previous frame
+ * are recorded. Rewinding undoes the
+ * changes from the newest frame back. The records are written in place in a direct buffer allocated once,
+ * so keeping them does not add to the garbage of a frame.
+ * <p>
+ * A frame with more mock balls or hearts than a record holds cannot be rewound to, since the ones dropped
+ * would be lost, but it can be rewound past, and a frame with more brick changes than a record holds cannot
+ * be rewound past. A new level starts the ring
+ * over. Rewinding does not rewind the journal or the world hashes.
+ */
+public class RewindBuffer {
+    private static final int MAX_PUCKS = 64; // mock balls kept per record
+    private static final int MAX_HEARTS = 16; // falling hearts kept per record
+    private static final int MAX_BRICK_CHANGES = 16; // bricks changed in a frame kept per record
+
+    private static final int FLAG_TURBO = 1;
+    private static final int FLAG_EXTRA_PADDLE = 1 << 1;
+    private static final int FLAG_PUCKS_DROPPED = 1 << 2; // more mock balls than a record holds
+    private static final int FLAG_HEARTS_DROPPED = 1 << 3;
+    private static final int FLAG_BRICKS_DROPPED = 1 << 4; // more brick changes than a record holds
+
+    // the layout of a record, by byte offsets
+    private static final int FRAME = 0;
+    private static final int RANDOM_STATE = FRAME + Long.BYTES;
+    private static final int EFFECT_TICK = RANDOM_STATE + Long.BYTES; // the clock of the effect scheduler
+    private static final int EFFECTS_SCHEDULED = EFFECT_TICK + Long.BYTES;
+    private static final int EFFECT_PENDING_TIME = EFFECTS_SCHEDULED + Long.BYTES;
+    private static final int LIVES = EFFECT_PENDING_TIME + Float.BYTES;
+    private static final int FLAGS = LIVES + Integer.BYTES;
+    private static final int PADDLE_X = FLAGS + Integer.BYTES;
+    private static final int BALL = PADDLE_X + Float.BYTES; // center and velocity
+    private static final int TURBO_COLLISIONS = BALL + 4 * Float.BYTES;
+    private static final int TURBO_MAX_COLLISIONS = TURBO_COLLISIONS + Integer.BYTES;
+    private static final int TURBO_FACTOR = TURBO_MAX_COLLISIONS + Integer.BYTES;
+    private static final int EXTRA_PADDLE = TURBO_FACTOR + Float.BYTES; // center
+    private static final int EXTRA_PADDLE_COLLISIONS = EXTRA_PADDLE + 2 * Float.BYTES;
+    private static final int PUCK_COUNT = EXTRA_PADDLE_COLLISIONS + Integer.BYTES;
+    private static final int HEART_COUNT = PUCK_COUNT + Integer.BYTES;
+    private static final int BRICK_CHANGE_COUNT = HEART_COUNT + Integer.BYTES;
+    private static final int BRICK_CHANGES = BRICK_CHANGE_COUNT + Integer.BYTES;
+    private static final int PUCKS = BRICK_CHANGES + MAX_BRICK_CHANGES * Integer.BYTES; // centers and velocities
+    private static final int HEARTS = PUCKS + MAX_PUCKS * 4 * Float.BYTES;
+    private static final int RECORD_BYTES = HEARTS + MAX_HEARTS * 4 * Float.BYTES;
+
+    private final BrickerGameManager gameManager; // the game whose world is kept
+    private final int capacity; // the number of frames kept
+    private final ByteBuffer records;
+    private int newest = -1; // the slot of the newest record
+    private int size = 0;
+    private long frame = 0;
+    private Brick[] bricks = null; // the bricks of the level being kept
+    private final Map<Brick, Integer> brickIndices = new IdentityHashMap<>(); // of the bricks of the level
+    private boolean[] brickAlive = new boolean[0]; // the bricks in the wall on the last recorded frame
+
+    /**
+     * Constructs a ring keeping a number of frames.
+     *
+     * @param gameManager The game whose world is kept.
+     * @param capacity    The number of frames kept.
+     */
+    public RewindBuffer(BrickerGameManager gameManager, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("bad rewind capacity " + capacity);
+        }
+        this.gameManager = gameManager;
+        this.capacity = capacity;
+        this.records = ByteBuffer.allocateDirect(capacity * RECORD_BYTES);
+    }
+
+    /**
+     * Counts a frame and records the world, overwriting the oldest record if the ring is full.
+     */
+    public void onFrame() {
+        if (gameManager.getBricks() != bricks) {
+            startLevel();
+        }
+        frame++;
+        newest = (newest + 1) % capacity;
+        size = Math.min(size + 1, capacity);
+        int record = newest * RECORD_BYTES;
+        int flags = recordBricks(record);
+
+        records.putLong(record + FRAME, frame);
+        records.putLong(record + RANDOM_STATE, gameManager.getRandom().getState());
+        EffectScheduler effects = gameManager.getEffects();
+        records.putLong(record + EFFECT_TICK, effects.getCurrentTick());
+        records.putLong(record + EFFECTS_SCHEDULED, effects.getScheduledCount());
+        records.putFloat(record + EFFECT_PENDING_TIME, effects.getPendingTime());
+        records.putInt(record + LIVES, gameManager.getHealthBar().getLives());
+        records.putFloat(record + PADDLE_X, centerX(gameManager.getPaddle()));
+
+        Ball ball = gameManager.getBall();
+        putKinematics(record + BALL, ball);
+        if (ball.getTurboState()) {
+            flags |= FLAG_TURBO;
+        }
+        records.putInt(record + TURBO_COLLISIONS, ball.getCollisionCounter());
+        records.putInt(record + TURBO_MAX_COLLISIONS, ball.getMaxCollisionInTurbo());
+        records.putFloat(record + TURBO_FACTOR, ball.getVelocityChangeFactorInTurbo());
+
+        ExtraPaddle extraPaddle = gameManager.getExtraPaddle();
+        if (extraPaddle != null) {
+            flags |= FLAG_EXTRA_PADDLE;
+            records.putFloat(record + EXTRA_PADDLE, centerX(extraPaddle));
+            records.putFloat(record + EXTRA_PADDLE + Float.BYTES, centerY(extraPaddle));
+            records.putInt(record + EXTRA_PADDLE_COLLISIONS, extraPaddle.getCollisionCount());
+        }
+
+        int pucks = 0;
+        int hearts = 0;
+        PuckSwarm swarm = gameManager.getPuckSwarm();
+        if (swarm != null) {
+            for (int i = 0; i < swarm.size() && pucks < MAX_PUCKS; i++) {
+                putKinematics(record + PUCKS + pucks * 4 * Float.BYTES, swarm.centerX(i), swarm.centerY(i),
+                        swarm.velocityX(i), swarm.velocityY(i));
+                pucks++;
+            }
+            if (swarm.size() > MAX_PUCKS) {
+                flags |= FLAG_PUCKS_DROPPED;
+            }
+        }
+        GameObjectRegistry<PuckBall> puckBalls = gameManager.getPucks();
+        for (int i = 0; i < puckBalls.size(); i++) {
+            if (pucks == MAX_PUCKS) {
+                flags |= FLAG_PUCKS_DROPPED;
+                break;
+            }
+            putKinematics(record + PUCKS + pucks * 4 * Float.BYTES, puckBalls.get(i));
+            pucks++;
+        }
+        GameObjectRegistry<FallingHeart> fallingHearts = gameManager.getFallingHearts();
+        for (int i = 0; i < fallingHearts.size(); i++) {
+            if (hearts == MAX_HEARTS) {
+                flags |= FLAG_HEARTS_DROPPED;
+                break;
+            }
+            putKinematics(record + HEARTS + hearts * 4 * Float.BYTES, fallingHearts.get(i));
+            hearts++;
+        }
+        records.putInt(record + PUCK_COUNT, pucks);
+        records.putInt(record + HEART_COUNT, hearts);
+        records.putInt(record + FLAGS, flags);
+    }
+
+    /**
+     * @return The number of frames kept.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of frames counted so far, which is the newest frame kept.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return The oldest frame that can be rewound to, or -1 if none can.
+     */
+    public long getOldestFrame() {
+        if (size == 0) {
+            return -1;
+        }
+        // undoing the brick changes of a frame that dropped some is not possible, nor going before it
+        long oldest = frame - size + 1;
+        for (int age = 0; age < size - 1; age++) {
+            if ((flagsOf(slotOf(age)) & FLAG_BRICKS_DROPPED) != 0) {
+                return frame - age;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Returns whether a kept frame holds all its mock balls and hearts, so it can be rewound to.
+     *
+     * @param frame The frame, between {@link #getOldestFrame()} and {@link #getFrame()}.
+     * @return False if the frame had more mock balls or hearts than a record holds.
+     */
+    public boolean isComplete(long frame) {
+        return (flagsOf(slotOf(ageOf(frame))) & (FLAG_PUCKS_DROPPED | FLAG_HEARTS_DROPPED)) == 0;
+    }
+
+    /**
+     * Describes the world at a kept frame, without rewinding to it.
+     *
+     * @param frame The frame.
+     * @return A line describing the ball, the turbo state, the lives, the mock balls and the hearts.
+     */
+    public String describe(long frame) {
+        int record = slotOf(ageOf(frame)) * RECORD_BYTES;
+        int flags = records.getInt(record + FLAGS);
+        return String.format("frame %d: ball (%.2f, %.2f) velocity (%.2f, %.2f), turbo %s %d/%d, lives %d, "
+                        + "mock balls %d%s, hearts %d%s, bricks changed %d%s",
+                frame, records.getFloat(record + BALL), records.getFloat(record + BALL + Float.BYTES),
+                records.getFloat(record + BALL + 2 * Float.BYTES), records.getFloat(record + BALL + 3 * Float.BYTES),
+                (flags & FLAG_TURBO) != 0 ? "on" : "off", records.getInt(record + TURBO_COLLISIONS),
+                records.getInt(record + TURBO_MAX_COLLISIONS), records.getInt(record + LIVES),
+                records.getInt(record + PUCK_COUNT), (flags & FLAG_PUCKS_DROPPED) != 0 ? "+" : "",
+                records.getInt(record + HEART_COUNT), (flags & FLAG_HEARTS_DROPPED) != 0 ? "+" : "",
+                records.getInt(record + BRICK_CHANGE_COUNT), (flags & FLAG_BRICKS_DROPPED) != 0 ? "+" : "");
+    }
+
+    /**
+     * Puts the world back as it was at a kept frame, and forgets the newer frames. The game resumes from
+     * that frame on its next update.
+     *
+     * @param frame The frame, between {@link #getOldestFrame()} and {@link #getFrame()}, that is
+     *              {@link #isComplete(long) complete}.
+     */
+    public void rewindTo(long frame) {
+        if (size == 0 || frame < getOldestFrame() || frame > this.frame) {
+            throw new IllegalArgumentException("frame " + frame + " is not kept, frames " + getOldestFrame()
+                    + " to " + this.frame + " are");
+        }
+        if (!isComplete(frame)) {
+            throw new IllegalArgumentException("frame " + frame
+                    + " had more mock balls or hearts than were kept, it cannot be rewound to");
+        }
+        // undo the brick changes of the newer frames, newest first
+        int age = 0;
+        for (; this.frame - age > frame; age++) {
+            int record = slotOf(age) * RECORD_BYTES;
+            int changes = records.getInt(record + BRICK_CHANGE_COUNT);
+            for (int i = 0; i < changes; i++) {
+                int brick = records.getInt(record + BRICK_CHANGES + i * Integer.BYTES);
+                brickAlive[brick] = !brickAlive[brick];
+                gameManager.setBrickAlive(bricks[brick], brickAlive[brick]);
+            }
+        }
+        gameManager.getBrickChanges().clear(); // the bricks put back or destroyed again are already known
+        int record = slotOf(age) * RECORD_BYTES;
+        restore(record);
+        newest = slotOf(age);
+        size -= age;
+        this.frame = frame;
+    }
+
+    private void restore(int record) {
+        int flags = records.getInt(record + FLAGS);
+        gameManager.getRandom().setState(records.getLong(record + RANDOM_STATE));
+        // before the turbo state and extra paddle schedule their effects again
+        gameManager.getEffects().rewindClock(records.getLong(record + EFFECT_TICK),
+                records.getFloat(record + EFFECT_PENDING_TIME), records.getLong(record + EFFECTS_SCHEDULED));
+        if (gameManager.getDeferredWork() != null) {
+            gameManager.getDeferredWork().clear();
+        }
+        gameManager.getHealthBar().setLives(records.getInt(record + LIVES));
+        Paddle paddle = gameManager.getPaddle();
+        paddle.setCenter(new Vector2(records.getFloat(record + PADDLE_X), paddle.getCenter().y()));
+
+        Ball ball = gameManager.getBall();
+        ball.setCenter(getVector(record + BALL));
+        ball.setVelocity(getVector(record + BALL + 2 * Float.BYTES));
+        ball.restoreState((flags & FLAG_TURBO) != 0, records.getInt(record + TURBO_COLLISIONS),
+                records.getInt(record + TURBO_MAX_COLLISIONS), records.getFloat(record + TURBO_FACTOR),
+                gameManager.getTurboBallImage());
+
+        gameManager.restoreExtraPaddle((flags & FLAG_EXTRA_PADDLE) != 0, getVector(record + EXTRA_PADDLE),
+                records.getInt(record + EXTRA_PADDLE_COLLISIONS));
+
+        PuckSwarm swarm = gameManager.getPuckSwarm();
+        if (swarm != null) {
+            swarm.clear();
+        }
+        // removing takes each one out of its registry, the newest first so the rest do not shift
+        GameObjectRegistry<PuckBall> pucks = gameManager.getPucks();
+        for (int i = pucks.size() - 1; i >= 0; i--) {
+            pucks.get(i).removeFromGame(); // keeps the puck count right
+        }
+        GameObjectRegistry<FallingHeart> hearts = gameManager.getFallingHearts();
+        for (int i = hearts.size() - 1; i >= 0; i--) {
+            hearts.get(i).removeFromGame();
+        }
+        for (int i = 0; i < records.getInt(record + PUCK_COUNT); i++) {
+            int puck = record + PUCKS + i * 4 * Float.BYTES;
+            gameManager.restorePuck(getVector(puck), getVector(puck + 2 * Float.BYTES));
+        }
+        for (int i = 0; i < records.getInt(record + HEART_COUNT); i++) {
+            int heart = record + HEARTS + i * 4 * Float.BYTES;
+            gameManager.restoreFallingHeart(getVector(heart), getVector(heart + 2 * Float.BYTES));
+        }
+    }
+
+    /**
+     * Records the bricks that entered or left the wall since the last recorded frame, of those marked in
+     * the log of brick changes.
+     *
+     * @return The flags of the record for the bricks.
+     */
+    private int recordBricks(int record) {
+        int changes = 0;
+        int flags = 0;
+        BrickChangeLog changeLog = gameManager.getBrickChanges();
+        for (int mark = 0; mark < changeLog.size(); mark++) {
+            Integer index = brickIndices.get(changeLog.get(mark));
+            if (index == null) {
+                continue; // a brick of a previous level
+            }
+            int i = index;
+            boolean alive = !bricks[i].isDestroyed();
+            if (alive == brickAlive[i]) {
+                continue; // marked twice, or changed back within the frame
+            }
+            brickAlive[i] = alive;
+            if (changes < MAX_BRICK_CHANGES) {
+                records.putInt(record + BRICK_CHANGES + changes * Integer.BYTES, i);
+                changes++;
+            } else {
+                flags |= FLAG_BRICKS_DROPPED;
+            }
+        }
+        changeLog.clear();
+        records.putInt(record + BRICK_CHANGE_COUNT, changes);
+        return flags;
+    }
+
+    /**
+     * Starts the ring over for the level the game now has.
+     */
+    private void startLevel() {
+        bricks = gameManager.getBricks();
+        if (brickAlive.length != bricks.length) {
+            brickAlive = new boolean[bricks.length];
+        }
+        brickIndices.clear();
+        for (int i = 0; i < bricks.length; i++) {
+            brickAlive[i] = bricks[i] != null && !bricks[i].isDestroyed(); // a gap never changes
+            if (bricks[i] != null) {
+                brickIndices.put(bricks[i], i);
+            }
+        }
+        gameManager.getBrickChanges().clear();
+        newest = -1;
+        size = 0;
+    }
+
+    private int flagsOf(int slot) {
+        return records.getInt(slot * RECORD_BYTES + FLAGS);
+    }
+
+    /**
+     * @return The slot of the record of a given age, 0 for the newest.
+     */
+    private int slotOf(int age) {
+        return Math.floorMod(newest - age, capacity);
+    }
+
+    private int ageOf(long frame) {
+        if (frame > this.frame || frame <= this.frame - size) {
+            throw new IllegalArgumentException("frame " + frame + " is not kept");
+        }
+        return (int) (this.frame - frame);
+    }
+
+    /**
+     * Writes the center and velocity of an object, without the vector {@link GameObject#getCenter()} makes.
+     */
+    private void putKinematics(int offset, GameObject gameObject) {
+        Vector2 velocity = gameObject.getVelocity();
+        putKinematics(offset, centerX(gameObject), centerY(gameObject), velocity.x(), velocity.y());
+    }
+
+    private void putKinematics(int offset, float centerX, float centerY, float velocityX, float velocityY) {
+        records.putFloat(offset, centerX);
+        records.putFloat(offset + Float.BYTES, centerY);
+        records.putFloat(offset + 2 * Float.BYTES, velocityX);
+        records.putFloat(offset + 3 * Float.BYTES, velocityY);
+    }
+
+    private static float centerX(GameObject gameObject) {
+        return gameObject.getTopLeftCorner().x() + gameObject.getDimensions().x() / 2;
+    }
+
+    private static float centerY(GameObject gameObject) {
+        return gameObject.getTopLeftCorner().y() + gameObject.getDimensions().y() / 2;
+    }
+
+    private Vector2 getVector(int offset) {
+        return new Vector2(records.getFloat(offset), records.getFloat(offset + Float.BYTES));
+    }
+}
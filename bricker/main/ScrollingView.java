@@ -0,0 +1,207 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+import bricker.gameobjects.PuckSwarm;
+import danogl.GameObject;
+import danogl.gui.rendering.Renderable;
+import danogl.util.Vector2;
+
+/**
+ * The part of a level taller than the window that is on screen, following the ball vertically.
+ * <p>
+ * The camera follows an anchor object, which this view moves to the ball's height every frame, clamped so the
+ * camera never shows anything above the top of the level or below the bottom of the window, and rounded to
+ * whole pixels, whose anchor positions are made once. Whatever is out of view is not drawn: bricks are
+ * streamed in and out of view a row at a time, by a binary search over the rows that only touches the rows
+ * entering or leaving the view, and mock balls and falling hearts skip their own draws while out of view, by
+ * the {@link CulledRenderable}s they are given. The mock balls of a swarm are told the view.
+ * <p>
+ * Only the draw calls are culled. danogl still updates every object of the level and visits every one of them
+ * to render it, bricks without a renderable included, so the cost of a frame remains linear in the size of
+ * the level; the view itself only costs the rows that entered or left it.
+ */
+class ScrollingView {
+    private static final float MARGIN = 50; // objects this close to the view are rendered, the camera lags a frame
+
+    private final Vector2 windowDimensions;
+    private final float levelTop; // the y coordinate of the top of the level, above the window
+    private final GameObject anchor; // followed by the camera
+    private final Vector2[] anchorCorners; // by the pixel of the anchor's height from its highest, made on use
+    private final float highestCenterY; // the highest center of the anchor, at the top of the level
+    private int anchorPixel = -1; // the pixel the anchor is at
+    private final Renderable brickImage;
+    private PuckSwarm puckSwarm = null;
+
+    // the bricks, by rows from the top of the level
+    private Brick[] bricks = new Brick[0];
+    private int columns = 1;
+    private float[] rowTop = new float[0];
+    private float[] rowBottom = new float[0];
+    private int firstVisibleRow = 0; // the rows rendered, an empty range if firstVisibleRow > lastVisibleRow
+    private int lastVisibleRow = -1;
+
+    private float viewTop;
+    private float viewBottom;
+
+    /**
+     * Constructs a view of a level taller than the window.
+     *
+     * @param windowDimensions The dimensions of the game window.
+     * @param levelTop         The y coordinate of the top of the level, above the window.
+     * @param brickImage       The image of a brick in view.
+     */
+    ScrollingView(Vector2 windowDimensions, float levelTop, Renderable brickImage) {
+        this.windowDimensions = windowDimensions;
+        this.levelTop = levelTop;
+        this.brickImage = brickImage;
+        this.highestCenterY = levelTop + windowDimensions.y() / 2;
+        this.anchorCorners = new Vector2[(int) Math.ceil(-levelTop) + 1];
+        this.anchor = new GameObject(Vector2.ZERO, Vector2.ONES, null);
+        anchor.setCenter(windowDimensions.mult(0.5f));
+        viewTop = 0;
+        viewBottom = windowDimensions.y();
+    }
+
+    /**
+     * @return The object the camera should follow.
+     */
+    GameObject getAnchor() {
+        return anchor;
+    }
+
+    /**
+     * Tells the view about the bricks of the level, all of which are rendered until the next update.
+     *
+     * @param bricks          The bricks, row by row, including destroyed ones, with null where there is a gap.
+     * @param columns         The number of bricks in a row.
+     * @param gridTopLeft     The top left corner of the first cell of the grid.
+     * @param cellSize        The distance between the top left corners of adjacent bricks.
+     * @param brickDimensions The dimensions of a brick.
+     */
+    void setBricks(Brick[] bricks, int columns, Vector2 gridTopLeft, Vector2 cellSize, Vector2 brickDimensions) {
+        this.bricks = bricks;
+        this.columns = columns;
+        int rows = bricks.length / columns;
+        rowTop = new float[rows];
+        rowBottom = new float[rows];
+        for (int row = 0; row < rows; row++) {
+            rowTop[row] = gridTopLeft.y() + row * cellSize.y();
+            rowBottom[row] = rowTop[row] + brickDimensions.y();
+        }
+        firstVisibleRow = 0;
+        lastVisibleRow = rows - 1;
+    }
+
+    /**
+     * @param puckSwarm The swarm holding the mock balls, or null if they are game objects.
+     */
+    void setPuckSwarm(PuckSwarm puckSwarm) {
+        this.puckSwarm = puckSwarm;
+    }
+
+    /**
+     * @return The number of brick rows rendered.
+     */
+    int getVisibleRows() {
+        return Math.max(0, lastVisibleRow - firstVisibleRow + 1);
+    }
+
+    /**
+     * Wraps the image of objects that come and go, mock balls and falling hearts, so they are only drawn
+     * while in view.
+     *
+     * @param image The image of the objects.
+     * @return The image, drawn only while in view.
+     */
+    static Renderable culled(Renderable image) {
+        return new CulledRenderable(image);
+    }
+
+    /**
+     * Moves the view to the followed object and hides the bricks that are out of it.
+     *
+     * @param followed The object the view follows, the ball.
+     */
+    void update(GameObject followed) {
+        float halfHeight = windowDimensions.y() / 2;
+        float centerY = Math.max(highestCenterY, Math.min(followed.getCenter().y(), halfHeight));
+        int pixel = Math.min(anchorCorners.length - 1, Math.round(centerY - highestCenterY));
+        if (pixel != anchorPixel) {
+            if (anchorCorners[pixel] == null) {
+                Vector2 halfAnchor = anchor.getDimensions().mult(0.5f);
+                anchorCorners[pixel] = new Vector2(windowDimensions.x() / 2 - halfAnchor.x(),
+                        highestCenterY + pixel - halfAnchor.y());
+            }
+            anchor.setTopLeftCorner(anchorCorners[pixel]);
+            anchorPixel = pixel;
+        }
+        viewTop = centerY - halfHeight - MARGIN;
+        viewBottom = centerY + halfHeight + MARGIN;
+        streamRows();
+        if (puckSwarm != null) {
+            puckSwarm.setView(viewTop, viewBottom);
+        }
+    }
+
+    /**
+     * Hides the rows that left the view and shows the rows that entered it.
+     */
+    private void streamRows() {
+        int first = firstRowEndingBelow(viewTop);
+        int last = firstRowStartingBelow(viewBottom) - 1;
+        for (int row = firstVisibleRow; row <= lastVisibleRow; row++) {
+            if (row < first || row > last) {
+                setRowRenderable(row, null);
+            }
+        }
+        for (int row = first; row <= last; row++) {
+            if (row < firstVisibleRow || row > lastVisibleRow) {
+                setRowRenderable(row, brickImage);
+            }
+        }
+        firstVisibleRow = first;
+        lastVisibleRow = last;
+    }
+
+    private void setRowRenderable(int row, Renderable renderable) {
+        for (int i = row * columns; i < (row + 1) * columns; i++) {
+            if (bricks[i] != null) {
+                bricks[i].renderer().setRenderable(renderable);
+            }
+        }
+    }
+
+    /**
+     * @return The first row whose bottom is below y, or the number of rows if there is none.
+     */
+    private int firstRowEndingBelow(float y) {
+        int low = 0;
+        int high = rowBottom.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rowBottom[middle] < y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The first row whose top is below y, or the number of rows if there is none.
+     */
+    private int firstRowStartingBelow(float y) {
+        int low = 0;
+        int high = rowTop.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (rowTop[middle] <= y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
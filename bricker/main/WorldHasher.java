@@ -0,0 +1,248 @@
+package bricker.main;
+
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Brick;
+import bricker.gameobjects.ExtraPaddle;
+import bricker.gameobjects.FallingHeart;
+import bricker.gameobjects.GameObjectRegistry;
+import bricker.gameobjects.PuckBall;
+import bricker.gameobjects.PuckSwarm;
+import bricker.util.GameRandom;
+import danogl.util.Vector2;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Hashes the state of a running world every few frames and records the hashes in a file, so two runs of the
+ * same seed, or the same run before and after a change, can be compared frame by frame.
+ * <p>
+ * A hash covers the ball, the mock balls and the falling hearts, by their positions and velocities quantized
+ * to a fixed precision, the bricks still in the wall, the lives and the extra paddle. The mock balls and
+ * hearts are hashed regardless of their order, so keeping them in a different order does not change the
+ * hash. They are taken from the game's registries of them, not by walking all the objects of the game. Frames are
+ * only comparable when they have the same time step, as in headless games.
+ * <p>
+ * The file has a line per hashed frame, holding the frame number and the hash in hex, and is flushed after
+ * every line, so it is complete up to the last hashed frame even if the run is killed. {@link #main(String[])}
+ * compares two such files and reports the first frame they differ at.
+ */
+public class WorldHasher {
+    private static final float QUANTUM = 256; // positions and velocities are hashed in 1/256 pixel steps
+    private static final long SEED = 0x42524B48L; // "BRKH"
+
+    private final BrickerGameManager gameManager; // the game whose world is hashed
+    private final int interval; // the number of frames between hashes
+    private final BufferedWriter writer;
+    private long frame = 0;
+    private long lastHash = 0;
+
+    /**
+     * Constructs a hasher that records into a file, replacing it if it exists.
+     *
+     * @param gameManager The game whose world is hashed.
+     * @param interval    The number of frames between hashes.
+     * @param path        The file to record the hashes in.
+     * @throws IOException If the file cannot be created.
+     */
+    public WorldHasher(BrickerGameManager gameManager, int interval, Path path) throws IOException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("bad hash interval " + interval);
+        }
+        this.gameManager = gameManager;
+        this.interval = interval;
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        writer.write("# bricker world hashes, every " + interval + " frames");
+        writer.newLine();
+        writer.flush();
+    }
+
+    /**
+     * Counts a frame, and hashes and records the world if the frame is due.
+     */
+    public void onFrame() {
+        frame++;
+        if (frame % interval != 0) {
+            return;
+        }
+        lastHash = hash(gameManager);
+        try {
+            writer.write(frame + " " + Long.toHexString(lastHash));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot record world hashes", e);
+        }
+    }
+
+    /**
+     * @return The number of frames counted so far.
+     */
+    public long getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return The last hash recorded, or 0 if none was.
+     */
+    public long getLastHash() {
+        return lastHash;
+    }
+
+    /**
+     * Hashes the current state of a world.
+     *
+     * @param gameManager The game whose world is hashed.
+     * @return The hash.
+     */
+    static long hash(BrickerGameManager gameManager) {
+        long hash = SEED;
+        hash = add(hash, gameManager.getHealthBar().getLives());
+
+        Ball ball = gameManager.getBall();
+        hash = addKinematics(hash, ball.getCenter(), ball.getVelocity());
+        hash = add(hash, ball.getCollisionCounter());
+
+        Brick[] bricks = gameManager.getBricks();
+        hash = add(hash, bricks.length);
+        long word = 0;
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i] != null && !bricks[i].isDestroyed()) {
+                word |= 1L << (i & (Long.SIZE - 1));
+            }
+            if ((i & (Long.SIZE - 1)) == Long.SIZE - 1 || i == bricks.length - 1) {
+                hash = add(hash, word);
+                word = 0;
+            }
+        }
+
+        // a sum of the hashes of the mock balls, which does not depend on their order
+        long pucks = 0;
+        int puckCount = 0;
+        PuckSwarm swarm = gameManager.getPuckSwarm();
+        if (swarm != null) {
+            for (int i = 0; i < swarm.size(); i++) {
+                pucks += addKinematics(SEED, swarm.centerX(i), swarm.centerY(i), swarm.velocityX(i),
+                        swarm.velocityY(i));
+                puckCount++;
+            }
+        }
+        GameObjectRegistry<PuckBall> puckBalls = gameManager.getPucks();
+        for (int i = 0; i < puckBalls.size(); i++) {
+            pucks += addKinematics(SEED, puckBalls.get(i).getCenter(), puckBalls.get(i).getVelocity());
+            puckCount++;
+        }
+        hash = add(hash, puckCount);
+        hash = add(hash, pucks);
+
+        // the same for the falling hearts
+        long hearts = 0;
+        GameObjectRegistry<FallingHeart> fallingHearts = gameManager.getFallingHearts();
+        for (int i = 0; i < fallingHearts.size(); i++) {
+            hearts += addKinematics(SEED, fallingHearts.get(i).getCenter(), fallingHearts.get(i).getVelocity());
+        }
+        hash = add(hash, fallingHearts.size());
+        hash = add(hash, hearts);
+
+        ExtraPaddle extraPaddle = gameManager.getExtraPaddle();
+        if (extraPaddle == null) {
+            hash = add(hash, 0);
+        } else {
+            hash = add(hash, 1);
+            hash = add(hash, quantize(extraPaddle.getCenter().x()));
+            hash = add(hash, quantize(extraPaddle.getCenter().y()));
+            hash = add(hash, extraPaddle.getCollisionCount());
+        }
+        return hash;
+    }
+
+    private static long addKinematics(long hash, Vector2 center, Vector2 velocity) {
+        return addKinematics(hash, center.x(), center.y(), velocity.x(), velocity.y());
+    }
+
+    private static long addKinematics(long hash, float centerX, float centerY, float velocityX,
+                                      float velocityY) {
+        hash = add(hash, quantize(centerX));
+        hash = add(hash, quantize(centerY));
+        hash = add(hash, quantize(velocityX));
+        return add(hash, quantize(velocityY));
+    }
+
+    private static long add(long hash, long value) {
+        return GameRandom.mix(hash + value);
+    }
+
+    private static long quantize(float value) {
+        return Math.round(value * QUANTUM);
+    }
+
+    /**
+     * Finds the first frame at which two hash files differ, either by the hash or by one of them ending.
+     *
+     * @param expected The hashes of the reference run.
+     * @param actual   The hashes of the run being checked.
+     * @return The first frame the runs differ at, or -1 if all the hashes match.
+     * @throws IOException If reading a file fails, or it is not a hash file.
+     */
+    public static long firstDivergence(Path expected, Path actual) throws IOException {
+        try (BufferedReader expectedReader = Files.newBufferedReader(expected, StandardCharsets.UTF_8);
+             BufferedReader actualReader = Files.newBufferedReader(actual, StandardCharsets.UTF_8)) {
+            while (true) {
+                String expectedLine = nextRecord(expectedReader);
+                String actualLine = nextRecord(actualReader);
+                if (expectedLine == null && actualLine == null) {
+                    return -1;
+                }
+                if (expectedLine == null || actualLine == null) {
+                    return frameOf(expectedLine != null ? expectedLine : actualLine);
+                }
+                if (!expectedLine.equals(actualLine)) {
+                    return Math.min(frameOf(expectedLine), frameOf(actualLine));
+                }
+            }
+        }
+    }
+
+    private static String nextRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+        while (line != null && (line.isEmpty() || line.startsWith("#"))) {
+            line = reader.readLine();
+        }
+        return line;
+    }
+
+    private static long frameOf(String record) throws IOException {
+        int space = record.indexOf(' ');
+        try {
+            return Long.parseLong(space < 0 ? record : record.substring(0, space));
+        } catch (NumberFormatException e) {
+            throw new IOException("not a world hash record: " + record, e);
+        }
+    }
+
+    /**
+     * Compares two hash files and reports the first frame they differ at.
+     * Usage: {@code WorldHasher <expected.hashes> <actual.hashes>}. Exits with status 1 if they differ.
+     *
+     * @param args The two files.
+     * @throws IOException If reading a file fails.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: WorldHasher <expected.hashes> <actual.hashes>");
+        }
+        long frame = firstDivergence(Paths.get(args[0]), Paths.get(args[1]));
+        if (frame < 0) {
+            System.out.println("world hashes match");
+            return;
+        }
+        System.out.println("world hashes diverge at frame " + frame);
+        System.exit(1);
+    }
+}
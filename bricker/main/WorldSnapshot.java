@@ -0,0 +1,378 @@
+package bricker.main;
+
+import bricker.brick_strategies.StrategyCode;
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Brick;
+import bricker.gameobjects.ExtraPaddle;
+import bricker.gameobjects.FallingHeart;
+import bricker.gameobjects.GameObjectRegistry;
+import bricker.gameobjects.PuckBall;
+import bricker.gameobjects.PuckSwarm;
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Saves and loads the full state of a running Bricker world in a compact, versioned binary format.
+ * Values are written straight from the live game objects into a reusable direct buffer that is
+ * flushed to the channel whenever it fills up, so no intermediate copy of the world is built.
+ * A snapshot can only be loaded into a game with the same brick layout it was saved from.
+ */
+public class WorldSnapshot {
+    private static final int MAGIC = 0x42524B53; // "BRKS"
+    private static final short VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+    private static final int KINEMATICS_BYTES = 4 * Float.BYTES; // center and velocity
+    private static final int BALL_BYTES = KINEMATICS_BYTES + 2 + 2 * Integer.BYTES + Float.BYTES;
+    private static final int EXTRA_PADDLE_BYTES = 1 + 2 * Float.BYTES + Integer.BYTES;
+
+    private final BrickerGameManager gameManager; // the game whose world is saved and loaded
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    // the snapshot being loaded, read whole before the world is changed
+    private Vector2 ballCenter;
+    private Vector2 ballVelocity;
+    private boolean turbo;
+    private int turboCollisions;
+    private int maxCollisionsInTurbo;
+    private float turboFactor;
+    private long[] aliveWords = new long[0]; // the bricks in the wall, a bit each
+    private short[] strategyCodes = new short[0];
+    private int puckCount;
+    private float[] puckKinematics = new float[0]; // centers and velocities
+    private int heartCount;
+    private float[] heartKinematics = new float[0];
+    private boolean extraPaddlePresent;
+    private Vector2 extraPaddleCenter;
+    private int extraPaddleCollisions;
+
+    /**
+     * Constructs a snapshot reader and writer for a game.
+     *
+     * @param gameManager The game whose world is saved and loaded.
+     */
+    public WorldSnapshot(BrickerGameManager gameManager) {
+        this.gameManager = gameManager;
+    }
+
+    /**
+     * Writes the current state of the world to a channel.
+     *
+     * @param channel The channel to write to.
+     * @throws IOException If writing to the channel fails.
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        buffer.clear();
+        buffer.putInt(MAGIC).putShort(VERSION);
+        buffer.putLong(gameManager.getRandom().getState());
+        buffer.putInt(gameManager.getHealthBar().getLives());
+        writeBall(gameManager.getBall());
+        writeBricks(gameManager.getBricks(), channel);
+        writePucks(channel);
+        writeKinematicsOf(gameManager.getFallingHearts(), channel);
+        writeExtraPaddle(channel);
+        flush(channel);
+    }
+
+    /**
+     * Replaces the state of the world with a state read from a channel. The whole snapshot is read and
+     * checked before anything in the world changes, so a snapshot that is cut short or does not fit the
+     * world leaves the world as it was.
+     *
+     * @param channel The channel to read from.
+     * @throws IOException If reading fails, or the channel does not hold a valid snapshot of this world.
+     */
+    public void read(ReadableByteChannel channel) throws IOException {
+        buffer.clear().flip();
+        require(channel, HEADER_BYTES + Long.BYTES + Integer.BYTES);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("not a Bricker world snapshot");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("unsupported world snapshot version " + version);
+        }
+        long randomState = buffer.getLong();
+        int lives = buffer.getInt();
+        if (lives < 0) {
+            throw new IOException("corrupt world snapshot, negative lives " + lives);
+        }
+        require(channel, BALL_BYTES);
+        readBall();
+        Brick[] bricks = gameManager.getBricks();
+        readBricks(bricks, channel);
+        puckCount = readCount(channel);
+        puckKinematics = readKinematics(channel, puckCount, puckKinematics);
+        heartCount = readCount(channel);
+        heartKinematics = readKinematics(channel, heartCount, heartKinematics);
+        readExtraPaddle(channel);
+
+        // the snapshot is whole and fits the world, only now is the world changed
+        gameManager.getRandom().setState(randomState);
+        gameManager.getHealthBar().setLives(lives);
+        restoreBall(gameManager.getBall());
+        restoreBricks(bricks);
+        removePucks();
+        if (gameManager.getPuckSwarm() != null) {
+            gameManager.getPuckSwarm().clear();
+        }
+        for (int i = 0; i < puckCount; i++) {
+            gameManager.restorePuck(vectorAt(puckKinematics, 4 * i), vectorAt(puckKinematics, 4 * i + 2));
+        }
+        removeFallingHearts();
+        for (int i = 0; i < heartCount; i++) {
+            gameManager.restoreFallingHeart(vectorAt(heartKinematics, 4 * i), vectorAt(heartKinematics, 4 * i + 2));
+        }
+        gameManager.restoreExtraPaddle(extraPaddlePresent, extraPaddleCenter, extraPaddleCollisions);
+    }
+
+    private void writeBall(Ball ball) {
+        writeKinematics(ball);
+        buffer.put((byte) (ball.getTurboState() ? 1 : 0));
+        // the ball counts its collisions exactly while in turbo state, the byte is kept for the format
+        buffer.put((byte) (ball.getTurboState() ? 1 : 0));
+        buffer.putInt(ball.getCollisionCounter());
+        buffer.putInt(ball.getMaxCollisionInTurbo());
+        buffer.putFloat(ball.getVelocityChangeFactorInTurbo());
+    }
+
+    private void readBall() {
+        ballCenter = readVector();
+        ballVelocity = readVector();
+        turbo = buffer.get() != 0;
+        buffer.get(); // counting, same as turbo
+        turboCollisions = buffer.getInt();
+        maxCollisionsInTurbo = buffer.getInt();
+        turboFactor = buffer.getFloat();
+    }
+
+    private void restoreBall(Ball ball) {
+        ball.setCenter(ballCenter);
+        ball.setVelocity(ballVelocity);
+        ball.restoreState(turbo, turboCollisions, maxCollisionsInTurbo, turboFactor,
+                gameManager.getTurboBallImage());
+    }
+
+    /**
+     * Writes the bricks as a bitset of the bricks still in the wall, followed by the strategy code of
+     * every brick. A gap in the level is written as a basic brick that is gone.
+     */
+    private void writeBricks(Brick[] bricks, WritableByteChannel channel) throws IOException {
+        ensureWritable(channel, Integer.BYTES);
+        buffer.putInt(bricks.length);
+        long word = 0;
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i] != null && !bricks[i].isDestroyed()) {
+                word |= 1L << (i & (Long.SIZE - 1));
+            }
+            if ((i & (Long.SIZE - 1)) == Long.SIZE - 1 || i == bricks.length - 1) {
+                ensureWritable(channel, Long.BYTES);
+                buffer.putLong(word);
+                word = 0;
+            }
+        }
+        for (Brick brick : bricks) {
+            ensureWritable(channel, Short.BYTES);
+            buffer.putShort((short) (brick != null ? brick.getStrategyCode() : StrategyCode.BASIC));
+        }
+    }
+
+    private void readBricks(Brick[] bricks, ReadableByteChannel channel) throws IOException {
+        int brickCount = readCount(channel);
+        if (brickCount != bricks.length) {
+            throw new IOException("snapshot has " + brickCount + " bricks, the level has " + bricks.length);
+        }
+        int words = (brickCount + Long.SIZE - 1) / Long.SIZE;
+        if (aliveWords.length < words) {
+            aliveWords = new long[words];
+        }
+        for (int i = 0; i < words; i++) {
+            require(channel, Long.BYTES);
+            aliveWords[i] = buffer.getLong();
+        }
+        for (int i = 0; i < brickCount; i++) {
+            if (bricks[i] == null && isAlive(i)) {
+                throw new IOException("snapshot has brick " + i + " in the wall, the level has a gap there");
+            }
+        }
+        if (strategyCodes.length < brickCount) {
+            strategyCodes = new short[brickCount];
+        }
+        for (int i = 0; i < brickCount; i++) {
+            require(channel, Short.BYTES);
+            short strategyCode = buffer.getShort();
+            if (!StrategyCode.isValid(strategyCode)) {
+                throw new IOException("corrupt world snapshot, brick " + i + " has strategy code " + strategyCode);
+            }
+            strategyCodes[i] = strategyCode;
+        }
+    }
+
+    private void restoreBricks(Brick[] bricks) {
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i] != null) {
+                gameManager.setBrickAlive(bricks[i], isAlive(i));
+            }
+        }
+        for (int i = 0; i < bricks.length; i++) {
+            if (bricks[i] != null && strategyCodes[i] != bricks[i].getStrategyCode()) {
+                gameManager.setBrickStrategy(bricks[i], strategyCodes[i]);
+            }
+        }
+    }
+
+    /**
+     * @return Whether a brick read is in the wall.
+     */
+    private boolean isAlive(int brick) {
+        return (aliveWords[brick / Long.SIZE] & (1L << (brick & (Long.SIZE - 1)))) != 0;
+    }
+
+    /**
+     * Writes the number of mock balls in the game, followed by their centers and velocities, whether they
+     * are game objects or in a swarm.
+     */
+    private void writePucks(WritableByteChannel channel) throws IOException {
+        PuckSwarm swarm = gameManager.getPuckSwarm();
+        if (swarm == null) {
+            writeKinematicsOf(gameManager.getPucks(), channel);
+            return;
+        }
+        ensureWritable(channel, Integer.BYTES);
+        buffer.putInt(swarm.size());
+        for (int i = 0; i < swarm.size(); i++) {
+            ensureWritable(channel, KINEMATICS_BYTES);
+            buffer.putFloat(swarm.centerX(i)).putFloat(swarm.centerY(i));
+            buffer.putFloat(swarm.velocityX(i)).putFloat(swarm.velocityY(i));
+        }
+    }
+
+    /**
+     * Writes the number of objects in a registry, followed by their centers and velocities.
+     */
+    private void writeKinematicsOf(GameObjectRegistry<?> registry, WritableByteChannel channel)
+            throws IOException {
+        ensureWritable(channel, Integer.BYTES);
+        buffer.putInt(registry.size());
+        for (int i = 0; i < registry.size(); i++) {
+            ensureWritable(channel, KINEMATICS_BYTES);
+            writeKinematics(registry.get(i));
+        }
+    }
+
+    private void writeExtraPaddle(WritableByteChannel channel) throws IOException {
+        ensureWritable(channel, EXTRA_PADDLE_BYTES);
+        ExtraPaddle paddle = gameManager.getExtraPaddle();
+        buffer.put((byte) (paddle != null ? 1 : 0));
+        Vector2 center = paddle != null ? paddle.getCenter() : Vector2.ZERO;
+        buffer.putFloat(center.x()).putFloat(center.y());
+        buffer.putInt(paddle != null ? paddle.getCollisionCount() : 0);
+    }
+
+    private void readExtraPaddle(ReadableByteChannel channel) throws IOException {
+        require(channel, EXTRA_PADDLE_BYTES);
+        extraPaddlePresent = buffer.get() != 0;
+        extraPaddleCenter = readVector();
+        extraPaddleCollisions = buffer.getInt();
+    }
+
+    /**
+     * Reads the centers and velocities of a number of objects into an array, grown as they are read rather
+     * than by the count, so a corrupt count fails on the end of the snapshot rather than on the heap.
+     *
+     * @return The array holding them, four floats an object.
+     */
+    private float[] readKinematics(ReadableByteChannel channel, int count, float[] kinematics) throws IOException {
+        for (int i = 0; i < count; i++) {
+            require(channel, KINEMATICS_BYTES);
+            if (kinematics.length < 4 * (i + 1)) {
+                kinematics = Arrays.copyOf(kinematics, Math.max(4 * (i + 1), 2 * kinematics.length));
+            }
+            for (int j = 0; j < 4; j++) {
+                kinematics[4 * i + j] = buffer.getFloat();
+            }
+        }
+        return kinematics;
+    }
+
+    private static Vector2 vectorAt(float[] values, int index) {
+        return new Vector2(values[index], values[index + 1]);
+    }
+
+    private void writeKinematics(GameObject gameObject) {
+        Vector2 center = gameObject.getCenter();
+        Vector2 velocity = gameObject.getVelocity();
+        buffer.putFloat(center.x()).putFloat(center.y());
+        buffer.putFloat(velocity.x()).putFloat(velocity.y());
+    }
+
+    private Vector2 readVector() {
+        float x = buffer.getFloat();
+        return new Vector2(x, buffer.getFloat());
+    }
+
+    private int readCount(ReadableByteChannel channel) throws IOException {
+        require(channel, Integer.BYTES);
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new IOException("corrupt world snapshot, negative count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Removes the mock balls and hearts in the game, the newest first so the rest do not shift in their
+     * registries.
+     */
+    private void removePucks() {
+        GameObjectRegistry<PuckBall> pucks = gameManager.getPucks();
+        for (int i = pucks.size() - 1; i >= 0; i--) {
+            pucks.get(i).removeFromGame(); // keeps the puck count right
+        }
+    }
+
+    private void removeFallingHearts() {
+        GameObjectRegistry<FallingHeart> hearts = gameManager.getFallingHearts();
+        for (int i = hearts.size() - 1; i >= 0; i--) {
+            hearts.get(i).removeFromGame();
+        }
+    }
+
+    private void ensureWritable(WritableByteChannel channel, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel);
+        }
+    }
+
+    private void flush(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Makes sure the buffer holds at least the given number of unread bytes, reading more from the channel
+     * if needed.
+     */
+    private void require(ReadableByteChannel channel, int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        buffer.compact();
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("world snapshot ended unexpectedly");
+            }
+        }
+        buffer.flip();
+    }
+}
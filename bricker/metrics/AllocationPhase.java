@@ -0,0 +1,17 @@
+package bricker.metrics;
+
+/**
+ * The parts of a frame that heap allocations are attributed to by the {@link AllocationProfiler}.
+ * Collision work done by a special brick behavior is attributed to its StrategyType instead, and
+ * everything the worker threads allocate during the frame to WORKERS.
+ */
+public enum AllocationPhase {
+    INPUT,
+    MOVEMENT,
+    COLLISION,
+    SPAWNING,
+    HUD,
+    RENDERING,
+    WORKERS,
+    OTHER
+}
@@ -0,0 +1,267 @@
+package bricker.metrics;
+
+import bricker.brick_strategies.StrategyType;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Attributes the heap allocations of the game thread to the phases of a frame, using the JVM's
+ * per-thread allocated bytes counter. Code marks the start and end of a phase with the static
+ * {@link #begin(AllocationPhase)}, {@link #beginStrategy(StrategyType)} and {@link #end()} methods,
+ * which do nothing unless a profiler is attached to the current thread. Phases nest, and bytes are
+ * attributed to the innermost phase only, so spawning inside a strategy is not counted twice.
+ * <p>
+ * Threads doing work for the game, such as the pool moving objects in parallel and the frame capture
+ * encoders, make themselves known with {@link #countWorker()}. What they allocate between the start and end
+ * of a frame is counted in the {@link AllocationPhase#WORKERS} phase, whichever of their tasks it was for.
+ */
+public class AllocationProfiler {
+    private static final AllocationPhase[] PHASES = AllocationPhase.values();
+    private static final StrategyType[] STRATEGY_TYPES = StrategyType.values();
+    private static final int SLOT_COUNT = PHASES.length + STRATEGY_TYPES.length;
+    private static final int OTHER_SLOT = AllocationPhase.OTHER.ordinal();
+    private static final int MAX_DEPTH = 32;
+    private static final ThreadLocal<AllocationProfiler> CURRENT = new ThreadLocal<>();
+    // lets the static methods skip the thread local lookup when no profiler is attached
+    private static final AtomicInteger ATTACHED_COUNT = new AtomicInteger();
+    private static final ThreadLocal<Boolean> COUNTED_WORKER = ThreadLocal.withInitial(() -> false);
+    private static volatile long[] workerIds = new long[0]; // the worker threads, only ever added to
+
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final long[] frameBytes = new long[SLOT_COUNT]; // bytes of the current frame
+    private final long[] totalBytes = new long[SLOT_COUNT];
+    private final long[] maxFrameBytes = new long[SLOT_COUNT];
+    private final int[] stack = new int[MAX_DEPTH];
+    private int depth = 0;
+    private long mark; // allocated bytes of the thread when the current phase was last entered or left
+    private long frames = 0;
+    private final long[] countedBytes = new long[SLOT_COUNT]; // bytes of the current frame already in the totals
+    private boolean frameCounted = false; // whether the current frame is in the frame count
+    private long[] countedWorkerIds = new long[0]; // the worker threads known to the marks below
+    private long[] workerMarks = new long[0]; // allocated bytes of each worker when last looked at
+
+    /**
+     * Constructs a profiler.
+     *
+     * @throws UnsupportedOperationException If the JVM cannot count allocated bytes per thread.
+     */
+    public AllocationProfiler() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            throw new UnsupportedOperationException("per-thread allocation counters are not available");
+        }
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadBean.isThreadAllocatedMemorySupported()) {
+            throw new UnsupportedOperationException("per-thread allocation counters are not supported");
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Makes this profiler receive the phases marked on the current thread.
+     */
+    public void attach() {
+        if (CURRENT.get() == null) {
+            ATTACHED_COUNT.incrementAndGet();
+        }
+        CURRENT.set(this);
+    }
+
+    /**
+     * Stops this profiler from receiving the phases marked on the current thread.
+     */
+    public void detach() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+            ATTACHED_COUNT.decrementAndGet();
+        }
+    }
+
+    /**
+     * Marks the start of a phase on the current thread.
+     *
+     * @param phase The phase that starts.
+     */
+    public static void begin(AllocationPhase phase) {
+        if (ATTACHED_COUNT.get() > 0) {
+            AllocationProfiler profiler = CURRENT.get();
+            if (profiler != null) {
+                profiler.push(phase.ordinal());
+            }
+        }
+    }
+
+    /**
+     * Marks the start of the collision work of a special brick behavior on the current thread.
+     *
+     * @param type The behavior whose work starts.
+     */
+    public static void beginStrategy(StrategyType type) {
+        if (ATTACHED_COUNT.get() > 0) {
+            AllocationProfiler profiler = CURRENT.get();
+            if (profiler != null) {
+                profiler.push(PHASES.length + type.ordinal());
+            }
+        }
+    }
+
+    /**
+     * Marks the end of the phase started last on the current thread.
+     */
+    public static void end() {
+        if (ATTACHED_COUNT.get() > 0) {
+            AllocationProfiler profiler = CURRENT.get();
+            if (profiler != null) {
+                profiler.pop();
+            }
+        }
+    }
+
+    /**
+     * Makes the allocations of the current thread count in the WORKERS phase of the frames, unless it is
+     * a thread with a profiler of its own. Does nothing unless a profiler is attached to some thread, and
+     * looks the thread up only once.
+     */
+    public static void countWorker() {
+        if (ATTACHED_COUNT.get() > 0 && !COUNTED_WORKER.get() && CURRENT.get() == null) {
+            COUNTED_WORKER.set(true);
+            addWorker(Thread.currentThread().getId());
+        }
+    }
+
+    private static synchronized void addWorker(long id) {
+        long[] ids = Arrays.copyOf(workerIds, workerIds.length + 1);
+        ids[ids.length - 1] = id;
+        workerIds = ids;
+    }
+
+    /**
+     * Starts counting a new frame. Allocations outside any phase are attributed to OTHER.
+     */
+    public void startFrame() {
+        depth = 0;
+        Arrays.fill(frameBytes, 0);
+        Arrays.fill(countedBytes, 0);
+        frameCounted = false;
+        countWorkers(); // only marks where the workers are
+        mark = threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Goes on counting the frame that last ended, for work that belongs to it but is done after the update,
+     * such as rendering it. Ending it again adds what was allocated since to the frame.
+     */
+    public void resumeFrame() {
+        depth = 0;
+        mark = threadBean.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Finishes counting the current frame and adds it to the totals.
+     */
+    public void endFrame() {
+        attribute(threadBean.getCurrentThreadAllocatedBytes());
+        depth = 0;
+        frameBytes[AllocationPhase.WORKERS.ordinal()] += countWorkers();
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            totalBytes[i] += frameBytes[i] - countedBytes[i];
+            countedBytes[i] = frameBytes[i];
+            maxFrameBytes[i] = Math.max(maxFrameBytes[i], frameBytes[i]);
+        }
+        if (!frameCounted) {
+            frameCounted = true;
+            frames++;
+        }
+    }
+
+    /**
+     * @param phase A phase of the frame.
+     * @return The mean number of bytes allocated per frame in the phase.
+     */
+    public double bytesPerFrame(AllocationPhase phase) {
+        return meanOf(phase.ordinal());
+    }
+
+    /**
+     * @param type A special brick behavior.
+     * @return The mean number of bytes allocated per frame by the collision work of the behavior.
+     */
+    public double bytesPerFrame(StrategyType type) {
+        return meanOf(PHASES.length + type.ordinal());
+    }
+
+    /**
+     * @return The number of frames counted.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Describes the mean and maximum bytes allocated per frame in each phase and by each behavior.
+     *
+     * @return A multi-line report.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("allocation per frame over %d frames (mean / max bytes)%n", frames));
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            String name = i < PHASES.length ? PHASES[i].name()
+                                            : "strategy " + STRATEGY_TYPES[i - PHASES.length].name();
+            report.append(String.format("  %-26s %12.1f / %d%n", name, meanOf(i), maxFrameBytes[i]));
+        }
+        return report.toString();
+    }
+
+    private double meanOf(int slot) {
+        return frames == 0 ? 0 : (double) totalBytes[slot] / frames;
+    }
+
+    private void push(int slot) {
+        attribute(threadBean.getCurrentThreadAllocatedBytes());
+        if (depth < MAX_DEPTH) {
+            stack[depth] = slot;
+        }
+        depth++;
+    }
+
+    private void pop() {
+        attribute(threadBean.getCurrentThreadAllocatedBytes());
+        if (depth > 0) {
+            depth--;
+        }
+    }
+
+    /**
+     * Adds up what the workers allocated since they were last looked at, and marks where they are now.
+     * A worker first seen is only marked, and a worker that ended is left out.
+     */
+    private long countWorkers() {
+        long[] ids = workerIds;
+        if (ids != countedWorkerIds) {
+            int known = countedWorkerIds.length;
+            workerMarks = Arrays.copyOf(workerMarks, ids.length);
+            Arrays.fill(workerMarks, known, ids.length, -1);
+            countedWorkerIds = ids;
+        }
+        long bytes = 0;
+        for (int i = 0; i < ids.length; i++) {
+            long now = threadBean.getThreadAllocatedBytes(ids[i]);
+            if (now >= 0 && workerMarks[i] >= 0) {
+                bytes += now - workerMarks[i];
+            }
+            workerMarks[i] = now;
+        }
+        return bytes;
+    }
+
+    /**
+     * Attributes the bytes allocated since the last mark to the innermost phase.
+     */
+    private void attribute(long now) {
+        int slot = depth == 0 ? OTHER_SLOT : stack[Math.min(depth, MAX_DEPTH) - 1];
+        frameBytes[slot] += now - mark;
+        mark = now;
+    }
+}
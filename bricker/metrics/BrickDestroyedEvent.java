@@ -0,0 +1,28 @@
+package bricker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for a brick removed from the wall.
+ */
+@Name("bricker.BrickDestroyed")
+@Label("Brick Destroyed")
+@Category({"Bricker", "Gameplay"})
+@Description("A brick was hit and removed from the wall")
+class BrickDestroyedEvent extends jdk.jfr.Event {
+    @Label("Strategies")
+    @Description("The special behaviors of the brick, by their StrategyType names")
+    String strategies;
+
+    @Label("Strategy Code")
+    int strategyCode;
+
+    @Label("Hit By")
+    String hitBy;
+
+    @Label("Bricks Left")
+    int bricksLeft;
+}
@@ -0,0 +1,142 @@
+package bricker.metrics;
+
+import bricker.brick_strategies.StrategyCode;
+import bricker.brick_strategies.StrategyType;
+import danogl.GameObject;
+import jdk.jfr.EventType;
+
+/**
+ * Emits the game's Java Flight Recorder events, so gameplay can be lined up with the GC and CPU samples of
+ * a recording.
+ * <p>
+ * Every method first checks whether its event type is enabled in a running recording, and returns right
+ * away if not, without creating the event. Without a recording the cost is a check of a flag. The events
+ * are emitted from the game loop thread only.
+ */
+public final class FlightEvents {
+    /** The phase of a frame where all the objects are updated, including danogl's collisions. */
+    public static final String PHASE_UPDATE = "update";
+    /** The phase of a frame where the broadphase finds contacts between the moving objects. */
+    public static final String PHASE_COLLISION = "collision";
+    /** The phase of a frame where the objects are rendered. */
+    public static final String PHASE_RENDER = "render";
+
+    private static final EventType FRAME_PHASE = EventType.getEventType(FramePhaseEvent.class);
+    private static final EventType BRICK_DESTROYED = EventType.getEventType(BrickDestroyedEvent.class);
+    private static final EventType POWERUP_SPAWN = EventType.getEventType(PowerupSpawnEvent.class);
+    private static final EventType TURBO = EventType.getEventType(TurboEvent.class);
+    private static final EventType LIFE = EventType.getEventType(LifeEvent.class);
+
+    private static FramePhaseEvent currentPhase = null; // the phase being timed, phases do not nest
+
+    private FlightEvents() {
+    }
+
+    /**
+     * Starts timing a phase of a frame, until {@link #endPhase()}.
+     *
+     * @param phase The phase, one of the PHASE constants.
+     */
+    public static void beginPhase(String phase) {
+        if (!FRAME_PHASE.isEnabled()) {
+            return;
+        }
+        currentPhase = new FramePhaseEvent();
+        currentPhase.phase = phase;
+        currentPhase.begin();
+    }
+
+    /**
+     * Ends timing the current phase of a frame.
+     */
+    public static void endPhase() {
+        if (currentPhase == null) {
+            return;
+        }
+        currentPhase.commit();
+        currentPhase = null;
+    }
+
+    /**
+     * Records a brick removed from the wall.
+     *
+     * @param strategyCode The {@link StrategyCode} of the brick's special behaviors.
+     * @param hitBy        The object that hit the brick.
+     * @param bricksLeft   The number of bricks still in the wall.
+     */
+    public static void brickDestroyed(int strategyCode, GameObject hitBy, int bricksLeft) {
+        if (!BRICK_DESTROYED.isEnabled()) {
+            return;
+        }
+        BrickDestroyedEvent event = new BrickDestroyedEvent();
+        event.strategies = strategiesOf(strategyCode);
+        event.strategyCode = strategyCode;
+        event.hitBy = hitBy != null ? hitBy.getClass().getSimpleName() : null;
+        event.bricksLeft = bricksLeft;
+        event.commit();
+    }
+
+    /**
+     * Records a power-up added to the game.
+     *
+     * @param powerup The kind of power-up, by the simple name of its class.
+     * @param x       The x coordinate of where it was added.
+     * @param y       The y coordinate of where it was added.
+     */
+    public static void powerupSpawned(String powerup, float x, float y) {
+        if (!POWERUP_SPAWN.isEnabled()) {
+            return;
+        }
+        PowerupSpawnEvent event = new PowerupSpawnEvent();
+        event.powerup = powerup;
+        event.x = x;
+        event.y = y;
+        event.commit();
+    }
+
+    /**
+     * Records the ball entering or leaving turbo state.
+     *
+     * @param activated  True when the turbo state started, false when it expired.
+     * @param collisions The number of collisions the turbo state lasts.
+     */
+    public static void turbo(boolean activated, int collisions) {
+        if (!TURBO.isEnabled()) {
+            return;
+        }
+        TurboEvent event = new TurboEvent();
+        event.activated = activated;
+        event.collisions = collisions;
+        event.commit();
+    }
+
+    /**
+     * Records a life lost or gained.
+     *
+     * @param change -1 for a life lost, 1 for a life gained.
+     * @param lives  The number of lives after the change.
+     */
+    public static void lifeChanged(int change, int lives) {
+        if (!LIFE.isEnabled()) {
+            return;
+        }
+        LifeEvent event = new LifeEvent();
+        event.change = change;
+        event.lives = lives;
+        event.commit();
+    }
+
+    private static String strategiesOf(int strategyCode) {
+        StringBuilder strategies = new StringBuilder();
+        if (StrategyCode.isDouble(strategyCode)) {
+            strategies.append(StrategyType.DOUBLE_BEHAVIOR);
+        }
+        for (int i = 0; i < StrategyCode.behaviorCount(strategyCode); i++) {
+            if (strategies.length() > 0) {
+                strategies.append(',');
+            }
+            strategies.append(StrategyCode.behaviorAt(strategyCode, i));
+        }
+        return strategies.toString();
+    }
+}
@@ -0,0 +1,19 @@
+package bricker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event timing a phase of a frame: the update of all the objects, the contacts found
+ * by the broadphase, or the rendering.
+ */
+@Name("bricker.FramePhase")
+@Label("Frame Phase")
+@Category({"Bricker", "Frame"})
+@Description("A phase of a frame of the game")
+class FramePhaseEvent extends jdk.jfr.Event {
+    @Label("Phase")
+    String phase;
+}
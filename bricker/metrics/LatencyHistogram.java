@@ -0,0 +1,102 @@
+package bricker.metrics;
+
+import java.util.Arrays;
+
+/**
+ * A fixed size histogram of durations in nanoseconds, for reporting percentiles without keeping every sample.
+ * Every power of two is split into 16 buckets, so a reported percentile is at most 1/16 above the
+ * real value. Recording a sample never allocates.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long count = 0;
+    private long total = 0;
+    private long max = 0;
+
+    /**
+     * Records a single duration.
+     *
+     * @param nanos The duration in nanoseconds, negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns a value that the given fraction of the recorded durations do not exceed.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The percentile in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, highestValueOf(i));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return The number of recorded durations.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return The longest recorded duration in nanoseconds.
+     */
+    public long max() {
+        return max;
+    }
+
+    /**
+     * @return The mean of the recorded durations in nanoseconds, or 0 if nothing was recorded.
+     */
+    public double mean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * Forgets all recorded durations.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
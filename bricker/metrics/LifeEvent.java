@@ -0,0 +1,23 @@
+package bricker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for a life lost or gained.
+ */
+@Name("bricker.Life")
+@Label("Life")
+@Category({"Bricker", "Gameplay"})
+@Description("The player lost or gained a life")
+class LifeEvent extends jdk.jfr.Event {
+    @Label("Change")
+    @Description("-1 for a life lost, 1 for a life gained")
+    int change;
+
+    @Label("Lives")
+    @Description("The number of lives after the change")
+    int lives;
+}
@@ -0,0 +1,24 @@
+package bricker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for a power-up added to the game: a mock ball, a falling heart or an extra paddle.
+ */
+@Name("bricker.PowerupSpawn")
+@Label("Power-up Spawn")
+@Category({"Bricker", "Gameplay"})
+@Description("A power-up was added to the game")
+class PowerupSpawnEvent extends jdk.jfr.Event {
+    @Label("Power-up")
+    String powerup;
+
+    @Label("X")
+    float x;
+
+    @Label("Y")
+    float y;
+}
@@ -0,0 +1,23 @@
+package bricker.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A flight recorder event for the ball entering or leaving turbo state.
+ */
+@Name("bricker.Turbo")
+@Label("Turbo")
+@Category({"Bricker", "Gameplay"})
+@Description("The ball entered or left turbo state")
+class TurboEvent extends jdk.jfr.Event {
+    @Label("Activated")
+    @Description("True when the turbo state started, false when it expired")
+    boolean activated;
+
+    @Label("Collisions")
+    @Description("The number of collisions the turbo state lasts")
+    int collisions;
+}
@@ -0,0 +1,167 @@
+package bricker.paddle_controllers;
+
+import bricker.gameobjects.FallingHeart;
+import bricker.gameobjects.Paddle;
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+/**
+ * Moves the paddle on its own, for unattended games.
+ * Every frame it predicts analytically where the ball will cross the paddle's row, folding the ball's
+ * path over the side walls and the ceiling, and moves there. Optionally it catches falling hearts when
+ * it can still make it back to the ball in time. Bricks in the ball's way are ignored by the prediction,
+ * which is corrected on the next frame after the ball bounces off them.
+ * The controller does not allocate objects while steering, so many games can run it side by side.
+ */
+public class AutopilotPaddleController implements PaddleController {
+    private static final int MAX_TRACKED_HEARTS = 8;
+    private static final float MIN_VERTICAL_SPEED = 1e-3f;
+    private static final float DEAD_ZONE_FACTOR = 0.5f; // of the distance the paddle moves in one frame
+
+    private final GameObject ball; // the ball to intercept
+    private final float fieldLeft; // x of the inner side of the left wall
+    private final float fieldRight; // x of the inner side of the right wall
+    private final float fieldTop; // y of the inner side of the ceiling
+    private final boolean chaseHearts; // whether to catch falling hearts
+    private final FallingHeart[] hearts = new FallingHeart[MAX_TRACKED_HEARTS];
+    private int heartCount = 0;
+    private float interceptX; // where the ball crosses the paddle row, set by predictBallIntercept
+
+    /**
+     * Constructs an autopilot controller.
+     *
+     * @param ball        The ball to intercept.
+     * @param fieldLeft   The x coordinate of the inner side of the left wall.
+     * @param fieldRight  The x coordinate of the inner side of the right wall.
+     * @param fieldTop    The y coordinate of the inner side of the ceiling.
+     * @param chaseHearts Whether the paddle should also catch falling hearts.
+     */
+    public AutopilotPaddleController(GameObject ball, float fieldLeft, float fieldRight, float fieldTop,
+                                     boolean chaseHearts) {
+        this.ball = ball;
+        this.fieldLeft = fieldLeft;
+        this.fieldRight = fieldRight;
+        this.fieldTop = fieldTop;
+        this.chaseHearts = chaseHearts;
+    }
+
+    /**
+     * Moves towards the point where the ball will reach the paddle, or towards a heart that can be
+     * caught on the way.
+     *
+     * @param paddle    The paddle being controlled.
+     * @param deltaTime Time elapsed since the last frame.
+     * @return The direction to the target.
+     */
+    @Override
+    public int movementDirection(Paddle paddle, float deltaTime) {
+        float paddleX = paddle.getCenter().x();
+        float paddleTop = paddle.getTopLeftCorner().y();
+        float speed = paddle.getMovementSpeed();
+        float ballTime = predictBallIntercept(paddleTop);
+        float targetX = interceptX;
+        if (chaseHearts && heartCount > 0) {
+            targetX = chooseHeartTarget(paddle, paddleX, paddleTop, speed, ballTime, targetX);
+        }
+        float deadZone = speed * deltaTime * DEAD_ZONE_FACTOR;
+        if (targetX < paddleX - deadZone) {
+            return -1;
+        }
+        if (targetX > paddleX + deadZone) {
+            return 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Starts tracking a falling heart, if hearts are chased and there is room to track it.
+     *
+     * @param heart The falling heart.
+     */
+    @Override
+    public void onFallingHeart(FallingHeart heart) {
+        if (chaseHearts && heartCount < MAX_TRACKED_HEARTS) {
+            hearts[heartCount++] = heart;
+        }
+    }
+
+    /**
+     * Predicts where the ball's center crosses the row right above the paddle, and stores it in interceptX.
+     *
+     * @param paddleTop The y coordinate of the top of the paddle.
+     * @return The time until the ball reaches the row, or infinity if it is not heading there.
+     */
+    private float predictBallIntercept(float paddleTop) {
+        Vector2 center = ball.getCenter();
+        Vector2 velocity = ball.getVelocity();
+        float radius = ball.getDimensions().y() / 2;
+        float rowY = paddleTop - radius;
+        float distance;
+        if (velocity.y() > MIN_VERTICAL_SPEED && center.y() <= rowY) {
+            distance = rowY - center.y();
+        } else if (velocity.y() < -MIN_VERTICAL_SPEED) {
+            // up to the ceiling, then all the way down
+            float ceiling = fieldTop + radius;
+            distance = (center.y() - ceiling) + (rowY - ceiling);
+        } else {
+            interceptX = center.x();
+            return Float.POSITIVE_INFINITY;
+        }
+        float time = distance / Math.abs(velocity.y());
+        interceptX = fold(center.x() + velocity.x() * time, fieldLeft + radius, fieldRight - radius);
+        return time;
+    }
+
+    /**
+     * Picks the heart that lands first among those the paddle can catch and still return to the ball in time.
+     * Hearts that were collected or fell past the paddle stop being tracked.
+     */
+    private float chooseHeartTarget(Paddle paddle, float paddleX, float paddleTop, float speed,
+                                    float ballTime, float ballX) {
+        float targetX = ballX;
+        float bestTime = Float.POSITIVE_INFINITY;
+        for (int i = 0; i < heartCount; i++) {
+            FallingHeart heart = hearts[i];
+            float heartBottom = heart.getTopLeftCorner().y() + heart.getDimensions().y();
+            float heartSpeed = heart.getVelocity().y();
+            if (heart.isCollected() || heartBottom > paddleTop + paddle.getDimensions().y()
+                    || heartSpeed <= MIN_VERTICAL_SPEED) {
+                hearts[i] = hearts[--heartCount];
+                hearts[heartCount] = null;
+                i--;
+                continue;
+            }
+            if (!heart.shouldCollideWith(paddle)) {
+                continue; // the heart would not be collected right now
+            }
+            float heartTime = Math.max(0, (paddleTop - heartBottom) / heartSpeed);
+            float heartX = heart.getCenter().x();
+            float reachTime = Math.abs(heartX - paddleX) / speed;
+            float returnTime = Math.abs(ballX - heartX) / speed;
+            if (reachTime <= heartTime && heartTime + returnTime <= ballTime && heartTime < bestTime) {
+                bestTime = heartTime;
+                targetX = heartX;
+            }
+        }
+        return targetX;
+    }
+
+    /**
+     * Folds an unbounded coordinate into [min, max], as if it reflected off walls at both ends.
+     */
+    private static float fold(float x, float min, float max) {
+        float width = max - min;
+        if (width <= 0) {
+            return min;
+        }
+        float period = 2 * width;
+        float offset = (x - min) % period;
+        if (offset < 0) {
+            offset += period;
+        }
+        if (offset > width) {
+            offset = period - offset;
+        }
+        return min + offset;
+    }
+}
@@ -0,0 +1,41 @@
+package bricker.paddle_controllers;
+
+import bricker.gameobjects.Paddle;
+import danogl.gui.UserInputListener;
+
+import java.awt.event.KeyEvent;
+
+/**
+ * Moves the paddle according to the player's left and right arrow keys.
+ */
+public class KeyboardPaddleController implements PaddleController {
+    private final UserInputListener inputListener; // listens to the player's keys
+
+    /**
+     * Constructs a keyboard controller.
+     *
+     * @param inputListener The input listener for user keyboard controls.
+     */
+    public KeyboardPaddleController(UserInputListener inputListener) {
+        this.inputListener = inputListener;
+    }
+
+    /**
+     * Moves left while the left arrow is pressed and right while the right arrow is pressed.
+     *
+     * @param paddle    The paddle being controlled.
+     * @param deltaTime Time elapsed since the last frame.
+     * @return The direction of the pressed arrows.
+     */
+    @Override
+    public int movementDirection(Paddle paddle, float deltaTime) {
+        int direction = 0;
+        if (inputListener.isKeyPressed(KeyEvent.VK_LEFT)) {
+            direction--;
+        }
+        if (inputListener.isKeyPressed(KeyEvent.VK_RIGHT)) {
+            direction++;
+        }
+        return direction;
+    }
+}
@@ -0,0 +1,27 @@
+package bricker.paddle_controllers;
+
+import bricker.gameobjects.Paddle;
+import bricker.gameobjects.FallingHeart;
+
+/**
+ * Decides where a paddle moves every frame. Paddles ask their controller for a direction
+ * instead of reading the keyboard directly, so they can be steered by a player or by a program.
+ */
+public interface PaddleController {
+    /**
+     * Chooses the direction the paddle should move in this frame.
+     *
+     * @param paddle    The paddle being controlled.
+     * @param deltaTime Time elapsed since the last frame.
+     * @return -1 to move left, 1 to move right or 0 to stay in place.
+     */
+    int movementDirection(Paddle paddle, float deltaTime);
+
+    /**
+     * Called when a heart starts falling towards the paddle, so the controller can decide to catch it.
+     *
+     * @param heart The falling heart.
+     */
+    default void onFallingHeart(FallingHeart heart) {
+    }
+}
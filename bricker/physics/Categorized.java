@@ -0,0 +1,11 @@
+package bricker.physics;
+
+/**
+ * A game object with a collision category, which a {@link CollisionMatrix} filters its collisions by.
+ */
+public interface Categorized {
+    /**
+     * @return The collision category of the object, which never changes.
+     */
+    CollisionCategory getCollisionCategory();
+}
@@ -0,0 +1,23 @@
+package bricker.physics;
+
+/**
+ * The kinds of objects that take part in collisions, each one a bit of a collision mask.
+ */
+public enum CollisionCategory {
+    BALL,
+    PUCK,
+    HEART,
+    PADDLE,
+    EXTRA_PADDLE,
+    BRICK,
+    WALL;
+
+    private final int bit = 1 << ordinal();
+
+    /**
+     * @return The bit of the category in a collision mask.
+     */
+    public int bit() {
+        return bit;
+    }
+}
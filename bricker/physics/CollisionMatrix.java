@@ -0,0 +1,82 @@
+package bricker.physics;
+
+import danogl.GameObject;
+
+/**
+ * Declares which collision categories can collide with each other. Every category has a mask of the
+ * categories it collides with, so filtering a pair is a single AND of one object's mask with the other's bit,
+ * done before any of the objects' own collision checks.
+ * <p>
+ * An object without a category, see {@link Categorized}, collides with everything.
+ */
+public class CollisionMatrix {
+    /** The collisions of the game. */
+    public static final CollisionMatrix STANDARD = new CollisionMatrix(new CollisionCategory[][]{
+            {CollisionCategory.BALL, CollisionCategory.PADDLE},
+            {CollisionCategory.BALL, CollisionCategory.EXTRA_PADDLE},
+            {CollisionCategory.BALL, CollisionCategory.BRICK},
+            {CollisionCategory.BALL, CollisionCategory.WALL},
+            {CollisionCategory.BALL, CollisionCategory.PUCK},
+            {CollisionCategory.PUCK, CollisionCategory.PUCK},
+            {CollisionCategory.PUCK, CollisionCategory.PADDLE},
+            {CollisionCategory.PUCK, CollisionCategory.EXTRA_PADDLE},
+            {CollisionCategory.PUCK, CollisionCategory.BRICK},
+            {CollisionCategory.PUCK, CollisionCategory.WALL},
+            // only the main paddle catches hearts
+            {CollisionCategory.HEART, CollisionCategory.PADDLE},
+    });
+
+    private static final int ALL = ~0;
+
+    private final int[] masks = new int[CollisionCategory.values().length];
+
+    /**
+     * Constructs a matrix.
+     *
+     * @param collidingPairs The pairs of categories that collide, in any order. Any other pair does not.
+     */
+    public CollisionMatrix(CollisionCategory[][] collidingPairs) {
+        for (CollisionCategory[] pair : collidingPairs) {
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("a colliding pair needs two categories, got " + pair.length);
+            }
+            masks[pair[0].ordinal()] |= pair[1].bit();
+            masks[pair[1].ordinal()] |= pair[0].bit();
+        }
+    }
+
+    /**
+     * @param first  A category.
+     * @param second Another category.
+     * @return True if objects of the categories can collide.
+     */
+    public boolean canCollide(CollisionCategory first, CollisionCategory second) {
+        return (masks[first.ordinal()] & second.bit()) != 0;
+    }
+
+    /**
+     * @param first  An object.
+     * @param second Another object.
+     * @return True if the categories of the objects can collide.
+     */
+    public boolean canCollide(GameObject first, GameObject second) {
+        return (maskOf(first) & bitOf(second)) != 0;
+    }
+
+    /**
+     * @param gameObject An object.
+     * @return The bits of the categories the object collides with, all of them if it has no category.
+     */
+    public int maskOf(GameObject gameObject) {
+        return gameObject instanceof Categorized
+                ? masks[((Categorized) gameObject).getCollisionCategory().ordinal()] : ALL;
+    }
+
+    /**
+     * @param gameObject An object.
+     * @return The bit of the object's category, or all the bits if it has no category.
+     */
+    public static int bitOf(GameObject gameObject) {
+        return gameObject instanceof Categorized ? ((Categorized) gameObject).getCollisionCategory().bit() : ALL;
+    }
+}
@@ -0,0 +1,57 @@
+package bricker.physics;
+
+import java.util.Arrays;
+
+/**
+ * Tells the objects that made contacts in a step to respond to them, once all the contacts of the step are
+ * known: after danogl's collisions and the game's own broadphase.
+ * <p>
+ * An object enlists on its first contact of the step, and is told once at the end of the step, however many
+ * contacts it made. The objects are told in the order they enlisted.
+ */
+public class ContactAggregator {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private ManifoldResponder[] enlisted = new ManifoldResponder[INITIAL_CAPACITY];
+    private int count = 0;
+    private long responses = 0; // responses to a step's contacts, counted since the aggregator was created
+
+    /**
+     * Enlists an object to respond to its contacts at the end of this step. Called on the object's first
+     * contact of the step.
+     *
+     * @param responder The object.
+     */
+    public void enlist(ManifoldResponder responder) {
+        if (count == enlisted.length) {
+            enlisted = Arrays.copyOf(enlisted, count * 2);
+        }
+        enlisted[count++] = responder;
+    }
+
+    /**
+     * Tells every enlisted object to respond to its contacts, and ends the step.
+     */
+    public void respond() {
+        for (int i = 0; i < count; i++) {
+            enlisted[i].respondToContacts();
+            enlisted[i] = null;
+        }
+        responses += count;
+        count = 0;
+    }
+
+    /**
+     * @return The number of objects waiting to respond to their contacts.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return The number of times an object responded to the contacts of a step.
+     */
+    public long getResponses() {
+        return responses;
+    }
+}
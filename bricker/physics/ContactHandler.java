@@ -0,0 +1,18 @@
+package bricker.physics;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+/**
+ * A game object that reacts to touching another object, whether the contact was found by danogl's
+ * collision detection or by the game's own broadphase.
+ */
+public interface ContactHandler {
+    /**
+     * Called on the first frame the object touches another object.
+     *
+     * @param other  The other object.
+     * @param normal The normal of the contact, of length 1.
+     */
+    void onContact(GameObject other, Vector2 normal);
+}
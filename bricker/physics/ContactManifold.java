@@ -0,0 +1,76 @@
+package bricker.physics;
+
+import danogl.util.Vector2;
+
+/**
+ * The contacts a moving object made in a single step, gathered so they can be responded to once.
+ * <p>
+ * An object touching several others in the same step, such as a ball hitting the seam between two bricks,
+ * is told about every contact. Responding to each one on its own flips the velocity once per contact, and
+ * two flips about the same normal cancel out. The manifold keeps the sum of the normals instead, and
+ * {@link #combinedNormal()} gives a single normal for all of them.
+ */
+public final class ContactManifold {
+    private static final float EPSILON = 1e-6f;
+
+    private Vector2 firstNormal = null; // the normal of the only contact, as given
+    private float normalX = 0;
+    private float normalY = 0;
+    private int size = 0;
+
+    /**
+     * Adds a contact of this step.
+     *
+     * @param normal The normal of the contact, of length 1.
+     */
+    public void add(Vector2 normal) {
+        if (size == 0) {
+            firstNormal = normal;
+        }
+        normalX += normal.x();
+        normalY += normal.y();
+        size++;
+    }
+
+    /**
+     * @return The number of contacts added since the manifold was last cleared.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return True if no contact was added since the manifold was last cleared.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the normal of all the contacts together: the normal of a single contact as it was given, and
+     * otherwise the sum of the normals scaled to length 1, so contacts with the same normal count once and
+     * contacts on two sides of a corner give the diagonal.
+     *
+     * @return The combined normal, or null if there are no contacts or their normals cancel out.
+     */
+    public Vector2 combinedNormal() {
+        if (size <= 1) {
+            return firstNormal;
+        }
+        float length = (float) Math.sqrt(normalX * normalX + normalY * normalY);
+        if (length < EPSILON) {
+            return null;
+        }
+        return new Vector2(normalX / length, normalY / length);
+    }
+
+    /**
+     * Removes all the contacts, for the next step.
+     */
+    public void clear() {
+        firstNormal = null;
+        normalX = 0;
+        normalY = 0;
+        size = 0;
+    }
+}
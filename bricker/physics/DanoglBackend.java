@@ -0,0 +1,74 @@
+package bricker.physics;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+
+/**
+ * The contacts found by danogl's own collisions, as part of the game manager's update, and delivered
+ * through the objects' collision enter events. Optionally, the contacts between the moving objects are
+ * found by a {@link SweepAndPrune} instead, while danogl still finds those with walls and bricks.
+ */
+public class DanoglBackend implements PhysicsBackend {
+    private final SweepAndPrune broadphase; // finds the contacts between moving objects, or null
+
+    /**
+     * Constructs the backend.
+     *
+     * @param broadphase Finds the contacts between moving objects, or null to leave them to danogl.
+     */
+    public DanoglBackend(SweepAndPrune broadphase) {
+        this.broadphase = broadphase;
+    }
+
+    /**
+     * Stops danogl from testing every pair of moving objects, if the broadphase finds their contacts.
+     *
+     * @param gameObjects The objects of the game.
+     */
+    @Override
+    public void attach(GameObjectCollection gameObjects) {
+        if (broadphase != null) {
+            gameObjects.layers().shouldLayersCollide(Layer.DEFAULT, Layer.DEFAULT, false);
+        }
+    }
+
+    /**
+     * Leaves the objects to move in their own updates, or in a {@link ParallelUpdate} of the game.
+     *
+     * @param movingObjects The objects of the default layer.
+     * @param deltaTime     Time elapsed since the last frame.
+     * @return False.
+     */
+    @Override
+    public boolean integrate(Iterable<GameObject> movingObjects, float deltaTime) {
+        return false;
+    }
+
+    /**
+     * Finds the contacts between moving objects by the broadphase, if there is one.
+     *
+     * @param gameObjects The objects of the game.
+     */
+    @Override
+    public void findContacts(GameObjectCollection gameObjects) {
+        if (broadphase != null) {
+            broadphase.update(gameObjects.objectsInLayer(Layer.DEFAULT));
+        }
+    }
+
+    /**
+     * Does nothing, danogl knows its objects.
+     */
+    @Override
+    public void staticObjectsChanged() {
+    }
+
+    /**
+     * @return The broadphase finding the contacts between moving objects, or null if danogl finds them.
+     */
+    @Override
+    public SweepAndPrune getBroadphase() {
+        return broadphase;
+    }
+}
@@ -0,0 +1,12 @@
+package bricker.physics;
+
+/**
+ * A static object that can be destroyed by a contact, such as a brick, which a backend indexing the static
+ * objects skips once it is destroyed instead of indexing them all again.
+ */
+public interface Destructible {
+    /**
+     * @return True if the object was destroyed and left the game.
+     */
+    boolean isDestroyed();
+}
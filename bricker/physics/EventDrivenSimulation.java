@@ -0,0 +1,612 @@
+package bricker.physics;
+
+import java.util.Arrays;
+
+/**
+ * Moves balls through a level by jumping from one collision straight to the next, instead of stepping
+ * frames.
+ * <p>
+ * Between bounces every ball moves in a straight line, and everything it can hit is an axis-aligned box:
+ * the walls, the bricks and the main paddle. So the time of a ball's next collision is found analytically,
+ * by intersecting its path with the walls and, along the slabs of the boxes, with the bricks of the grid
+ * cells its path crosses before it reaches a wall. Every ball keeps the time and kind of its next collision,
+ * and the simulation repeatedly jumps to the earliest one, bounces that ball and predicts its next collision
+ * again. Balls that were heading to a brick that was just destroyed are predicted again as well.
+ * <p>
+ * Positions are kept as of the last time every ball was predicted and computed from there when needed, so
+ * a collision only touches the ball it involves. The paddle either stays in place or moves at its speed
+ * towards where the first ball will cross its row, predicted again after every bounce of that ball, like
+ * the autopilot does every frame. As in danogl, a ball bounces by flipping its velocity along the normal of
+ * the side it hit, and balls pass through each other. The paddle is only hit from above.
+ */
+public class EventDrivenSimulation {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final double EPSILON_TIME = 1e-9; // collisions closer than this are at the same time
+
+    // the kinds of collisions
+    private static final int NONE = 0;
+    private static final int WALL_SIDE = 1;
+    private static final int WALL_TOP = 2;
+    private static final int PADDLE_ROW = 3;
+    private static final int BRICK_SIDE = 4;
+    private static final int BRICK_FACE = 5;
+    private static final int LOST = 6;
+
+    /**
+     * Receives the events that change the game beyond the bounce itself.
+     */
+    public interface Listener {
+        /**
+         * Called after a ball bounced off anything.
+         *
+         * @param body The ball, by its index.
+         */
+        void onBounce(int body);
+
+        /**
+         * Called after a ball destroyed a brick and bounced off it, after {@link #onBounce(int)}.
+         *
+         * @param brick The brick, by its index in the grid.
+         * @param body  The ball, by its index.
+         */
+        void onBrickHit(int brick, int body);
+
+        /**
+         * Called when the center of the first ball falls below the bottom of the field. The listener should
+         * put the ball back in play or stop the simulation. Other balls that fall are removed.
+         */
+        void onBallLost();
+    }
+
+    private final double fieldLeft;
+    private final double fieldTop;
+    private final double fieldRight;
+    private final double fieldBottom; // balls whose center falls below it are lost
+    private Listener listener = null;
+    private double time = 0;
+    private long events = 0;
+    private boolean stopped = false;
+
+    // the balls, by their top left corners as of the time they were last predicted
+    private double[] positionX = new double[INITIAL_CAPACITY];
+    private double[] positionY = new double[INITIAL_CAPACITY];
+    private double[] velocityX = new double[INITIAL_CAPACITY];
+    private double[] velocityY = new double[INITIAL_CAPACITY];
+    private double[] size = new double[INITIAL_CAPACITY];
+    private double[] since = new double[INITIAL_CAPACITY];
+    private boolean[] belowPaddle = new boolean[INITIAL_CAPACITY]; // whether the ball missed the paddle
+    private double[] nextTime = new double[INITIAL_CAPACITY]; // the time of the ball's next collision
+    private int[] nextKind = new int[INITIAL_CAPACITY];
+    private int[] nextBrick = new int[INITIAL_CAPACITY]; // the brick of the next collision, if it is one
+    private int count = 0;
+
+    // the bricks, on a regular grid of cells with a brick in the top left of each
+    private boolean[] brickAlive = new boolean[0];
+    private int bricksLeft = 0;
+    private int gridColumns = 1;
+    private int gridRows = 0;
+    private double gridLeft;
+    private double gridTop;
+    private double cellWidth = 1;
+    private double cellHeight = 1;
+    private double brickWidth;
+    private double brickHeight;
+
+    // the paddle, moving from where it was at paddleSince towards paddleTarget
+    private boolean hasPaddle = false;
+    private boolean paddleTracking = false;
+    private double paddleX; // the center of the paddle at paddleSince
+    private double paddleSince;
+    private double paddleTarget;
+    private double paddleTop;
+    private double paddleWidth;
+    private double paddleSpeed;
+
+    /**
+     * Constructs an empty simulation.
+     *
+     * @param fieldLeft   The x coordinate of the inner side of the left wall.
+     * @param fieldTop    The y coordinate of the inner side of the ceiling.
+     * @param fieldRight  The x coordinate of the inner side of the right wall.
+     * @param fieldBottom The y coordinate below which balls are lost.
+     */
+    public EventDrivenSimulation(double fieldLeft, double fieldTop, double fieldRight, double fieldBottom) {
+        this.fieldLeft = fieldLeft;
+        this.fieldTop = fieldTop;
+        this.fieldRight = fieldRight;
+        this.fieldBottom = fieldBottom;
+    }
+
+    /**
+     * @param listener Receives the events that change the game, or null.
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the bricks, laid out on a regular grid row by row.
+     *
+     * @param alive       Whether each brick is still in the wall, copied.
+     * @param columns     The number of bricks in a row.
+     * @param gridLeft    The x coordinate of the first brick's left side.
+     * @param gridTop     The y coordinate of the first brick's top.
+     * @param cellWidth   The distance between the left sides of adjacent bricks.
+     * @param cellHeight  The distance between the tops of adjacent rows.
+     * @param brickWidth  The width of a brick.
+     * @param brickHeight The height of a brick.
+     */
+    public void setBricks(boolean[] alive, int columns, double gridLeft, double gridTop, double cellWidth,
+                          double cellHeight, double brickWidth, double brickHeight) {
+        brickAlive = alive.clone();
+        bricksLeft = 0;
+        for (boolean brick : brickAlive) {
+            if (brick) {
+                bricksLeft++;
+            }
+        }
+        gridColumns = columns;
+        gridRows = (alive.length + columns - 1) / columns;
+        this.gridLeft = gridLeft;
+        this.gridTop = gridTop;
+        this.cellWidth = cellWidth;
+        this.cellHeight = cellHeight;
+        this.brickWidth = brickWidth;
+        this.brickHeight = brickHeight;
+        predictAll();
+    }
+
+    /**
+     * Sets the paddle.
+     *
+     * @param centerX  The x coordinate of the paddle's center.
+     * @param top      The y coordinate of the paddle's top.
+     * @param width    The width of the paddle.
+     * @param speed    The speed the paddle moves at.
+     * @param tracking True to move the paddle towards where the first ball will cross its row, false to
+     *                 keep it in place.
+     */
+    public void setPaddle(double centerX, double top, double width, double speed, boolean tracking) {
+        hasPaddle = true;
+        paddleX = centerX;
+        paddleSince = time;
+        paddleTarget = centerX;
+        paddleTop = top;
+        paddleWidth = width;
+        paddleSpeed = speed;
+        paddleTracking = tracking;
+        retargetPaddle();
+        predictAll();
+    }
+
+    /**
+     * Adds a ball. The first ball added is the one the paddle tracks and the one that is never removed.
+     *
+     * @param centerX   The x coordinate of the ball's center.
+     * @param centerY   The y coordinate of the ball's center.
+     * @param ballSize  The width and height of the ball.
+     * @param velocityX The horizontal velocity of the ball.
+     * @param velocityY The vertical velocity of the ball.
+     * @return The index of the ball.
+     */
+    public int addBody(double centerX, double centerY, double ballSize, double velocityX, double velocityY) {
+        if (count == positionX.length) {
+            grow(count * 2);
+        }
+        int body = count++;
+        size[body] = ballSize;
+        setBody(body, centerX, centerY, velocityX, velocityY);
+        return body;
+    }
+
+    /**
+     * Moves a ball and changes its velocity.
+     *
+     * @param body      The ball, by its index.
+     * @param centerX   The x coordinate of the ball's new center.
+     * @param centerY   The y coordinate of the ball's new center.
+     * @param velocityX The new horizontal velocity of the ball.
+     * @param velocityY The new vertical velocity of the ball.
+     */
+    public void setBody(int body, double centerX, double centerY, double velocityX, double velocityY) {
+        positionX[body] = centerX - size[body] / 2;
+        positionY[body] = centerY - size[body] / 2;
+        since[body] = time;
+        belowPaddle[body] = hasPaddle && positionY[body] + size[body] > paddleTop;
+        this.velocityX[body] = velocityX;
+        this.velocityY[body] = velocityY;
+        if (body == 0) {
+            retargetPaddle();
+        }
+        predict(body);
+    }
+
+    /**
+     * Changes the velocity of a ball where it is now.
+     *
+     * @param body      The ball, by its index.
+     * @param velocityX The new horizontal velocity of the ball.
+     * @param velocityY The new vertical velocity of the ball.
+     */
+    public void setVelocity(int body, double velocityX, double velocityY) {
+        moveToNow(body);
+        this.velocityX[body] = velocityX;
+        this.velocityY[body] = velocityY;
+        if (body == 0) {
+            retargetPaddle();
+        }
+        predict(body);
+    }
+
+    /**
+     * Runs the simulation for a duration, or until the listener stops it.
+     *
+     * @param duration The simulated time to run for.
+     * @return The number of collisions handled.
+     */
+    public long advance(double duration) {
+        long startEvents = events;
+        double end = time + duration;
+        while (!stopped) {
+            int body = earliestBody();
+            if (body < 0 || nextTime[body] > end) {
+                break;
+            }
+            time = Math.max(time, nextTime[body]);
+            handle(body);
+            events++;
+        }
+        if (!stopped) {
+            time = end;
+        }
+        return events - startEvents;
+    }
+
+    /**
+     * Stops the simulation at the current collision, from a listener.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * @return True if the listener stopped the simulation.
+     */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * @return The simulated time so far.
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * @return The number of collisions handled so far.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * @return The number of balls.
+     */
+    public int getBodyCount() {
+        return count;
+    }
+
+    /**
+     * @param body The ball, by its index.
+     * @return The x coordinate of the ball's center now.
+     */
+    public double centerX(int body) {
+        return positionX[body] + velocityX[body] * (time - since[body]) + size[body] / 2;
+    }
+
+    /**
+     * @param body The ball, by its index.
+     * @return The y coordinate of the ball's center now.
+     */
+    public double centerY(int body) {
+        return positionY[body] + velocityY[body] * (time - since[body]) + size[body] / 2;
+    }
+
+    /**
+     * @param body The ball, by its index.
+     * @return The horizontal velocity of the ball.
+     */
+    public double velocityX(int body) {
+        return velocityX[body];
+    }
+
+    /**
+     * @param body The ball, by its index.
+     * @return The vertical velocity of the ball.
+     */
+    public double velocityY(int body) {
+        return velocityY[body];
+    }
+
+    /**
+     * @param brick The brick, by its index in the grid.
+     * @return True if the brick is still in the wall.
+     */
+    public boolean isBrickAlive(int brick) {
+        return brickAlive[brick];
+    }
+
+    /**
+     * @return The number of bricks still in the wall.
+     */
+    public int getBricksLeft() {
+        return bricksLeft;
+    }
+
+    /**
+     * @return The x coordinate of the paddle's center now.
+     */
+    public double paddleCenterX() {
+        double distance = paddleTarget - paddleX;
+        double reach = paddleSpeed * (time - paddleSince);
+        return Math.abs(distance) <= reach ? paddleTarget : paddleX + Math.signum(distance) * reach;
+    }
+
+    private int earliestBody() {
+        int earliest = -1;
+        double earliestTime = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < count; i++) {
+            if (nextTime[i] < earliestTime) {
+                earliestTime = nextTime[i];
+                earliest = i;
+            }
+        }
+        return earliest;
+    }
+
+    private void handle(int body) {
+        moveToNow(body);
+        switch (nextKind[body]) {
+            case WALL_SIDE:
+            case BRICK_SIDE:
+                velocityX[body] = -velocityX[body];
+                break;
+            case WALL_TOP:
+            case BRICK_FACE:
+                velocityY[body] = -velocityY[body];
+                break;
+            case PADDLE_ROW:
+                double paddleCenter = paddleCenterX();
+                if (positionX[body] + size[body] > paddleCenter - paddleWidth / 2
+                        && positionX[body] < paddleCenter + paddleWidth / 2) {
+                    velocityY[body] = -velocityY[body];
+                } else {
+                    belowPaddle[body] = true;
+                    predict(body);
+                    return;
+                }
+                break;
+            case LOST:
+                lose(body);
+                return;
+            default:
+                return;
+        }
+        int brick = nextKind[body] == BRICK_SIDE || nextKind[body] == BRICK_FACE ? nextBrick[body] : -1;
+        if (body == 0) {
+            retargetPaddle();
+        }
+        predict(body);
+        if (brick >= 0) {
+            brickAlive[brick] = false;
+            bricksLeft--;
+            // whoever was heading to the brick goes on past it
+            for (int i = 0; i < count; i++) {
+                if (i != body && nextBrick[i] == brick
+                        && (nextKind[i] == BRICK_SIDE || nextKind[i] == BRICK_FACE)) {
+                    moveToNow(i);
+                    predict(i);
+                }
+            }
+        }
+        if (listener != null) {
+            listener.onBounce(body);
+            if (brick >= 0) {
+                listener.onBrickHit(brick, body);
+            }
+        }
+    }
+
+    private void lose(int body) {
+        if (body == 0) {
+            nextTime[0] = Double.POSITIVE_INFINITY;
+            nextKind[0] = NONE;
+            if (listener != null) {
+                listener.onBallLost();
+            }
+            return;
+        }
+        int last = --count;
+        positionX[body] = positionX[last];
+        positionY[body] = positionY[last];
+        velocityX[body] = velocityX[last];
+        velocityY[body] = velocityY[last];
+        size[body] = size[last];
+        since[body] = since[last];
+        belowPaddle[body] = belowPaddle[last];
+        nextTime[body] = nextTime[last];
+        nextKind[body] = nextKind[last];
+        nextBrick[body] = nextBrick[last];
+    }
+
+    private void moveToNow(int body) {
+        double elapsed = time - since[body];
+        positionX[body] += velocityX[body] * elapsed;
+        positionY[body] += velocityY[body] * elapsed;
+        since[body] = time;
+    }
+
+    private void predictAll() {
+        for (int i = 0; i < count; i++) {
+            moveToNow(i);
+            predict(i);
+        }
+    }
+
+    /**
+     * Finds the next collision of a ball whose position is as of now.
+     */
+    private void predict(int body) {
+        double x = positionX[body];
+        double y = positionY[body];
+        double vx = velocityX[body];
+        double vy = velocityY[body];
+        double ballSize = size[body];
+        double best = Double.POSITIVE_INFINITY;
+        int kind = NONE;
+        if (vx < 0) {
+            best = (fieldLeft - x) / vx;
+            kind = WALL_SIDE;
+        } else if (vx > 0) {
+            best = (fieldRight - ballSize - x) / vx;
+            kind = WALL_SIDE;
+        }
+        double verticalTime = Double.POSITIVE_INFINITY;
+        int verticalKind = NONE;
+        if (vy < 0) {
+            verticalTime = (fieldTop - y) / vy;
+            verticalKind = WALL_TOP;
+        } else if (vy > 0) {
+            if (hasPaddle && !belowPaddle[body]) {
+                verticalTime = (paddleTop - ballSize - y) / vy;
+                verticalKind = PADDLE_ROW;
+            } else {
+                verticalTime = (fieldBottom - ballSize / 2 - y) / vy;
+                verticalKind = LOST;
+            }
+        }
+        if (verticalTime < best) {
+            best = verticalTime;
+            kind = verticalKind;
+        }
+        best = Math.max(0, best);
+        int brick = -1;
+        if (kind != NONE && bricksLeft > 0) {
+            // only the bricks in the cells the ball crosses before reaching a wall
+            double endX = x + vx * best;
+            double endY = y + vy * best;
+            int firstColumn = Math.max(0, (int) Math.floor((Math.min(x, endX) - gridLeft) / cellWidth));
+            int lastColumn = Math.min(gridColumns - 1,
+                    (int) Math.floor((Math.max(x, endX) + ballSize - gridLeft) / cellWidth));
+            int firstRow = Math.max(0, (int) Math.floor((Math.min(y, endY) - gridTop) / cellHeight));
+            int lastRow = Math.min(gridRows - 1,
+                    (int) Math.floor((Math.max(y, endY) + ballSize - gridTop) / cellHeight));
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    int index = row * gridColumns + column;
+                    if (index >= brickAlive.length || !brickAlive[index]) {
+                        continue;
+                    }
+                    double left = gridLeft + column * cellWidth;
+                    double top = gridTop + row * cellHeight;
+                    // the ball's top left corner against the brick grown by the ball's size
+                    double enterX = slabEnter(x, vx, left - ballSize, left + brickWidth);
+                    double exitX = slabExit(x, vx, left - ballSize, left + brickWidth);
+                    double enterY = slabEnter(y, vy, top - ballSize, top + brickHeight);
+                    double exitY = slabExit(y, vy, top - ballSize, top + brickHeight);
+                    double enter = Math.max(enterX, enterY);
+                    double exit = Math.min(exitX, exitY);
+                    if (enter < exit && exit > EPSILON_TIME && enter >= -EPSILON_TIME && enter < best) {
+                        best = Math.max(0, enter);
+                        kind = enterX > enterY ? BRICK_SIDE : BRICK_FACE;
+                        brick = index;
+                    }
+                }
+            }
+        }
+        nextTime[body] = kind == NONE ? Double.POSITIVE_INFINITY : time + best;
+        nextKind[body] = kind;
+        nextBrick[body] = brick;
+    }
+
+    /**
+     * @return The time a point moving along an axis enters [min, max].
+     */
+    private static double slabEnter(double position, double velocity, double min, double max) {
+        if (velocity == 0) {
+            return position > min && position < max ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return Math.min((min - position) / velocity, (max - position) / velocity);
+    }
+
+    /**
+     * @return The time a point moving along an axis leaves [min, max].
+     */
+    private static double slabExit(double position, double velocity, double min, double max) {
+        if (velocity == 0) {
+            return position > min && position < max ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        return Math.max((min - position) / velocity, (max - position) / velocity);
+    }
+
+    /**
+     * Moves the paddle towards where the first ball will cross its row, folding the ball's path over the
+     * side walls and the ceiling and ignoring the bricks in its way.
+     */
+    private void retargetPaddle() {
+        if (!hasPaddle || !paddleTracking || count == 0) {
+            return;
+        }
+        paddleX = paddleCenterX();
+        paddleSince = time;
+        double radius = size[0] / 2;
+        double centerX = centerX(0);
+        double centerY = centerY(0);
+        double rowY = paddleTop - radius;
+        double distance;
+        if (velocityY[0] > 0 && centerY <= rowY) {
+            distance = rowY - centerY;
+        } else if (velocityY[0] < 0) {
+            double ceiling = fieldTop + radius;
+            distance = (centerY - ceiling) + (rowY - ceiling);
+        } else {
+            return;
+        }
+        double crossing = fold(centerX + velocityX[0] * distance / Math.abs(velocityY[0]),
+                fieldLeft + radius, fieldRight - radius);
+        paddleTarget = Math.max(fieldLeft + paddleWidth / 2, Math.min(crossing, fieldRight - paddleWidth / 2));
+    }
+
+    /**
+     * Folds an unbounded coordinate into [min, max], as if it reflected off walls at both ends.
+     */
+    private static double fold(double x, double min, double max) {
+        double width = max - min;
+        if (width <= 0) {
+            return min;
+        }
+        double period = 2 * width;
+        double offset = (x - min) % period;
+        if (offset < 0) {
+            offset += period;
+        }
+        if (offset > width) {
+            offset = period - offset;
+        }
+        return min + offset;
+    }
+
+    private void grow(int capacity) {
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        size = Arrays.copyOf(size, capacity);
+        since = Arrays.copyOf(since, capacity);
+        belowPaddle = Arrays.copyOf(belowPaddle, capacity);
+        nextTime = Arrays.copyOf(nextTime, capacity);
+        nextKind = Arrays.copyOf(nextKind, capacity);
+        nextBrick = Arrays.copyOf(nextBrick, capacity);
+    }
+}
@@ -0,0 +1,478 @@
+package bricker.physics;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+import danogl.collisions.Layer;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+
+/**
+ * Finds all the contacts of a game itself, with danogl's collisions turned off: the contacts between moving
+ * objects by a {@link SweepAndPrune}, and those of moving objects with walls and bricks by an index of the
+ * static objects.
+ * <p>
+ * The static objects are kept sorted by their top edge, so the ones a moving object may touch are found by a
+ * binary search and a scan down to its bottom edge, however tall the level. Objects much taller than the
+ * others, the walls, are kept apart and tested against every moving object. Static objects do not move, so
+ * the index is only rebuilt when objects are added to the static layer, which the game tells by
+ * {@link #staticObjectsChanged()}: on level start, and when bricks are put back by a snapshot or a rewind. A
+ * rebuild reads the static layer in its order, which is nearly sorted, so it takes close to linear time.
+ * <p>
+ * A {@link Destructible} object that is destroyed, a hit brick, stays in the index as a tombstone that queries
+ * skip, however it was destroyed. Once a quarter of the index are tombstones known from contacts, they are
+ * dropped in a single pass that keeps the order, so destroying a brick never sorts the index again.
+ * <p>
+ * The backend also moves the {@link ParallelMoving} objects of a frame itself, the ball, mock balls and falling
+ * hearts: their positions and velocities are read into arrays when the first of them is updated, integrated
+ * there, and written back, the same way danogl's update would move each of them. Paddles set their velocity
+ * in their own update, so they move themselves.
+ * <p>
+ * A moving object and a static object that start touching are both told, once, like danogl's collision
+ * enter events, if they are {@link ContactHandler}s, both agree to collide by
+ * {@link GameObject#shouldCollideWith(GameObject)} and the {@link CollisionMatrix} lets their categories
+ * collide.
+ */
+public class IndexedBackend implements PhysicsBackend {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final float TALL_FACTOR = 4; // objects this many times taller than the shortest one are tall
+    private static final int COMPACT_DIVISOR = 4; // the index is compacted once this fraction are tombstones
+    private static final Vector2 NORMAL_LEFT = new Vector2(-1, 0);
+    private static final Vector2 NORMAL_RIGHT = new Vector2(1, 0);
+    private static final Vector2 NORMAL_UP = new Vector2(0, -1);
+    private static final Vector2 NORMAL_DOWN = new Vector2(0, 1);
+    private static final Comparator<Entry> BY_TOP = (first, second) -> Float.compare(first.minY, second.minY);
+
+    private final CollisionMatrix collisionMatrix;
+    private final SweepAndPrune broadphase;
+    private final IdentityHashMap<GameObject, Entry> tracked = new IdentityHashMap<>(); // static and moving
+    private int nextId = 0;
+    private int frame = 0;
+
+    // the static objects
+    private Entry[] statics = new Entry[INITIAL_CAPACITY]; // sorted by the top edge, tall ones excluded
+    private int staticCount = 0;
+    private Entry[] tallStatics = new Entry[INITIAL_CAPACITY];
+    private int tallCount = 0;
+    private float maxStaticHeight = 0; // of the ones that are not tall
+    private boolean staticsChanged = true;
+    private int tombstones = 0; // destroyed static objects known to be in the index
+    private int rebuilds = 0;
+
+    // the contacts of moving with static objects
+    private Entry[] moving = new Entry[INITIAL_CAPACITY];
+    private int movingCount = 0;
+    private PairSet touching = new PairSet();
+    private PairSet wasTouching = new PairSet();
+    private Entry[] contactMoving = new Entry[INITIAL_CAPACITY]; // new contacts, told once all are found
+    private Entry[] contactStatic = new Entry[INITIAL_CAPACITY];
+    private int contactCount = 0;
+
+    private final Integrator integrator = new Integrator();
+
+    /**
+     * Constructs the backend.
+     *
+     * @param collisionMatrix Declares which categories of objects can collide.
+     */
+    public IndexedBackend(CollisionMatrix collisionMatrix) {
+        this.collisionMatrix = collisionMatrix;
+        this.broadphase = new SweepAndPrune(collisionMatrix);
+    }
+
+    /**
+     * Turns danogl's collisions of moving objects off, with each other and with the static objects.
+     *
+     * @param gameObjects The objects of the game.
+     */
+    @Override
+    public void attach(GameObjectCollection gameObjects) {
+        gameObjects.layers().shouldLayersCollide(Layer.DEFAULT, Layer.DEFAULT, false);
+        gameObjects.layers().shouldLayersCollide(Layer.DEFAULT, Layer.STATIC_OBJECTS, false);
+        staticsChanged = true;
+    }
+
+    /**
+     * Joins the {@link ParallelMoving} objects of the frame to the backend's batch, which moves them when the
+     * first of them is updated.
+     *
+     * @param movingObjects The objects of the default layer.
+     * @param deltaTime     Time elapsed since the last frame.
+     * @return True.
+     */
+    @Override
+    public boolean integrate(Iterable<GameObject> movingObjects, float deltaTime) {
+        integrator.begin(movingObjects, deltaTime);
+        return true;
+    }
+
+    /**
+     * Finds the contacts between moving objects, and of moving objects with static ones, and tells the
+     * objects about the new ones.
+     *
+     * @param gameObjects The objects of the game.
+     */
+    @Override
+    public void findContacts(GameObjectCollection gameObjects) {
+        findContacts(gameObjects.objectsInLayer(Layer.DEFAULT), gameObjects.objectsInLayer(Layer.STATIC_OBJECTS));
+    }
+
+    /**
+     * Finds the contacts of a frame between objects given by their layers.
+     *
+     * @param movingObjects The objects of the default layer.
+     * @param staticObjects The objects of the static layer, only read when the index is rebuilt.
+     */
+    void findContacts(Iterable<GameObject> movingObjects, Iterable<GameObject> staticObjects) {
+        broadphase.update(movingObjects);
+        if (staticsChanged) {
+            indexStatics(staticObjects);
+        } else if (tombstones > staticCount / COMPACT_DIVISOR) {
+            compactStatics();
+        }
+        frame++;
+        PairSet previous = wasTouching;
+        wasTouching = touching;
+        touching = previous;
+        touching.clear();
+        contactCount = 0;
+        movingCount = 0;
+        for (GameObject gameObject : movingObjects) {
+            Entry entry = entryOf(gameObject);
+            entry.seenFrame = frame;
+            entry.readBounds();
+            addMoving(entry);
+            for (int i = 0; i < tallCount; i++) {
+                test(entry, tallStatics[i]);
+            }
+            for (int i = firstStaticBelow(entry.minY - maxStaticHeight); i < staticCount; i++) {
+                Entry other = statics[i];
+                if (other.minY > entry.maxY) {
+                    break;
+                }
+                test(entry, other);
+            }
+        }
+        tellContacts();
+        forgetUnseen();
+    }
+
+    /**
+     * Makes the next frame rebuild the index of the static objects, after objects were added to the static
+     * layer or removed from it other than by being destroyed.
+     */
+    @Override
+    public void staticObjectsChanged() {
+        staticsChanged = true;
+    }
+
+    /**
+     * @return The broadphase finding the contacts between moving objects.
+     */
+    @Override
+    public SweepAndPrune getBroadphase() {
+        return broadphase;
+    }
+
+    /**
+     * @return The number of static objects indexed, tall ones included.
+     */
+    public int getIndexedStatics() {
+        return staticCount + tallCount;
+    }
+
+    /**
+     * @return The number of times the index of the static objects was built.
+     */
+    public int getRebuilds() {
+        return rebuilds;
+    }
+
+    private void test(Entry movingEntry, Entry staticEntry) {
+        if (staticEntry.maxY < movingEntry.minY || staticEntry.minX > movingEntry.maxX
+                || movingEntry.minX > staticEntry.maxX) {
+            return;
+        }
+        if (staticEntry.destructible != null && staticEntry.destructible.isDestroyed()) {
+            return; // a tombstone
+        }
+        if ((movingEntry.mask & staticEntry.bit) == 0 || (staticEntry.mask & movingEntry.bit) == 0) {
+            return;
+        }
+        if (!movingEntry.gameObject.shouldCollideWith(staticEntry.gameObject)
+                || !staticEntry.gameObject.shouldCollideWith(movingEntry.gameObject)) {
+            return;
+        }
+        touching.add(movingEntry.id, staticEntry.id);
+        if (!wasTouching.contains(movingEntry.id, staticEntry.id)) {
+            if (contactCount == contactMoving.length) {
+                contactMoving = Arrays.copyOf(contactMoving, contactCount * 2);
+                contactStatic = Arrays.copyOf(contactStatic, contactCount * 2);
+            }
+            contactMoving[contactCount] = movingEntry;
+            contactStatic[contactCount] = staticEntry;
+            contactCount++;
+        }
+    }
+
+    /**
+     * Tells the objects about the new contacts, after all are found, since they may add or remove objects.
+     */
+    private void tellContacts() {
+        for (int i = 0; i < contactCount; i++) {
+            Entry movingEntry = contactMoving[i];
+            Entry staticEntry = contactStatic[i];
+            Vector2 normal = normalOf(movingEntry, staticEntry);
+            if (movingEntry.gameObject instanceof ContactHandler) {
+                ((ContactHandler) movingEntry.gameObject).onContact(staticEntry.gameObject, normal);
+            }
+            if (staticEntry.gameObject instanceof ContactHandler) {
+                ((ContactHandler) staticEntry.gameObject).onContact(movingEntry.gameObject, opposite(normal));
+                if (staticEntry.destructible != null && staticEntry.destructible.isDestroyed()
+                        && !staticEntry.tombstone) {
+                    staticEntry.tombstone = true; // a hit brick left the wall
+                    tombstones++;
+                }
+            }
+            contactMoving[i] = null;
+            contactStatic[i] = null;
+        }
+    }
+
+    /**
+     * Rebuilds the index from the static objects in the game, reusing the entries of those already indexed.
+     */
+    private void indexStatics(Iterable<GameObject> gameObjects) {
+        staticCount = 0;
+        tallCount = 0;
+        for (GameObject gameObject : gameObjects) {
+            Entry entry = entryOf(gameObject);
+            entry.seenFrame = frame + 1; // the frame being found
+            entry.tombstone = false; // a brick put back
+            entry.readBounds();
+            if (staticCount == statics.length) {
+                statics = Arrays.copyOf(statics, staticCount * 2);
+            }
+            statics[staticCount++] = entry;
+        }
+        // the first brick or wall sets the scale for the tall ones, the walls are added first and are tall
+        float referenceHeight = Float.MAX_VALUE;
+        for (int i = 0; i < staticCount; i++) {
+            referenceHeight = Math.min(referenceHeight, statics[i].maxY - statics[i].minY);
+        }
+        int kept = 0;
+        maxStaticHeight = 0;
+        for (int i = 0; i < staticCount; i++) {
+            Entry entry = statics[i];
+            float height = entry.maxY - entry.minY;
+            if (height > referenceHeight * TALL_FACTOR) {
+                if (tallCount == tallStatics.length) {
+                    tallStatics = Arrays.copyOf(tallStatics, tallCount * 2);
+                }
+                tallStatics[tallCount++] = entry;
+            } else {
+                statics[kept++] = entry;
+                maxStaticHeight = Math.max(maxStaticHeight, height);
+            }
+        }
+        Arrays.fill(statics, kept, staticCount, null);
+        staticCount = kept;
+        Arrays.sort(statics, 0, staticCount, BY_TOP); // nearly sorted already, merged in runs
+        staticsChanged = false;
+        tombstones = 0;
+        rebuilds++;
+    }
+
+    /**
+     * Drops the destroyed objects from the index, keeping the others in their order.
+     */
+    private void compactStatics() {
+        int kept = 0;
+        for (int i = 0; i < staticCount; i++) {
+            Entry entry = statics[i];
+            if (entry.destructible == null || !entry.destructible.isDestroyed()) {
+                statics[kept++] = entry;
+            }
+        }
+        Arrays.fill(statics, kept, staticCount, null);
+        staticCount = kept;
+        tombstones = 0;
+    }
+
+    /**
+     * @return The index of the first static object whose top edge is at or below y, or the number of them.
+     */
+    private int firstStaticBelow(float y) {
+        int low = 0;
+        int high = staticCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (statics[middle].minY < y) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Entry entryOf(GameObject gameObject) {
+        Entry entry = tracked.get(gameObject);
+        if (entry == null) {
+            entry = new Entry(gameObject, nextId++, CollisionMatrix.bitOf(gameObject),
+                    collisionMatrix.maskOf(gameObject));
+            tracked.put(gameObject, entry);
+        }
+        return entry;
+    }
+
+    private void addMoving(Entry entry) {
+        if (movingCount == moving.length) {
+            moving = Arrays.copyOf(moving, movingCount * 2);
+        }
+        moving[movingCount++] = entry;
+    }
+
+    /**
+     * Forgets the objects that were neither moving on this frame nor indexed as static, such as removed
+     * mock balls and bricks.
+     */
+    private void forgetUnseen() {
+        if (tracked.size() == movingCount + staticCount + tallCount) {
+            return;
+        }
+        tracked.values().removeIf(entry -> entry.seenFrame < frame);
+        for (int i = 0; i < staticCount; i++) {
+            tracked.put(statics[i].gameObject, statics[i]);
+        }
+        for (int i = 0; i < tallCount; i++) {
+            tracked.put(tallStatics[i].gameObject, tallStatics[i]);
+        }
+    }
+
+    /**
+     * Returns the normal pointing from the static object to the moving one, along the axis they overlap
+     * less on.
+     */
+    private static Vector2 normalOf(Entry movingEntry, Entry staticEntry) {
+        float overlapX = Math.min(movingEntry.maxX, staticEntry.maxX) - Math.max(movingEntry.minX, staticEntry.minX);
+        float overlapY = Math.min(movingEntry.maxY, staticEntry.maxY) - Math.max(movingEntry.minY, staticEntry.minY);
+        if (overlapX < overlapY) {
+            return movingEntry.minX + movingEntry.maxX < staticEntry.minX + staticEntry.maxX
+                   ? NORMAL_LEFT : NORMAL_RIGHT;
+        }
+        return movingEntry.minY + movingEntry.maxY < staticEntry.minY + staticEntry.maxY ? NORMAL_UP : NORMAL_DOWN;
+    }
+
+    private static Vector2 opposite(Vector2 normal) {
+        if (normal == NORMAL_LEFT) {
+            return NORMAL_RIGHT;
+        }
+        if (normal == NORMAL_RIGHT) {
+            return NORMAL_LEFT;
+        }
+        return normal == NORMAL_UP ? NORMAL_DOWN : NORMAL_UP;
+    }
+
+    /**
+     * Moves the objects of a frame over arrays of their positions and velocities, read when the first of them
+     * is updated so that anything updated before it still changes their velocity, as in their own updates.
+     */
+    private static final class Integrator implements MoveBatch {
+        private GameObject[] bodies = new GameObject[INITIAL_CAPACITY];
+        private float[] x = new float[INITIAL_CAPACITY];
+        private float[] y = new float[INITIAL_CAPACITY];
+        private float[] velocityX = new float[INITIAL_CAPACITY];
+        private float[] velocityY = new float[INITIAL_CAPACITY];
+        private int count = 0;
+        private float deltaTime;
+        private boolean moved = true; // whether the bodies of this frame were moved
+
+        private void begin(Iterable<GameObject> objects, float deltaTime) {
+            Arrays.fill(bodies, 0, count, null);
+            count = 0;
+            for (GameObject gameObject : objects) {
+                if (gameObject instanceof ParallelMoving) {
+                    if (count == bodies.length) {
+                        bodies = Arrays.copyOf(bodies, count * 2);
+                    }
+                    bodies[count++] = gameObject;
+                    ((ParallelMoving) gameObject).joinBatch(this);
+                }
+            }
+            this.deltaTime = deltaTime;
+            moved = count == 0;
+        }
+
+        /**
+         * Reads the bodies of the frame, moves them by their velocities and writes their positions back.
+         */
+        @Override
+        public void awaitMoves() {
+            if (moved) {
+                return;
+            }
+            moved = true;
+            if (x.length < count) {
+                x = new float[bodies.length];
+                y = new float[bodies.length];
+                velocityX = new float[bodies.length];
+                velocityY = new float[bodies.length];
+            }
+            for (int i = 0; i < count; i++) {
+                Vector2 topLeft = bodies[i].getTopLeftCorner();
+                Vector2 velocity = bodies[i].getVelocity();
+                x[i] = topLeft.x();
+                y[i] = topLeft.y();
+                velocityX[i] = velocity.x();
+                velocityY[i] = velocity.y();
+            }
+            for (int i = 0; i < count; i++) {
+                x[i] += velocityX[i] * deltaTime;
+                y[i] += velocityY[i] * deltaTime;
+            }
+            for (int i = 0; i < count; i++) {
+                if (velocityX[i] != 0 || velocityY[i] != 0) {
+                    bodies[i].setTopLeftCorner(new Vector2(x[i], y[i]));
+                }
+            }
+        }
+    }
+
+    /**
+     * A tracked object with its bounding box, read every frame for a moving object and on every rebuild of
+     * the index for a static one.
+     */
+    private static final class Entry {
+        private final GameObject gameObject;
+        private final int id; // identifies the object in pairs
+        private final int bit; // the bit of the object's collision category
+        private final int mask; // the bits of the categories the object collides with
+        private final Destructible destructible; // the object if it can be destroyed, or null
+        private boolean tombstone = false; // whether the object was counted as destroyed in the index
+        private int seenFrame;
+        private float minX;
+        private float maxX;
+        private float minY;
+        private float maxY;
+
+        private Entry(GameObject gameObject, int id, int bit, int mask) {
+            this.gameObject = gameObject;
+            this.id = id;
+            this.bit = bit;
+            this.mask = mask;
+            this.destructible = gameObject instanceof Destructible ? (Destructible) gameObject : null;
+        }
+
+        private void readBounds() {
+            Vector2 topLeft = gameObject.getTopLeftCorner();
+            Vector2 dimensions = gameObject.getDimensions();
+            minX = topLeft.x();
+            minY = topLeft.y();
+            maxX = minX + dimensions.x();
+            maxY = minY + dimensions.y();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package bricker.physics;
+
+/**
+ * A game object that gathers its contacts of a step in a {@link ContactManifold} and responds to all of them
+ * at once, when a {@link ContactAggregator} tells it the step's contacts are all known.
+ */
+public interface ManifoldResponder {
+    /**
+     * Responds to the contacts gathered in this step, and clears them for the next one.
+     */
+    void respondToContacts();
+}
@@ -0,0 +1,13 @@
+package bricker.physics;
+
+/**
+ * The objects of a frame moved together rather than each in its own update, by a {@link ParallelUpdate} or
+ * by the integration of an {@link IndexedBackend}. The first of them to be updated waits for the batch, and
+ * the batch moves all of them at once.
+ */
+public interface MoveBatch {
+    /**
+     * Moves all the objects of the frame, unless they were already moved, and returns when they all are.
+     */
+    void awaitMoves();
+}
@@ -0,0 +1,99 @@
+package bricker.physics;
+
+import java.util.Arrays;
+
+/**
+ * A set of pairs of ids, kept in an open addressing table of longs so adding a pair allocates nothing
+ * once the table is large enough.
+ */
+class PairSet {
+    private static final long EMPTY = -1L;
+    private static final int INITIAL_CAPACITY = 64; // a power of two
+
+    private long[] keys = newTable(INITIAL_CAPACITY);
+    private int size = 0;
+
+    /**
+     * Adds a pair, in any order of its ids.
+     *
+     * @return True if the pair was not in the set.
+     */
+    boolean add(int firstId, int secondId) {
+        if (2 * (size + 1) > keys.length) {
+            grow();
+        }
+        if (!insert(keys, key(firstId, secondId))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * @return True if the pair is in the set, in any order of its ids.
+     */
+    boolean contains(int firstId, int secondId) {
+        long key = key(firstId, secondId);
+        int mask = keys.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return The number of pairs in the set.
+     */
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private boolean insert(long[] table, long key) {
+        int mask = table.length - 1;
+        for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+            if (table[slot] == key) {
+                return false;
+            }
+            if (table[slot] == EMPTY) {
+                table[slot] = key;
+                return true;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = newTable(old.length * 2);
+        for (long key : old) {
+            if (key != EMPTY) {
+                insert(keys, key);
+            }
+        }
+    }
+
+    private static long key(int firstId, int secondId) {
+        int low = Math.min(firstId, secondId);
+        int high = Math.max(firstId, secondId);
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] table = new long[capacity];
+        Arrays.fill(table, EMPTY);
+        return table;
+    }
+}
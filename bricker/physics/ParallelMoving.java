@@ -0,0 +1,23 @@
+package bricker.physics;
+
+/**
+ * A game object whose movement in a frame depends only on its own state, so it can be moved on another
+ * thread by a {@link ParallelUpdate}, side by side with other such objects, or by a physics backend that
+ * integrates the moving objects itself.
+ */
+public interface ParallelMoving {
+    /**
+     * Moves the object by a frame. Called on a worker thread, so it must only change the object itself.
+     *
+     * @param deltaTime Time elapsed since the last frame.
+     */
+    void moveInParallel(float deltaTime);
+
+    /**
+     * Tells the object that the batch will move it this frame, so its own update waits for the batch
+     * instead of moving it.
+     *
+     * @param batch The batch moving the object.
+     */
+    void joinBatch(MoveBatch batch);
+}
@@ -0,0 +1,116 @@
+package bricker.physics;
+
+import bricker.metrics.AllocationProfiler;
+import danogl.GameObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Moves the independent objects of a frame, such as mock balls and falling hearts, in parallel on a
+ * {@link ForkJoinPool}, split into chunks of a fixed size.
+ * <p>
+ * Before the game objects are updated, {@link #begin(Iterable, float)} collects the {@link ParallelMoving}
+ * objects. The first of them to be updated moves all of them at once by {@link #awaitMoves()}, and every
+ * one of them then does the rest of its update on the game loop thread, in the order of the game objects:
+ * removing itself, counting, recording events. Objects updated before the first of them never see them
+ * moved, and the ones between them do not read them, so a frame ends exactly as if every object was moved
+ * in its own update. Collisions and the objects they spawn are handled after all the updates, as always.
+ */
+public class ParallelUpdate implements MoveBatch {
+    private final ForkJoinPool pool;
+    private final int chunkSize; // objects moved by one task, fewer are moved on the calling thread
+    private final List<ParallelMoving> batch = new ArrayList<>();
+    private float deltaTime;
+    private boolean moved = true; // whether the batch of this frame was moved
+
+    /**
+     * Constructs a parallel update.
+     *
+     * @param pool      The pool the objects are moved on.
+     * @param chunkSize The number of objects a single task moves.
+     */
+    public ParallelUpdate(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("bad chunk size " + chunkSize);
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Collects the objects to move in this frame, before the game objects are updated.
+     *
+     * @param objects   The objects updated this frame, of which the {@link ParallelMoving} ones are moved.
+     * @param deltaTime Time elapsed since the last frame.
+     */
+    public void begin(Iterable<GameObject> objects, float deltaTime) {
+        batch.clear();
+        for (GameObject gameObject : objects) {
+            if (gameObject instanceof ParallelMoving) {
+                ParallelMoving moving = (ParallelMoving) gameObject;
+                moving.joinBatch(this);
+                batch.add(moving);
+            }
+        }
+        this.deltaTime = deltaTime;
+        moved = batch.isEmpty();
+    }
+
+    /**
+     * Moves all the objects of the frame, unless they were already moved, and returns when they all are.
+     */
+    @Override
+    public void awaitMoves() {
+        if (moved) {
+            return;
+        }
+        moved = true;
+        if (batch.size() <= chunkSize) {
+            moveRange(0, batch.size());
+        } else {
+            pool.invoke(new MoveTask(0, batch.size()));
+        }
+    }
+
+    /**
+     * @return The number of objects moved in the current frame.
+     */
+    public int getBatchSize() {
+        return batch.size();
+    }
+
+    private void moveRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            batch.get(i).moveInParallel(deltaTime);
+        }
+    }
+
+    /**
+     * Moves a range of the batch, splitting it in halves until a half fits in a chunk.
+     */
+    private class MoveTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        MoveTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            AllocationProfiler.countWorker();
+            if (to - from <= chunkSize) {
+                moveRange(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new MoveTask(from, middle), new MoveTask(middle, to));
+        }
+    }
+}
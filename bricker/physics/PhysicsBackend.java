@@ -0,0 +1,51 @@
+package bricker.physics;
+
+import danogl.GameObject;
+import danogl.collisions.GameObjectCollection;
+
+/**
+ * Finds the contacts between the objects of a game and tells the objects about them, so the collision
+ * machinery can be swapped without the objects knowing which one runs.
+ * <p>
+ * Either way an object is told the same: a {@link ContactHandler} gets {@link ContactHandler#onContact}
+ * once when it starts touching another object, and a brick passes the hit on to its collision strategy. The
+ * objects move before the contacts of the frame are found: in their own updates, or, for the
+ * {@link ParallelMoving} ones of a backend that {@link #integrate integrates} them, all at once by the backend
+ * when the first of them is updated.
+ */
+public interface PhysicsBackend {
+    /**
+     * Sets the backend up for a new game, before the objects are added.
+     *
+     * @param gameObjects The objects of the game.
+     */
+    void attach(GameObjectCollection gameObjects);
+
+    /**
+     * Takes the movement of the {@link ParallelMoving} objects of a frame over, before the objects are updated.
+     *
+     * @param movingObjects The objects of the default layer.
+     * @param deltaTime     Time elapsed since the last frame.
+     * @return True if the backend moves the objects this frame, false if they are left to move themselves.
+     */
+    boolean integrate(Iterable<GameObject> movingObjects, float deltaTime);
+
+    /**
+     * Finds the contacts of a frame that danogl does not, after the objects moved, and tells the objects.
+     *
+     * @param gameObjects The objects of the game.
+     */
+    void findContacts(GameObjectCollection gameObjects);
+
+    /**
+     * Tells the backend that static objects entered or left the game other than by a contact, such as bricks
+     * put back by a loaded snapshot.
+     */
+    void staticObjectsChanged();
+
+    /**
+     * @return The broadphase finding the contacts between moving objects, for its pair counts, or null if
+     *         danogl finds them.
+     */
+    SweepAndPrune getBroadphase();
+}
@@ -0,0 +1,11 @@
+package bricker.physics;
+
+/**
+ * The {@link PhysicsBackend}s a game can run on.
+ */
+public enum PhysicsBackendType {
+    /** danogl finds the contacts, see {@link DanoglBackend}. */
+    DANOGL,
+    /** The game moves the bodies and finds all the contacts itself, see {@link IndexedBackend}. */
+    INDEXED
+}
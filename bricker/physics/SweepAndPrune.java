@@ -0,0 +1,271 @@
+package bricker.physics;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Finds the contacts between moving objects by sort and sweep on the x axis.
+ * <p>
+ * The objects are kept sorted by the left edge of their bounding box. Objects move little between frames,
+ * so the order of the previous frame is almost right and an insertion sort fixes it in close to linear time.
+ * Sweeping the sorted objects, only the pairs whose x ranges overlap are tested on the y axis, and a pair
+ * that overlaps on both and did not overlap on the previous frame is a new contact. Like danogl's collision
+ * enter events, both objects of a new contact are told about it once, if they are {@link ContactHandler}s and
+ * both agree to collide by {@link GameObject#shouldCollideWith(GameObject)}. Pairs whose categories cannot
+ * collide by the {@link CollisionMatrix} are dropped first, by the masks kept with the objects.
+ */
+public class SweepAndPrune {
+    private static final int INITIAL_CAPACITY = 64;
+    private static final Vector2 NORMAL_LEFT = new Vector2(-1, 0);
+    private static final Vector2 NORMAL_RIGHT = new Vector2(1, 0);
+    private static final Vector2 NORMAL_UP = new Vector2(0, -1);
+    private static final Vector2 NORMAL_DOWN = new Vector2(0, 1);
+
+    private final CollisionMatrix collisionMatrix;
+    private final IdentityHashMap<GameObject, Entry> tracked = new IdentityHashMap<>();
+    private Entry[] entries = new Entry[INITIAL_CAPACITY]; // sorted by the left edge
+    private int count = 0;
+    private int nextId = 0;
+    private int frame = 0;
+    private PairSet touching = new PairSet(); // pairs that overlap on this frame
+    private PairSet wasTouching = new PairSet(); // pairs that overlapped on the previous frame
+    private Entry[] contactFirst = new Entry[INITIAL_CAPACITY]; // new contacts, told once the sweep is over
+    private Entry[] contactSecond = new Entry[INITIAL_CAPACITY];
+    private int contactCount = 0;
+
+    // metrics of the last frame
+    private int candidatePairs = 0;
+    private int filteredPairs = 0;
+    private int sortShifts = 0;
+
+    /**
+     * Constructs an empty broadphase.
+     *
+     * @param collisionMatrix Declares which categories of objects can collide.
+     */
+    public SweepAndPrune(CollisionMatrix collisionMatrix) {
+        this.collisionMatrix = collisionMatrix;
+    }
+
+    /**
+     * Finds the contacts between the given objects, and tells both objects of every new contact about it.
+     * Objects that were tracked on the previous frame but are not given now are forgotten.
+     *
+     * @param objects The moving objects, already moved for this frame.
+     */
+    public void update(Iterable<GameObject> objects) {
+        frame++;
+        for (GameObject gameObject : objects) {
+            Entry entry = tracked.get(gameObject);
+            if (entry == null) {
+                entry = new Entry(gameObject, nextId++, CollisionMatrix.bitOf(gameObject),
+                        collisionMatrix.maskOf(gameObject));
+                tracked.put(gameObject, entry);
+                append(entry);
+            }
+            entry.seenFrame = frame;
+            entry.readBounds();
+        }
+        forgetUnseen();
+        sort();
+        sweep();
+        tellContacts();
+    }
+
+    /**
+     * @return The number of objects tracked on the last frame.
+     */
+    public int getTrackedObjects() {
+        return count;
+    }
+
+    /**
+     * @return The number of pairs whose x ranges overlapped on the last frame, the pairs tested on the y axis.
+     */
+    public int getCandidatePairs() {
+        return candidatePairs;
+    }
+
+    /**
+     * @return The number of pairs tested on the last frame that the collision matrix dropped.
+     */
+    public int getFilteredPairs() {
+        return filteredPairs;
+    }
+
+    /**
+     * @return The number of pairs that overlapped and agreed to collide on the last frame.
+     */
+    public int getTouchingPairs() {
+        return touching.size();
+    }
+
+    /**
+     * @return The number of pairs that started touching on the last frame.
+     */
+    public int getNewContacts() {
+        return contactCount;
+    }
+
+    /**
+     * @return The number of places objects moved by the insertion sort on the last frame.
+     */
+    public int getSortShifts() {
+        return sortShifts;
+    }
+
+    private void append(Entry entry) {
+        if (count == entries.length) {
+            entries = Arrays.copyOf(entries, count * 2);
+        }
+        entries[count++] = entry;
+    }
+
+    /**
+     * Removes the objects that were not given on this frame, keeping the order of the others.
+     */
+    private void forgetUnseen() {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            Entry entry = entries[i];
+            if (entry.seenFrame == frame) {
+                entries[kept++] = entry;
+            } else {
+                tracked.remove(entry.gameObject);
+            }
+        }
+        Arrays.fill(entries, kept, count, null);
+        count = kept;
+    }
+
+    private void sort() {
+        sortShifts = 0;
+        for (int i = 1; i < count; i++) {
+            Entry entry = entries[i];
+            int j = i - 1;
+            while (j >= 0 && entries[j].minX > entry.minX) {
+                entries[j + 1] = entries[j];
+                j--;
+                sortShifts++;
+            }
+            entries[j + 1] = entry;
+        }
+    }
+
+    private void sweep() {
+        PairSet previous = wasTouching;
+        wasTouching = touching;
+        touching = previous;
+        touching.clear();
+        candidatePairs = 0;
+        filteredPairs = 0;
+        contactCount = 0;
+        for (int i = 0; i < count; i++) {
+            Entry first = entries[i];
+            for (int j = i + 1; j < count && entries[j].minX <= first.maxX; j++) {
+                candidatePairs++;
+                Entry second = entries[j];
+                if ((first.mask & second.bit) == 0) {
+                    filteredPairs++;
+                    continue;
+                }
+                if (second.minY > first.maxY || first.minY > second.maxY) {
+                    continue;
+                }
+                if (!first.gameObject.shouldCollideWith(second.gameObject)
+                        || !second.gameObject.shouldCollideWith(first.gameObject)) {
+                    continue;
+                }
+                touching.add(first.id, second.id);
+                if (!wasTouching.contains(first.id, second.id)) {
+                    addContact(first, second);
+                }
+            }
+        }
+    }
+
+    private void addContact(Entry first, Entry second) {
+        if (contactCount == contactFirst.length) {
+            contactFirst = Arrays.copyOf(contactFirst, contactCount * 2);
+            contactSecond = Arrays.copyOf(contactSecond, contactCount * 2);
+        }
+        contactFirst[contactCount] = first;
+        contactSecond[contactCount] = second;
+        contactCount++;
+    }
+
+    /**
+     * Tells the objects about the new contacts, after the sweep, since they may add or remove objects.
+     */
+    private void tellContacts() {
+        for (int i = 0; i < contactCount; i++) {
+            Entry first = contactFirst[i];
+            Entry second = contactSecond[i];
+            Vector2 normal = normalOf(first, second);
+            if (first.gameObject instanceof ContactHandler) {
+                ((ContactHandler) first.gameObject).onContact(second.gameObject, normal);
+            }
+            if (second.gameObject instanceof ContactHandler) {
+                ((ContactHandler) second.gameObject).onContact(first.gameObject, opposite(normal));
+            }
+            contactFirst[i] = null;
+            contactSecond[i] = null;
+        }
+    }
+
+    /**
+     * Returns the normal pointing from the second object to the first, along the axis they overlap less on.
+     */
+    private static Vector2 normalOf(Entry first, Entry second) {
+        float overlapX = Math.min(first.maxX, second.maxX) - Math.max(first.minX, second.minX);
+        float overlapY = Math.min(first.maxY, second.maxY) - Math.max(first.minY, second.minY);
+        if (overlapX < overlapY) {
+            return first.minX + first.maxX < second.minX + second.maxX ? NORMAL_LEFT : NORMAL_RIGHT;
+        }
+        return first.minY + first.maxY < second.minY + second.maxY ? NORMAL_UP : NORMAL_DOWN;
+    }
+
+    private static Vector2 opposite(Vector2 normal) {
+        if (normal == NORMAL_LEFT) {
+            return NORMAL_RIGHT;
+        }
+        if (normal == NORMAL_RIGHT) {
+            return NORMAL_LEFT;
+        }
+        return normal == NORMAL_UP ? NORMAL_DOWN : NORMAL_UP;
+    }
+
+    /**
+     * A tracked object with its bounding box on the current frame.
+     */
+    private static final class Entry {
+        private final GameObject gameObject;
+        private final int id; // identifies the object in pairs
+        private final int bit; // the bit of the object's collision category
+        private final int mask; // the bits of the categories the object collides with
+        private int seenFrame;
+        private float minX;
+        private float maxX;
+        private float minY;
+        private float maxY;
+
+        private Entry(GameObject gameObject, int id, int bit, int mask) {
+            this.gameObject = gameObject;
+            this.id = id;
+            this.bit = bit;
+            this.mask = mask;
+        }
+
+        private void readBounds() {
+            Vector2 topLeft = gameObject.getTopLeftCorner();
+            Vector2 dimensions = gameObject.getDimensions();
+            minX = topLeft.x();
+            minY = topLeft.y();
+            maxX = minX + dimensions.x();
+            maxY = minY + dimensions.y();
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package bricker.stress;
+
+import bricker.main.FrameGovernor;
+import bricker.main.GameSettings;
+import bricker.main.HeadlessGame;
+import bricker.metrics.AllocationProfiler;
+import bricker.metrics.LatencyHistogram;
+import bricker.physics.PhysicsBackendType;
+import bricker.physics.SweepAndPrune;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Runs a headless game for a long time with every power-up forced on, and checks that it stays
+ * within a set of budgets: frame time percentiles, total GC pause time, heap high-water mark and the
+ * peak number of mock balls. Every brick gets a double behavior at the maximum depth that always
+ * includes extra balls, so the exponential growth of mock balls is exercised as hard as possible.
+ * The paddle is moved by the autopilot so games last long, and a game that ends starts over.
+ * <p>
+ * Usage: {@code SoakHarness [--frames N] [--p50-ms X] [--p99-ms X] [--max-frame-ms X] [--gc-ms X]
+ * [--heap-mb X] [--pucks N] [--report-every N] [--alloc-profile] [--puck-swarm] [--sweep-and-prune]
+ * [--physics danogl|indexed] [--seed N] [--world-hashes FILE] [--hash-every N] [--level-rows N]
+ * [--generated-level] [--target-fps N] [--idle-fps N]}.
+ * The process exits with status 1 if a budget is exceeded. With {@code --alloc-profile}, the bytes allocated per
+ * frame by every phase of the frame are reported as well. With {@code --puck-swarm}, the mock balls are kept in
+ * a single {@link bricker.gameobjects.PuckSwarm}. With {@code --sweep-and-prune}, the contacts between moving
+ * objects are found by {@link bricker.physics.SweepAndPrune}, and its peak pair counts are reported. With
+ * {@code --physics indexed}, all the contacts are found by {@link bricker.physics.IndexedBackend} instead of
+ * danogl, so the two can be compared on the same seed. With {@code --seed} and {@code --world-hashes}, the run
+ * is repeatable and the hashes of its world are recorded by {@link bricker.main.WorldHasher}, to be compared
+ * with those of another run. With {@code --generated-level}, the levels are laid out by
+ * {@link bricker.level.LevelGenerator}, as tall as {@code --level-rows} makes them. With {@code --target-fps},
+ * the frames are paced by the game's {@link bricker.main.FrameGovernor}, whose report of the achieved rate,
+ * jitter and missed deadlines is printed; the frame time budgets then leave out the time spent waiting.
+ */
+public class SoakHarness {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+    private static final int HEAP_SAMPLE_INTERVAL = 256; // frames between heap samples
+    private static final int WARMUP_FRAMES = 10_000; // frames not measured, while the JIT compiles
+
+    private long frames = 1_000_000L;
+    private long reportEvery = 100_000L;
+    private double p50BudgetMillis = 4;
+    private double p99BudgetMillis = 16;
+    private double maxFrameBudgetMillis = 250;
+    private long gcBudgetMillis = 5_000;
+    private long heapBudgetMegabytes = 512;
+    private int puckBudget = 5_000;
+    private boolean allocationProfiling = false;
+    private boolean puckSwarm = false;
+    private boolean sweepAndPrune = false;
+    private PhysicsBackendType physicsBackend = PhysicsBackendType.DANOGL;
+    private boolean seeded = false; // whether the games start from the seed rather than from the clock
+    private long seed = 0;
+    private Path worldHashesPath = null;
+    private int hashInterval = 0; // 0 for the default interval
+    private int levelRows = 0; // 0 for the rows fitting the window
+    private boolean generatedLevel = false;
+    private int targetFps = 0; // 0 to run the frames back to back
+    private int idleFps = 0; // 0 for the default idle rate
+
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private long heapHighWater = 0;
+    private int peakPucks = 0;
+    private int peakCandidatePairs = 0; // pairs tested by the broadphase on a single frame
+    private int peakTouchingPairs = 0;
+
+    /**
+     * Runs the harness.
+     *
+     * @param args The number of frames and the budgets, see the class documentation.
+     */
+    public static void main(String[] args) {
+        SoakHarness harness = new SoakHarness();
+        harness.parseArgs(args);
+        boolean passed = harness.run();
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * Runs the soak test and prints its report.
+     *
+     * @return True if every budget was met.
+     */
+    public boolean run() {
+        GameSettings settings = new GameSettings();
+        settings.setAutopilot(true);
+        settings.setChaseHearts(true);
+        settings.setMaxPowerups(true);
+        settings.setAllocationProfiling(allocationProfiling);
+        settings.setPuckSwarm(puckSwarm);
+        settings.setSweepAndPrune(sweepAndPrune);
+        settings.setPhysicsBackend(physicsBackend);
+        settings.setLevelRows(levelRows);
+        settings.setGeneratedLevel(generatedLevel);
+        settings.setTargetFps(targetFps);
+        if (idleFps > 0) {
+            settings.setIdleFps(idleFps);
+        }
+        if (seeded) {
+            settings.setSeed(seed);
+        }
+        settings.setWorldHashesPath(worldHashesPath);
+        if (hashInterval > 0) {
+            settings.setHashInterval(hashInterval);
+        }
+        HeadlessGame game = new HeadlessGame(settings);
+        FrameGovernor governor = game.getGameManager().getFrameGovernor();
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            game.step();
+        }
+        long gcMillisAtStart = totalGcMillis();
+        long started = System.nanoTime();
+        for (long frame = 1; frame <= frames; frame++) {
+            long frameStart = System.nanoTime();
+            game.step();
+            long frameTime = System.nanoTime() - frameStart;
+            frameTimes.record(governor != null ? frameTime - governor.getLastWaitNanos() : frameTime);
+
+            peakPucks = Math.max(peakPucks, game.getGameManager().getPuckCount());
+            SweepAndPrune broadphase = game.getGameManager().getBroadphase();
+            if (broadphase != null) {
+                peakCandidatePairs = Math.max(peakCandidatePairs, broadphase.getCandidatePairs());
+                peakTouchingPairs = Math.max(peakTouchingPairs, broadphase.getTouchingPairs());
+            }
+            if (frame % HEAP_SAMPLE_INTERVAL == 0) {
+                heapHighWater = Math.max(heapHighWater, memoryBean.getHeapMemoryUsage().getUsed());
+            }
+            if (peakPucks > puckBudget) {
+                System.out.printf("mock balls exceeded the budget of %d at frame %d%n", puckBudget, frame);
+                break;
+            }
+            if (reportEvery > 0 && frame % reportEvery == 0) {
+                System.out.printf("frame %d: games %d, mock balls %d, p99 %.3f ms%n", frame,
+                        game.getGamesPlayed(), game.getGameManager().getPuckCount(),
+                        toMillis(frameTimes.percentile(99)));
+            }
+        }
+        long gcMillis = totalGcMillis() - gcMillisAtStart;
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("frames %d in %.1f s, games played %d%n", frameTimes.count(), elapsedSeconds,
+                game.getGamesPlayed());
+        boolean passed = true;
+        passed &= check("frame time p50 (ms)", toMillis(frameTimes.percentile(50)), p50BudgetMillis);
+        passed &= check("frame time p99 (ms)", toMillis(frameTimes.percentile(99)), p99BudgetMillis);
+        System.out.printf("  frame time p99.9 (ms): %.3f%n", toMillis(frameTimes.percentile(99.9)));
+        passed &= check("frame time max (ms)", toMillis(frameTimes.max()), maxFrameBudgetMillis);
+        passed &= check("GC pause total (ms)", gcMillis, gcBudgetMillis);
+        passed &= check("heap high-water (MB)", (double) heapHighWater / BYTES_PER_MEGABYTE, heapBudgetMegabytes);
+        passed &= check("peak mock balls", peakPucks, puckBudget);
+        if (game.getGameManager().getBroadphase() != null) {
+            System.out.printf("  broadphase peak pairs: %d tested, %d touching%n", peakCandidatePairs,
+                    peakTouchingPairs);
+        }
+        if (governor != null) {
+            System.out.print(governor.report());
+        }
+        AllocationProfiler allocationProfiler = game.getGameManager().getAllocationProfiler();
+        if (allocationProfiler != null) {
+            System.out.print(allocationProfiler.report());
+        }
+        System.out.println(passed ? "PASSED" : "FAILED");
+        return passed;
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--alloc-profile")) {
+                allocationProfiling = true;
+                continue;
+            }
+            if (args[i].equals("--puck-swarm")) {
+                puckSwarm = true;
+                continue;
+            }
+            if (args[i].equals("--sweep-and-prune")) {
+                sweepAndPrune = true;
+                continue;
+            }
+            if (args[i].equals("--generated-level")) {
+                generatedLevel = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for " + args[i]);
+            }
+            String value = args[++i];
+            switch (args[i - 1]) {
+                case "--frames":
+                    frames = Long.parseLong(value);
+                    break;
+                case "--report-every":
+                    reportEvery = Long.parseLong(value);
+                    break;
+                case "--p50-ms":
+                    p50BudgetMillis = Double.parseDouble(value);
+                    break;
+                case "--p99-ms":
+                    p99BudgetMillis = Double.parseDouble(value);
+                    break;
+                case "--max-frame-ms":
+                    maxFrameBudgetMillis = Double.parseDouble(value);
+                    break;
+                case "--gc-ms":
+                    gcBudgetMillis = Long.parseLong(value);
+                    break;
+                case "--heap-mb":
+                    heapBudgetMegabytes = Long.parseLong(value);
+                    break;
+                case "--pucks":
+                    puckBudget = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    seeded = true;
+                    break;
+                case "--world-hashes":
+                    worldHashesPath = Paths.get(value);
+                    break;
+                case "--hash-every":
+                    hashInterval = Integer.parseInt(value);
+                    break;
+                case "--level-rows":
+                    levelRows = Integer.parseInt(value);
+                    break;
+                case "--target-fps":
+                    targetFps = Integer.parseInt(value);
+                    break;
+                case "--idle-fps":
+                    idleFps = Integer.parseInt(value);
+                    break;
+                case "--physics":
+                    physicsBackend = PhysicsBackendType.valueOf(value.toUpperCase(Locale.ROOT));
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown argument " + args[i - 1]);
+            }
+        }
+    }
+
+    private static boolean check(String name, double value, double budget) {
+        boolean passed = value <= budget;
+        System.out.printf("  %s: %.3f (budget %.3f)%s%n", name, value, budget, passed ? "" : "  OVER BUDGET");
+        return passed;
+    }
+
+    private static long totalGcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,89 @@
+package bricker.util;
+
+/**
+ * Samples an index from a fixed discrete distribution in constant time, using Vose's alias method.
+ * The table is built once from a set of weights. Every sample then takes one random number,
+ * one multiplication and a single comparison, however many outcomes there are.
+ */
+public class AliasTable {
+    private final double[] probability; // chance of keeping column i rather than taking its alias
+    private final int[] alias;
+
+    /**
+     * Builds a table for the given weights.
+     *
+     * @param weights Non negative weights of the outcomes, at least one of them positive.
+     * @throws IllegalArgumentException If a weight is negative or not finite, or all weights are zero.
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("invalid weight " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("at least one weight must be positive");
+        }
+        probability = new double[n];
+        alias = new int[n];
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // whatever is left is 1 up to rounding errors
+        while (largeCount > 0) {
+            int index = large[--largeCount];
+            probability[index] = 1;
+            alias[index] = index;
+        }
+        while (smallCount > 0) {
+            int index = small[--smallCount];
+            probability[index] = 1;
+            alias[index] = index;
+        }
+    }
+
+    /**
+     * Samples an outcome.
+     *
+     * @param random The random generator to use.
+     * @return The index of the outcome, chosen with probability proportional to its weight.
+     */
+    public int sample(GameRandom random) {
+        double u = random.nextDouble() * probability.length;
+        int column = (int) u;
+        return (u - column) < probability[column] ? column : alias[column];
+    }
+
+    /**
+     * @return The number of outcomes.
+     */
+    public int size() {
+        return probability.length;
+    }
+}
@@ -0,0 +1,101 @@
+package bricker.util;
+
+/**
+ * A small, seedable pseudo random generator for the game (SplitMix64).
+ * Unlike {@link java.util.Random}, its whole state is a single long that can be read and restored,
+ * so a saved game continues with exactly the same random sequence.
+ */
+public class GameRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53; // 1 / 2^53
+    private static final float FLOAT_UNIT = 0x1.0p-24f; // 1 / 2^24
+
+    private long state; // the current generator state
+
+    /**
+     * Constructs a generator from a seed.
+     *
+     * @param seed The initial state of the generator.
+     */
+    public GameRandom(long seed) {
+        this.state = seed;
+    }
+
+    /**
+     * Returns the next pseudo random long.
+     *
+     * @return A uniformly distributed long value.
+     */
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * Returns the next pseudo random double in the range [0, 1).
+     *
+     * @return A uniformly distributed double value.
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Returns the next pseudo random float in the range [0, 1).
+     *
+     * @return A uniformly distributed float value.
+     */
+    public float nextFloat() {
+        return (nextLong() >>> 40) * FLOAT_UNIT;
+    }
+
+    /**
+     * Returns the next pseudo random int in the range [0, bound).
+     *
+     * @param bound The exclusive upper bound, must be positive.
+     * @return A uniformly distributed int value.
+     */
+    public int nextInt(int bound) {
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    /**
+     * Returns the next pseudo random boolean.
+     *
+     * @return true or false with equal probability.
+     */
+    public boolean nextBoolean() {
+        return nextLong() < 0;
+    }
+
+    /**
+     * Returns the current state of the generator, to be saved with the game.
+     *
+     * @return The generator state.
+     */
+    public long getState() {
+        return state;
+    }
+
+    /**
+     * Restores a state previously returned by {@link #getState()}.
+     *
+     * @param state The generator state.
+     */
+    public void setState(long state) {
+        this.state = state;
+    }
+
+    /**
+     * Mixes the bits of a 64 bit value (the SplitMix64 finalizer). Also useful for deriving
+     * independent seeds from a base seed and an index.
+     *
+     * @param z The value to mix.
+     * @return The mixed value.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
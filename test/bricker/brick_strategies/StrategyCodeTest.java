@@ -0,0 +1,49 @@
+package bricker.brick_strategies;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link StrategyCode#isValid(int)} accepts exactly the codes that can be built.
+ */
+class StrategyCodeTest {
+    @Test
+    void everyCodeThatCanBeBuiltIsValid() {
+        int built = 0;
+        for (int code = 0; code < StrategyCode.CODE_LIMIT; code++) {
+            if (canBeBuilt(code)) {
+                assertTrue(StrategyCode.isValid(code), "code " + code);
+                built++;
+            } else {
+                assertFalse(StrategyCode.isValid(code), "code " + code);
+            }
+        }
+        assertTrue(built > 1, "too few codes built: " + built);
+        assertFalse(StrategyCode.isValid(-1));
+        assertFalse(StrategyCode.isValid(StrategyCode.CODE_LIMIT));
+    }
+
+    /**
+     * Checks whether a code is one of those built from single behaviors, by building them all.
+     */
+    private static boolean canBeBuilt(int code) {
+        return canBeBuiltFrom(StrategyCode.BASIC, code);
+    }
+
+    private static boolean canBeBuiltFrom(int prefix, int code) {
+        if (prefix == code || (StrategyCode.behaviorCount(prefix) >= 2 && StrategyCode.markDouble(prefix) == code)) {
+            return true;
+        }
+        if (StrategyCode.behaviorCount(prefix) == StrategyCode.MAX_BEHAVIORS) {
+            return false;
+        }
+        for (StrategyType type : StrategyType.values()) {
+            if (type != StrategyType.DOUBLE_BEHAVIOR && canBeBuiltFrom(StrategyCode.append(prefix, type), code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
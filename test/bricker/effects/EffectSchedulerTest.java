@@ -0,0 +1,92 @@
+package bricker.effects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link EffectScheduler} expires timed effects on their ticks, in order, and can set its clock
+ * back.
+ */
+class EffectSchedulerTest {
+    private static final float TICK = 1f / 60;
+
+    @Test
+    void settingTheClockBackRestoresTheTicksLeftAndCancelsNewerEffects() {
+        EffectScheduler scheduler = new EffectScheduler();
+        List<String> expired = new ArrayList<>();
+        Effect older = scheduler.expireAfterTime(10 * TICK, () -> expired.add("older"));
+        scheduler.advance(3 * TICK);
+        long tick = scheduler.getCurrentTick();
+        float pendingTime = scheduler.getPendingTime();
+        long scheduled = scheduler.getScheduledCount();
+
+        Effect newer = scheduler.expireAfterTime(2 * TICK, () -> expired.add("newer"));
+        scheduler.advance(4 * TICK);
+        assertEquals(List.of("newer"), expired);
+
+        scheduler.rewindClock(tick, pendingTime, scheduled);
+        expired.clear();
+        assertTrue(older.isActive());
+        assertFalse(newer.isActive());
+        for (int i = 0; i < 6; i++) {
+            scheduler.advance(TICK);
+        }
+        assertEquals(List.of(), expired, "the older effect had 7 ticks left");
+        scheduler.advance(TICK);
+        assertEquals(List.of("older"), expired);
+    }
+
+    @Test
+    void timedEffectsExpireOnTheirTicksInDeadlineOrder() {
+        // a small wheel, so some deadlines are whole turns apart in the same slot
+        EffectScheduler scheduler = new EffectScheduler(8, 0.5f);
+        int[] deadlines = {20, 3, 11, 3, 8, 1, 16, 9, 19};
+        List<String> expired = new ArrayList<>();
+        long[] currentTick = new long[1];
+        for (int i = 0; i < deadlines.length; i++) {
+            String name = deadlines[i] + "#" + i;
+            scheduler.expireAfterTime(deadlines[i] * 0.5f, () -> expired.add(currentTick[0] + ":" + name));
+        }
+        Effect cancelled = scheduler.expireAfterTime(5 * 0.5f, () -> expired.add("cancelled"));
+        cancelled.cancel();
+
+        for (int tick = 1; tick <= 24; tick++) {
+            currentTick[0] = tick;
+            scheduler.advance(0.5f);
+        }
+        assertEquals(List.of("1:1#5", "3:3#1", "3:3#3", "8:8#4", "9:9#7", "11:11#2", "16:16#6", "19:19#8",
+                "20:20#0"), expired, "by deadline, and in the order scheduled on the same tick");
+    }
+
+    @Test
+    void anEffectScheduledWhileExpiringWaitsForItsOwnTick() {
+        EffectScheduler scheduler = new EffectScheduler(8, 0.5f);
+        List<String> expired = new ArrayList<>();
+        scheduler.expireAfterTime(0.5f, () -> {
+            expired.add("first");
+            // a whole turn of the wheel later, in the slot being visited
+            scheduler.expireAfterTime(8 * 0.5f, () -> expired.add("second"));
+        });
+        scheduler.advance(0.5f);
+        assertEquals(List.of("first"), expired);
+        for (int i = 0; i < 7; i++) {
+            scheduler.advance(0.5f);
+        }
+        assertEquals(List.of("first"), expired);
+        scheduler.advance(0.5f);
+        assertEquals(List.of("first", "second"), expired);
+    }
+
+    @Test
+    void theClockCannotBeSetForward() {
+        EffectScheduler scheduler = new EffectScheduler();
+        assertThrows(IllegalArgumentException.class, () -> scheduler.rewindClock(1, 0, 0));
+    }
+}
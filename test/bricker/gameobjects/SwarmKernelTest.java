@@ -0,0 +1,83 @@
+package bricker.gameobjects;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the kernels moving the mock balls of a {@link PuckSwarm} agree. Run with
+ * {@code --add-modules jdk.incubator.vector} to compare the vector kernel against the scalar one.
+ */
+class SwarmKernelTest {
+    private static final float DELTA_TIME = 1f / 60;
+    private static final float MIN_X = 10;
+    private static final float MAX_X = 675;
+    private static final float MIN_Y = 10;
+
+    @Test
+    void kernelsGiveTheSameResultsToTheBit() {
+        // an odd count leaves a tail after the last full vector
+        int count = 1003;
+        float[][] scalar = randomPucks(count, new Random(7));
+        float[][] created = copy(scalar);
+        SwarmKernel scalarKernel = new ScalarSwarmKernel();
+        SwarmKernel createdKernel = SwarmKernel.create();
+        for (int frame = 0; frame < 600; frame++) {
+            int scalarBounces = scalarKernel.integrate(scalar[0], scalar[1], scalar[2], scalar[3], count,
+                    DELTA_TIME, MIN_X, MAX_X, MIN_Y);
+            int createdBounces = createdKernel.integrate(created[0], created[1], created[2], created[3], count,
+                    DELTA_TIME, MIN_X, MAX_X, MIN_Y);
+            assertEquals(scalarBounces, createdBounces, "bounces on frame " + frame);
+        }
+        for (int i = 0; i < scalar.length; i++) {
+            assertArrayEquals(scalar[i], created[i]);
+        }
+    }
+
+    @Test
+    void mockBallsAreMirroredBackIntoTheField() {
+        float[] x = {MIN_X + 1, MAX_X - 1, 300};
+        float[] y = {300, 300, MIN_Y + 1};
+        float[] vx = {-120, 120, 0};
+        float[] vy = {0, 0, -120};
+        int bounces = SwarmKernel.create().integrate(x, y, vx, vy, 3, 1f / 60, MIN_X, MAX_X, MIN_Y);
+        assertEquals(3, bounces);
+        assertEquals(MIN_X + 1, x[0], 1e-4);
+        assertEquals(120, vx[0], 0);
+        assertEquals(MAX_X - 1, x[1], 1e-4);
+        assertEquals(-120, vx[1], 0);
+        assertEquals(MIN_Y + 1, y[2], 1e-4);
+        assertEquals(120, vy[2], 0);
+    }
+
+    @Test
+    void theVectorKernelIsPickedWhenTheModuleIsThere() {
+        boolean moduleLoaded = ModuleLayer.boot().findModule(SwarmKernel.VECTOR_MODULE).isPresent();
+        assertEquals(moduleLoaded, SwarmKernel.create().name().startsWith("vector"));
+        assertTrue(SwarmKernel.create().name().length() > 0);
+    }
+
+    private static float[][] randomPucks(int count, Random random) {
+        float[][] pucks = new float[4][count];
+        for (int i = 0; i < count; i++) {
+            pucks[0][i] = MIN_X + random.nextFloat() * (MAX_X - MIN_X);
+            pucks[1][i] = MIN_Y + random.nextFloat() * 480;
+            pucks[2][i] = (random.nextFloat() - 0.5f) * 800;
+            pucks[3][i] = (random.nextFloat() - 0.5f) * 800;
+        }
+        return pucks;
+    }
+
+    private static float[][] copy(float[][] arrays) {
+        float[][] result = new float[arrays.length][];
+        for (int i = 0; i < arrays.length; i++) {
+            result[i] = Arrays.copyOf(arrays[i], arrays[i].length);
+        }
+        return result;
+    }
+}
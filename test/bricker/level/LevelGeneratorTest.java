@@ -0,0 +1,56 @@
+package bricker.level;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a {@link LevelGenerator} gives the same layout for a seed however many threads generate it.
+ */
+class LevelGeneratorTest {
+    private static final int ROWS = 40 * LevelGenerator.REGION_ROWS + 5; // many tasks, and a short last region
+    private static final int COLUMNS = 12;
+
+    @Test
+    void aSeedGivesTheSameLayoutWithAnyNumberOfThreads() {
+        LevelLayout expected = generate(1, 42);
+        for (int threads : new int[]{2, 3, 8}) {
+            for (int run = 0; run < 5; run++) {
+                LevelLayout layout = generate(threads, 42);
+                assertEquals(expected, layout, threads + " threads, run " + run);
+                assertEquals(expected.getBrickCount(), layout.getBrickCount());
+            }
+        }
+    }
+
+    @Test
+    void differentSeedsGiveDifferentLayouts() {
+        assertNotEquals(generate(4, 42), generate(4, 43));
+    }
+
+    @Test
+    void theBrickCountMatchesTheCells() {
+        LevelLayout layout = generate(4, 7);
+        int bricks = 0;
+        for (int i = 0; i < ROWS * COLUMNS; i++) {
+            if (layout.cellAt(i) != LevelLayout.GAP) {
+                bricks++;
+            }
+        }
+        assertEquals(bricks, layout.getBrickCount());
+        assertTrue(bricks > 0);
+    }
+
+    private static LevelLayout generate(int threads, long seed) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return new LevelGenerator(pool).generate(seed, ROWS, COLUMNS);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a {@link FastForward} ends where running the frames of the same seed does, up to the frame
+ * time the frames detect collisions and lost balls late by.
+ */
+class FastForwardTest {
+    private static final long SEED = 7;
+    // a frame of travel at the ball's diagonal speed, with room to spare
+    private static final float POSITION_TOLERANCE = 8;
+
+    @Test
+    void fastForwardingEndsWhereTheFramesDo() {
+        HeadlessGame fastForwarded = newGame(true);
+        HeadlessGame stepped = newGame(true);
+
+        fastForwarded.fastForward(3);
+        stepFor(stepped, 3 * 60);
+        assertSameWorld(fastForwarded.getGameManager(), stepped.getGameManager());
+    }
+
+    @Test
+    void aLostBallCostsALifeAndIsPutBackAsTheFramesDo() {
+        HeadlessGame fastForwarded = newGame(false);
+        HeadlessGame stepped = newGame(false);
+        for (HeadlessGame game : new HeadlessGame[]{fastForwarded, stepped}) {
+            BrickerGameManager gameManager = game.getGameManager();
+            // falling straight down by the left wall, far from the paddle that stands still
+            gameManager.getBall().setCenter(new Vector2(100, gameManager.getWindowDimensions().y() - 60));
+            gameManager.getBall().setVelocity(new Vector2(0, 200));
+        }
+        int lives = fastForwarded.getGameManager().getHealthBar().getLives();
+
+        fastForwarded.fastForward(1);
+        stepFor(stepped, 60);
+        assertEquals(lives - 1, fastForwarded.getGameManager().getHealthBar().getLives());
+        assertSameWorld(fastForwarded.getGameManager(), stepped.getGameManager());
+    }
+
+    private static void assertSameWorld(BrickerGameManager fastForwarded, BrickerGameManager stepped) {
+        assertEquals(stepped.getHealthBar().getLives(), fastForwarded.getHealthBar().getLives());
+        assertEquals(stepped.getRandom().getState(), fastForwarded.getRandom().getState(),
+                "the same random draws are made");
+        assertEquals(stepped.getBall().getVelocity(), fastForwarded.getBall().getVelocity());
+        Vector2 offset = fastForwarded.getBall().getCenter().subtract(stepped.getBall().getCenter());
+        assertTrue(offset.magnitude() < POSITION_TOLERANCE, "the balls are " + offset + " apart");
+        Brick[] bricks = stepped.getBricks();
+        for (int i = 0; i < bricks.length; i++) {
+            assertEquals(bricks[i].isDestroyed(), fastForwarded.getBricks()[i].isDestroyed(), "brick " + i);
+        }
+        assertEquals(stepped.getPuckCount(), fastForwarded.getPuckCount());
+    }
+
+    private static HeadlessGame newGame(boolean autopilot) {
+        GameSettings settings = GameSettings.fromArgs(autopilot ? new String[]{"--autopilot"} : new String[0]);
+        settings.setSeed(SEED);
+        return new HeadlessGame(settings);
+    }
+
+    private static void stepFor(HeadlessGame game, int frames) {
+        for (int i = 0; i < frames; i++) {
+            game.step();
+        }
+    }
+}
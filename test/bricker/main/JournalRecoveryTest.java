@@ -0,0 +1,126 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+import bricker.journal.GameJournal;
+import bricker.journal.JournalEventType;
+import bricker.journal.JournalReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the world of a game killed without closing its journal is rebuilt from the journal and the last
+ * snapshot it marked, and that a record being written when it was killed is ignored.
+ */
+class JournalRecoveryTest {
+    private static final long SEED = 1;
+    private static final int SNAPSHOT_FRAME = 600;
+    private static final int CRASH_FRAME = 3000;
+
+    @Test
+    void theWorldOfACrashedGameIsRebuiltFromItsJournal(@TempDir Path directory) throws Exception {
+        Path journal = directory.resolve("game.journal");
+        Path snapshot = directory.resolve("game.snapshot");
+        String crashedWorld = runCrashingGame(journal, snapshot);
+
+        JournalReader reader = new JournalReader(journal);
+        assertEquals(JournalEventType.SNAPSHOT, reader.getType(reader.lastCheckpoint()));
+        assertTrue(reader.size() > reader.lastCheckpoint() + 1, "no events after the snapshot to replay");
+        // a record written but not counted, as if the game was killed in the middle of appending it
+        writeRecord(journal, reader.size(), JournalEventType.LIFE_LOST, CRASH_FRAME + 1, 0);
+
+        HeadlessGame recovered = new HeadlessGame(newSettings());
+        int replayed = recovered.getGameManager().recoverFromJournal(snapshot, journal);
+        assertEquals(reader.size() - reader.lastCheckpoint() - 1, replayed);
+        assertEquals(crashedWorld, describe(recovered.getGameManager()));
+    }
+
+    /**
+     * Runs a game in a process of its own that saves a snapshot, plays on and halts without closing the
+     * journal.
+     *
+     * @return The world of the game when it halted, as described by {@link #describe(BrickerGameManager)}.
+     */
+    private static String runCrashingGame(Path journal, Path snapshot) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(CrashingGame.class.getName());
+        command.add(journal.toString());
+        command.add(snapshot.toString());
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+        assertEquals(CrashingGame.EXIT_CODE, process.waitFor(), "the crashing game failed: " + output);
+        return output;
+    }
+
+    private static void writeRecord(Path journal, int index, JournalEventType type, int frame, int firstInt)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(GameJournal.RECORD_BYTES);
+            record.putInt(type.code()).putInt(frame).putInt(firstInt).flip();
+            channel.write(record, 32 + (long) index * GameJournal.RECORD_BYTES); // after the 32 byte header
+        }
+    }
+
+    private static GameSettings newSettings() {
+        GameSettings settings = GameSettings.fromArgs(new String[]{"--autopilot"});
+        settings.setSeed(SEED);
+        return settings;
+    }
+
+    /**
+     * Describes what the journal rebuilds of a world: the lives, the bricks in the wall, the turbo state and
+     * the extra paddle.
+     */
+    private static String describe(BrickerGameManager gameManager) {
+        StringBuilder description = new StringBuilder();
+        description.append("lives ").append(gameManager.getHealthBar().getLives());
+        description.append(" turbo ").append(gameManager.getBall().getTurboState());
+        description.append(" extra paddle ").append(gameManager.getExtraPaddle() != null);
+        description.append(" bricks ");
+        for (Brick brick : gameManager.getBricks()) {
+            description.append(brick.isDestroyed() ? '.' : '#');
+        }
+        return description.toString();
+    }
+
+    /**
+     * A game that is killed without closing its journal, run in a process of its own.
+     */
+    static final class CrashingGame {
+        static final int EXIT_CODE = 3;
+
+        public static void main(String[] args) throws IOException {
+            GameSettings settings = newSettings();
+            settings.setJournalPath(Path.of(args[0]));
+            HeadlessGame game = new HeadlessGame(settings);
+            for (int frame = 1; frame <= CRASH_FRAME; frame++) {
+                game.step();
+                if (frame == SNAPSHOT_FRAME) {
+                    game.getGameManager().saveSnapshot(Path.of(args[1]));
+                }
+            }
+            if (game.getGamesPlayed() > 0) {
+                throw new IllegalStateException("the game ended before the crash");
+            }
+            System.out.println(describe(game.getGameManager()));
+            System.out.flush();
+            Runtime.getRuntime().halt(EXIT_CODE); // no shutdown hooks, no closing of the journal
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package bricker.main;
+
+import bricker.brick_strategies.StrategyCode;
+import bricker.gameobjects.Brick;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that resolving the strategies of the bricks from their seeds when they are hit gives every brick the
+ * same behaviors as resolving them all when the level is built, whatever order they are resolved in.
+ */
+class LazyStrategyResolutionTest {
+    private static final long SEED = 11;
+    private static final int FRAMES = 1800;
+
+    @Test
+    void bricksResolvedWhenHitGetTheBehaviorsOfBricksResolvedUpFront() {
+        HeadlessGame eager = newGame();
+        long randomState = eager.getGameManager().getRandom().getState();
+        int[] eagerCodes = strategyCodes(eager.getGameManager().getBricks(), false);
+        assertEquals(randomState, eager.getGameManager().getRandom().getState(),
+                "resolving drew from the game's random generator");
+        assertTrue(Arrays.stream(eagerCodes).anyMatch(code -> code != StrategyCode.BASIC), "no special bricks");
+
+        HeadlessGame lazy = newGame();
+        int destroyed = 0;
+        for (int frame = 0; frame < FRAMES && lazy.getGamesPlayed() == 0; frame++) {
+            lazy.step();
+        }
+        for (Brick brick : lazy.getGameManager().getBricks()) {
+            destroyed += brick.isDestroyed() ? 1 : 0;
+        }
+        assertTrue(destroyed > 0, "no brick was hit");
+        // the bricks hit were resolved in the order they were hit, the others are resolved last to first
+        assertArrayEquals(eagerCodes, strategyCodes(lazy.getGameManager().getBricks(), true));
+    }
+
+    private static int[] strategyCodes(Brick[] bricks, boolean lastFirst) {
+        int[] codes = new int[bricks.length];
+        for (int i = 0; i < bricks.length; i++) {
+            int index = lastFirst ? bricks.length - 1 - i : i;
+            codes[index] = bricks[index].getStrategyCode();
+        }
+        return codes;
+    }
+
+    private static HeadlessGame newGame() {
+        GameSettings settings = GameSettings.fromArgs(new String[]{"--autopilot"});
+        settings.setSeed(SEED);
+        return new HeadlessGame(settings);
+    }
+}
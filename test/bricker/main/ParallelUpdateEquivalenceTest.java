@@ -0,0 +1,38 @@
+package bricker.main;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that moving the mock balls and falling hearts in parallel plays the game the same as moving them one
+ * after another.
+ */
+class ParallelUpdateEquivalenceTest {
+    private static final long SEED = 3;
+    private static final int FRAMES = 3000;
+    private static final int HASH_INTERVAL = 300;
+
+    @Test
+    void aGameIsTheSameWithAParallelUpdate() {
+        HeadlessGame sequential = newGame(false);
+        HeadlessGame parallel = newGame(true);
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            sequential.step();
+            parallel.step();
+            if (frame % HASH_INTERVAL == 0) {
+                assertEquals(WorldHasher.hash(sequential.getGameManager()),
+                        WorldHasher.hash(parallel.getGameManager()), "the worlds differ by frame " + frame);
+            }
+        }
+        assertEquals(sequential.getGamesPlayed(), parallel.getGamesPlayed());
+    }
+
+    private static HeadlessGame newGame(boolean parallelUpdate) {
+        // every brick gives a power-up, so there are many mock balls and hearts to move
+        GameSettings settings = GameSettings.fromArgs(new String[]{"--autopilot", "--max-powerups"});
+        settings.setSeed(SEED);
+        settings.setParallelUpdate(parallelUpdate);
+        return new HeadlessGame(settings);
+    }
+}
@@ -0,0 +1,81 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+import bricker.physics.PhysicsBackendType;
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the game plays the same with danogl and with the indexed backend finding its contacts: the same
+ * bricks are hit, and the ball bounces the same way off bricks and walls.
+ */
+class PhysicsBackendEquivalenceTest {
+    private static final long SEED = 1;
+
+    @Test
+    void aBallSentAtABrickHitsItWithEitherBackend() {
+        String danogl = sendBall(PhysicsBackendType.DANOGL, 0, 0, -200);
+        String indexed = sendBall(PhysicsBackendType.INDEXED, 0, 0, -200);
+        assertEquals(danogl, indexed);
+        assertTrue(danogl.contains("."), "no brick was hit: " + danogl);
+    }
+
+    @Test
+    void aBallSentAtAWallBouncesOffItWithEitherBackend() {
+        String danogl = sendBall(PhysicsBackendType.DANOGL, -200, -300, 0);
+        String indexed = sendBall(PhysicsBackendType.INDEXED, -200, -300, 0);
+        assertEquals(danogl, indexed);
+        assertTrue(danogl.startsWith("velocity (300"), "the ball did not bounce: " + danogl);
+    }
+
+    @Test
+    void aWholeGameIsTheSameWithEitherBackend() {
+        HeadlessGame danogl = newGame(PhysicsBackendType.DANOGL);
+        HeadlessGame indexed = newGame(PhysicsBackendType.INDEXED);
+        for (int frame = 1; frame <= 1800; frame++) {
+            danogl.step();
+            indexed.step();
+            if (frame % 60 == 0) {
+                assertEquals(WorldHasher.hash(danogl.getGameManager()), WorldHasher.hash(indexed.getGameManager()),
+                        "the worlds differ by frame " + frame);
+            }
+        }
+    }
+
+    /**
+     * Sends the ball from under a brick in the middle of the bottom row for half a second, far above the
+     * paddle.
+     *
+     * @param offsetX How far left or right of the brick the ball starts.
+     * @return The velocity of the ball and the bricks in the wall afterwards.
+     */
+    private static String sendBall(PhysicsBackendType backend, float offsetX, float velocityX, float velocityY) {
+        HeadlessGame game = newGame(backend);
+        BrickerGameManager gameManager = game.getGameManager();
+        Brick[] bricks = gameManager.getBricks();
+        Brick target = bricks[bricks.length - 1 - gameManager.getBrickColumns() / 2]; // bottom row, middle
+        gameManager.getBall().setCenter(target.getCenter().add(new Vector2(offsetX, 40)));
+        gameManager.getBall().setVelocity(new Vector2(velocityX, velocityY));
+        for (int frame = 0; frame < 30; frame++) {
+            game.step();
+        }
+        StringBuilder description = new StringBuilder();
+        Vector2 velocity = gameManager.getBall().getVelocity();
+        description.append("velocity (").append(Math.round(velocity.x())).append(", ")
+                .append(Math.round(velocity.y())).append(") bricks ");
+        for (Brick brick : bricks) {
+            description.append(brick.isDestroyed() ? '.' : '#');
+        }
+        return description.toString();
+    }
+
+    private static HeadlessGame newGame(PhysicsBackendType backend) {
+        GameSettings settings = GameSettings.fromArgs(new String[]{"--autopilot"});
+        settings.setSeed(SEED);
+        settings.setPhysicsBackend(backend);
+        return new HeadlessGame(settings);
+    }
+}
@@ -0,0 +1,123 @@
+package bricker.main;
+
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a {@link RewindBuffer} puts back the world of a kept frame, that a frame with more hearts than a
+ * record holds cannot be rewound to, and that the hearts missed do not keep the frames after them from
+ * being rewound to.
+ */
+class RewindBufferTest {
+    private static final long SEED = 7;
+    private static final int FRAMES = 155; // mock balls and hearts are falling by then, not yet more than a record holds
+    private static final int MAX_HEARTS = 16; // falling hearts kept per record
+    private static final float HEART_SPEED = 300;
+
+    @Test
+    void rewindingPutsBackTheWorldOfAKeptFrame() {
+        HeadlessGame game = newGame("--autopilot", "--max-powerups");
+        BrickerGameManager gameManager = game.getGameManager();
+        RewindBuffer rewindBuffer = gameManager.getRewindBuffer();
+        long[] hashes = new long[FRAMES + 1];
+        int[] hearts = new int[FRAMES + 1];
+        for (int i = 0; i < FRAMES; i++) {
+            game.step();
+            hashes[(int) rewindBuffer.getFrame()] = WorldHasher.hash(gameManager);
+            hearts[(int) rewindBuffer.getFrame()] = gameManager.getFallingHearts().size();
+        }
+
+        for (int back : new int[]{1, 20, 60}) {
+            long frame = rewindBuffer.getFrame() - back;
+            assertTrue(rewindBuffer.isComplete(frame), "frame " + frame + " kept whole");
+            rewindBuffer.rewindTo(frame);
+            assertEquals(frame, rewindBuffer.getFrame());
+            assertEquals(hashes[(int) frame], WorldHasher.hash(gameManager), "the world of frame " + frame);
+            assertEquals(hearts[(int) frame], gameManager.getFallingHearts().size(), "the hearts of frame " + frame);
+        }
+        assertTrue(gameManager.getPucks().size() > 0, "no mock balls were rewound");
+        assertTrue(gameManager.getFallingHearts().size() > 0, "no hearts were rewound");
+    }
+
+    @Test
+    void aFrameWithMoreHeartsThanARecordHoldsCannotBeRewoundTo() {
+        HeadlessGame game = newGame();
+        BrickerGameManager gameManager = game.getGameManager();
+        parkBall(gameManager);
+        game.step();
+        long wholeFrame = gameManager.getRewindBuffer().getFrame();
+        for (int i = 0; i <= MAX_HEARTS; i++) {
+            dropHeart(gameManager, i);
+        }
+        game.step();
+
+        RewindBuffer rewindBuffer = gameManager.getRewindBuffer();
+        long frame = rewindBuffer.getFrame();
+        assertFalse(rewindBuffer.isComplete(frame));
+        assertThrows(IllegalArgumentException.class, () -> rewindBuffer.rewindTo(frame),
+                "a frame missing some of its hearts was rewound to");
+        rewindBuffer.rewindTo(wholeFrame); // it can be rewound past
+        assertEquals(wholeFrame, rewindBuffer.getFrame());
+        assertEquals(0, gameManager.getFallingHearts().size());
+    }
+
+    @Test
+    void theHeartsMissedAreNotKept() {
+        HeadlessGame game = newGame();
+        BrickerGameManager gameManager = game.getGameManager();
+        RewindBuffer rewindBuffer = gameManager.getRewindBuffer();
+        parkBall(gameManager);
+        // more hearts than a record holds are dropped one after another, and all missed by the paddle
+        for (int i = 0; i < 2 * MAX_HEARTS; i++) {
+            dropHeart(gameManager, i);
+            for (int frame = 0; frame < 10; frame++) {
+                game.step();
+                assertTrue(rewindBuffer.isComplete(rewindBuffer.getFrame()), "frame " + rewindBuffer.getFrame());
+            }
+        }
+        long frame = rewindBuffer.getFrame();
+        long hash = WorldHasher.hash(gameManager);
+        int hearts = gameManager.getFallingHearts().size();
+        assertTrue(hearts > 0, "no hearts falling to rewind");
+        while (gameManager.getFallingHearts().size() > 0) {
+            game.step();
+        }
+        assertEquals(0, gameManager.getFallingHearts().size());
+        assertTrue(rewindBuffer.isComplete(rewindBuffer.getFrame()));
+
+        rewindBuffer.rewindTo(frame);
+        assertEquals(hash, WorldHasher.hash(gameManager));
+        assertEquals(hearts, gameManager.getFallingHearts().size());
+    }
+
+    /**
+     * Stops the ball high above the paddle, so no life is lost and no brick is hit while hearts fall.
+     */
+    private static void parkBall(BrickerGameManager gameManager) {
+        gameManager.getBall().setCenter(gameManager.getWindowDimensions().mult(0.5f));
+        gameManager.getBall().setVelocity(Vector2.ZERO);
+    }
+
+    /**
+     * Drops a heart by the left wall, a little above the paddle and far from it.
+     */
+    private static void dropHeart(BrickerGameManager gameManager, int i) {
+        float paddleY = gameManager.getPaddle().getCenter().y();
+        gameManager.restoreFallingHeart(new Vector2(40 + i % 4, paddleY - 60), new Vector2(0, HEART_SPEED));
+    }
+
+    private static HeadlessGame newGame(String... args) {
+        String[] allArgs = new String[args.length + 2];
+        System.arraycopy(args, 0, allArgs, 0, args.length);
+        allArgs[args.length] = "--rewind-seconds";
+        allArgs[args.length + 1] = "2";
+        GameSettings settings = GameSettings.fromArgs(allArgs);
+        settings.setSeed(SEED);
+        return new HeadlessGame(settings);
+    }
+}
@@ -0,0 +1,56 @@
+package bricker.main;
+
+import bricker.gameobjects.Brick;
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that a ball hitting the seam between two bricks bounces off once, rather than flipping once per
+ * brick and going on into the wall.
+ */
+class SeamContactTest {
+    private static final long SEED = 1;
+    private static final float SPEED = 200;
+
+    @Test
+    void aBallHittingASeamIsFlippedOnce() {
+        HeadlessGame game = newGame();
+        BrickerGameManager gameManager = game.getGameManager();
+        Brick[] bricks = gameManager.getBricks();
+        int leftIndex = bricks.length - 1 - gameManager.getBrickColumns() / 2; // bottom row, middle
+        Brick left = bricks[leftIndex];
+        Brick right = bricks[leftIndex + 1];
+        float seamX = (left.getTopLeftCorner().x() + left.getDimensions().x() + right.getTopLeftCorner().x()) / 2;
+        gameManager.getBall().setCenter(new Vector2(seamX, left.getCenter().y() + 40));
+        gameManager.getBall().setVelocity(new Vector2(0, -SPEED));
+
+        int flips = 0;
+        float velocityY = -SPEED;
+        for (int frame = 0; frame < 30; frame++) {
+            game.step();
+            float newVelocityY = gameManager.getBall().getVelocity().y();
+            if (Math.signum(newVelocityY) != Math.signum(velocityY)) {
+                flips++;
+            }
+            velocityY = newVelocityY;
+        }
+
+        assertEquals(1, flips, "the ball changed direction " + flips + " times");
+        assertEquals(new Vector2(0, SPEED), gameManager.getBall().getVelocity());
+        assertTrue(left.isDestroyed() && right.isDestroyed(), "both bricks at the seam are hit");
+        for (int i = 0; i < bricks.length; i++) {
+            if (i != leftIndex && i != leftIndex + 1) {
+                assertTrue(!bricks[i].isDestroyed(), "brick " + i + " behind the seam was hit");
+            }
+        }
+    }
+
+    private static HeadlessGame newGame() {
+        GameSettings settings = GameSettings.fromArgs(new String[]{"--autopilot"});
+        settings.setSeed(SEED);
+        return new HeadlessGame(settings);
+    }
+}
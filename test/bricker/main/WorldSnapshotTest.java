@@ -0,0 +1,107 @@
+package bricker.main;
+
+import bricker.brick_strategies.StrategyCode;
+import bricker.brick_strategies.StrategyType;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that a {@link WorldSnapshot} brings a world back to the state it was written in, and that a corrupt
+ * snapshot leaves the world as it was.
+ */
+class WorldSnapshotTest {
+    private static final int STRATEGY_CODES_OFFSET = 52; // the header, random state, lives, ball and brick count
+
+    @Test
+    void readingASnapshotRestoresTheWorldItWasWrittenIn() throws IOException {
+        HeadlessGame game = newGame();
+        stepFor(game, 1200);
+        WorldSnapshot snapshot = new WorldSnapshot(game.getGameManager());
+        byte[] bytes = write(snapshot);
+        long hash = WorldHasher.hash(game.getGameManager());
+        long randomState = game.getGameManager().getRandom().getState();
+
+        stepFor(game, 600);
+        assertNotEquals(hash, WorldHasher.hash(game.getGameManager()));
+        snapshot.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+        assertEquals(hash, WorldHasher.hash(game.getGameManager()));
+        assertEquals(randomState, game.getGameManager().getRandom().getState());
+        assertEquals(bytes.length, write(snapshot).length);
+    }
+
+    @Test
+    void aBadStrategyCodeLeavesTheWorldAsItWas() throws IOException {
+        assertBadStrategyCodeIsRefused(-1);
+        assertBadStrategyCodeIsRefused(StrategyCode.CODE_LIMIT);
+    }
+
+    @Test
+    void aMalformedStrategyCodeInRangeLeavesTheWorldAsItWas() throws IOException {
+        assertBadStrategyCodeIsRefused(1 | (7 << 3)); // a behavior past the last StrategyType
+        assertBadStrategyCodeIsRefused(1 | (StrategyType.DOUBLE_BEHAVIOR.ordinal() << 3));
+        assertBadStrategyCodeIsRefused(StrategyType.TURBO.ordinal() << 3); // bits of a behavior not counted
+        assertBadStrategyCodeIsRefused(StrategyCode.markDouble(
+                StrategyCode.append(StrategyCode.BASIC, StrategyType.TURBO))); // a double of one behavior
+    }
+
+    private static void assertBadStrategyCodeIsRefused(int strategyCode) throws IOException {
+        HeadlessGame game = newGame();
+        stepFor(game, 1200);
+        WorldSnapshot snapshot = new WorldSnapshot(game.getGameManager());
+        byte[] bytes = write(snapshot);
+        int bricks = game.getGameManager().getBricks().length;
+        int lastCode = STRATEGY_CODES_OFFSET + (bricks + Long.SIZE - 1) / Long.SIZE * Long.BYTES
+                + (bricks - 1) * Short.BYTES;
+        ByteBuffer.wrap(bytes).putShort(lastCode, (short) strategyCode);
+
+        stepFor(game, 600);
+        long hash = WorldHasher.hash(game.getGameManager());
+        long randomState = game.getGameManager().getRandom().getState();
+        assertThrows(IOException.class,
+                () -> snapshot.read(Channels.newChannel(new ByteArrayInputStream(bytes))),
+                "strategy code " + strategyCode);
+        assertEquals(hash, WorldHasher.hash(game.getGameManager()));
+        assertEquals(randomState, game.getGameManager().getRandom().getState());
+    }
+
+    @Test
+    void aSnapshotCutShortLeavesTheWorldAsItWas() throws IOException {
+        HeadlessGame game = newGame();
+        stepFor(game, 1200);
+        WorldSnapshot snapshot = new WorldSnapshot(game.getGameManager());
+        byte[] bytes = write(snapshot);
+
+        stepFor(game, 600);
+        long hash = WorldHasher.hash(game.getGameManager());
+        ByteArrayInputStream truncated = new ByteArrayInputStream(bytes, 0, bytes.length - 1);
+        assertThrows(IOException.class, () -> snapshot.read(Channels.newChannel(truncated)));
+        assertEquals(hash, WorldHasher.hash(game.getGameManager()));
+    }
+
+    private static HeadlessGame newGame() {
+        GameSettings settings = GameSettings.fromArgs(new String[]{"--autopilot", "--max-powerups"});
+        settings.setSeed(7);
+        return new HeadlessGame(settings);
+    }
+
+    private static void stepFor(HeadlessGame game, int frames) {
+        for (int i = 0; i < frames; i++) {
+            game.step();
+        }
+    }
+
+    private static byte[] write(WorldSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.write(Channels.newChannel(bytes));
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,238 @@
+package bricker.physics;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests that {@link IndexedBackend} finds the contacts of moving with static objects that testing every pair
+ * finds, tells them once, and skips destroyed objects without rebuilding its index.
+ */
+class IndexedBackendTest {
+    private static final float PUCK_SIZE = 20;
+
+    @Test
+    void contactsWithStaticObjectsMatchTestingEveryPair() {
+        List<GameObject> statics = new ArrayList<>();
+        statics.add(new Box(0, -2000, 10, 3000)); // walls, much taller than the bricks
+        statics.add(new Box(790, -2000, 10, 3000));
+        for (int row = 0; row < 200; row++) {
+            for (int column = 0; column < 8; column++) {
+                statics.add(new Box(10 + column * 97, -1500 + row * 20, 95, 15));
+            }
+        }
+        IndexedBackend backend = new IndexedBackend(CollisionMatrix.STANDARD);
+        Random random = new Random(1);
+        long contacts = 0;
+        for (int frame = 0; frame < 100; frame++) {
+            // new objects every frame, so every contact is a new one
+            List<GameObject> moving = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                moving.add(new Box(random.nextFloat() * 800, -1600 + random.nextFloat() * 2000, PUCK_SIZE,
+                        PUCK_SIZE));
+            }
+            backend.findContacts(moving, statics);
+            for (GameObject gameObject : moving) {
+                Box box = (Box) gameObject;
+                int expected = 0;
+                for (GameObject other : statics) {
+                    if (touch(box, other)) {
+                        expected++;
+                    }
+                }
+                assertEquals(expected, box.staticContacts, "contacts of " + box.getTopLeftCorner());
+                contacts += expected;
+            }
+        }
+        assertEquals(1, backend.getRebuilds());
+        assertEquals(true, contacts > 1000, "too few contacts to test: " + contacts);
+    }
+
+    @Test
+    void aContactIsToldOnceWhileTheObjectsTouch() {
+        Box brick = new Box(100, 100, 50, 20);
+        Box puck = new Box(85, 100, PUCK_SIZE, PUCK_SIZE);
+        List<GameObject> statics = List.of(brick);
+        List<GameObject> moving = List.of(puck);
+        IndexedBackend backend = new IndexedBackend(CollisionMatrix.STANDARD);
+        backend.findContacts(moving, statics);
+        backend.findContacts(moving, statics);
+        assertEquals(1, puck.contacts);
+        assertEquals(1, brick.contacts);
+        assertSame(brick, puck.lastOther);
+        assertSame(puck, brick.lastOther);
+        // the normals point away from each other, the puck is on the brick's left
+        assertEquals(new Vector2(-1, 0), puck.lastNormal);
+        assertEquals(new Vector2(1, 0), brick.lastNormal);
+
+        puck.setTopLeftCorner(new Vector2(0, 0));
+        backend.findContacts(moving, statics);
+        puck.setTopLeftCorner(new Vector2(85, 100));
+        backend.findContacts(moving, statics);
+        assertEquals(2, puck.contacts);
+    }
+
+    @Test
+    void destroyedObjectsAreSkippedWithoutRebuildingTheIndex() {
+        List<GameObject> statics = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            statics.add(new DestructibleBox(10 + (i % 10) * 60, i / 10 * 30, 50, 20));
+        }
+        IndexedBackend backend = new IndexedBackend(CollisionMatrix.STANDARD);
+        for (int i = 0; i < statics.size(); i++) {
+            DestructibleBox target = (DestructibleBox) statics.get(i);
+            Box puck = new Box(target.getTopLeftCorner().x() + 5, target.getTopLeftCorner().y() + 5, 10, 10);
+            backend.findContacts(List.of(puck), statics);
+            assertEquals(1, puck.contacts, "hit of brick " + i);
+            assertEquals(true, target.isDestroyed());
+            // a new puck in the same place passes through the destroyed brick
+            Box second = new Box(puck.getTopLeftCorner().x(), puck.getTopLeftCorner().y(), 10, 10);
+            backend.findContacts(List.of(second), statics);
+            assertEquals(0, second.contacts, "tombstone of brick " + i);
+        }
+        assertEquals(1, backend.getRebuilds());
+        assertEquals(true, backend.getIndexedStatics() < statics.size(), "the index was never compacted");
+
+        // a brick put back is found after a rebuild
+        DestructibleBox restored = (DestructibleBox) statics.get(0);
+        restored.destroyed = false;
+        backend.staticObjectsChanged();
+        Box puck = new Box(restored.getTopLeftCorner().x() + 5, restored.getTopLeftCorner().y() + 5, 10, 10);
+        backend.findContacts(List.of(puck), statics);
+        assertEquals(1, puck.contacts);
+        assertEquals(2, backend.getRebuilds());
+    }
+
+    @Test
+    void integratedObjectsMoveAsInTheirOwnUpdates() {
+        Random random = new Random(3);
+        List<GameObject> integrated = new ArrayList<>();
+        List<GameObject> reference = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            float x = random.nextFloat() * 800;
+            float y = random.nextFloat() * 600;
+            Vector2 velocity = new Vector2(random.nextFloat() * 600 - 300, random.nextFloat() * 600 - 300);
+            MovingBox body = new MovingBox(x, y);
+            MovingBox own = new MovingBox(x, y);
+            body.setVelocity(velocity);
+            own.setVelocity(velocity);
+            integrated.add(body);
+            reference.add(own);
+        }
+        Box paddle = new Box(400, 550, 100, 15); // not a ParallelMoving object, moves itself
+        paddle.setVelocity(new Vector2(50, 0));
+        integrated.add(0, paddle);
+        float paddleX = paddle.getTopLeftCorner().x();
+        IndexedBackend backend = new IndexedBackend(CollisionMatrix.STANDARD);
+        for (int frame = 0; frame < 60; frame++) {
+            float deltaTime = 1 / 60f + frame * 1e-4f;
+            paddleX += 50 * deltaTime;
+            assertEquals(true, backend.integrate(integrated, deltaTime));
+            // a velocity changed before the first body is updated is still integrated, as in its own update
+            integrated.get(1).setVelocity(integrated.get(1).getVelocity().mult(-1));
+            reference.get(0).setVelocity(reference.get(0).getVelocity().mult(-1));
+            for (GameObject gameObject : integrated) {
+                gameObject.update(deltaTime);
+            }
+            for (GameObject gameObject : reference) {
+                gameObject.update(deltaTime);
+            }
+            for (int i = 0; i < reference.size(); i++) {
+                assertEquals(reference.get(i).getTopLeftCorner(), integrated.get(i + 1).getTopLeftCorner(),
+                        "body " + i + " on frame " + frame);
+            }
+        }
+        assertEquals(paddleX, paddle.getTopLeftCorner().x(), 0.01f);
+    }
+
+    private static boolean touch(GameObject first, GameObject second) {
+        Vector2 a = first.getTopLeftCorner();
+        Vector2 b = second.getTopLeftCorner();
+        return a.x() <= b.x() + second.getDimensions().x() && b.x() <= a.x() + first.getDimensions().x()
+                && a.y() <= b.y() + second.getDimensions().y() && b.y() <= a.y() + first.getDimensions().y();
+    }
+
+    /**
+     * An object without a category, counting the contacts it is told about.
+     */
+    private static class Box extends GameObject implements ContactHandler {
+        private int contacts = 0;
+        private int staticContacts = 0; // contacts with objects that are not of the puck's size
+        private GameObject lastOther;
+        private Vector2 lastNormal;
+
+        Box(float x, float y, float width, float height) {
+            super(new Vector2(x, y), new Vector2(width, height), null);
+        }
+
+        @Override
+        public void onContact(GameObject other, Vector2 normal) {
+            contacts++;
+            if (other.getDimensions().y() != PUCK_SIZE) {
+                staticContacts++;
+            }
+            lastOther = other;
+            lastNormal = normal;
+        }
+    }
+
+    /**
+     * A mock ball-like object, moved by the batch it joins or else by its own update.
+     */
+    private static class MovingBox extends Box implements ParallelMoving {
+        private MoveBatch moveBatch = null;
+
+        MovingBox(float x, float y) {
+            super(x, y, PUCK_SIZE, PUCK_SIZE);
+        }
+
+        @Override
+        public void update(float deltaTime) {
+            if (moveBatch != null) {
+                moveBatch.awaitMoves();
+                moveBatch = null;
+            } else {
+                super.update(deltaTime);
+            }
+        }
+
+        @Override
+        public void moveInParallel(float deltaTime) {
+            super.update(deltaTime);
+        }
+
+        @Override
+        public void joinBatch(MoveBatch batch) {
+            moveBatch = batch;
+        }
+    }
+
+    /**
+     * A brick-like object, destroyed by its first contact.
+     */
+    private static class DestructibleBox extends Box implements Destructible {
+        private boolean destroyed = false;
+
+        DestructibleBox(float x, float y, float width, float height) {
+            super(x, y, width, height);
+        }
+
+        @Override
+        public void onContact(GameObject other, Vector2 normal) {
+            super.onContact(other, normal);
+            destroyed = true;
+        }
+
+        @Override
+        public boolean isDestroyed() {
+            return destroyed;
+        }
+    }
+}
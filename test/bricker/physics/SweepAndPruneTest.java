@@ -0,0 +1,118 @@
+package bricker.physics;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that {@link SweepAndPrune} finds the same new contacts as testing every pair of objects, frame after
+ * frame, as the objects move, come and go.
+ */
+class SweepAndPruneTest {
+    private static final CollisionCategory[] CATEGORIES = {CollisionCategory.BALL, CollisionCategory.PUCK,
+            CollisionCategory.HEART, CollisionCategory.PADDLE};
+
+    @Test
+    void newContactsMatchTestingEveryPair() {
+        Random random = new Random(5);
+        List<GameObject> objects = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            objects.add(randomBox(random));
+        }
+        SweepAndPrune broadphase = new SweepAndPrune(CollisionMatrix.STANDARD);
+        Set<Long> wasTouching = new HashSet<>();
+        long contacts = 0;
+        for (int frame = 0; frame < 200; frame++) {
+            // a few objects leave and come, and all of them move a little
+            for (int i = 0; i < 3; i++) {
+                objects.set(random.nextInt(objects.size()), randomBox(random));
+            }
+            for (GameObject gameObject : objects) {
+                gameObject.setTopLeftCorner(gameObject.getTopLeftCorner().add(
+                        new Vector2(random.nextFloat() * 16 - 8, random.nextFloat() * 16 - 8)));
+                ((Box) gameObject).told.clear();
+            }
+            broadphase.update(objects);
+
+            Set<Long> touching = new HashSet<>();
+            for (int i = 0; i < objects.size(); i++) {
+                Box first = (Box) objects.get(i);
+                for (int j = i + 1; j < objects.size(); j++) {
+                    Box second = (Box) objects.get(j);
+                    if (CollisionMatrix.STANDARD.canCollide(first, second) && touch(first, second)) {
+                        touching.add(pairKey(first, second));
+                    }
+                }
+            }
+            assertEquals(touching.size(), broadphase.getTouchingPairs(), "touching pairs on frame " + frame);
+            for (GameObject gameObject : objects) {
+                Box box = (Box) gameObject;
+                Set<Box> expected = new HashSet<>();
+                for (GameObject other : objects) {
+                    long key = pairKey(box, (Box) other);
+                    if (other != box && touching.contains(key) && !wasTouching.contains(key)) {
+                        expected.add((Box) other);
+                    }
+                }
+                assertEquals(expected.size(), box.told.size(), "contacts told twice on frame " + frame);
+                assertEquals(expected, new HashSet<>(box.told), "new contacts of a box on frame " + frame);
+                contacts += expected.size();
+            }
+            wasTouching = touching;
+        }
+        assertEquals(objects.size(), broadphase.getTrackedObjects());
+        assertEquals(true, contacts > 1000, "too few contacts to test: " + contacts);
+    }
+
+    private static Box randomBox(Random random) {
+        return new Box(random.nextFloat() * 800, random.nextFloat() * 600, 10 + random.nextFloat() * 30,
+                10 + random.nextFloat() * 30, CATEGORIES[random.nextInt(CATEGORIES.length)]);
+    }
+
+    private static boolean touch(GameObject first, GameObject second) {
+        Vector2 a = first.getTopLeftCorner();
+        Vector2 b = second.getTopLeftCorner();
+        return a.x() <= b.x() + second.getDimensions().x() && b.x() <= a.x() + first.getDimensions().x()
+                && a.y() <= b.y() + second.getDimensions().y() && b.y() <= a.y() + first.getDimensions().y();
+    }
+
+    private static long pairKey(Box first, Box second) {
+        int low = Math.min(first.id, second.id);
+        int high = Math.max(first.id, second.id);
+        return (long) low << 32 | high;
+    }
+
+    /**
+     * An object of a category, keeping the objects it is told it touches.
+     */
+    private static class Box extends GameObject implements ContactHandler, Categorized {
+        private static int nextId = 0;
+
+        private final int id = nextId++;
+        private final CollisionCategory category;
+        private final List<Box> told = new ArrayList<>();
+
+        Box(float x, float y, float width, float height, CollisionCategory category) {
+            super(new Vector2(x, y), new Vector2(width, height), null);
+            this.category = category;
+        }
+
+        @Override
+        public void onContact(GameObject other, Vector2 normal) {
+            told.add((Box) other);
+        }
+
+        @Override
+        public CollisionCategory getCollisionCategory() {
+            return category;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package bricker.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests that an {@link AliasTable} samples its outcomes in proportion to their weights.
+ */
+class AliasTableTest {
+    private static final int SAMPLES = 1_000_000;
+
+    @Test
+    void outcomesAreSampledInProportionToTheirWeights() {
+        double[] weights = {1, 2, 3, 0, 4, 0.5};
+        AliasTable table = new AliasTable(weights);
+        GameRandom random = new GameRandom(7);
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        for (int i = 0; i < weights.length; i++) {
+            double expected = weights[i] / total;
+            // five standard deviations of the frequency of a binomial count
+            double tolerance = 5 * Math.sqrt(expected * (1 - expected) / SAMPLES);
+            assertEquals(expected, (double) counts[i] / SAMPLES, tolerance, "outcome " + i);
+        }
+        assertEquals(0, counts[3], "an outcome of weight 0 is never sampled");
+    }
+
+    @Test
+    void aSingleOutcomeIsAlwaysSampled() {
+        AliasTable table = new AliasTable(new double[]{0.25});
+        GameRandom random = new GameRandom(7);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, table.sample(random));
+        }
+    }
+
+    @Test
+    void badWeightsAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, -1}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{1, Double.NaN}));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AliasTable(new double[]{1, Double.POSITIVE_INFINITY}));
+        assertThrows(IllegalArgumentException.class, () -> new AliasTable(new double[]{0, 0}));
+    }
+}